@@ -5,127 +5,181 @@ import com.google.common.collect.Maps;
 import io.trino.jdbc.TrinoDriver;
 
 import java.io.BufferedWriter;
-import java.io.File;
-import java.io.FileWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.sql.*;
-import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.Properties;
-import java.util.concurrent.CountDownLatch;
+import java.util.Queue;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
-import java.util.concurrent.atomic.AtomicInteger;
 
 /**
+ * 导出 hive catalog 下所有表和视图的建表语句，每个 schema 一个文件。
+ * <p>
+ * 表清单通过一次 information_schema 查询获得，不再每个 schema 一次 SHOW TABLES；
+ * 建表语句按 schema 有界并发获取，每个工作线程复用一个连接，结果按表名顺序流式写入文件。
+ * 单条语句由服务端超时取消，失败的表在结束时汇总输出。
+ *
  * @author ZuoYe
  * @Date 2023年03月29日
  */
 public class TrinoExport {
 
-    private static final ExecutorService threadPool = Executors.newFixedThreadPool(10);
+    private static final String CATALOG = "hive";
+    private static final int PARALLELISM = 10;
+    private static final int FLUSH_INTERVAL = 100;
+    private static final int QUERY_TIMEOUT_SECONDS = (int) TimeUnit.MINUTES.toSeconds(10);
+
+    // 每个工作线程一个连接，出错的连接被丢弃，下次在该线程上重新建立
+    private final ThreadLocal<Connection> workerConnection = new ThreadLocal<>();
+    private final Set<Connection> openConnections = ConcurrentHashMap.newKeySet();
+    private final Queue<String> failures = new ConcurrentLinkedQueue<>();
 
     public static void main(String[] args) throws Exception {
         long starTime = System.currentTimeMillis();
-        List<String> schemas = Lists.newArrayList();
 
         TrinoExport export = new TrinoExport();
-        try (Connection connection = export.getConnection();
-        PreparedStatement statement = connection.prepareStatement("show schemas ");
-            ResultSet resultSet = statement.executeQuery();) {
+        Map<String, List<TableEntry>> schemaTables = export.listTables();
+        System.out.println("schema lists:" + schemaTables.keySet());
+        System.out.println("tables:" + schemaTables.values().stream().mapToInt(List::size).sum());
+
+        ExecutorService threadPool = Executors.newFixedThreadPool(PARALLELISM);
+        try {
+            for (Map.Entry<String, List<TableEntry>> mapEntry : schemaTables.entrySet()) {
+                export.exportSchema(mapEntry.getKey(), mapEntry.getValue(), threadPool);
+                System.out.println("完成schema文件写入：" + mapEntry.getKey());
+            }
+        } finally {
+            threadPool.shutdownNow();
+            threadPool.awaitTermination(1, TimeUnit.MINUTES);
+            export.closeConnections();
+        }
+
+        System.out.println("写入文件完毕,耗时：" + (System.currentTimeMillis() - starTime) / 1000 + "秒！");
+        if (!export.failures.isEmpty()) {
+            System.out.println("导出失败 " + export.failures.size() + " 张表：");
+            export.failures.forEach(System.out::println);
+            System.exit(1);
+        }
+    }
+
+    /**
+     * 一次查询获取整个 catalog 的表和视图清单，按 schema、表名排序。
+     */
+    private Map<String, List<TableEntry>> listTables() throws Exception {
+        Map<String, List<TableEntry>> schemaTables = new TreeMap<>();
+        try (Connection connection = getConnection();
+             PreparedStatement statement = connection.prepareStatement(
+                     "select table_schema, table_name, table_type from " + CATALOG + ".information_schema.tables " +
+                             "where table_schema not in ('default', 'information_schema') " +
+                             "order by table_schema, table_name");
+             ResultSet resultSet = statement.executeQuery()) {
             while (resultSet.next()) {
                 String schema = resultSet.getString(1);
-                if (schema.equals("default") || schema.equals("information_schema")) {
-                    continue;
-                }
-                schemas.add(schema);
+                String fullTableName = CATALOG + "." + schema + "." + resultSet.getString(2);
+                boolean view = "VIEW".equals(resultSet.getString(3));
+                schemaTables.computeIfAbsent(schema, key -> Lists.newArrayList()).add(new TableEntry(fullTableName, view));
             }
-            System.out.println("schema lists:" + schemas);
         }
+        return schemaTables;
+    }
 
+    private void exportSchema(String schema, List<TableEntry> tables, ExecutorService threadPool) throws Exception {
+        Map<TableEntry, Future<String>> ddls = Maps.newLinkedHashMap();
+        for (TableEntry table : tables) {
+            ddls.put(table, threadPool.submit(() -> showCreate(table)));
+        }
 
-        Map<String, List<String>> schemaTables = Maps.newHashMap();
-        CountDownLatch latch = new CountDownLatch(schemas.size());
-        for (String schema : schemas) {
-            threadPool.submit(() -> {
-                try (Connection connection = export.getConnection();
-                     PreparedStatement statement = connection.prepareStatement("show tables from  " + "hive." + schema);
-                     ResultSet resultSet = statement.executeQuery()) {
-                    while (resultSet.next()) {
-                        String table = resultSet.getString(1);
-                        if (schema.equals("default") || schema.equals("information_schema")) {
-                            continue;
-                        }
-                        schemaTables.computeIfAbsent(schema,key -> new ArrayList<String>()).add(table);
-                    }
-                } catch (Exception e) {
-                    e.printStackTrace();
-                } finally {
-                    latch.countDown();
+        // 只有当前线程写文件，按提交顺序消费结果，无需加锁
+        Path file = Paths.get(schema);
+        int count = 0;
+        try (BufferedWriter fileWriter = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            for (Map.Entry<TableEntry, Future<String>> entry : ddls.entrySet()) {
+                TableEntry table = entry.getKey();
+                String ddl = awaitDdl(table, entry.getValue());
+                if (ddl == null) {
+                    continue;
                 }
-            });
+                fileWriter.newLine();
+                fileWriter.newLine();
+                fileWriter.append(table.isView() ? "drop view " : "drop table ").append(table.getName()).append(";");
+                fileWriter.newLine();
+                fileWriter.append(ddl).append(";");
+                if (++count % FLUSH_INTERVAL == 0) {
+                    System.out.println("完成" + FLUSH_INTERVAL + "张表写入:" + schema);
+                    fileWriter.flush();
+                }
+            }
         }
+    }
 
-        latch.await(1, TimeUnit.MINUTES);
-        System.out.println("tables:" + schemaTables.size());
+    /**
+     * 单张表失败只记录并跳过，不中断整个导出。语句超时由服务端取消，以失败返回。
+     */
+    private String awaitDdl(TableEntry table, Future<String> ddl) throws InterruptedException {
+        try {
+            return ddl.get();
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            failures.add(table.getName() + ": " + cause);
+            System.out.println("show create 失败: " + table.getName() + ", " + cause);
+            return null;
+        }
+    }
 
-        Map<String, File> files = Maps.newHashMap();
-        for (Map.Entry<String, List<String>> mapEntry : schemaTables.entrySet()) {
-            File file = new File(mapEntry.getKey());
-            if (file.exists()) {
-                file.delete();
+    private String showCreate(TableEntry table) throws Exception {
+        Connection connection = workerConnection();
+        try (Statement statement = connection.createStatement()) {
+            statement.setQueryTimeout(QUERY_TIMEOUT_SECONDS);
+            try (ResultSet resultSet = statement.executeQuery((table.isView() ? "show create view " : "show create table ") + table.getName())) {
+                if (!resultSet.next()) {
+                    throw new SQLException("show create 没有返回结果: " + table.getName());
+                }
+                return resultSet.getString(1);
             }
+        } catch (SQLException | RuntimeException e) {
+            // 出错后无法确认连接是否仍然可用，不再复用
+            discardConnection(connection);
+            throw e;
+        }
+    }
 
-            if (!file.exists()) {
-                file.createNewFile();
-            }
-            files.put(mapEntry.getKey(), file);
-
-            List<String> tables = mapEntry.getValue();
-
-            BufferedWriter fileWriter = new BufferedWriter(new FileWriter(file));
-
-
-            AtomicInteger count = new AtomicInteger();
-            CountDownLatch tableLatch = new CountDownLatch(tables.size());
-            for (String table : tables) {
-                String fullTableName = "hive." + mapEntry.getKey() + "." + table;
-                threadPool.submit(() -> {
-                    try (Connection connection = export.getConnection();
-                         PreparedStatement statement = connection.prepareStatement("show create table " + fullTableName);
-                         ResultSet resultSet = statement.executeQuery()) {
-                        while (resultSet.next()) {
-                            synchronized (fileWriter) {
-                                fileWriter.newLine();
-                                fileWriter.newLine();
-                                fileWriter.append("drop table " + fullTableName + ";");
-
-                                fileWriter.newLine();
-                                fileWriter.append(resultSet.getString(1) + ";");
-                                count.addAndGet(1);
-                                if (count.get() % 100 == 0) {
-                                    System.out.println("完成100张表写入:" + mapEntry.getKey());
-                                    fileWriter.flush();
-                                    count.set(0);
-                                }
-                            }
-                        }
-                    } catch (Exception e) {
-//                        e.printStackTrace();
-                        System.out.println("show create table " + fullTableName);
-                    } finally {
-                        tableLatch.countDown();
-                    }
-                });
-            }
-            tableLatch.await(10, TimeUnit.MINUTES);
-            System.out.println("完成schema文件写入：" + mapEntry.getKey());
-            fileWriter.flush();
-            fileWriter.close();
+    private Connection workerConnection() throws Exception {
+        Connection connection = workerConnection.get();
+        if (connection == null) {
+            connection = getConnection();
+            openConnections.add(connection);
+            workerConnection.set(connection);
+        }
+        return connection;
+    }
+
+    private void discardConnection(Connection connection) {
+        workerConnection.remove();
+        openConnections.remove(connection);
+        try {
+            connection.close();
+        } catch (SQLException e) {
+            System.out.println("关闭连接失败: " + e);
         }
+    }
 
-        System.out.println("写入文件完毕,耗时：" + (System.currentTimeMillis() - starTime) / 1000 + "秒！");
+    private void closeConnections() throws SQLException {
+        for (Connection connection : openConnections) {
+            connection.close();
+        }
+        openConnections.clear();
     }
 
     public Connection getConnection() throws Exception {
@@ -139,4 +193,23 @@ public class TrinoExport {
         Connection connection = DriverManager.getConnection(url, properties);
         return connection;
     }
+
+    private static final class TableEntry {
+
+        private final String name;
+        private final boolean view;
+
+        private TableEntry(String name, boolean view) {
+            this.name = name;
+            this.view = view;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public boolean isView() {
+            return view;
+        }
+    }
 }
@@ -1,91 +1,205 @@
 package com.zuoye.trino.schema;
 
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Lists;
-import com.google.common.collect.Maps;
-import com.zuoye.trino.export.TrinoExport;
 import io.trino.jdbc.TrinoDriver;
 
-import java.io.BufferedWriter;
-import java.io.File;
-import java.io.FileWriter;
 import java.sql.*;
-import java.util.ArrayList;
 import java.util.List;
-import java.util.Map;
 import java.util.Properties;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
 
 /**
+ * 批量删除 schema 下所有表后删除 schema 本身，参数为一个或多个 schema 名。
+ * <p>
+ * 连接从固定大小的连接池中复用；并发度根据观测到的 drop 语句耗时自适应调整（加性增、乘性减），
+ * 每个 schema 作为一批提交，结束时输出吞吐量和失败的语句。
+ * 一批超时后取消未完成的删表语句并记为失败，等它们全部退出后才处理下一个 schema。
+ *
  * @author ZhangXueJun
  * @Date 2023年04月11日
  */
 public class TrinoSchemaDrop {
 
-    private static final ExecutorService threadPool = Executors.newFixedThreadPool(10);
+    private static final String CATALOG = "hive";
+    private static final int MAX_CONCURRENCY = 10;
+    private static final int MIN_CONCURRENCY = 1;
+    private static final long BATCH_TIMEOUT_MINUTES = 10;
+    // 取消后等待执行中的语句退出的时间
+    private static final long CANCEL_GRACE_MINUTES = 1;
+    // 系统 schema 不允许删除
+    private static final Set<String> PROTECTED_SCHEMAS = ImmutableSet.of("default", "information_schema");
+
+    private final BlockingQueue<Connection> connections = new ArrayBlockingQueue<>(MAX_CONCURRENCY);
+    private final AdaptiveLimiter limiter = new AdaptiveLimiter(MIN_CONCURRENCY, MAX_CONCURRENCY);
+    private final Queue<String> failures = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger dropped = new AtomicInteger();
+    private final Set<Statement> runningStatements = ConcurrentHashMap.newKeySet();
 
     public static void main(String[] args) throws Exception {
         long starTime = System.currentTimeMillis();
-        List<String> schemas = Lists.newArrayList(args[0]);
-        TrinoSchemaDrop schemaDrop = new TrinoSchemaDrop();
+        List<String> schemas = Lists.newArrayList(args);
 
-        List<String> schemaTables = Lists.newArrayList();
-        CountDownLatch latch = new CountDownLatch(schemas.size());
-        for (String schema : schemas) {
-            threadPool.submit(() -> {
-                try (Connection connection = schemaDrop.getConnection();
-                     PreparedStatement statement = connection.prepareStatement("show tables from  " + "hive." + schema);
-                     ResultSet resultSet = statement.executeQuery()) {
-                    while (resultSet.next()) {
-                        String table = resultSet.getString(1);
-                        if (schema.equals("default") || schema.equals("information_schema")) {
-                            continue;
-                        }
-                        schemaTables.add("hive."+ schema + "." + table);
-                    }
-                } catch (Exception e) {
-                    e.printStackTrace();
-                } finally {
-                    latch.countDown();
+        TrinoSchemaDrop schemaDrop = new TrinoSchemaDrop();
+        ExecutorService threadPool = Executors.newFixedThreadPool(MAX_CONCURRENCY);
+        try {
+            for (int i = 0; i < MAX_CONCURRENCY; i++) {
+                schemaDrop.connections.add(schemaDrop.getConnection());
+            }
+            for (int i = 0; i < schemas.size(); i++) {
+                if (!schemaDrop.dropSchema(schemas.get(i), threadPool)) {
+                    schemaDrop.failures.add("未处理的schema: " + schemas.subList(i + 1, schemas.size()));
+                    break;
                 }
-            });
+            }
+        } finally {
+            threadPool.shutdownNow();
+            for (Connection connection : schemaDrop.connections) {
+                connection.close();
+            }
         }
 
-        latch.await(1, TimeUnit.MINUTES);
-        System.out.println("tables:" + schemaTables.size());
+        long elapsedMillis = Math.max(System.currentTimeMillis() - starTime, 1);
+        System.out.println("删除表完毕: 成功 " + schemaDrop.dropped.get() + " 张, 失败 " + schemaDrop.failures.size() +
+                " 条, 耗时：" + elapsedMillis / 1000 + "秒, 吞吐: " + schemaDrop.dropped.get() * 1000L / elapsedMillis + " 张/秒");
+        for (String failure : schemaDrop.failures) {
+            System.out.println("失败: " + failure);
+        }
+    }
 
-        CountDownLatch latch1 = new CountDownLatch(schemaTables.size());
-        for (String schemaTable : schemaTables) {
+    /**
+     * 返回 false 表示超时取消后仍有删表语句没有退出，它们还占用连接和并发额度，不能继续处理后续 schema。
+     */
+    private boolean dropSchema(String schema, ExecutorService threadPool) throws Exception {
+        if (PROTECTED_SCHEMAS.contains(schema)) {
+            System.out.println("跳过系统schema: " + schema);
+            return true;
+        }
+        long starTime = System.currentTimeMillis();
+        List<String> tables = listTables(schema);
+        System.out.println("schema " + schema + " tables:" + tables.size());
+
+        CountDownLatch latch = new CountDownLatch(tables.size());
+        AtomicBoolean cancelled = new AtomicBoolean();
+        for (String table : tables) {
+            limiter.acquire();
             threadPool.submit(() -> {
-                try (Connection connection = schemaDrop.getConnection();
-                     Statement statement = connection.createStatement();
-                     ) {
-                    boolean resultSet = statement.execute("drop table  " + schemaTable);
-                } catch (Exception e) {
-                    e.printStackTrace();
-                }  finally {
-                    latch1.countDown();
+                try {
+                    dropTable(CATALOG + "." + schema + "." + table, cancelled);
+                } finally {
+                    limiter.release();
+                    latch.countDown();
                 }
             });
         }
+        if (!latch.await(BATCH_TIMEOUT_MINUTES, TimeUnit.MINUTES)) {
+            // 排队中的任务不再执行，执行中的语句在服务端取消，各自记为失败
+            cancelled.set(true);
+            for (Statement statement : runningStatements) {
+                cancelStatement(statement);
+            }
+            if (!latch.await(CANCEL_GRACE_MINUTES, TimeUnit.MINUTES)) {
+                failures.add("drop tables from " + schema + ": " + latch.getCount() + " statements did not stop after cancel");
+                return false;
+            }
+            failures.add("drop schema " + CATALOG + "." + schema + ": skipped, dropping tables timed out");
+            return true;
+        }
 
-        latch1.await(10, TimeUnit.MINUTES);
+        String dropSchema = "drop schema " + CATALOG + "." + schema;
+        try {
+            execute(dropSchema);
+        } catch (Exception e) {
+            failures.add(dropSchema + ": " + e.getMessage());
+        }
+        System.out.println("完成schema删除：" + schema + ", 耗时：" + (System.currentTimeMillis() - starTime) / 1000 +
+                "秒, 当前并发度: " + limiter.getLimit());
+        return true;
+    }
 
+    private List<String> listTables(String schema) throws Exception {
+        ImmutableList.Builder<String> tables = ImmutableList.builder();
+        Connection connection = connections.take();
+        try (PreparedStatement statement = connection.prepareStatement("show tables from " + CATALOG + "." + schema);
+             ResultSet resultSet = statement.executeQuery()) {
+            while (resultSet.next()) {
+                tables.add(resultSet.getString(1));
+            }
+        } finally {
+            connections.add(connection);
+        }
+        return tables.build();
+    }
 
-        try (Connection connection = schemaDrop.getConnection();
-             Statement statement = connection.createStatement();
-             ) {
-            boolean resultSet = statement.execute("drop schema hive." + args[0]);
+    /**
+     * 只有删表计入成功数，并参与并发度调整；耗时从拿到连接后开始计算，不包含排队等待连接的时间。
+     */
+    private void dropTable(String fullTableName, AtomicBoolean cancelled) {
+        String sql = "drop table " + fullTableName;
+        Connection connection = null;
+        try {
+            connection = connections.take();
+            long start = System.nanoTime();
+            try (Statement statement = connection.createStatement()) {
+                runningStatements.add(statement);
+                try {
+                    // 在登记之后检查，保证超时时要么不执行，要么能被取消
+                    if (cancelled.get()) {
+                        failures.add(sql + ": cancelled, timed out");
+                        return;
+                    }
+                    statement.execute(sql);
+                } finally {
+                    runningStatements.remove(statement);
+                }
+            }
+            limiter.onSuccess(System.nanoTime() - start);
+            dropped.incrementAndGet();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            failures.add(sql + ": interrupted");
         } catch (Exception e) {
-            e.printStackTrace();
-        }  finally {
-            latch1.countDown();
+            if (cancelled.get()) {
+                // 超时取消导致的失败不代表服务端变慢，不调整并发度
+                failures.add(sql + ": cancelled, timed out");
+            } else {
+                limiter.onFailure();
+                failures.add(sql + ": " + e.getMessage());
+            }
+        } finally {
+            if (connection != null) {
+                connections.add(connection);
+            }
+        }
+    }
+
+    private void cancelStatement(Statement statement) {
+        try {
+            statement.cancel();
+        } catch (SQLException e) {
+            System.out.println("取消语句失败: " + e);
         }
+    }
 
-        System.out.println("删除表完毕,耗时：" + (System.currentTimeMillis() - starTime) / 1000 + "秒！");
+    private void execute(String sql) throws Exception {
+        Connection connection = connections.take();
+        try (Statement statement = connection.createStatement()) {
+            statement.execute(sql);
+        } finally {
+            connections.add(connection);
+        }
     }
 
     public Connection getConnection() throws Exception {
@@ -99,4 +213,58 @@ public class TrinoSchemaDrop {
         Connection connection = DriverManager.getConnection(url, properties);
         return connection;
     }
+
+    /**
+     * 基于语句耗时的 AIMD 并发控制：耗时接近历史最小值时并发度加一，
+     * 明显变慢或失败时减半。
+     */
+    private static class AdaptiveLimiter {
+
+        private final int minLimit;
+        private final int maxLimit;
+
+        private int limit;
+        private int inFlight;
+        private long minLatencyNanos = Long.MAX_VALUE;
+        private double averageLatencyNanos;
+
+        private AdaptiveLimiter(int minLimit, int maxLimit) {
+            this.minLimit = minLimit;
+            this.maxLimit = maxLimit;
+            this.limit = minLimit;
+        }
+
+        public synchronized void acquire() throws InterruptedException {
+            while (inFlight >= limit) {
+                wait();
+            }
+            inFlight++;
+        }
+
+        public synchronized void release() {
+            inFlight--;
+            notifyAll();
+        }
+
+        public synchronized void onSuccess(long latencyNanos) {
+            minLatencyNanos = Math.min(minLatencyNanos, latencyNanos);
+            averageLatencyNanos = averageLatencyNanos == 0 ? latencyNanos : averageLatencyNanos * 0.9 + latencyNanos * 0.1;
+            if (averageLatencyNanos > minLatencyNanos * 2) {
+                limit = Math.max(minLimit, limit / 2);
+                // 以当前平均值为新基线，避免持续减半
+                minLatencyNanos = (long) averageLatencyNanos;
+            } else if (limit < maxLimit) {
+                limit++;
+            }
+            notifyAll();
+        }
+
+        public synchronized void onFailure() {
+            limit = Math.max(minLimit, limit / 2);
+        }
+
+        public synchronized int getLimit() {
+            return limit;
+        }
+    }
 }
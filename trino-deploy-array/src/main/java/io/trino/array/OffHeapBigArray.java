@@ -0,0 +1,238 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.trino.array;
+
+import io.airlift.slice.SizeOf;
+import io.trino.memory.context.LocalMemoryContext;
+import sun.misc.Unsafe;
+
+import java.lang.ref.Cleaner;
+import java.lang.reflect.Field;
+import java.util.Arrays;
+
+import static io.trino.array.BigArrays.SEGMENT_SIZE;
+import static io.trino.array.BigArrays.offset;
+import static io.trino.array.BigArrays.segment;
+import static java.lang.ref.Reference.reachabilityFence;
+import static java.util.Objects.checkFromIndexSize;
+import static java.util.Objects.checkIndex;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Segmented big array whose segments are allocated outside of the Java heap, so that large
+ * arrays do not put many mid-sized objects on the heap. The native memory is reported to the
+ * memory context and must be released with {@link #close()}. If an array is not closed, its
+ * native memory is freed once the array is garbage collected, but it stays reported to the memory
+ * context. Accesses are bounds checked against the capacity, which is zero once the array is closed.
+ * <p>
+ * Subclasses must keep the array reachable while they access its native memory, with
+ * {@link java.lang.ref.Reference#reachabilityFence}, so that the memory is not freed during the access.
+ */
+abstract class OffHeapBigArray
+        implements AutoCloseable
+{
+    static final Unsafe UNSAFE;
+
+    static {
+        try {
+            Field field = Unsafe.class.getDeclaredField("theUnsafe");
+            field.setAccessible(true);
+            UNSAFE = (Unsafe) field.get(null);
+        }
+        catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    private static final Cleaner CLEANER = Cleaner.create();
+
+    private static final long[] CLOSED = new long[0];
+
+    private final int elementShift;
+    private final long segmentBytes;
+    private final LocalMemoryContext memoryContext;
+    private final NativeSegments nativeSegments;
+    private final Cleaner.Cleanable cleanable;
+
+    // native address of each segment, shared with nativeSegments
+    private long[] segmentAddresses;
+    private long capacity;
+    private int segments;
+
+    OffHeapBigArray(int elementShift, LocalMemoryContext memoryContext)
+    {
+        this.elementShift = elementShift;
+        this.segmentBytes = ((long) SEGMENT_SIZE) << elementShift;
+        this.memoryContext = requireNonNull(memoryContext, "memoryContext is null");
+        segmentAddresses = new long[BigArrays.INITIAL_SEGMENTS];
+        nativeSegments = new NativeSegments(segmentAddresses);
+        cleanable = CLEANER.register(this, nativeSegments);
+    }
+
+    /**
+     * Fills a newly allocated segment with the initial value.
+     */
+    abstract void initializeSegment(long address);
+
+    final long address(long index)
+    {
+        // a closed array has no capacity, so access fails instead of touching freed memory
+        checkIndex(index, capacity);
+        return segmentAddresses[segment(index)] + (((long) offset(index)) << elementShift);
+    }
+
+    final long segmentAddress(int segment)
+    {
+        return segmentAddresses[segment];
+    }
+
+    final int getSegmentCount()
+    {
+        return segments;
+    }
+
+    /**
+     * Returns the heap size of this big array in bytes. The native memory of the segments is not
+     * included, because it is already reported to the memory context; see {@link #getNativeBytes()}.
+     */
+    public long sizeOf()
+    {
+        return instanceSize() + SizeOf.sizeOf(segmentAddresses);
+    }
+
+    abstract long instanceSize();
+
+    /**
+     * Returns the native memory allocated for the segments of this big array.
+     */
+    public long getNativeBytes()
+    {
+        return segments * segmentBytes;
+    }
+
+    /**
+     * Ensures this big array is at least the specified length.  If the array is smaller, segments
+     * are added until the array is larger then the specified length.
+     */
+    public void ensureCapacity(long length)
+    {
+        if (length < 0) {
+            throw new IllegalArgumentException("length is negative: " + length);
+        }
+        if (capacity > length) {
+            return;
+        }
+
+        grow(length);
+    }
+
+    /**
+     * Copies {@code length} elements starting at {@code sourceIndex} to {@code destinationIndex}
+     * of a big array with the same element size.
+     */
+    final void copyTo(long sourceIndex, OffHeapBigArray destination, long destinationIndex, long length)
+    {
+        checkFromIndexSize(sourceIndex, length, capacity);
+        checkFromIndexSize(destinationIndex, length, destination.capacity);
+        while (length > 0) {
+            int copyLength = Math.min(SEGMENT_SIZE - offset(sourceIndex), SEGMENT_SIZE - offset(destinationIndex));
+            copyLength = (int) Math.min(copyLength, length);
+
+            UNSAFE.copyMemory(address(sourceIndex), destination.address(destinationIndex), ((long) copyLength) << elementShift);
+
+            sourceIndex += copyLength;
+            destinationIndex += copyLength;
+            length -= copyLength;
+        }
+        reachabilityFence(this);
+        reachabilityFence(destination);
+    }
+
+    /**
+     * Frees the native memory of this big array.
+     */
+    @Override
+    public void close()
+    {
+        if (segmentAddresses == CLOSED) {
+            return;
+        }
+        cleanable.clean();
+        segmentAddresses = CLOSED;
+        segments = 0;
+        capacity = 0;
+        memoryContext.setBytes(0);
+    }
+
+    final void allocateInitialSegment()
+    {
+        allocateNewSegment();
+    }
+
+    private void grow(long length)
+    {
+        // how many segments are required to get to the length?
+        int requiredSegments = segment(length) + 1;
+
+        // grow base array if necessary
+        if (segmentAddresses.length < requiredSegments) {
+            segmentAddresses = Arrays.copyOf(segmentAddresses, requiredSegments);
+            nativeSegments.addresses = segmentAddresses;
+        }
+
+        // add new segments
+        while (segments < requiredSegments) {
+            allocateNewSegment();
+        }
+    }
+
+    private void allocateNewSegment()
+    {
+        if (segmentAddresses == CLOSED) {
+            throw new IllegalStateException("big array is closed");
+        }
+        long address = UNSAFE.allocateMemory(segmentBytes);
+        initializeSegment(address);
+        segmentAddresses[segments] = address;
+        capacity += SEGMENT_SIZE;
+        segments++;
+        nativeSegments.count = segments;
+        memoryContext.setBytes(getNativeBytes());
+    }
+
+    /**
+     * Frees the segments of a big array, either when it is closed or when it becomes unreachable.
+     * It must not reference the big array, otherwise the array never becomes unreachable.
+     */
+    private static final class NativeSegments
+            implements Runnable
+    {
+        private long[] addresses;
+        private int count;
+
+        private NativeSegments(long[] addresses)
+        {
+            this.addresses = addresses;
+        }
+
+        @Override
+        public void run()
+        {
+            for (int i = 0; i < count; i++) {
+                UNSAFE.freeMemory(addresses[i]);
+            }
+            count = 0;
+        }
+    }
+}
@@ -0,0 +1,142 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.trino.array;
+
+import io.trino.memory.context.LocalMemoryContext;
+import org.openjdk.jol.info.ClassLayout;
+
+import static io.trino.array.BigArrays.SEGMENT_SIZE;
+import static java.lang.ref.Reference.reachabilityFence;
+
+/**
+ * Off-heap counterpart of {@link DoubleBigArray}.
+ *
+ * @see OffHeapBigArray
+ */
+public final class OffHeapDoubleBigArray
+        extends OffHeapBigArray
+{
+    private static final int INSTANCE_SIZE = ClassLayout.parseClass(OffHeapDoubleBigArray.class).instanceSize();
+
+    private final double initialValue;
+
+    /**
+     * Creates a new big array containing one initial segment
+     */
+    public OffHeapDoubleBigArray(LocalMemoryContext memoryContext)
+    {
+        this(0.0, memoryContext);
+    }
+
+    /**
+     * Creates a new big array containing one initial segment filled with the specified default value
+     */
+    public OffHeapDoubleBigArray(double initialValue, LocalMemoryContext memoryContext)
+    {
+        super(3, memoryContext);
+        this.initialValue = initialValue;
+        allocateInitialSegment();
+    }
+
+    @Override
+    long instanceSize()
+    {
+        return INSTANCE_SIZE;
+    }
+
+    /**
+     * Returns the element of this big array at specified index.
+     *
+     * @param index a position in this big array.
+     * @return the element of this big array at the specified position.
+     */
+    public double get(long index)
+    {
+        try {
+            return UNSAFE.getDouble(address(index));
+        }
+        finally {
+            reachabilityFence(this);
+        }
+    }
+
+    /**
+     * Sets the element of this big array at specified index.
+     *
+     * @param index a position in this big array.
+     */
+    public void set(long index, double value)
+    {
+        try {
+            UNSAFE.putDouble(address(index), value);
+        }
+        finally {
+            reachabilityFence(this);
+        }
+    }
+
+    /**
+     * Adds the specified value to the specified element of this big array.
+     *
+     * @param index a position in this big array.
+     * @param value the value
+     */
+    public void add(long index, double value)
+    {
+        try {
+            long address = address(index);
+            UNSAFE.putDouble(address, UNSAFE.getDouble(address) + value);
+        }
+        finally {
+            reachabilityFence(this);
+        }
+    }
+
+    /**
+     * Copies {@code length} elements of this array, beginning at {@code sourceIndex}, to the
+     * positions starting at {@code destinationIndex} of the destination array.
+     */
+    public void copyTo(long sourceIndex, OffHeapDoubleBigArray destination, long destinationIndex, long length)
+    {
+        super.copyTo(sourceIndex, destination, destinationIndex, length);
+    }
+
+    /**
+     * Fills the entire big array with the specified value.
+     */
+    public void fill(double value)
+    {
+        try {
+            for (int segment = 0; segment < getSegmentCount(); segment++) {
+                fillSegment(segmentAddress(segment), value);
+            }
+        }
+        finally {
+            reachabilityFence(this);
+        }
+    }
+
+    @Override
+    void initializeSegment(long address)
+    {
+        fillSegment(address, initialValue);
+    }
+
+    private static void fillSegment(long address, double value)
+    {
+        for (int i = 0; i < SEGMENT_SIZE; i++) {
+            UNSAFE.putDouble(address + (((long) i) << 3), value);
+        }
+    }
+}
@@ -0,0 +1,158 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.trino.array;
+
+import io.trino.memory.context.LocalMemoryContext;
+import org.openjdk.jol.info.ClassLayout;
+
+import static io.trino.array.BigArrays.SEGMENT_SIZE;
+import static java.lang.ref.Reference.reachabilityFence;
+
+/**
+ * Off-heap counterpart of {@link LongBigArray}.
+ *
+ * @see OffHeapBigArray
+ */
+public final class OffHeapLongBigArray
+        extends OffHeapBigArray
+{
+    private static final int INSTANCE_SIZE = ClassLayout.parseClass(OffHeapLongBigArray.class).instanceSize();
+
+    private final long initialValue;
+
+    /**
+     * Creates a new big array containing one initial segment
+     */
+    public OffHeapLongBigArray(LocalMemoryContext memoryContext)
+    {
+        this(0L, memoryContext);
+    }
+
+    /**
+     * Creates a new big array containing one initial segment filled with the specified default value
+     */
+    public OffHeapLongBigArray(long initialValue, LocalMemoryContext memoryContext)
+    {
+        super(3, memoryContext);
+        this.initialValue = initialValue;
+        allocateInitialSegment();
+    }
+
+    @Override
+    long instanceSize()
+    {
+        return INSTANCE_SIZE;
+    }
+
+    /**
+     * Returns the element of this big array at specified index.
+     *
+     * @param index a position in this big array.
+     * @return the element of this big array at the specified position.
+     */
+    public long get(long index)
+    {
+        try {
+            return UNSAFE.getLong(address(index));
+        }
+        finally {
+            reachabilityFence(this);
+        }
+    }
+
+    /**
+     * Sets the element of this big array at specified index.
+     *
+     * @param index a position in this big array.
+     */
+    public void set(long index, long value)
+    {
+        try {
+            UNSAFE.putLong(address(index), value);
+        }
+        finally {
+            reachabilityFence(this);
+        }
+    }
+
+    /**
+     * Increments the element of this big array at specified index.
+     *
+     * @param index a position in this big array.
+     */
+    public void increment(long index)
+    {
+        try {
+            long address = address(index);
+            UNSAFE.putLong(address, UNSAFE.getLong(address) + 1);
+        }
+        finally {
+            reachabilityFence(this);
+        }
+    }
+
+    /**
+     * Adds the specified value to the specified element of this big array.
+     *
+     * @param index a position in this big array.
+     * @param value the value
+     */
+    public void add(long index, long value)
+    {
+        try {
+            long address = address(index);
+            UNSAFE.putLong(address, UNSAFE.getLong(address) + value);
+        }
+        finally {
+            reachabilityFence(this);
+        }
+    }
+
+    /**
+     * Copies {@code length} elements of this array, beginning at {@code sourceIndex}, to the
+     * positions starting at {@code destinationIndex} of the destination array.
+     */
+    public void copyTo(long sourceIndex, OffHeapLongBigArray destination, long destinationIndex, long length)
+    {
+        super.copyTo(sourceIndex, destination, destinationIndex, length);
+    }
+
+    /**
+     * Fills the entire big array with the specified value.
+     */
+    public void fill(long value)
+    {
+        try {
+            for (int segment = 0; segment < getSegmentCount(); segment++) {
+                fillSegment(segmentAddress(segment), value);
+            }
+        }
+        finally {
+            reachabilityFence(this);
+        }
+    }
+
+    @Override
+    void initializeSegment(long address)
+    {
+        fillSegment(address, initialValue);
+    }
+
+    private static void fillSegment(long address, long value)
+    {
+        for (int i = 0; i < SEGMENT_SIZE; i++) {
+            UNSAFE.putLong(address + (((long) i) << 3), value);
+        }
+    }
+}
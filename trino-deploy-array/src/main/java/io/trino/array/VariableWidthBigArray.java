@@ -0,0 +1,207 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.trino.array;
+
+import io.airlift.slice.SizeOf;
+import io.airlift.slice.Slice;
+import io.airlift.slice.Slices;
+import org.openjdk.jol.info.ClassLayout;
+
+import java.util.Arrays;
+
+import static io.airlift.slice.SizeOf.sizeOfByteArray;
+import static io.trino.array.BigArrays.SEGMENT_SIZE;
+
+/**
+ * Big array of variable width values, which stores the bytes of the values packed into large
+ * byte chunks instead of keeping a {@link Slice} per position as {@link SliceBigArray} does.
+ * The retained size is exact and does not require tracking slice identities.
+ * <p>
+ * Replacing a value leaves its old bytes in place until the array is compacted, which happens
+ * automatically once more than half of the chunk bytes are unused, or when {@link #compact()} is
+ * called. Slices returned by {@link #get(long)} remain valid after compaction.
+ */
+public final class VariableWidthBigArray
+{
+    private static final int INSTANCE_SIZE = ClassLayout.parseClass(VariableWidthBigArray.class).instanceSize();
+    private static final int CHUNK_SIZE = 64 * 1024;
+    private static final int NULL_LENGTH = -1;
+
+    // chunk index in the high and chunk offset in the low 32 bits
+    private final LongBigArray addresses = new LongBigArray();
+    private final IntBigArray lengths = new IntBigArray(NULL_LENGTH);
+    // number of positions that may hold a value
+    private long capacity = SEGMENT_SIZE;
+
+    private byte[][] chunks = new byte[16][];
+    private int chunkCount;
+    private int currentChunk = -1;
+    private int currentChunkPosition;
+    private long sizeOfChunks;
+    private long usedBytes;
+    private long unusedBytes;
+
+    /**
+     * Returns the size of this big array in bytes.
+     */
+    public long sizeOf()
+    {
+        return INSTANCE_SIZE + addresses.sizeOf() + lengths.sizeOf() + SizeOf.sizeOf(chunks) + sizeOfChunks;
+    }
+
+    /**
+     * Returns the element of this big array at specified index, or null if it has not been set.
+     * The returned slice shares the memory of this array.
+     *
+     * @param index a position in this big array.
+     * @return the element of this big array at the specified position.
+     */
+    public Slice get(long index)
+    {
+        int length = lengths.get(index);
+        if (length == NULL_LENGTH) {
+            return null;
+        }
+        long address = addresses.get(index);
+        return Slices.wrappedBuffer(chunks[chunkIndex(address)], chunkOffset(address), length);
+    }
+
+    public boolean isNull(long index)
+    {
+        return lengths.get(index) == NULL_LENGTH;
+    }
+
+    /**
+     * Returns the length of the element at specified index, which must not be null.
+     */
+    public int getLength(long index)
+    {
+        int length = lengths.get(index);
+        if (length == NULL_LENGTH) {
+            throw new IllegalArgumentException("value is null at " + index);
+        }
+        return length;
+    }
+
+    /**
+     * Sets the element of this big array at specified index. The bytes of the value are copied.
+     *
+     * @param index a position in this big array.
+     */
+    public void set(long index, Slice value)
+    {
+        int currentLength = lengths.get(index);
+        if (currentLength != NULL_LENGTH) {
+            usedBytes -= currentLength;
+            unusedBytes += currentLength;
+        }
+
+        if (value == null) {
+            lengths.set(index, NULL_LENGTH);
+        }
+        else {
+            int length = value.length();
+            long address = allocate(length);
+            value.getBytes(0, chunks[chunkIndex(address)], chunkOffset(address), length);
+            addresses.set(index, address);
+            lengths.set(index, length);
+            usedBytes += length;
+        }
+
+        if (unusedBytes > CHUNK_SIZE && unusedBytes > usedBytes) {
+            compact();
+        }
+    }
+
+    /**
+     * Ensures this big array is at least the specified length.  If the array is smaller, segments
+     * are added until the array is larger then the specified length.
+     */
+    public void ensureCapacity(long length)
+    {
+        addresses.ensureCapacity(length);
+        lengths.ensureCapacity(length);
+        capacity = Math.max(capacity, length + 1);
+    }
+
+    /**
+     * Copies the values into new chunks, dropping the bytes of values that have been replaced.
+     */
+    public void compact()
+    {
+        if (unusedBytes == 0) {
+            return;
+        }
+
+        byte[][] oldChunks = chunks;
+        chunks = new byte[16][];
+        chunkCount = 0;
+        currentChunk = -1;
+        currentChunkPosition = 0;
+        sizeOfChunks = 0;
+
+        for (long index = 0; index < capacity; index++) {
+            int length = lengths.get(index);
+            if (length == NULL_LENGTH) {
+                continue;
+            }
+            long oldAddress = addresses.get(index);
+            long address = allocate(length);
+            System.arraycopy(oldChunks[chunkIndex(oldAddress)], chunkOffset(oldAddress), chunks[chunkIndex(address)], chunkOffset(address), length);
+            addresses.set(index, address);
+        }
+        unusedBytes = 0;
+    }
+
+    private long allocate(int length)
+    {
+        if (length > CHUNK_SIZE) {
+            // large values get a chunk of their own, and the current chunk stays open
+            return address(addChunk(new byte[length]), 0);
+        }
+
+        if (currentChunk < 0 || CHUNK_SIZE - currentChunkPosition < length) {
+            currentChunk = addChunk(new byte[CHUNK_SIZE]);
+            currentChunkPosition = 0;
+        }
+        long address = address(currentChunk, currentChunkPosition);
+        currentChunkPosition += length;
+        return address;
+    }
+
+    private int addChunk(byte[] chunk)
+    {
+        if (chunkCount == chunks.length) {
+            chunks = Arrays.copyOf(chunks, chunkCount * 2);
+        }
+        chunks[chunkCount] = chunk;
+        sizeOfChunks += sizeOfByteArray(chunk.length);
+        return chunkCount++;
+    }
+
+    private static long address(int chunkIndex, int chunkOffset)
+    {
+        return (((long) chunkIndex) << 32) | chunkOffset;
+    }
+
+    private static int chunkIndex(long address)
+    {
+        return (int) (address >>> 32);
+    }
+
+    private static int chunkOffset(long address)
+    {
+        return (int) address;
+    }
+}
@@ -0,0 +1,141 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.trino.array;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import static io.trino.memory.context.AggregatedMemoryContext.newSimpleAggregatedMemoryContext;
+
+@State(Scope.Thread)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@BenchmarkMode(Mode.AverageTime)
+@Fork(2)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@OperationsPerInvocation(BenchmarkOffHeapBigArray.OPERATIONS)
+public class BenchmarkOffHeapBigArray
+{
+    static final int OPERATIONS = 10_000;
+
+    @Param({"1024", "1048576", "16777216"})
+    private int size;
+
+    private LongBigArray onHeap;
+    private OffHeapLongBigArray offHeap;
+    private long[] indexes;
+
+    @Setup
+    public void setup()
+    {
+        onHeap = new LongBigArray();
+        onHeap.ensureCapacity(size);
+        offHeap = new OffHeapLongBigArray(newSimpleAggregatedMemoryContext().newLocalMemoryContext(BenchmarkOffHeapBigArray.class.getSimpleName()));
+        offHeap.ensureCapacity(size);
+
+        indexes = new long[OPERATIONS];
+        for (int i = 0; i < OPERATIONS; i++) {
+            indexes[i] = ThreadLocalRandom.current().nextInt(size);
+        }
+    }
+
+    @TearDown
+    public void tearDown()
+    {
+        offHeap.close();
+    }
+
+    @Benchmark
+    public long randomGetOnHeap()
+    {
+        long sum = 0;
+        for (long index : indexes) {
+            sum += onHeap.get(index);
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public long randomGetOffHeap()
+    {
+        long sum = 0;
+        for (long index : indexes) {
+            sum += offHeap.get(index);
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public LongBigArray randomAddOnHeap()
+    {
+        for (long index : indexes) {
+            onHeap.add(index, index);
+        }
+        return onHeap;
+    }
+
+    @Benchmark
+    public OffHeapLongBigArray randomAddOffHeap()
+    {
+        for (long index : indexes) {
+            offHeap.add(index, index);
+        }
+        return offHeap;
+    }
+
+    @Benchmark
+    public LongBigArray sequentialSetOnHeap()
+    {
+        for (int i = 0; i < OPERATIONS; i++) {
+            onHeap.set(i % size, i);
+        }
+        return onHeap;
+    }
+
+    @Benchmark
+    public OffHeapLongBigArray sequentialSetOffHeap()
+    {
+        for (int i = 0; i < OPERATIONS; i++) {
+            offHeap.set(i % size, i);
+        }
+        return offHeap;
+    }
+
+    public static void main(String[] args)
+            throws RunnerException
+    {
+        Options options = new OptionsBuilder()
+                .include(".*" + BenchmarkOffHeapBigArray.class.getSimpleName() + ".*")
+                .build();
+        new Runner(options).run();
+    }
+}
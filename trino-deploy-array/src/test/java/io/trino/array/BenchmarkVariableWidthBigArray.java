@@ -0,0 +1,126 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.trino.array;
+
+import io.airlift.slice.Slice;
+import io.airlift.slice.Slices;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@BenchmarkMode(Mode.AverageTime)
+@Fork(2)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@OperationsPerInvocation(BenchmarkVariableWidthBigArray.POSITIONS)
+public class BenchmarkVariableWidthBigArray
+{
+    static final int POSITIONS = 10_000;
+
+    @Param({"8", "64", "1024"})
+    private int valueLength;
+
+    private Slice[] values;
+    private SliceBigArray populatedSliceBigArray;
+    private VariableWidthBigArray populatedVariableWidthBigArray;
+
+    @Setup
+    public void setup()
+    {
+        values = new Slice[POSITIONS];
+        for (int i = 0; i < POSITIONS; i++) {
+            byte[] bytes = new byte[valueLength];
+            ThreadLocalRandom.current().nextBytes(bytes);
+            values[i] = Slices.wrappedBuffer(bytes);
+        }
+
+        populatedSliceBigArray = new SliceBigArray();
+        populatedSliceBigArray.ensureCapacity(POSITIONS);
+        populatedVariableWidthBigArray = new VariableWidthBigArray();
+        populatedVariableWidthBigArray.ensureCapacity(POSITIONS);
+        for (int i = 0; i < POSITIONS; i++) {
+            populatedSliceBigArray.set(i, values[i]);
+            populatedVariableWidthBigArray.set(i, values[i]);
+        }
+    }
+
+    @Benchmark
+    public SliceBigArray setSliceBigArray()
+    {
+        SliceBigArray array = new SliceBigArray();
+        array.ensureCapacity(POSITIONS);
+        for (int i = 0; i < POSITIONS; i++) {
+            array.set(i, values[i]);
+        }
+        return array;
+    }
+
+    @Benchmark
+    public VariableWidthBigArray setVariableWidthBigArray()
+    {
+        VariableWidthBigArray array = new VariableWidthBigArray();
+        array.ensureCapacity(POSITIONS);
+        for (int i = 0; i < POSITIONS; i++) {
+            array.set(i, values[i]);
+        }
+        return array;
+    }
+
+    @Benchmark
+    public long getSliceBigArray()
+    {
+        long sum = 0;
+        for (int i = 0; i < POSITIONS; i++) {
+            sum += populatedSliceBigArray.get(i).getByte(0);
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public long getVariableWidthBigArray()
+    {
+        long sum = 0;
+        for (int i = 0; i < POSITIONS; i++) {
+            sum += populatedVariableWidthBigArray.get(i).getByte(0);
+        }
+        return sum;
+    }
+
+    public static void main(String[] args)
+            throws RunnerException
+    {
+        Options options = new OptionsBuilder()
+                .include(".*" + BenchmarkVariableWidthBigArray.class.getSimpleName() + ".*")
+                .build();
+        new Runner(options).run();
+    }
+}
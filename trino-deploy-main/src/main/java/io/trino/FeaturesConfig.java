@@ -134,6 +134,8 @@ public class FeaturesConfig
     private boolean useTableScanNodePartitioning = true;
     private double tableScanNodePartitioningMinBucketToTaskRatio = 0.5;
     private boolean mergeProjectWithValues = true;
+    private Duration tableStatisticsCacheTtl = new Duration(0, MINUTES);
+    private long tableStatisticsCacheMaximumSize = 1000;
 
     private Duration iterativeOptimizerTimeout = new Duration(3, MINUTES); // by default let optimizer wait a long time in case it retrieves some data from ConnectorMetadata
     private DataSize filterAndProjectMinOutputPageSize = DataSize.of(500, KILOBYTE);
@@ -1073,6 +1075,34 @@ public class FeaturesConfig
         return this;
     }
 
+    @NotNull
+    public Duration getTableStatisticsCacheTtl()
+    {
+        return tableStatisticsCacheTtl;
+    }
+
+    @Config("optimizer.table-statistics-cache-ttl")
+    @ConfigDescription("How long connector table statistics are cached on the coordinator across queries; zero disables the cache")
+    public FeaturesConfig setTableStatisticsCacheTtl(Duration tableStatisticsCacheTtl)
+    {
+        this.tableStatisticsCacheTtl = tableStatisticsCacheTtl;
+        return this;
+    }
+
+    @Min(1)
+    public long getTableStatisticsCacheMaximumSize()
+    {
+        return tableStatisticsCacheMaximumSize;
+    }
+
+    @Config("optimizer.table-statistics-cache-maximum-size")
+    @ConfigDescription("Maximum number of cached table statistics entries")
+    public FeaturesConfig setTableStatisticsCacheMaximumSize(long tableStatisticsCacheMaximumSize)
+    {
+        this.tableStatisticsCacheMaximumSize = tableStatisticsCacheMaximumSize;
+        return this;
+    }
+
     public boolean isLegacyCatalogRoles()
     {
         return legacyCatalogRoles;
@@ -118,6 +118,7 @@ public final class SystemSessionProperties
     public static final String DEFAULT_FILTER_FACTOR_ENABLED = "default_filter_factor_enabled";
     public static final String SKIP_REDUNDANT_SORT = "skip_redundant_sort";
     public static final String ALLOW_PUSHDOWN_INTO_CONNECTORS = "allow_pushdown_into_connectors";
+    public static final String PAGE_SOURCE_PREFETCH_PAGES = "page_source_prefetch_pages";
     public static final String PREDICATE_PUSHDOWN_USE_TABLE_PROPERTIES = "predicate_pushdown_use_table_properties";
     public static final String LATE_MATERIALIZATION = "late_materialization";
     public static final String ENABLE_DYNAMIC_FILTERING = "enable_dynamic_filtering";
@@ -553,6 +554,16 @@ public final class SystemSessionProperties
                         // This is a diagnostic property
                         true,
                         true),
+                integerProperty(
+                        PAGE_SOURCE_PREFETCH_PAGES,
+                        "Number of pages to read ahead of the table scan on a separate thread, or 0 to disable",
+                        0,
+                        value -> {
+                            if (value < 0) {
+                                throw new TrinoException(INVALID_SESSION_PROPERTY, format("%s must not be negative: %s", PAGE_SOURCE_PREFETCH_PAGES, value));
+                            }
+                        },
+                        false),
                 booleanProperty(
                         PREDICATE_PUSHDOWN_USE_TABLE_PROPERTIES,
                         "Use table properties in predicate pushdown",
@@ -1053,6 +1064,10 @@ public final class SystemSessionProperties
         return session.getSystemProperty(ALLOW_PUSHDOWN_INTO_CONNECTORS, Boolean.class);
     }
 
+    public static int getPageSourcePrefetchPages(Session session) {
+        return session.getSystemProperty(PAGE_SOURCE_PREFETCH_PAGES, Integer.class);
+    }
+
     public static boolean isPredicatePushdownUseTableProperties(Session session) {
         return session.getSystemProperty(PREDICATE_PUSHDOWN_USE_TABLE_PROPERTIES, Boolean.class);
     }
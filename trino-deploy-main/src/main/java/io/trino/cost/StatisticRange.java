@@ -13,7 +13,12 @@
  */
 package io.trino.cost;
 
+import io.trino.spi.statistics.EquiDepthHistogram;
+import io.trino.spi.statistics.MostCommonValues;
+
 import java.util.Objects;
+import java.util.Optional;
+import java.util.OptionalDouble;
 
 import static com.google.common.base.MoreObjects.toStringHelper;
 import static com.google.common.base.Preconditions.checkArgument;
@@ -40,7 +45,19 @@ public class StatisticRange
 
     private final double distinctValues;
 
+    /**
+     * Value distribution of the column the range was derived from. It is not restricted to the range,
+     * only the part between {@code low} and {@code high} is used.
+     */
+    private final Optional<EquiDepthHistogram> histogram;
+    private final Optional<MostCommonValues> mostCommonValues;
+
     public StatisticRange(double low, double high, double distinctValues)
+    {
+        this(low, high, distinctValues, Optional.empty(), Optional.empty());
+    }
+
+    public StatisticRange(double low, double high, double distinctValues, Optional<EquiDepthHistogram> histogram, Optional<MostCommonValues> mostCommonValues)
     {
         checkArgument(
                 low <= high || (isNaN(low) && isNaN(high)),
@@ -52,6 +69,8 @@ public class StatisticRange
 
         checkArgument(distinctValues >= 0 || isNaN(distinctValues), "Distinct values count should be non-negative, got: %s", distinctValues);
         this.distinctValues = distinctValues;
+        this.histogram = requireNonNull(histogram, "histogram is null");
+        this.mostCommonValues = requireNonNull(mostCommonValues, "mostCommonValues is null");
     }
 
     public static StatisticRange empty()
@@ -61,7 +80,7 @@ public class StatisticRange
 
     public static StatisticRange from(SymbolStatsEstimate estimate)
     {
-        return new StatisticRange(estimate.getLowValue(), estimate.getHighValue(), estimate.getDistinctValuesCount());
+        return new StatisticRange(estimate.getLowValue(), estimate.getHighValue(), estimate.getDistinctValuesCount(), estimate.getHistogram(), estimate.getMostCommonValues());
     }
 
     public double getLow()
@@ -79,6 +98,16 @@ public class StatisticRange
         return distinctValues;
     }
 
+    public Optional<EquiDepthHistogram> getHistogram()
+    {
+        return histogram;
+    }
+
+    public Optional<MostCommonValues> getMostCommonValues()
+    {
+        return mostCommonValues;
+    }
+
     public double length()
     {
         return high - low;
@@ -89,6 +118,10 @@ public class StatisticRange
         return isNaN(low) && isNaN(high);
     }
 
+    /**
+     * Fraction of the rows in this range that also fall in {@code other}. When this range carries a histogram
+     * or most common values they are used, otherwise values are assumed to be uniformly distributed.
+     */
     public double overlapPercentWith(StatisticRange other)
     {
         requireNonNull(other, "other is null");
@@ -101,6 +134,30 @@ public class StatisticRange
             return 1.0;
         }
 
+        OptionalDouble distributionOverlap = distributionOverlapPercentWith(other);
+        if (distributionOverlap.isPresent()) {
+            return distributionOverlap.getAsDouble();
+        }
+        return uniformOverlapPercentWith(other);
+    }
+
+    /**
+     * Fraction of the distinct values in this range that also fall in {@code other}, assuming they are
+     * spread uniformly. The histogram describes rows, not distinct values, so it is not used here.
+     */
+    private double distinctValuesOverlapPercentWith(StatisticRange other)
+    {
+        if (this.isEmpty() || other.isEmpty() || this.distinctValues == 0 || other.distinctValues == 0) {
+            return 0.0;
+        }
+        if (this.equals(other)) {
+            return 1.0;
+        }
+        return uniformOverlapPercentWith(other);
+    }
+
+    private double uniformOverlapPercentWith(StatisticRange other)
+    {
         double lengthOfIntersect = min(this.high, other.high) - max(this.low, other.low);
         if (isInfinite(lengthOfIntersect)) {
             if (isFinite(this.distinctValues) && isFinite(other.distinctValues)) {
@@ -124,10 +181,85 @@ public class StatisticRange
         return NaN;
     }
 
+    private OptionalDouble distributionOverlapPercentWith(StatisticRange other)
+    {
+        if (histogram.isEmpty() && mostCommonValues.isEmpty()) {
+            return OptionalDouble.empty();
+        }
+
+        double intersectLow = max(low, other.low);
+        double intersectHigh = min(high, other.high);
+        if (intersectLow > intersectHigh) {
+            return OptionalDouble.of(0);
+        }
+
+        OptionalDouble rangeFraction = valuesFraction(low, high);
+        if (rangeFraction.isEmpty() || rangeFraction.getAsDouble() <= 0) {
+            return OptionalDouble.empty();
+        }
+        double total = rangeFraction.getAsDouble();
+
+        if (intersectLow == intersectHigh) {
+            OptionalDouble pointFraction = pointFraction(intersectLow, total);
+            if (pointFraction.isEmpty()) {
+                return OptionalDouble.empty();
+            }
+            return OptionalDouble.of(min(pointFraction.getAsDouble() / total, 1));
+        }
+
+        OptionalDouble intersectFraction = valuesFraction(intersectLow, intersectHigh);
+        if (intersectFraction.isEmpty()) {
+            return OptionalDouble.empty();
+        }
+        return OptionalDouble.of(min(intersectFraction.getAsDouble() / total, 1));
+    }
+
+    /**
+     * Fraction of the column's non-null rows with a value in {@code [from, to]}, which must lie within this range.
+     * Without a histogram, rows other than the most common values are assumed to be uniform over this range.
+     */
+    private OptionalDouble valuesFraction(double from, double to)
+    {
+        double commonFraction = mostCommonValues.map(values -> values.getFrequency(from, to)).orElse(0.0);
+        double otherFraction = 1 - mostCommonValues.map(MostCommonValues::getTotalFrequency).orElse(0.0);
+
+        if (histogram.isPresent()) {
+            return OptionalDouble.of(commonFraction + otherFraction * histogram.get().getFraction(from, to));
+        }
+        if (from <= low && to >= high) {
+            return OptionalDouble.of(commonFraction + otherFraction);
+        }
+        double length = length();
+        if (isFinite(length) && length > 0) {
+            return OptionalDouble.of(commonFraction + otherFraction * (to - from) / length);
+        }
+        return OptionalDouble.empty();
+    }
+
+    /**
+     * Fraction of the column's non-null rows equal to {@code value}, given the fraction of rows in this range.
+     * Values other than the most common ones share the remaining rows of the range evenly.
+     */
+    private OptionalDouble pointFraction(double value, double rangeFraction)
+    {
+        if (mostCommonValues.isPresent()) {
+            OptionalDouble frequency = mostCommonValues.get().getFrequency(value);
+            if (frequency.isPresent()) {
+                return frequency;
+            }
+        }
+        if (isNaN(distinctValues)) {
+            return OptionalDouble.empty();
+        }
+        double commonFraction = mostCommonValues.map(values -> values.getFrequency(low, high)).orElse(0.0);
+        int commonCount = mostCommonValues.map(values -> values.getCount(low, high)).orElse(0);
+        return OptionalDouble.of(max(rangeFraction - commonFraction, 0) / max(distinctValues - commonCount, 1));
+    }
+
     private double overlappingDistinctValues(StatisticRange other)
     {
-        double overlapPercentOfLeft = overlapPercentWith(other);
-        double overlapPercentOfRight = other.overlapPercentWith(this);
+        double overlapPercentOfLeft = distinctValuesOverlapPercentWith(other);
+        double overlapPercentOfRight = other.distinctValuesOverlapPercentWith(this);
         double overlapDistinctValuesLeft = overlapPercentOfLeft * distinctValues;
         double overlapDistinctValuesRight = overlapPercentOfRight * other.distinctValues;
         double minInputDistinctValues = minExcludeNaN(this.distinctValues, other.distinctValues);
@@ -136,12 +268,23 @@ public class StatisticRange
                 maxExcludeNaN(overlapDistinctValuesLeft, overlapDistinctValuesRight));
     }
 
+    /**
+     * Returns the part of this range that overlaps {@code other}. The histogram and most common
+     * values describe the distribution of this range's values, so only this range's are kept: the
+     * distribution of the other range is not the distribution of the intersection. To use the
+     * distribution of a column, call this method on the range of the column.
+     */
     public StatisticRange intersect(StatisticRange other)
     {
         double newLow = max(low, other.low);
         double newHigh = min(high, other.high);
         if (newLow <= newHigh) {
-            return new StatisticRange(newLow, newHigh, overlappingDistinctValues(other));
+            return new StatisticRange(
+                    newLow,
+                    newHigh,
+                    overlappingDistinctValues(other),
+                    histogram,
+                    mostCommonValues);
         }
         return empty();
     }
@@ -160,8 +303,8 @@ public class StatisticRange
 
     public StatisticRange addAndCollapseDistinctValues(StatisticRange other)
     {
-        double overlapPercentOfThis = this.overlapPercentWith(other);
-        double overlapPercentOfOther = other.overlapPercentWith(this);
+        double overlapPercentOfThis = this.distinctValuesOverlapPercentWith(other);
+        double overlapPercentOfOther = other.distinctValuesOverlapPercentWith(this);
         double overlapDistinctValuesThis = overlapPercentOfThis * distinctValues;
         double overlapDistinctValuesOther = overlapPercentOfOther * other.distinctValues;
         double maxOverlappingValues = max(overlapDistinctValuesThis, overlapDistinctValuesOther);
@@ -204,13 +347,15 @@ public class StatisticRange
         StatisticRange that = (StatisticRange) o;
         return Double.compare(that.low, low) == 0 &&
                 Double.compare(that.high, high) == 0 &&
-                Double.compare(that.distinctValues, distinctValues) == 0;
+                Double.compare(that.distinctValues, distinctValues) == 0 &&
+                Objects.equals(histogram, that.histogram) &&
+                Objects.equals(mostCommonValues, that.mostCommonValues);
     }
 
     @Override
     public int hashCode()
     {
-        return Objects.hash(low, high, distinctValues);
+        return Objects.hash(low, high, distinctValues, histogram, mostCommonValues);
     }
 
     @Override
@@ -219,6 +364,9 @@ public class StatisticRange
         return toStringHelper(this)
                 .add("range", format("[%s-%s]", low, high))
                 .add("ndv", distinctValues)
+                .add("histogram", histogram.orElse(null))
+                .add("mostCommonValues", mostCommonValues.orElse(null))
+                .omitNullValues()
                 .toString();
     }
 }
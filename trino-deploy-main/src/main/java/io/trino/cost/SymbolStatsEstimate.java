@@ -15,14 +15,18 @@ package io.trino.cost;
 
 import com.fasterxml.jackson.annotation.JsonCreator;
 import com.fasterxml.jackson.annotation.JsonProperty;
+import io.trino.spi.statistics.EquiDepthHistogram;
+import io.trino.spi.statistics.MostCommonValues;
 
 import java.util.Objects;
+import java.util.Optional;
 import java.util.function.Function;
 
 import static com.google.common.base.MoreObjects.toStringHelper;
 import static com.google.common.base.Preconditions.checkArgument;
 import static java.lang.Double.*;
 import static java.lang.String.format;
+import static java.util.Objects.requireNonNull;
 
 public class SymbolStatsEstimate
 {
@@ -35,6 +39,8 @@ public class SymbolStatsEstimate
     private final double nullsFraction;
     private final double averageRowSize;
     private final double distinctValuesCount;
+    private final Optional<EquiDepthHistogram> histogram;
+    private final Optional<MostCommonValues> mostCommonValues;
 
     public static SymbolStatsEstimate unknown()
     {
@@ -46,13 +52,20 @@ public class SymbolStatsEstimate
         return ZERO;
     }
 
+    public SymbolStatsEstimate(double lowValue, double highValue, double nullsFraction, double averageRowSize, double distinctValuesCount)
+    {
+        this(lowValue, highValue, nullsFraction, averageRowSize, distinctValuesCount, Optional.empty(), Optional.empty());
+    }
+
     @JsonCreator
     public SymbolStatsEstimate(
             @JsonProperty("lowValue") double lowValue,
             @JsonProperty("highValue") double highValue,
             @JsonProperty("nullsFraction") double nullsFraction,
             @JsonProperty("averageRowSize") double averageRowSize,
-            @JsonProperty("distinctValuesCount") double distinctValuesCount)
+            @JsonProperty("distinctValuesCount") double distinctValuesCount,
+            @JsonProperty("histogram") Optional<EquiDepthHistogram> histogram,
+            @JsonProperty("mostCommonValues") Optional<MostCommonValues> mostCommonValues)
     {
         checkArgument(
                 lowValue <= highValue || (isNaN(lowValue) && isNaN(highValue)),
@@ -75,6 +88,8 @@ public class SymbolStatsEstimate
         checkArgument(distinctValuesCount >= 0 || isNaN(distinctValuesCount), "Distinct values count should be non-negative, got: %s", distinctValuesCount);
         // TODO normalize distinctValuesCount for an empty range (or validate it is already normalized)
         this.distinctValuesCount = distinctValuesCount;
+        this.histogram = requireNonNull(histogram, "histogram is null");
+        this.mostCommonValues = requireNonNull(mostCommonValues, "mostCommonValues is null");
     }
 
     @JsonProperty
@@ -97,7 +112,7 @@ public class SymbolStatsEstimate
 
     public StatisticRange statisticRange()
     {
-        return new StatisticRange(lowValue, highValue, distinctValuesCount);
+        return new StatisticRange(lowValue, highValue, distinctValuesCount, histogram, mostCommonValues);
     }
 
     public double getValuesFraction()
@@ -117,6 +132,22 @@ public class SymbolStatsEstimate
         return distinctValuesCount;
     }
 
+    /**
+     * Histogram of the non-null values that are not among {@link #getMostCommonValues()}, describing the
+     * column before any filtering, so it is only meaningful between {@code lowValue} and {@code highValue}.
+     */
+    @JsonProperty
+    public Optional<EquiDepthHistogram> getHistogram()
+    {
+        return histogram;
+    }
+
+    @JsonProperty
+    public Optional<MostCommonValues> getMostCommonValues()
+    {
+        return mostCommonValues;
+    }
+
     public SymbolStatsEstimate mapNullsFraction(Function<Double, Double> mappingFunction)
     {
         return buildFrom(this).setNullsFraction(mappingFunction.apply(nullsFraction)).build();
@@ -153,13 +184,15 @@ public class SymbolStatsEstimate
                 Double.compare(averageRowSize, that.averageRowSize) == 0 &&
                 Double.compare(distinctValuesCount, that.distinctValuesCount) == 0 &&
                 Double.compare(lowValue, that.lowValue) == 0 &&
-                Double.compare(highValue, that.highValue) == 0;
+                Double.compare(highValue, that.highValue) == 0 &&
+                Objects.equals(histogram, that.histogram) &&
+                Objects.equals(mostCommonValues, that.mostCommonValues);
     }
 
     @Override
     public int hashCode()
     {
-        return Objects.hash(lowValue, highValue, nullsFraction, averageRowSize, distinctValuesCount);
+        return Objects.hash(lowValue, highValue, nullsFraction, averageRowSize, distinctValuesCount, histogram, mostCommonValues);
     }
 
     @Override
@@ -170,6 +203,9 @@ public class SymbolStatsEstimate
                 .add("nulls", nullsFraction)
                 .add("ndv", distinctValuesCount)
                 .add("rowSize", averageRowSize)
+                .add("histogram", histogram.orElse(null))
+                .add("mostCommonValues", mostCommonValues.orElse(null))
+                .omitNullValues()
                 .toString();
     }
 
@@ -185,7 +221,9 @@ public class SymbolStatsEstimate
                 .setHighValue(other.getHighValue())
                 .setNullsFraction(other.getNullsFraction())
                 .setAverageRowSize(other.getAverageRowSize())
-                .setDistinctValuesCount(other.getDistinctValuesCount());
+                .setDistinctValuesCount(other.getDistinctValuesCount())
+                .setHistogram(other.getHistogram())
+                .setMostCommonValues(other.getMostCommonValues());
     }
 
     public static final class Builder
@@ -195,12 +233,16 @@ public class SymbolStatsEstimate
         private double nullsFraction = NaN;
         private double averageRowSize = NaN;
         private double distinctValuesCount = NaN;
+        private Optional<EquiDepthHistogram> histogram = Optional.empty();
+        private Optional<MostCommonValues> mostCommonValues = Optional.empty();
 
         public Builder setStatisticsRange(StatisticRange range)
         {
             return setLowValue(range.getLow())
                     .setHighValue(range.getHigh())
-                    .setDistinctValuesCount(range.getDistinctValuesCount());
+                    .setDistinctValuesCount(range.getDistinctValuesCount())
+                    .setHistogram(range.getHistogram())
+                    .setMostCommonValues(range.getMostCommonValues());
         }
 
         public Builder setLowValue(double lowValue)
@@ -233,9 +275,21 @@ public class SymbolStatsEstimate
             return this;
         }
 
+        public Builder setHistogram(Optional<EquiDepthHistogram> histogram)
+        {
+            this.histogram = requireNonNull(histogram, "histogram is null");
+            return this;
+        }
+
+        public Builder setMostCommonValues(Optional<MostCommonValues> mostCommonValues)
+        {
+            this.mostCommonValues = requireNonNull(mostCommonValues, "mostCommonValues is null");
+            return this;
+        }
+
         public SymbolStatsEstimate build()
         {
-            return new SymbolStatsEstimate(lowValue, highValue, nullsFraction, averageRowSize, distinctValuesCount);
+            return new SymbolStatsEstimate(lowValue, highValue, nullsFraction, averageRowSize, distinctValuesCount, histogram, mostCommonValues);
         }
     }
 }
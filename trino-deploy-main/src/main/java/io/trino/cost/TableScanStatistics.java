@@ -0,0 +1,86 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.trino.cost;
+
+import io.trino.spi.connector.ColumnHandle;
+import io.trino.spi.statistics.ColumnStatistics;
+import io.trino.spi.statistics.TableStatistics;
+import io.trino.spi.type.FixedWidthType;
+import io.trino.spi.type.Type;
+import io.trino.sql.planner.Symbol;
+import io.trino.sql.planner.TypeProvider;
+
+import java.util.Map;
+
+import static java.lang.Double.NaN;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Turns the statistics a connector returns for a table into the estimates of a table scan,
+ * including the histograms and most common values of the columns.
+ */
+public final class TableScanStatistics
+{
+    private TableScanStatistics() {}
+
+    public static PlanNodeStatsEstimate toPlanNodeStats(TableStatistics tableStatistics, Map<Symbol, ColumnHandle> assignments, TypeProvider types)
+    {
+        requireNonNull(tableStatistics, "tableStatistics is null");
+        requireNonNull(assignments, "assignments is null");
+        requireNonNull(types, "types is null");
+
+        PlanNodeStatsEstimate.Builder result = PlanNodeStatsEstimate.builder()
+                .setOutputRowCount(tableStatistics.getRowCount().getValue());
+        for (Map.Entry<Symbol, ColumnHandle> assignment : assignments.entrySet()) {
+            ColumnStatistics columnStatistics = tableStatistics.getColumnStatistics().get(assignment.getValue());
+            if (columnStatistics != null) {
+                Symbol symbol = assignment.getKey();
+                result.addSymbolStatistics(symbol, toSymbolStatistics(tableStatistics, columnStatistics, types.get(symbol)));
+            }
+        }
+        return result.build();
+    }
+
+    public static SymbolStatsEstimate toSymbolStatistics(TableStatistics tableStatistics, ColumnStatistics columnStatistics, Type type)
+    {
+        requireNonNull(tableStatistics, "tableStatistics is null");
+        requireNonNull(columnStatistics, "columnStatistics is null");
+        requireNonNull(type, "type is null");
+
+        double nullsFraction = columnStatistics.getNullsFraction().getValue();
+        double nonNullRowsCount = tableStatistics.getRowCount().getValue() * (1.0 - nullsFraction);
+        double averageRowSize;
+        if (nonNullRowsCount == 0) {
+            averageRowSize = 0;
+        }
+        else if (type instanceof FixedWidthType) {
+            // the engine knows the row size of fixed width types
+            averageRowSize = NaN;
+        }
+        else {
+            averageRowSize = columnStatistics.getDataSize().getValue() / nonNullRowsCount;
+        }
+
+        SymbolStatsEstimate.Builder result = SymbolStatsEstimate.builder()
+                .setNullsFraction(nullsFraction)
+                .setDistinctValuesCount(columnStatistics.getDistinctValuesCount().getValue())
+                .setAverageRowSize(averageRowSize)
+                .setHistogram(columnStatistics.getHistogram())
+                .setMostCommonValues(columnStatistics.getMostCommonValues());
+        columnStatistics.getRange().ifPresent(range -> result
+                .setLowValue(range.getMin())
+                .setHighValue(range.getMax()));
+        return result.build();
+    }
+}
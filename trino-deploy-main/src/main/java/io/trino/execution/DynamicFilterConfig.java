@@ -19,10 +19,12 @@ import io.airlift.configuration.DefunctConfig;
 import io.airlift.configuration.LegacyConfig;
 import io.airlift.units.DataSize;
 import io.airlift.units.MaxDataSize;
+import io.airlift.units.MinDataSize;
 
 import javax.validation.constraints.Min;
 
 import static io.airlift.units.DataSize.Unit.KILOBYTE;
+import static io.airlift.units.DataSize.Unit.MEGABYTE;
 
 @DefunctConfig({
         "dynamic-filtering-max-per-driver-row-count",
@@ -38,6 +40,8 @@ public class DynamicFilterConfig
     private boolean enableCoordinatorDynamicFiltersDistribution = true;
     private boolean enableLargeDynamicFilters;
     private int serviceThreadCount = 2;
+    private int mergedDomainCompactionThreshold = 10_000;
+    private DataSize maxMergedDomainSize = DataSize.of(10, MEGABYTE);
 
     private int smallBroadcastMaxDistinctValuesPerDriver = 200;
     private DataSize smallBroadcastMaxSizePerDriver = DataSize.of(20, KILOBYTE);
@@ -104,6 +108,34 @@ public class DynamicFilterConfig
         return this;
     }
 
+    @Min(1)
+    public int getMergedDomainCompactionThreshold()
+    {
+        return mergedDomainCompactionThreshold;
+    }
+
+    @Config("dynamic-filtering.merged-domain-compaction-threshold")
+    @ConfigDescription("Number of ranges or discrete values above which the dynamic filter domain merged from tasks is compacted to a single range")
+    public DynamicFilterConfig setMergedDomainCompactionThreshold(int mergedDomainCompactionThreshold)
+    {
+        this.mergedDomainCompactionThreshold = mergedDomainCompactionThreshold;
+        return this;
+    }
+
+    @MinDataSize("1kB")
+    public DataSize getMaxMergedDomainSize()
+    {
+        return maxMergedDomainSize;
+    }
+
+    @Config("dynamic-filtering.max-merged-domain-size")
+    @ConfigDescription("Retained size above which the dynamic filter domain merged from tasks is compacted to a single range")
+    public DynamicFilterConfig setMaxMergedDomainSize(DataSize maxMergedDomainSize)
+    {
+        this.maxMergedDomainSize = maxMergedDomainSize;
+        return this;
+    }
+
     @Min(0)
     public int getSmallBroadcastMaxDistinctValuesPerDriver()
     {
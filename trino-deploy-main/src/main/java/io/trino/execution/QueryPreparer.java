@@ -13,21 +13,30 @@
  */
 package io.trino.execution;
 
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import com.google.common.collect.ImmutableList;
+import com.google.common.util.concurrent.ExecutionError;
+import com.google.common.util.concurrent.UncheckedExecutionException;
 import io.trino.Session;
 import io.trino.spi.TrinoException;
 import io.trino.spi.resourcegroups.QueryType;
 import io.trino.sql.parser.ParsingException;
+import io.trino.sql.parser.ParsingOptions;
 import io.trino.sql.parser.SqlParser;
 import io.trino.sql.tree.Execute;
 import io.trino.sql.tree.ExplainAnalyze;
 import io.trino.sql.tree.Expression;
 import io.trino.sql.tree.Statement;
+import org.weakref.jmx.Managed;
 
 import javax.inject.Inject;
 import java.util.List;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.concurrent.ExecutionException;
 
+import static com.google.common.base.Throwables.throwIfUnchecked;
 import static io.trino.execution.ParameterExtractor.getParameterCount;
 import static io.trino.spi.StandardErrorCode.INVALID_PARAMETER_USAGE;
 import static io.trino.spi.StandardErrorCode.NOT_SUPPORTED;
@@ -40,8 +49,20 @@ import static java.util.Objects.requireNonNull;
 
 public class QueryPreparer
 {
+    private static final int MAX_CACHED_PREPARED_STATEMENTS = 1_000;
+    private static final long MAX_CACHED_SQL_LENGTH = 16 * 1024 * 1024;
+
     private final SqlParser sqlParser;
 
+    // EXECUTE of the same prepared statement only differs in the parameter values, so the parsed
+    // statement and its parameter count are reused across executions. Every entry weighs at least
+    // MAX_CACHED_SQL_LENGTH / MAX_CACHED_PREPARED_STATEMENTS, which bounds the number of entries.
+    private final Cache<PreparedStatementKey, PreparedStatement> preparedStatementCache = CacheBuilder.newBuilder()
+            .maximumWeight(MAX_CACHED_SQL_LENGTH)
+            .<PreparedStatementKey, PreparedStatement>weigher((key, statement) -> (int) Math.max(key.getSql().length(), MAX_CACHED_SQL_LENGTH / MAX_CACHED_PREPARED_STATEMENTS))
+            .recordStats()
+            .build();
+
     @Inject
     public QueryPreparer(SqlParser sqlParser)
     {
@@ -60,9 +81,15 @@ public class QueryPreparer
     {
         Statement statement = wrappedStatement;
         Optional<String> prepareSql = Optional.empty();
+        int parameterCount;
         if (statement instanceof Execute) {
             prepareSql = Optional.of(session.getPreparedStatementFromExecute((Execute) statement));
-            statement = sqlParser.createStatement(prepareSql.get(), createParsingOptions(session));
+            PreparedStatement preparedStatement = getPreparedStatement(prepareSql.get(), createParsingOptions(session));
+            statement = preparedStatement.getStatement();
+            parameterCount = preparedStatement.getParameterCount();
+        }
+        else {
+            parameterCount = getParameterCount(statement);
         }
 
         if (statement instanceof ExplainAnalyze) {
@@ -76,13 +103,56 @@ public class QueryPreparer
         if (wrappedStatement instanceof Execute) {
             parameters = ((Execute) wrappedStatement).getParameters();
         }
-        validateParameters(statement, parameters);
+        validateParameters(statement, parameterCount, parameters);
         return new PreparedQuery(statement, parameters, prepareSql);
     }
 
-    private static void validateParameters(Statement node, List<Expression> parameterValues)
+    private PreparedStatement getPreparedStatement(String sql, ParsingOptions parsingOptions)
+    {
+        try {
+            return preparedStatementCache.get(new PreparedStatementKey(sql, parsingOptions), () -> {
+                Statement statement = sqlParser.createStatement(sql, parsingOptions);
+                return new PreparedStatement(statement, getParameterCount(statement));
+            });
+        }
+        catch (ExecutionException | UncheckedExecutionException | ExecutionError e) {
+            throwIfUnchecked(e.getCause());
+            throw new RuntimeException(e.getCause());
+        }
+    }
+
+    @Managed
+    public long getPreparedStatementCacheSize()
+    {
+        return preparedStatementCache.size();
+    }
+
+    @Managed
+    public long getPreparedStatementCacheHitCount()
+    {
+        return preparedStatementCache.stats().hitCount();
+    }
+
+    @Managed
+    public long getPreparedStatementCacheMissCount()
+    {
+        return preparedStatementCache.stats().missCount();
+    }
+
+    @Managed
+    public double getPreparedStatementCacheHitRate()
+    {
+        return preparedStatementCache.stats().hitRate();
+    }
+
+    @Managed
+    public void invalidatePreparedStatementCache()
+    {
+        preparedStatementCache.invalidateAll();
+    }
+
+    private static void validateParameters(Statement node, int parameterCount, List<Expression> parameterValues)
     {
-        int parameterCount = getParameterCount(node);
         if (parameterValues.size() != parameterCount) {
             throw semanticException(INVALID_PARAMETER_USAGE, node, "Incorrect number of parameters: expected %s but found %s", parameterCount, parameterValues.size());
         }
@@ -91,6 +161,64 @@ public class QueryPreparer
         }
     }
 
+    private static final class PreparedStatementKey
+    {
+        private final String sql;
+        private final ParsingOptions parsingOptions;
+
+        private PreparedStatementKey(String sql, ParsingOptions parsingOptions)
+        {
+            this.sql = requireNonNull(sql, "sql is null");
+            this.parsingOptions = requireNonNull(parsingOptions, "parsingOptions is null");
+        }
+
+        public String getSql()
+        {
+            return sql;
+        }
+
+        @Override
+        public boolean equals(Object o)
+        {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+            PreparedStatementKey that = (PreparedStatementKey) o;
+            return sql.equals(that.sql) && parsingOptions.equals(that.parsingOptions);
+        }
+
+        @Override
+        public int hashCode()
+        {
+            return Objects.hash(sql, parsingOptions);
+        }
+    }
+
+    private static final class PreparedStatement
+    {
+        private final Statement statement;
+        private final int parameterCount;
+
+        private PreparedStatement(Statement statement, int parameterCount)
+        {
+            this.statement = requireNonNull(statement, "statement is null");
+            this.parameterCount = parameterCount;
+        }
+
+        public Statement getStatement()
+        {
+            return statement;
+        }
+
+        public int getParameterCount()
+        {
+            return parameterCount;
+        }
+    }
+
     public static class PreparedQuery
     {
         private final Statement statement;
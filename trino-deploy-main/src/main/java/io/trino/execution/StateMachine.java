@@ -24,10 +24,13 @@ import javax.annotation.concurrent.GuardedBy;
 import javax.annotation.concurrent.ThreadSafe;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Queue;
 import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.Executor;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.Predicate;
 
@@ -43,11 +46,13 @@ import static java.util.Objects.requireNonNull;
 public class StateMachine<T>
 {
     private static final Logger log = Logger.get(StateMachine.class);
+    private static final StateMachineNotificationStats NOTIFICATION_STATS = new StateMachineNotificationStats();
 
     private final String name;
     private final Executor executor;
     private final Object lock = new Object();
     private final Set<T> terminalStates;
+    private final boolean coalesceNotifications;
 
     @GuardedBy("lock")
     private volatile T state;
@@ -57,6 +62,10 @@ public class StateMachine<T>
 
     private final AtomicReference<FutureStateChange<T>> futureStateChange = new AtomicReference<>(new FutureStateChange<>());
 
+    // only used when notifications are coalesced
+    private final Queue<StateChangeNotification<T>> pendingNotifications = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean notificationScheduled = new AtomicBoolean();
+
     /**
      * Creates a state machine with the specified initial state and no terminal states.
      *
@@ -78,11 +87,33 @@ public class StateMachine<T>
      * @param terminalStates the terminal states
      */
     public StateMachine(String name, Executor executor, T initialState, Iterable<T> terminalStates)
+    {
+        this(name, executor, initialState, terminalStates, false);
+    }
+
+    /**
+     * Creates a state machine with the specified initial state and terminal states.
+     *
+     * @param name name of this state machine to use in debug statements
+     * @param executor executor for firing state change events; must not be a same thread executor
+     * @param initialState the initial state
+     * @param terminalStates the terminal states
+     * @param coalesceNotifications if true, state changes are delivered by a single notification task at a time, and
+     * listeners and waiters only observe the latest state when several changes happen before the task runs. Only use
+     * this when listeners do not depend on observing intermediate states. The terminal state is always delivered.
+     */
+    public StateMachine(String name, Executor executor, T initialState, Iterable<T> terminalStates, boolean coalesceNotifications)
     {
         this.name = requireNonNull(name, "name is null");
         this.executor = requireNonNull(executor, "executor is null");
         this.state = requireNonNull(initialState, "initialState is null");
         this.terminalStates = ImmutableSet.copyOf(requireNonNull(terminalStates, "terminalStates is null"));
+        this.coalesceNotifications = coalesceNotifications;
+    }
+
+    public static StateMachineNotificationStats getNotificationStats()
+    {
+        return NOTIFICATION_STATS;
     }
 
     // state changes are atomic and state is volatile, so a direct read is safe here
@@ -117,9 +148,14 @@ public class StateMachine<T>
         checkState(!Thread.holdsLock(lock), "Cannot set state while holding the lock");
         requireNonNull(newState, "newState is null");
 
+        // repeated sets of the current state and sets after a terminal state are common, and do not need the lock
+        T currentState = get();
+        if (currentState.equals(newState) || isTerminalState(currentState)) {
+            return currentState;
+        }
+
         T oldState;
-        FutureStateChange<T> futureStateChange;
-        ImmutableList<StateChangeListener<T>> stateChangeListeners;
+        StateChangeNotification<T> notification;
         synchronized (lock) {
             if (state.equals(newState) || isTerminalState(state)) {
                 return state;
@@ -128,16 +164,10 @@ public class StateMachine<T>
             oldState = state;
             state = newState;
 
-            futureStateChange = this.futureStateChange.getAndSet(new FutureStateChange<>());
-            stateChangeListeners = ImmutableList.copyOf(this.stateChangeListeners);
-
-            // if we are now in a terminal state, free the listeners since this will be the last notification
-            if (isTerminalState(state)) {
-                this.stateChangeListeners.clear();
-            }
+            notification = createNotification(newState);
         }
 
-        fireStateChanged(newState, futureStateChange, stateChangeListeners);
+        fireStateChanged(notification);
         return oldState;
     }
 
@@ -185,8 +215,13 @@ public class StateMachine<T>
         requireNonNull(expectedState, "expectedState is null");
         requireNonNull(newState, "newState is null");
 
-        FutureStateChange<T> futureStateChange;
-        ImmutableList<StateChangeListener<T>> stateChangeListeners;
+        // fail fast without the lock, the checks are repeated under the lock before changing the state
+        T currentState = get();
+        if (!currentState.equals(expectedState) || currentState.equals(newState)) {
+            return false;
+        }
+
+        StateChangeNotification<T> notification;
         synchronized (lock) {
             if (!state.equals(expectedState)) {
                 return false;
@@ -201,37 +236,123 @@ public class StateMachine<T>
 
             state = newState;
 
-            futureStateChange = this.futureStateChange.getAndSet(new FutureStateChange<>());
-            stateChangeListeners = ImmutableList.copyOf(this.stateChangeListeners);
-
-            // if we are now in a terminal state, free the listeners since this will be the last notification
-            if (isTerminalState(state)) {
-                this.stateChangeListeners.clear();
-            }
+            notification = createNotification(newState);
         }
 
-        fireStateChanged(newState, futureStateChange, stateChangeListeners);
+        fireStateChanged(notification);
         return true;
     }
 
-    private void fireStateChanged(T newState, FutureStateChange<T> futureStateChange, List<StateChangeListener<T>> stateChangeListeners)
+    @GuardedBy("lock")
+    private StateChangeNotification<T> createNotification(T newState)
+    {
+        FutureStateChange<T> futureStateChange = this.futureStateChange.getAndSet(new FutureStateChange<>());
+        ImmutableList<StateChangeListener<T>> stateChangeListeners = ImmutableList.copyOf(this.stateChangeListeners);
+
+        // if we are now in a terminal state, free the listeners since this will be the last notification
+        if (isTerminalState(newState)) {
+            this.stateChangeListeners.clear();
+        }
+
+        StateChangeNotification<T> notification = new StateChangeNotification<>(newState, futureStateChange, stateChangeListeners);
+        NOTIFICATION_STATS.notificationQueued();
+        if (coalesceNotifications) {
+            // enqueue while holding the lock, so the queue is in transition order and the last entry is the
+            // current state, which is the terminal state once it has been reached
+            pendingNotifications.add(notification);
+        }
+        return notification;
+    }
+
+    private void fireStateChanged(StateChangeNotification<T> notification)
     {
         checkState(!Thread.holdsLock(lock), "Cannot fire state change event while holding the lock");
-        requireNonNull(newState, "newState is null");
 
-        // always fire listener callbacks from a different thread
-        safeExecute(() -> {
-            checkState(!Thread.holdsLock(lock), "Cannot notify while holding the lock");
+        if (coalesceNotifications) {
+            scheduleNotifications();
+            return;
+        }
+
+        T newState = notification.getState();
+        try {
+            // always fire listener callbacks from a different thread
+            safeExecute(() -> {
+                checkState(!Thread.holdsLock(lock), "Cannot notify while holding the lock");
+                completeFutureStateChange(newState, notification.getFutureStateChange());
+                for (StateChangeListener<T> stateChangeListener : notification.getStateChangeListeners()) {
+                    fireStateChangedListener(newState, stateChangeListener);
+                }
+                NOTIFICATION_STATS.notificationDelivered(notification.getQueuedNanos());
+            });
+        }
+        catch (Throwable e) {
+            NOTIFICATION_STATS.notificationRejected();
+            throw e;
+        }
+    }
+
+    private void scheduleNotifications()
+    {
+        if (notificationScheduled.compareAndSet(false, true)) {
             try {
-                futureStateChange.complete(newState);
+                // always fire listener callbacks from a different thread
+                safeExecute(this::fireCoalescedNotifications);
             }
             catch (Throwable e) {
-                log.error(e, "Error setting future state for %s", name);
+                // like an uncoalesced notification, the pending notifications are lost when the executor rejects them
+                while (pendingNotifications.poll() != null) {
+                    NOTIFICATION_STATS.notificationRejected();
+                }
+                // allow a later state change to schedule the notifications again
+                notificationScheduled.set(false);
+                throw e;
+            }
+        }
+    }
+
+    private void fireCoalescedNotifications()
+    {
+        checkState(!Thread.holdsLock(lock), "Cannot notify while holding the lock");
+        while (true) {
+            StateChangeNotification<T> latest = null;
+            List<FutureStateChange<T>> futureStateChanges = new ArrayList<>();
+            StateChangeNotification<T> notification;
+            while ((notification = pendingNotifications.poll()) != null) {
+                if (latest != null) {
+                    NOTIFICATION_STATS.notificationCoalesced();
+                }
+                latest = notification;
+                futureStateChanges.add(notification.getFutureStateChange());
             }
-            for (StateChangeListener<T> stateChangeListener : stateChangeListeners) {
-                fireStateChangedListener(newState, stateChangeListener);
+
+            if (latest != null) {
+                T newState = latest.getState();
+                for (FutureStateChange<T> futureStateChange : futureStateChanges) {
+                    completeFutureStateChange(newState, futureStateChange);
+                }
+                // listeners are only removed after the terminal state, so the latest snapshot contains all earlier listeners
+                for (StateChangeListener<T> stateChangeListener : latest.getStateChangeListeners()) {
+                    fireStateChangedListener(newState, stateChangeListener);
+                }
+                NOTIFICATION_STATS.notificationDelivered(latest.getQueuedNanos());
             }
-        });
+
+            notificationScheduled.set(false);
+            // a notification may have been added after the queue was drained, but before the flag was cleared
+            if (pendingNotifications.isEmpty() || !notificationScheduled.compareAndSet(false, true)) {
+                return;
+            }
+        }
+    }
+
+    private void completeFutureStateChange(T newState, FutureStateChange<T> futureStateChange)
+    {
+        try {
+            futureStateChange.complete(newState);
+        }
+        catch (Throwable e) {
+            log.error(e, "Error setting future state for %s", name);
+        }
     }
 
     private void fireStateChangedListener(T newState, StateChangeListener<T> stateChangeListener)
@@ -307,6 +428,41 @@ public class StateMachine<T>
         void stateChanged(T newState);
     }
 
+    private static class StateChangeNotification<T>
+    {
+        private final T state;
+        private final FutureStateChange<T> futureStateChange;
+        private final List<StateChangeListener<T>> stateChangeListeners;
+        private final long queuedNanos = System.nanoTime();
+
+        public StateChangeNotification(T state, FutureStateChange<T> futureStateChange, List<StateChangeListener<T>> stateChangeListeners)
+        {
+            this.state = requireNonNull(state, "state is null");
+            this.futureStateChange = requireNonNull(futureStateChange, "futureStateChange is null");
+            this.stateChangeListeners = requireNonNull(stateChangeListeners, "stateChangeListeners is null");
+        }
+
+        public T getState()
+        {
+            return state;
+        }
+
+        public FutureStateChange<T> getFutureStateChange()
+        {
+            return futureStateChange;
+        }
+
+        public List<StateChangeListener<T>> getStateChangeListeners()
+        {
+            return stateChangeListeners;
+        }
+
+        public long getQueuedNanos()
+        {
+            return queuedNanos;
+        }
+    }
+
     @Override
     public String toString()
     {
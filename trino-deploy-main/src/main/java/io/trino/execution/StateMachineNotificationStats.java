@@ -0,0 +1,83 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.trino.execution;
+
+import org.weakref.jmx.Managed;
+
+import java.util.concurrent.atomic.LongAdder;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+
+/**
+ * Notification statistics shared by all {@link StateMachine} instances. These are updated on every
+ * state change, so they only use striped counters and never take a lock.
+ */
+public class StateMachineNotificationStats
+{
+    private final LongAdder queuedNotifications = new LongAdder();
+    private final LongAdder deliveredNotifications = new LongAdder();
+    private final LongAdder coalescedNotifications = new LongAdder();
+    private final LongAdder notificationLatencyNanos = new LongAdder();
+
+    void notificationQueued()
+    {
+        queuedNotifications.increment();
+    }
+
+    void notificationDelivered(long queuedNanos)
+    {
+        queuedNotifications.decrement();
+        deliveredNotifications.increment();
+        notificationLatencyNanos.add(System.nanoTime() - queuedNanos);
+    }
+
+    void notificationRejected()
+    {
+        queuedNotifications.decrement();
+    }
+
+    void notificationCoalesced()
+    {
+        queuedNotifications.decrement();
+        coalescedNotifications.increment();
+    }
+
+    @Managed
+    public long getQueuedNotifications()
+    {
+        return queuedNotifications.sum();
+    }
+
+    @Managed
+    public long getDeliveredNotifications()
+    {
+        return deliveredNotifications.sum();
+    }
+
+    @Managed
+    public long getCoalescedNotifications()
+    {
+        return coalescedNotifications.sum();
+    }
+
+    @Managed
+    public double getAverageNotificationLatencyMillis()
+    {
+        long delivered = deliveredNotifications.sum();
+        if (delivered == 0) {
+            return 0;
+        }
+        return (double) notificationLatencyNanos.sum() / delivered / MILLISECONDS.toNanos(1);
+    }
+}
@@ -56,7 +56,7 @@ public class TaskStateMachine
     {
         this.taskId = requireNonNull(taskId, "taskId is null");
         this.executor = requireNonNull(executor, "executor is null");
-        taskState = new StateMachine<>("task " + taskId, executor, TaskState.RUNNING, TERMINAL_TASK_STATES);
+        taskState = new StateMachine<>("task " + taskId, executor, TaskState.RUNNING, TERMINAL_TASK_STATES, true);
         taskState.addStateChangeListener(newState -> log.debug("Task %s is %s", taskId, newState));
     }
 
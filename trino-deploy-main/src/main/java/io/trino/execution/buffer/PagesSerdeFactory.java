@@ -15,6 +15,7 @@ package io.trino.execution.buffer;
 
 import io.airlift.compress.lz4.Lz4Compressor;
 import io.airlift.compress.lz4.Lz4Decompressor;
+import io.trino.metadata.InternalBlockEncodingSerde;
 import io.trino.spi.block.BlockEncodingSerde;
 import io.trino.spiller.SpillCipher;
 
@@ -29,7 +30,20 @@ public class PagesSerdeFactory
 
     public PagesSerdeFactory(BlockEncodingSerde blockEncodingSerde, boolean compressionEnabled)
     {
-        this.blockEncodingSerde = requireNonNull(blockEncodingSerde, "blockEncodingSerde is null");
+        this(blockEncodingSerde, compressionEnabled, false);
+    }
+
+    /**
+     * @param encodingIdsEnabled write compact block encoding ids instead of names; only safe when the
+     * pages are read by the same version, see {@link InternalBlockEncodingSerde#withEncodingIds()}
+     */
+    public PagesSerdeFactory(BlockEncodingSerde blockEncodingSerde, boolean compressionEnabled, boolean encodingIdsEnabled)
+    {
+        requireNonNull(blockEncodingSerde, "blockEncodingSerde is null");
+        if (encodingIdsEnabled && blockEncodingSerde instanceof InternalBlockEncodingSerde) {
+            blockEncodingSerde = ((InternalBlockEncodingSerde) blockEncodingSerde).withEncodingIds();
+        }
+        this.blockEncodingSerde = blockEncodingSerde;
         this.compressionEnabled = compressionEnabled;
     }
 
@@ -15,15 +15,20 @@ package io.trino.metadata;
 
 import io.trino.spi.block.*;
 
+import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 
 import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.collect.ImmutableList.toImmutableList;
+import static java.util.Comparator.comparing;
 import static java.util.Objects.requireNonNull;
 
 public final class BlockEncodingManager
 {
     private final Map<String, BlockEncoding> blockEncodings = new ConcurrentHashMap<>();
+    // built-in encodings sorted by name, the index is the compact id used on the wire
+    private final List<BlockEncoding> builtInBlockEncodings;
 
     public BlockEncodingManager()
     {
@@ -43,6 +48,10 @@ public final class BlockEncodingManager
         addBlockEncoding(new SingleRowBlockEncoding());
         addBlockEncoding(new RunLengthBlockEncoding());
         addBlockEncoding(new LazyBlockEncoding());
+
+        builtInBlockEncodings = blockEncodings.values().stream()
+                .sorted(comparing(BlockEncoding::getName))
+                .collect(toImmutableList());
     }
 
     public BlockEncoding getBlockEncoding(String encodingName)
@@ -52,6 +61,16 @@ public final class BlockEncodingManager
         return blockEncoding;
     }
 
+    /**
+     * Returns the built-in encodings indexed by their compact id. The ids only depend on the
+     * encoding names, so they are the same on every node running the same version.
+     * Encodings added by plugins have no compact id.
+     */
+    public List<BlockEncoding> getBuiltInBlockEncodings()
+    {
+        return builtInBlockEncodings;
+    }
+
     public void addBlockEncoding(BlockEncoding blockEncoding)
     {
         requireNonNull(blockEncoding, "blockEncoding is null");
@@ -24,39 +24,84 @@ import io.trino.spi.type.TypeManager;
 import org.assertj.core.util.VisibleForTesting;
 
 import javax.inject.Inject;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.function.Function;
 
 import static java.nio.charset.StandardCharsets.UTF_8;
 import static java.util.Objects.requireNonNull;
 
+/**
+ * Blocks are prefixed with the name of their encoding, written as a length prefixed UTF-8 string.
+ * In the {@link #withEncodingIds() encoding id} mode, built-in encodings are instead written as a
+ * negative length holding their compact id, which is read back with an array lookup and without
+ * decoding a string. Both forms are always accepted on read, so the mode only needs to be enabled
+ * on the writing side of streams whose readers run the same version (e.g. spill files).
+ */
 public final class InternalBlockEncodingSerde
         implements BlockEncodingSerde
 {
     private final Function<String, BlockEncoding> blockEncodings;
     private final Function<TypeId, Type> types;
+    private final BlockEncoding[] blockEncodingsById;
+    private final Map<String, Integer> blockEncodingIds;
+    private final boolean writeEncodingIds;
 
     @Inject
     public InternalBlockEncodingSerde(BlockEncodingManager blockEncodingManager, TypeManager typeManager)
     {
-        this(blockEncodingManager::getBlockEncoding, typeManager::getType);
+        this(blockEncodingManager::getBlockEncoding, typeManager::getType, blockEncodingManager.getBuiltInBlockEncodings(), false);
     }
 
     @VisibleForTesting
     InternalBlockEncodingSerde(Function<String, BlockEncoding> blockEncodings, Function<TypeId, Type> types)
+    {
+        this(blockEncodings, types, List.of(), false);
+    }
+
+    private InternalBlockEncodingSerde(Function<String, BlockEncoding> blockEncodings, Function<TypeId, Type> types, List<BlockEncoding> builtInBlockEncodings, boolean writeEncodingIds)
     {
         this.blockEncodings = requireNonNull(blockEncodings, "blockEncodings is null");
         this.types = requireNonNull(types, "types is null");
+        this.blockEncodingsById = builtInBlockEncodings.toArray(new BlockEncoding[0]);
+        Map<String, Integer> blockEncodingIds = new HashMap<>();
+        for (int id = 0; id < blockEncodingsById.length; id++) {
+            blockEncodingIds.put(blockEncodingsById[id].getName(), id);
+        }
+        this.blockEncodingIds = blockEncodingIds;
+        this.writeEncodingIds = writeEncodingIds;
+    }
+
+    /**
+     * Returns a serde that writes compact ids for built-in block encodings.
+     */
+    public InternalBlockEncodingSerde withEncodingIds()
+    {
+        if (writeEncodingIds) {
+            return this;
+        }
+        return new InternalBlockEncodingSerde(blockEncodings, types, List.of(blockEncodingsById), true);
     }
 
     @Override
     public Block readBlock(SliceInput input)
     {
-        // read the encoding name
-        String encodingName = readLengthPrefixedString(input);
-
-        // look up the encoding factory
-        BlockEncoding blockEncoding = blockEncodings.apply(encodingName);
+        BlockEncoding blockEncoding;
+        int length = input.readInt();
+        if (length < 0) {
+            // compact encoding id
+            int id = -length - 1;
+            if (id >= blockEncodingsById.length) {
+                throw new IllegalArgumentException("Unknown block encoding id: " + id);
+            }
+            blockEncoding = blockEncodingsById[id];
+        }
+        else {
+            // read the encoding name and look up the encoding factory
+            blockEncoding = blockEncodings.apply(readString(input, length));
+        }
 
         // load read the encoding factory from the output stream
         return blockEncoding.readBlock(this, input);
@@ -79,8 +124,14 @@ public final class InternalBlockEncodingSerde
                 continue;
             }
 
-            // write the name to the output
-            writeLengthPrefixedString(output, encodingName);
+            // write the id or name to the output
+            Integer id = writeEncodingIds ? blockEncodingIds.get(encodingName) : null;
+            if (id != null) {
+                output.writeInt(-id - 1);
+            }
+            else {
+                writeLengthPrefixedString(output, encodingName);
+            }
 
             // write the block to the output
             blockEncoding.writeBlock(this, output, block);
@@ -112,7 +163,11 @@ public final class InternalBlockEncodingSerde
 
     private static String readLengthPrefixedString(SliceInput input)
     {
-        int length = input.readInt();
+        return readString(input, input.readInt());
+    }
+
+    private static String readString(SliceInput input, int length)
+    {
         byte[] bytes = new byte[length];
         input.readBytes(bytes);
         return new String(bytes, UTF_8);
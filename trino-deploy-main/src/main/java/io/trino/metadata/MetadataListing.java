@@ -13,27 +13,39 @@
  */
 package io.trino.metadata;
 
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.ImmutableSortedMap;
 import com.google.common.collect.ImmutableSortedSet;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.ListeningExecutorService;
+import io.airlift.concurrent.BoundedExecutor;
 import io.trino.Session;
 import io.trino.connector.CatalogName;
 import io.trino.security.AccessControl;
 import io.trino.spi.TrinoException;
 import io.trino.spi.connector.ColumnMetadata;
+import io.trino.spi.connector.ConnectorTableMetadata;
 import io.trino.spi.connector.SchemaTableName;
 import io.trino.spi.connector.TableColumnsMetadata;
 import io.trino.spi.security.GrantInfo;
 
 import java.util.*;
 import java.util.Map.Entry;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
 
 import static com.google.common.collect.ImmutableList.toImmutableList;
 import static com.google.common.collect.ImmutableMap.toImmutableMap;
 import static com.google.common.collect.ImmutableSet.toImmutableSet;
+import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.collect.Iterables.getOnlyElement;
+import static com.google.common.util.concurrent.MoreExecutors.listeningDecorator;
+import static io.trino.spi.StandardErrorCode.GENERIC_INTERNAL_ERROR;
 import static io.trino.spi.StandardErrorCode.TABLE_REDIRECTION_ERROR;
+import static java.util.Objects.requireNonNull;
 
 public final class MetadataListing
 {
@@ -242,4 +254,104 @@ public final class MetadataListing
 
         return result.build();
     }
+
+    /**
+     * Returns the full table metadata (columns, properties and comment) of every accessible table
+     * matching the prefix. Schemas are fetched concurrently, with at most {@code maxConcurrentSchemas}
+     * of them in flight at a time, so that bulk DDL export does not need a query per table.
+     * Views and materialized views are not included.
+     */
+    public static Map<SchemaTableName, TableMetadata> getTableMetadata(
+            Session session,
+            Metadata metadata,
+            AccessControl accessControl,
+            QualifiedTablePrefix prefix,
+            Executor executor,
+            int maxConcurrentSchemas)
+    {
+        requireNonNull(prefix, "prefix is null");
+        requireNonNull(executor, "executor is null");
+        checkArgument(maxConcurrentSchemas > 0, "maxConcurrentSchemas must be positive");
+
+        SortedSet<String> schemaNames = listSchemas(session, metadata, accessControl, prefix.getCatalogName(), prefix.getSchemaName());
+        ListeningExecutorService schemaExecutor = listeningDecorator(new BoundedExecutor(executor, maxConcurrentSchemas));
+
+        ImmutableList.Builder<ListenableFuture<Map<SchemaTableName, TableMetadata>>> futures = ImmutableList.builder();
+        for (String schemaName : schemaNames) {
+            QualifiedTablePrefix schemaPrefix = prefix.getTableName()
+                    .map(tableName -> new QualifiedTablePrefix(prefix.getCatalogName(), schemaName, tableName))
+                    .orElseGet(() -> new QualifiedTablePrefix(prefix.getCatalogName(), schemaName));
+            futures.add(schemaExecutor.submit(() -> getSchemaTableMetadata(session, metadata, accessControl, schemaPrefix)));
+        }
+
+        List<Map<SchemaTableName, TableMetadata>> schemaTables;
+        try {
+            schemaTables = Futures.allAsList(futures.build()).get();
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new TrinoException(GENERIC_INTERNAL_ERROR, "Interrupted while listing table metadata", e);
+        }
+        catch (ExecutionException e) {
+            if (e.getCause() instanceof TrinoException) {
+                throw (TrinoException) e.getCause();
+            }
+            throw new TrinoException(GENERIC_INTERNAL_ERROR, "Failed to list table metadata for " + prefix, e.getCause());
+        }
+
+        ImmutableMap.Builder<SchemaTableName, TableMetadata> result = ImmutableMap.builder();
+        schemaTables.forEach(result::putAll);
+        return result.build();
+    }
+
+    private static Map<SchemaTableName, TableMetadata> getSchemaTableMetadata(Session session, Metadata metadata, AccessControl accessControl, QualifiedTablePrefix prefix)
+    {
+        Set<SchemaTableName> views = ImmutableSet.<SchemaTableName>builder()
+                .addAll(listViews(session, metadata, accessControl, prefix))
+                .addAll(listMaterializedViews(session, metadata, accessControl, prefix))
+                .build();
+
+        ImmutableMap.Builder<SchemaTableName, TableMetadata> result = ImmutableMap.builder();
+        for (SchemaTableName table : ImmutableSortedSet.copyOf(Comparator.comparing(SchemaTableName::getTableName), listTables(session, metadata, accessControl, prefix))) {
+            if (views.contains(table)) {
+                continue;
+            }
+
+            QualifiedObjectName tableName = new QualifiedObjectName(prefix.getCatalogName(), table.getSchemaName(), table.getTableName());
+            Optional<TableHandle> tableHandle;
+            try {
+                tableHandle = metadata.getTableHandle(session, tableName);
+            }
+            catch (TrinoException e) {
+                // Ignore redirection errors, consistent with column listing
+                if (!e.getErrorCode().equals(TABLE_REDIRECTION_ERROR.toErrorCode())) {
+                    throw e;
+                }
+                continue;
+            }
+            if (tableHandle.isEmpty()) {
+                // table was dropped concurrently
+                continue;
+            }
+
+            TableMetadata tableMetadata = metadata.getTableMetadata(session, tableHandle.get());
+            Set<String> allowedColumns = accessControl.filterColumns(
+                    session.toSecurityContext(),
+                    tableName.asCatalogSchemaTableName(),
+                    tableMetadata.getColumns().stream()
+                            .map(ColumnMetadata::getName)
+                            .collect(toImmutableSet()));
+            ConnectorTableMetadata connectorMetadata = tableMetadata.getMetadata();
+            result.put(table, new TableMetadata(
+                    tableMetadata.getCatalogName(),
+                    new ConnectorTableMetadata(
+                            connectorMetadata.getTable(),
+                            connectorMetadata.getColumns().stream()
+                                    .filter(column -> allowedColumns.contains(column.getName()))
+                                    .collect(toImmutableList()),
+                            connectorMetadata.getProperties(),
+                            connectorMetadata.getComment())));
+        }
+        return result.build();
+    }
 }
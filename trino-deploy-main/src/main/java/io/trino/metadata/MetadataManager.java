@@ -48,6 +48,7 @@ import io.trino.spi.statistics.ComputedStatistics;
 import io.trino.spi.statistics.TableStatistics;
 import io.trino.spi.statistics.TableStatisticsMetadata;
 import io.trino.spi.type.*;
+import io.trino.sql.SqlPath;
 import io.trino.sql.analyzer.TypeSignatureProvider;
 import io.trino.sql.planner.ConnectorExpressions;
 import io.trino.sql.planner.PartitioningHandle;
@@ -55,6 +56,7 @@ import io.trino.sql.tree.QualifiedName;
 import io.trino.transaction.TransactionManager;
 import io.trino.type.BlockTypeOperators;
 import io.trino.type.InternalTypeManager;
+import org.weakref.jmx.Managed;
 
 import javax.annotation.concurrent.GuardedBy;
 import javax.inject.Inject;
@@ -95,6 +97,7 @@ import static java.util.Collections.nCopies;
 import static java.util.Collections.singletonList;
 import static java.util.Locale.ENGLISH;
 import static java.util.Objects.requireNonNull;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
 
 public final class MetadataManager
         implements Metadata
@@ -114,6 +117,10 @@ public final class MetadataManager
 
     private final Cache<OperatorCacheKey, ResolvedFunction> operatorCache;
     private final Cache<CoercionCacheKey, ResolvedFunction> coercionCache;
+    private final Cache<FunctionCacheKey, ResolvedFunction> functionCache;
+
+    private final boolean tableStatisticsCacheEnabled;
+    private final Cache<TableStatisticsCacheKey, TableStatistics> tableStatisticsCache;
 
     @Inject
     public MetadataManager(
@@ -143,6 +150,18 @@ public final class MetadataManager
         coercionCache = CacheBuilder.newBuilder()
                 .maximumSize(1000)
                 .build();
+
+        functionCache = CacheBuilder.newBuilder()
+                .maximumSize(10_000)
+                .recordStats()
+                .build();
+
+        tableStatisticsCacheEnabled = featuresConfig.getTableStatisticsCacheTtl().toMillis() > 0;
+        tableStatisticsCache = CacheBuilder.newBuilder()
+                .expireAfterWrite(featuresConfig.getTableStatisticsCacheTtl().toMillis(), MILLISECONDS)
+                .maximumSize(featuresConfig.getTableStatisticsCacheMaximumSize())
+                .recordStats()
+                .build();
     }
 
     public static MetadataManager createTestMetadataManager()
@@ -350,6 +369,7 @@ public final class MetadataManager
         CatalogName catalogName = tableExecuteHandle.getCatalogName();
         ConnectorMetadata metadata = getMetadata(session, catalogName);
         metadata.finishTableExecute(session.toConnectorSession(catalogName), tableExecuteHandle.getConnectorHandle(), fragments, tableExecuteState);
+        invalidateTableStatistics(catalogName);
     }
 
     @Override
@@ -507,11 +527,54 @@ public final class MetadataManager
     {
         CatalogName catalogName = tableHandle.getCatalogName();
         ConnectorMetadata metadata = getMetadata(session, catalogName);
+        // an arbitrary predicate cannot be compared, so only constraints fully described by their summary are cached
+        if (!tableStatisticsCacheEnabled || constraint.predicate().isPresent()) {
+            return loadTableStatistics(session, metadata, tableHandle, constraint);
+        }
+
+        // connectors may apply access control or user credentials when computing statistics,
+        // so entries are only shared between sessions with the same identity
+        TableStatisticsCacheKey key = new TableStatisticsCacheKey(
+                catalogName,
+                tableHandle.getConnectorHandle(),
+                constraint.getSummary(),
+                session.getConnectorProperties(catalogName),
+                session.getIdentity(),
+                catalogName.getCatalogName());
+        try {
+            return tableStatisticsCache.get(key, () -> loadTableStatistics(session, metadata, tableHandle, constraint));
+        }
+        catch (ExecutionException e) {
+            throw new UncheckedExecutionException(e);
+        }
+        catch (UncheckedExecutionException e) {
+            if (e.getCause() instanceof TrinoException) {
+                throw (TrinoException) e.getCause();
+            }
+            throw e;
+        }
+    }
+
+    private static TableStatistics loadTableStatistics(Session session, ConnectorMetadata metadata, TableHandle tableHandle, Constraint constraint)
+    {
+        CatalogName catalogName = tableHandle.getCatalogName();
         TableStatistics tableStatistics = metadata.getTableStatistics(session.toConnectorSession(catalogName), tableHandle.getConnectorHandle(), constraint);
         verifyNotNull(tableStatistics, "%s returned null tableStatistics for %s", metadata, tableHandle);
         return tableStatistics;
     }
 
+    /**
+     * Insert, output and analyze handles cannot be mapped back to the table handles used by
+     * the optimizer, and a single table may be cached under several pushed-down handles, so
+     * writes drop every cached entry of the catalog.
+     */
+    private void invalidateTableStatistics(CatalogName catalogName)
+    {
+        if (tableStatisticsCacheEnabled) {
+            tableStatisticsCache.asMap().keySet().removeIf(key -> key.getCatalogName().equals(catalogName));
+        }
+    }
+
     @Override
     public Map<String, ColumnHandle> getColumnHandles(Session session, TableHandle tableHandle)
     {
@@ -660,6 +723,7 @@ public final class MetadataManager
         CatalogName catalogName = catalogMetadata.getCatalogName();
         ConnectorMetadata metadata = catalogMetadata.getMetadata();
         metadata.dropSchema(session.toConnectorSession(catalogName), schema.getSchemaName());
+        invalidateTableStatistics(catalogName);
         if (catalogMetadata.getSecurityManagement() == SecurityManagement.SYSTEM) {
             systemSecurityMetadata.schemaDropped(session, schema);
         }
@@ -672,6 +736,7 @@ public final class MetadataManager
         CatalogName catalogName = catalogMetadata.getCatalogName();
         ConnectorMetadata metadata = catalogMetadata.getMetadata();
         metadata.renameSchema(session.toConnectorSession(catalogName), source.getSchemaName(), target);
+        invalidateTableStatistics(catalogName);
         if (catalogMetadata.getSecurityManagement() == SecurityManagement.SYSTEM) {
             systemSecurityMetadata.schemaRenamed(session, source, new CatalogSchemaName(source.getCatalogName(), target));
         }
@@ -698,6 +763,8 @@ public final class MetadataManager
         CatalogName catalog = catalogMetadata.getCatalogName();
         ConnectorMetadata metadata = catalogMetadata.getMetadata();
         metadata.createTable(session.toConnectorSession(catalog), tableMetadata, ignoreExisting);
+        // a table that was dropped and created again may be resolved to an equal table handle
+        invalidateTableStatistics(catalog);
         if (catalogMetadata.getSecurityManagement() == SecurityManagement.SYSTEM) {
             systemSecurityMetadata.tableCreated(session, new CatalogSchemaTableName(catalogName, tableMetadata.getTable()));
         }
@@ -716,6 +783,7 @@ public final class MetadataManager
 
         ConnectorMetadata metadata = catalogMetadata.getMetadata();
         metadata.renameTable(session.toConnectorSession(catalog), tableHandle.getConnectorHandle(), newTableName.asSchemaTableName());
+        invalidateTableStatistics(catalog);
         sourceTableName.ifPresent(name -> systemSecurityMetadata.tableRenamed(session, name, newTableName.asCatalogSchemaTableName()));
     }
 
@@ -749,6 +817,7 @@ public final class MetadataManager
         CatalogName catalogName = tableHandle.getCatalogName();
         ConnectorMetadata metadata = getMetadataForWrite(session, catalogName);
         metadata.renameColumn(session.toConnectorSession(catalogName), tableHandle.getConnectorHandle(), source, target.toLowerCase(ENGLISH));
+        invalidateTableStatistics(catalogName);
     }
 
     @Override
@@ -757,6 +826,7 @@ public final class MetadataManager
         CatalogName catalogName = tableHandle.getCatalogName();
         ConnectorMetadata metadata = getMetadataForWrite(session, catalogName);
         metadata.addColumn(session.toConnectorSession(catalogName), tableHandle.getConnectorHandle(), column);
+        invalidateTableStatistics(catalogName);
     }
 
     @Override
@@ -765,6 +835,7 @@ public final class MetadataManager
         CatalogName catalogName = tableHandle.getCatalogName();
         ConnectorMetadata metadata = getMetadataForWrite(session, catalogName);
         metadata.dropColumn(session.toConnectorSession(catalogName), tableHandle.getConnectorHandle(), column);
+        invalidateTableStatistics(catalogName);
     }
 
     @Override
@@ -789,6 +860,7 @@ public final class MetadataManager
         ConnectorMetadata metadata = catalogMetadata.getMetadata();
         Optional<CatalogSchemaTableName> tableName = getTableNameIfSystemSecurity(session, catalogMetadata, tableHandle);
         metadata.dropTable(session.toConnectorSession(catalogName), tableHandle.getConnectorHandle());
+        invalidateTableStatistics(catalogName);
         tableName.ifPresent(name -> systemSecurityMetadata.tableDropped(session, name));
     }
 
@@ -798,6 +870,7 @@ public final class MetadataManager
         CatalogName catalogName = tableHandle.getCatalogName();
         ConnectorMetadata metadata = getMetadataForWrite(session, catalogName);
         metadata.truncateTable(session.toConnectorSession(catalogName), tableHandle.getConnectorHandle());
+        invalidateTableStatistics(catalogName);
     }
 
     @Override
@@ -847,6 +920,7 @@ public final class MetadataManager
         CatalogName catalogName = tableHandle.getCatalogName();
         CatalogMetadata catalogMetadata = getCatalogMetadataForWrite(session, catalogName);
         catalogMetadata.getMetadata().finishStatisticsCollection(session.toConnectorSession(catalogName), tableHandle.getConnectorHandle(), computedStatistics);
+        invalidateTableStatistics(catalogName);
     }
 
     @Override
@@ -893,7 +967,9 @@ public final class MetadataManager
     {
         CatalogName catalogName = tableHandle.getCatalogName();
         ConnectorMetadata metadata = getMetadata(session, catalogName);
-        return metadata.finishCreateTable(session.toConnectorSession(catalogName), tableHandle.getConnectorHandle(), fragments, computedStatistics);
+        Optional<ConnectorOutputMetadata> outputMetadata = metadata.finishCreateTable(session.toConnectorSession(catalogName), tableHandle.getConnectorHandle(), fragments, computedStatistics);
+        invalidateTableStatistics(catalogName);
+        return outputMetadata;
     }
 
     @Override
@@ -920,7 +996,9 @@ public final class MetadataManager
     {
         CatalogName catalogName = tableHandle.getCatalogName();
         ConnectorMetadata metadata = getMetadata(session, catalogName);
-        return metadata.finishInsert(session.toConnectorSession(catalogName), tableHandle.getConnectorHandle(), fragments, computedStatistics);
+        Optional<ConnectorOutputMetadata> outputMetadata = metadata.finishInsert(session.toConnectorSession(catalogName), tableHandle.getConnectorHandle(), fragments, computedStatistics);
+        invalidateTableStatistics(catalogName);
+        return outputMetadata;
     }
 
     @Override
@@ -984,8 +1062,10 @@ public final class MetadataManager
         List<ConnectorTableHandle> sourceConnectorHandles = sourceTableHandles.stream()
                 .map(TableHandle::getConnectorHandle)
                 .collect(toImmutableList());
-        return metadata.finishRefreshMaterializedView(session.toConnectorSession(catalogName), tableHandle.getConnectorHandle(), insertHandle.getConnectorHandle(),
+        Optional<ConnectorOutputMetadata> outputMetadata = metadata.finishRefreshMaterializedView(session.toConnectorSession(catalogName), tableHandle.getConnectorHandle(), insertHandle.getConnectorHandle(),
                 fragments, computedStatistics, sourceConnectorHandles);
+        invalidateTableStatistics(catalogName);
+        return outputMetadata;
     }
 
     @Override
@@ -1042,13 +1122,17 @@ public final class MetadataManager
         ConnectorMetadata metadata = getMetadataForWrite(session, catalogName);
         ConnectorSession connectorSession = session.toConnectorSession(catalogName);
 
+        OptionalLong deletedRows;
         if (metadata.usesLegacyTableLayouts()) {
             checkArgument(table.getLayout().isPresent(), "table layout is missing");
-            return metadata.metadataDelete(session.toConnectorSession(catalogName), table.getConnectorHandle(), table.getLayout().get());
+            deletedRows = metadata.metadataDelete(session.toConnectorSession(catalogName), table.getConnectorHandle(), table.getLayout().get());
         }
-        checkArgument(table.getLayout().isEmpty(), "table layout should not be present");
-
-        return metadata.executeDelete(connectorSession, table.getConnectorHandle());
+        else {
+            checkArgument(table.getLayout().isEmpty(), "table layout should not be present");
+            deletedRows = metadata.executeDelete(connectorSession, table.getConnectorHandle());
+        }
+        invalidateTableStatistics(catalogName);
+        return deletedRows;
     }
 
     @Override
@@ -1066,6 +1150,7 @@ public final class MetadataManager
         CatalogName catalogName = tableHandle.getCatalogName();
         ConnectorMetadata metadata = getMetadata(session, catalogName);
         metadata.finishDelete(session.toConnectorSession(catalogName), tableHandle.getConnectorHandle(), fragments);
+        invalidateTableStatistics(catalogName);
     }
 
     @Override
@@ -1083,6 +1168,7 @@ public final class MetadataManager
         CatalogName catalogName = tableHandle.getCatalogName();
         ConnectorMetadata metadata = getMetadata(session, catalogName);
         metadata.finishUpdate(session.toConnectorSession(catalogName), tableHandle.getConnectorHandle(), fragments);
+        invalidateTableStatistics(catalogName);
     }
 
     @Override
@@ -2104,6 +2190,10 @@ public final class MetadataManager
     public void addFunctions(List<? extends SqlFunction> functionInfos)
     {
         functions.addFunctions(functionInfos);
+        // a new function can be a better match for an already resolved call
+        functionCache.invalidateAll();
+        operatorCache.invalidateAll();
+        coercionCache.invalidateAll();
     }
 
     @Override
@@ -2153,8 +2243,95 @@ public final class MetadataManager
 
     private ResolvedFunction resolvedFunctionInternal(Session session, QualifiedName name, List<TypeSignatureProvider> parameterTypes)
     {
-        return functionDecoder.fromQualifiedName(name)
-                .orElseGet(() -> resolve(session, functionResolver.resolveFunction(session, functions.get(name), name, parameterTypes)));
+        Optional<ResolvedFunction> decoded = functionDecoder.fromQualifiedName(name);
+        if (decoded.isPresent()) {
+            return decoded.get();
+        }
+
+        // lambda argument types depend on the binding of the other arguments, and can not be used as a cache key
+        if (parameterTypes.stream().anyMatch(TypeSignatureProvider::hasDependency)) {
+            return resolve(session, functionResolver.resolveFunction(session, functions.get(name), name, parameterTypes));
+        }
+
+        List<TypeSignature> argumentTypes = parameterTypes.stream()
+                .map(TypeSignatureProvider::getTypeSignature)
+                .collect(toImmutableList());
+        try {
+            // the candidate functions are global and the session is only used to resolve coercions,
+            // so the resolution depends on the session only through its path, which is part of the key
+            return functionCache.get(
+                    new FunctionCacheKey(session.getPath(), name, argumentTypes),
+                    () -> resolve(session, functionResolver.resolveFunction(session, functions.get(name), name, parameterTypes)));
+        }
+        catch (ExecutionException e) {
+            throw new UncheckedExecutionException(e);
+        }
+        catch (UncheckedExecutionException e) {
+            if (e.getCause() instanceof TrinoException) {
+                throw (TrinoException) e.getCause();
+            }
+            throw e;
+        }
+    }
+
+    @Managed
+    public long getFunctionCacheSize()
+    {
+        return functionCache.size();
+    }
+
+    @Managed
+    public Double getFunctionCacheHitRate()
+    {
+        return functionCache.stats().hitRate();
+    }
+
+    @Managed
+    public Double getFunctionCacheMissRate()
+    {
+        return functionCache.stats().missRate();
+    }
+
+    @Managed
+    public long getFunctionCacheRequestCount()
+    {
+        return functionCache.stats().requestCount();
+    }
+
+    @Managed
+    public void functionCacheReset()
+    {
+        functionCache.invalidateAll();
+    }
+
+    @Managed
+    public long getTableStatisticsCacheSize()
+    {
+        return tableStatisticsCache.size();
+    }
+
+    @Managed
+    public Double getTableStatisticsCacheHitRate()
+    {
+        return tableStatisticsCache.stats().hitRate();
+    }
+
+    @Managed
+    public Double getTableStatisticsCacheMissRate()
+    {
+        return tableStatisticsCache.stats().missRate();
+    }
+
+    @Managed
+    public long getTableStatisticsCacheRequestCount()
+    {
+        return tableStatisticsCache.stats().requestCount();
+    }
+
+    @Managed
+    public void tableStatisticsCacheReset()
+    {
+        tableStatisticsCache.invalidateAll();
     }
 
     @Override
@@ -2673,4 +2850,105 @@ public final class MetadataManager
                     Objects.equals(this.toType, other.toType);
         }
     }
+
+    private static class FunctionCacheKey
+    {
+        private final SqlPath path;
+        private final QualifiedName name;
+        private final List<TypeSignature> argumentTypes;
+
+        private FunctionCacheKey(SqlPath path, QualifiedName name, List<TypeSignature> argumentTypes)
+        {
+            this.path = requireNonNull(path, "path is null");
+            this.name = requireNonNull(name, "name is null");
+            this.argumentTypes = ImmutableList.copyOf(requireNonNull(argumentTypes, "argumentTypes is null"));
+        }
+
+        @Override
+        public int hashCode()
+        {
+            return Objects.hash(path, name, argumentTypes);
+        }
+
+        @Override
+        public boolean equals(Object obj)
+        {
+            if (this == obj) {
+                return true;
+            }
+            if (!(obj instanceof FunctionCacheKey)) {
+                return false;
+            }
+            FunctionCacheKey other = (FunctionCacheKey) obj;
+            return Objects.equals(this.path, other.path) &&
+                    Objects.equals(this.name, other.name) &&
+                    Objects.equals(this.argumentTypes, other.argumentTypes);
+        }
+    }
+
+    private static class TableStatisticsCacheKey
+    {
+        private final CatalogName catalogName;
+        private final ConnectorTableHandle tableHandle;
+        private final TupleDomain<ColumnHandle> summary;
+        private final Map<String, String> connectorProperties;
+        // Identity equality only compares the user, so the attributes that may change what a connector returns are kept separately
+        private final String user;
+        private final Set<String> groups;
+        private final Set<String> enabledRoles;
+        private final Optional<SelectedRole> catalogRole;
+        private final Map<String, String> extraCredentials;
+
+        private TableStatisticsCacheKey(
+                CatalogName catalogName,
+                ConnectorTableHandle tableHandle,
+                TupleDomain<ColumnHandle> summary,
+                Map<String, String> connectorProperties,
+                Identity identity,
+                String catalog)
+        {
+            this.catalogName = requireNonNull(catalogName, "catalogName is null");
+            this.tableHandle = requireNonNull(tableHandle, "tableHandle is null");
+            this.summary = requireNonNull(summary, "summary is null");
+            this.connectorProperties = ImmutableMap.copyOf(requireNonNull(connectorProperties, "connectorProperties is null"));
+            requireNonNull(identity, "identity is null");
+            this.user = identity.getUser();
+            this.groups = ImmutableSet.copyOf(identity.getGroups());
+            this.enabledRoles = ImmutableSet.copyOf(identity.getEnabledRoles());
+            this.catalogRole = Optional.ofNullable(identity.getCatalogRoles().get(catalog));
+            this.extraCredentials = ImmutableMap.copyOf(identity.getExtraCredentials());
+        }
+
+        public CatalogName getCatalogName()
+        {
+            return catalogName;
+        }
+
+        @Override
+        public int hashCode()
+        {
+            return Objects.hash(catalogName, tableHandle, summary, connectorProperties, user, groups, enabledRoles, catalogRole, extraCredentials);
+        }
+
+        @Override
+        public boolean equals(Object obj)
+        {
+            if (this == obj) {
+                return true;
+            }
+            if (!(obj instanceof TableStatisticsCacheKey)) {
+                return false;
+            }
+            TableStatisticsCacheKey other = (TableStatisticsCacheKey) obj;
+            return Objects.equals(this.catalogName, other.catalogName) &&
+                    Objects.equals(this.tableHandle, other.tableHandle) &&
+                    Objects.equals(this.summary, other.summary) &&
+                    Objects.equals(this.connectorProperties, other.connectorProperties) &&
+                    Objects.equals(this.user, other.user) &&
+                    Objects.equals(this.groups, other.groups) &&
+                    Objects.equals(this.enabledRoles, other.enabledRoles) &&
+                    Objects.equals(this.catalogRole, other.catalogRole) &&
+                    Objects.equals(this.extraCredentials, other.extraCredentials);
+        }
+    }
 }
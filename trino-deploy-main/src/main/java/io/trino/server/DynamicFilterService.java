@@ -20,6 +20,7 @@ import com.google.common.collect.*;
 import com.google.common.util.concurrent.ListenableFuture;
 import com.google.common.util.concurrent.SettableFuture;
 import com.google.inject.Inject;
+import io.airlift.units.DataSize;
 import io.airlift.units.Duration;
 import io.trino.Session;
 import io.trino.execution.DynamicFilterConfig;
@@ -59,6 +60,7 @@ import java.util.function.Consumer;
 
 import static com.google.common.base.Functions.identity;
 import static com.google.common.base.MoreObjects.toStringHelper;
+import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkState;
 import static com.google.common.collect.ImmutableList.toImmutableList;
 import static com.google.common.collect.ImmutableMap.toImmutableMap;
@@ -69,9 +71,9 @@ import static com.google.common.collect.Sets.newConcurrentHashSet;
 import static com.google.common.collect.Sets.union;
 import static io.airlift.concurrent.MoreFutures.*;
 import static io.airlift.concurrent.Threads.daemonThreadsNamed;
+import static io.airlift.units.DataSize.succinctBytes;
 import static io.airlift.units.Duration.succinctNanos;
 import static io.trino.spi.connector.DynamicFilter.EMPTY;
-import static io.trino.spi.predicate.Domain.union;
 import static io.trino.sql.DynamicFilters.extractDynamicFilters;
 import static io.trino.sql.DynamicFilters.extractSourceSymbols;
 import static io.trino.sql.planner.DomainCoercer.applySaturatedCasts;
@@ -88,6 +90,8 @@ public class DynamicFilterService
     private final Metadata metadata;
     private final TypeOperators typeOperators;
     private final ExecutorService executor;
+    private final int mergedDomainCompactionThreshold;
+    private final long maxMergedDomainSizeInBytes;
     private final Map<QueryId, DynamicFilterContext> dynamicFilterContexts = new ConcurrentHashMap<>();
 
     @Inject
@@ -96,15 +100,36 @@ public class DynamicFilterService
         this(
                 metadata,
                 typeOperators,
-                newFixedThreadPool(dynamicFilterConfig.getServiceThreadCount(), daemonThreadsNamed("DynamicFilterService")));
+                newFixedThreadPool(dynamicFilterConfig.getServiceThreadCount(), daemonThreadsNamed("DynamicFilterService")),
+                dynamicFilterConfig.getMergedDomainCompactionThreshold(),
+                dynamicFilterConfig.getMaxMergedDomainSize());
     }
 
     @VisibleForTesting
     public DynamicFilterService(Metadata metadata, TypeOperators typeOperators, ExecutorService executor)
+    {
+        this(
+                metadata,
+                typeOperators,
+                executor,
+                new DynamicFilterConfig().getMergedDomainCompactionThreshold(),
+                new DynamicFilterConfig().getMaxMergedDomainSize());
+    }
+
+    @VisibleForTesting
+    public DynamicFilterService(
+            Metadata metadata,
+            TypeOperators typeOperators,
+            ExecutorService executor,
+            int mergedDomainCompactionThreshold,
+            DataSize maxMergedDomainSize)
     {
         this.metadata = requireNonNull(metadata, "metadata is null");
         this.typeOperators = requireNonNull(typeOperators, "typeOperators is null");
         this.executor = requireNonNull(executor, "executor is null");
+        checkArgument(mergedDomainCompactionThreshold > 0, "mergedDomainCompactionThreshold must be positive");
+        this.mergedDomainCompactionThreshold = mergedDomainCompactionThreshold;
+        this.maxMergedDomainSizeInBytes = requireNonNull(maxMergedDomainSize, "maxMergedDomainSize is null").toBytes();
     }
 
     @PreDestroy
@@ -147,6 +172,8 @@ public class DynamicFilterService
                 dynamicFilters,
                 lazyDynamicFilters,
                 replicatedDynamicFilters,
+                mergedDomainCompactionThreshold,
+                maxMergedDomainSizeInBytes,
                 0));
     }
 
@@ -185,7 +212,9 @@ public class DynamicFilterService
                             dynamicFilterId,
                             // use small limit for readability
                             entry.getValue().toString(connectorSession, 2),
-                            context.getDynamicFilterCollectionDuration(dynamicFilterId));
+                            context.getDynamicFilterCollectionDuration(dynamicFilterId),
+                            context.getDynamicFilterMergeDuration(dynamicFilterId),
+                            Optional.of(succinctBytes(entry.getValue().getRetainedSizeInBytes())));
                 })
                 .collect(toImmutableList());
         return new DynamicFiltersStats(
@@ -398,25 +427,31 @@ public class DynamicFilterService
         }
 
         OptionalInt stageNumberOfTasks = context.getNumberOfTasks(stageId);
-        Map<DynamicFilterId, List<Domain>> newDynamicFilters = context.getTaskDynamicFilters(stageId, selectedFilters).entrySet().stream()
+        Set<DynamicFilterId> newDynamicFilters = context.getTaskDynamicFilters(stageId, selectedFilters).entrySet().stream()
                 .filter(stageDomains -> {
-                    if (stageDomains.getValue().stream().anyMatch(Domain::isAll)) {
+                    int taskCount = stageDomains.getValue().getTaskCount();
+                    if (taskCount == 0) {
+                        return false;
+                    }
+
+                    if (stageDomains.getValue().isAll()) {
                         // if one of the domains is all, we don't need to get dynamic filters from all tasks
                         return true;
                     }
 
-                    if (!stageDomains.getValue().isEmpty() && context.getReplicatedDynamicFilters().contains(stageDomains.getKey())) {
+                    if (context.getReplicatedDynamicFilters().contains(stageDomains.getKey())) {
                         // for replicated dynamic filters it's enough to get dynamic filter from a single task
                         checkState(
-                                stageDomains.getValue().size() == 1,
+                                taskCount == 1,
                                 "Replicated dynamic filter should be collected from single task");
                         return true;
                     }
 
                     // check if all tasks of a dynamic filter source have reported dynamic filter summary
-                    return stageNumberOfTasks.isPresent() && stageDomains.getValue().size() == stageNumberOfTasks.getAsInt();
+                    return stageNumberOfTasks.isPresent() && taskCount == stageNumberOfTasks.getAsInt();
                 })
-                .collect(toImmutableMap(Map.Entry::getKey, Map.Entry::getValue));
+                .map(Map.Entry::getKey)
+                .collect(toImmutableSet());
 
         context.addDynamicFilters(newDynamicFilters);
     }
@@ -601,22 +636,28 @@ public class DynamicFilterService
         private final DynamicFilterId dynamicFilterId;
         private final String simplifiedDomain;
         private final Optional<Duration> collectionDuration;
+        private final Optional<Duration> mergeDuration;
+        private final Optional<DataSize> domainSize;
 
         @VisibleForTesting
         DynamicFilterDomainStats(DynamicFilterId dynamicFilterId, String simplifiedDomain)
         {
-            this(dynamicFilterId, simplifiedDomain, Optional.empty());
+            this(dynamicFilterId, simplifiedDomain, Optional.empty(), Optional.empty(), Optional.empty());
         }
 
         @JsonCreator
         public DynamicFilterDomainStats(
                 @JsonProperty("dynamicFilterId") DynamicFilterId dynamicFilterId,
                 @JsonProperty("simplifiedDomain") String simplifiedDomain,
-                @JsonProperty("collectionDuration") Optional<Duration> collectionDuration)
+                @JsonProperty("collectionDuration") Optional<Duration> collectionDuration,
+                @JsonProperty("mergeDuration") Optional<Duration> mergeDuration,
+                @JsonProperty("domainSize") Optional<DataSize> domainSize)
         {
             this.dynamicFilterId = requireNonNull(dynamicFilterId, "dynamicFilterId is null");
             this.simplifiedDomain = requireNonNull(simplifiedDomain, "simplifiedDomain is null");
             this.collectionDuration = requireNonNull(collectionDuration, "collectionDuration is null");
+            this.mergeDuration = requireNonNull(mergeDuration, "mergeDuration is null");
+            this.domainSize = requireNonNull(domainSize, "domainSize is null");
         }
 
         @JsonProperty
@@ -637,6 +678,24 @@ public class DynamicFilterService
             return collectionDuration;
         }
 
+        /**
+         * Time spent merging the task domains of the dynamic filter.
+         */
+        @JsonProperty
+        public Optional<Duration> getMergeDuration()
+        {
+            return mergeDuration;
+        }
+
+        /**
+         * Retained size of the merged dynamic filter domain.
+         */
+        @JsonProperty
+        public Optional<DataSize> getDomainSize()
+        {
+            return domainSize;
+        }
+
         @Override
         public boolean equals(Object o)
         {
@@ -664,6 +723,8 @@ public class DynamicFilterService
                     .add("dynamicFilterId", dynamicFilterId)
                     .add("simplifiedDomain", simplifiedDomain)
                     .add("collectionDuration", collectionDuration)
+                    .add("mergeDuration", mergeDuration)
+                    .add("domainSize", domainSize)
                     .toString();
         }
     }
@@ -679,18 +740,21 @@ public class DynamicFilterService
         private final Session session;
         private final Map<DynamicFilterId, Domain> dynamicFilterSummaries = new ConcurrentHashMap<>();
         private final Map<DynamicFilterId, Long> dynamicFilterCollectionTime = new ConcurrentHashMap<>();
+        private final Map<DynamicFilterId, Long> dynamicFilterMergeTime = new ConcurrentHashMap<>();
         private final Set<DynamicFilterId> dynamicFilters;
         private final Map<DynamicFilterId, SettableFuture<Void>> lazyDynamicFilters;
         private final Set<DynamicFilterId> replicatedDynamicFilters;
         private final Map<StageId, Set<DynamicFilterId>> stageDynamicFilters = new ConcurrentHashMap<>();
         private final Map<StageId, Integer> stageNumberOfTasks = new ConcurrentHashMap<>();
-        // when map value for given filter id is empty it means that dynamic filter has already been collected
+        // when there is no map value for given filter id it means that dynamic filter has already been collected
         // and no partial task domains are required
-        private final Map<DynamicFilterId, Map<TaskId, Domain>> taskDynamicFilters = new ConcurrentHashMap<>();
+        private final Map<DynamicFilterId, MergedTaskDomains> taskDynamicFilters = new ConcurrentHashMap<>();
         @GuardedBy("dynamicFilterConsumers")
         // This should not be a ConcurrentHashMap because we want to prevent concurrent addition of new consumers during the
         // removal of existing consumers from this map in addDynamicFilters. This ensures that new consumers don't miss filter completion.
         private final Map<DynamicFilterId, List<Consumer<Map<DynamicFilterId, Domain>>>> dynamicFilterConsumers = new HashMap<>();
+        private final int mergedDomainCompactionThreshold;
+        private final long maxMergedDomainSizeInBytes;
         private final int attemptId;
         private final long queryAttemptStartTime = System.nanoTime();
 
@@ -699,6 +763,8 @@ public class DynamicFilterService
                 Set<DynamicFilterId> dynamicFilters,
                 Set<DynamicFilterId> lazyDynamicFilters,
                 Set<DynamicFilterId> replicatedDynamicFilters,
+                int mergedDomainCompactionThreshold,
+                long maxMergedDomainSizeInBytes,
                 int attemptId)
         {
             this.session = requireNonNull(session, "session is null");
@@ -707,8 +773,10 @@ public class DynamicFilterService
             this.lazyDynamicFilters = lazyDynamicFilters.stream()
                     .collect(toImmutableMap(identity(), filter -> SettableFuture.create()));
             this.replicatedDynamicFilters = requireNonNull(replicatedDynamicFilters, "replicatedDynamicFilters is null");
+            this.mergedDomainCompactionThreshold = mergedDomainCompactionThreshold;
+            this.maxMergedDomainSizeInBytes = maxMergedDomainSizeInBytes;
             dynamicFilters.forEach(filter -> {
-                taskDynamicFilters.put(filter, new ConcurrentHashMap<>());
+                taskDynamicFilters.put(filter, new MergedTaskDomains(mergedDomainCompactionThreshold, maxMergedDomainSizeInBytes));
                 dynamicFilterConsumers.put(filter, new ArrayList<>());
             });
             this.attemptId = attemptId;
@@ -721,6 +789,8 @@ public class DynamicFilterService
                     dynamicFilters,
                     lazyDynamicFilters.keySet(),
                     replicatedDynamicFilters,
+                    mergedDomainCompactionThreshold,
+                    maxMergedDomainSizeInBytes,
                     attemptId);
         }
 
@@ -762,26 +832,30 @@ public class DynamicFilterService
                     .orElse(OptionalInt.empty());
         }
 
-        private Map<DynamicFilterId, List<Domain>> getTaskDynamicFilters(StageId stageId, Optional<Set<DynamicFilterId>> selectedFilters)
+        private Map<DynamicFilterId, MergedTaskDomains> getTaskDynamicFilters(StageId stageId, Optional<Set<DynamicFilterId>> selectedFilters)
         {
-            return selectedFilters.orElseGet(() -> stageDynamicFilters.get(stageId)).stream()
-                    .collect(toImmutableMap(
-                            identity(),
-                            filter -> Optional.ofNullable(taskDynamicFilters.get(filter))
-                                    .map(taskDomains -> ImmutableList.copyOf(taskDomains.values()))
-                                    // return empty list in case filter has already been collected and task domains have been removed
-                                    .orElse(ImmutableList.of())));
+            ImmutableMap.Builder<DynamicFilterId, MergedTaskDomains> result = ImmutableMap.builder();
+            for (DynamicFilterId filter : selectedFilters.orElseGet(() -> stageDynamicFilters.get(stageId))) {
+                // skip filters that have already been collected and whose task domains have been removed
+                MergedTaskDomains taskDomains = taskDynamicFilters.get(filter);
+                if (taskDomains != null) {
+                    result.put(filter, taskDomains);
+                }
+            }
+            return result.build();
         }
 
-        private void addDynamicFilters(Map<DynamicFilterId, List<Domain>> newDynamicFilters)
+        private void addDynamicFilters(Set<DynamicFilterId> newDynamicFilters)
         {
             SetMultimap<Consumer<Map<DynamicFilterId, Domain>>, DynamicFilterId> completedConsumers = HashMultimap.create();
-            newDynamicFilters.forEach((filter, domain) -> {
-                if (taskDynamicFilters.remove(filter) == null) {
+            newDynamicFilters.forEach(filter -> {
+                MergedTaskDomains taskDomains = taskDynamicFilters.remove(filter);
+                if (taskDomains == null) {
                     // filter has been collected concurrently
                     return;
                 }
-                dynamicFilterSummaries.put(filter, union(domain));
+                dynamicFilterSummaries.put(filter, taskDomains.getDomain());
+                dynamicFilterMergeTime.put(filter, taskDomains.getMergeTimeNanos());
                 Optional.ofNullable(lazyDynamicFilters.get(filter)).ifPresent(future -> future.set(null));
                 dynamicFilterCollectionTime.put(filter, System.nanoTime());
                 List<Consumer<Map<DynamicFilterId, Domain>>> consumers;
@@ -804,16 +878,12 @@ public class DynamicFilterService
             stageDynamicFilters.computeIfAbsent(taskId.getStageId(), ignored -> newConcurrentHashSet())
                     .addAll(newDynamicFilters.keySet());
             newDynamicFilters.forEach((filter, domain) -> {
-                Map<TaskId, Domain> taskDomains = taskDynamicFilters.get(filter);
+                MergedTaskDomains taskDomains = taskDynamicFilters.get(filter);
                 if (taskDomains == null) {
                     // dynamic filter has already been collected
                     return;
                 }
-                // Narrowing down of task dynamic filter is not supported.
-                // Currently, task dynamic filters are derived from join and semi-join,
-                // which produce just a single version of dynamic filter.
-                Domain previousDomain = taskDomains.put(taskId, domain);
-                checkState(previousDomain == null || domain.equals(previousDomain), "Different task domains were set");
+                taskDomains.add(taskId, domain);
             });
         }
 
@@ -847,12 +917,94 @@ public class DynamicFilterService
             return Optional.of(succinctNanos(filterCollectionTime - queryAttemptStartTime));
         }
 
+        private Optional<Duration> getDynamicFilterMergeDuration(DynamicFilterId filterId)
+        {
+            return Optional.ofNullable(dynamicFilterMergeTime.get(filterId))
+                    .map(Duration::succinctNanos);
+        }
+
         private int getAttemptId()
         {
             return attemptId;
         }
     }
 
+    /**
+     * Folds the task domains of a dynamic filter into a single domain as they arrive, so that task domains
+     * are not retained until all tasks have reported. The merged domain is compacted to a single range
+     * when it has too many ranges or discrete values, or when it becomes too large. Compaction only widens
+     * the domain, which is safe for dynamic filtering.
+     * <p>
+     * A task reports a single domain, and repeated reports of it are ignored. Since the task domains are
+     * not retained, a task that reports a different domain is only detected by the hash of its first
+     * domain: a different domain with the same hash is ignored like a repeated report, so the first
+     * domain of a task is always the one that is merged.
+     */
+    @ThreadSafe
+    private static class MergedTaskDomains
+    {
+        private final int compactionThreshold;
+        private final long maxRetainedSizeInBytes;
+
+        // hash of the first domain reported by each task, which detects most different domains
+        // reported by the same task without retaining the task domains
+        @GuardedBy("this")
+        private final Map<TaskId, Integer> taskDomainHashes = new HashMap<>();
+        @GuardedBy("this")
+        private Domain domain;
+        @GuardedBy("this")
+        private long mergeTimeNanos;
+
+        private MergedTaskDomains(int compactionThreshold, long maxRetainedSizeInBytes)
+        {
+            this.compactionThreshold = compactionThreshold;
+            this.maxRetainedSizeInBytes = maxRetainedSizeInBytes;
+        }
+
+        private synchronized void add(TaskId taskId, Domain taskDomain)
+        {
+            // Narrowing down of task dynamic filter is not supported.
+            // Currently, task dynamic filters are derived from join and semi-join,
+            // which produce just a single version of dynamic filter.
+            Integer previousDomainHash = taskDomainHashes.putIfAbsent(taskId, taskDomain.hashCode());
+            if (previousDomainHash != null) {
+                // best effort: a different domain whose hash collides with the first one is not detected
+                checkState(previousDomainHash == taskDomain.hashCode(), "Different task domains were set");
+                return;
+            }
+
+            long start = System.nanoTime();
+            Domain merged = domain == null ? taskDomain : domain.union(taskDomain);
+            merged = merged.simplify(compactionThreshold);
+            if (merged.getRetainedSizeInBytes() > maxRetainedSizeInBytes) {
+                merged = merged.simplify(1);
+            }
+            domain = merged;
+            mergeTimeNanos += System.nanoTime() - start;
+        }
+
+        private synchronized int getTaskCount()
+        {
+            return taskDomainHashes.size();
+        }
+
+        private synchronized boolean isAll()
+        {
+            return domain != null && domain.isAll();
+        }
+
+        private synchronized Domain getDomain()
+        {
+            checkState(domain != null, "No task domains");
+            return domain;
+        }
+
+        private synchronized long getMergeTimeNanos()
+        {
+            return mergeTimeNanos;
+        }
+    }
+
     private static class CurrentDynamicFilter
     {
         private final int completedDynamicFiltersCount;
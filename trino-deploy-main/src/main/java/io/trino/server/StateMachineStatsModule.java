@@ -0,0 +1,35 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.trino.server;
+
+import com.google.inject.Binder;
+import com.google.inject.Module;
+import io.trino.execution.StateMachine;
+import io.trino.execution.StateMachineNotificationStats;
+
+import static org.weakref.jmx.guice.ExportBinder.newExporter;
+
+/**
+ * Exports the notification statistics shared by all {@link StateMachine} instances of the server.
+ */
+public class StateMachineStatsModule
+        implements Module
+{
+    @Override
+    public void configure(Binder binder)
+    {
+        binder.bind(StateMachineNotificationStats.class).toInstance(StateMachine.getNotificationStats());
+        newExporter(binder).export(StateMachineNotificationStats.class).withGeneratedName();
+    }
+}
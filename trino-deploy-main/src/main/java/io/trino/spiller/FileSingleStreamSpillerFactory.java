@@ -95,7 +95,8 @@ public class FileSingleStreamSpillerFactory
             boolean spillCompressionEnabled,
             boolean spillEncryptionEnabled)
     {
-        this.serdeFactory = new PagesSerdeFactory(blockEncodingSerde, spillCompressionEnabled);
+        // spill files are only read back by this process, so compact block encoding ids are always safe
+        this.serdeFactory = new PagesSerdeFactory(blockEncodingSerde, spillCompressionEnabled, true);
         this.executor = requireNonNull(executor, "executor is null");
         this.spillerStats = requireNonNull(spillerStats, "spillerStats cannot be null");
         requireNonNull(spillPaths, "spillPaths is null");
@@ -13,6 +13,7 @@
  */
 package io.trino.split;
 
+import io.airlift.concurrent.BoundedExecutor;
 import io.trino.Session;
 import io.trino.connector.CatalogName;
 import io.trino.metadata.Split;
@@ -20,19 +21,36 @@ import io.trino.metadata.TableHandle;
 import io.trino.spi.connector.*;
 import io.trino.spi.predicate.TupleDomain;
 
+import javax.annotation.PreDestroy;
+
 import java.util.List;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
 
 import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkState;
+import static io.airlift.concurrent.Threads.daemonThreadsNamed;
+import static io.trino.SystemSessionProperties.getPageSourcePrefetchPages;
 import static io.trino.SystemSessionProperties.isAllowPushdownIntoConnectors;
 import static java.util.Objects.requireNonNull;
+import static java.util.concurrent.Executors.newCachedThreadPool;
 
 public class PageSourceManager
         implements PageSourceProvider
 {
+    private static final int MAX_PREFETCH_THREADS = 2 * Runtime.getRuntime().availableProcessors();
+
     private final ConcurrentMap<CatalogName, ConnectorPageSourceProvider> pageSourceProviders = new ConcurrentHashMap<>();
+    private final ExecutorService prefetchExecutorService = newCachedThreadPool(daemonThreadsNamed("page-source-prefetch-%s"));
+    private final Executor prefetchExecutor = new BoundedExecutor(prefetchExecutorService, MAX_PREFETCH_THREADS);
+
+    @PreDestroy
+    public void stop()
+    {
+        prefetchExecutorService.shutdownNow();
+    }
 
     public void addConnectorPageSourceProvider(CatalogName catalogName, ConnectorPageSourceProvider pageSourceProvider)
     {
@@ -61,13 +79,20 @@ public class PageSourceManager
         if (!isAllowPushdownIntoConnectors(session)) {
             dynamicFilter = DynamicFilter.EMPTY;
         }
-        return provider.createPageSource(
+        ConnectorPageSource pageSource = provider.createPageSource(
                 table.getTransaction(),
                 session.toConnectorSession(catalogName),
                 split.getConnectorSplit(),
                 table.getConnectorHandle(),
                 columns,
                 dynamicFilter);
+
+        int prefetchPages = getPageSourcePrefetchPages(session);
+        // updatable page sources are returned as is, because the operators check for them to support deletes and updates
+        if (prefetchPages > 0 && !(pageSource instanceof EmptyPageSource) && !(pageSource instanceof UpdatablePageSource)) {
+            return new PrefetchingPageSource(pageSource, prefetchExecutor, prefetchPages);
+        }
+        return pageSource;
     }
 
     private ConnectorPageSourceProvider getPageSourceProvider(CatalogName catalogName)
@@ -0,0 +1,325 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.trino.split;
+
+import com.google.common.collect.ImmutableMap;
+import io.airlift.units.Duration;
+import io.trino.plugin.base.metrics.DurationTiming;
+import io.trino.plugin.base.metrics.LongCount;
+import io.trino.spi.Page;
+import io.trino.spi.connector.ConnectorPageSource;
+import io.trino.spi.metrics.Metrics;
+
+import javax.annotation.concurrent.GuardedBy;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.OptionalLong;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Throwables.throwIfUnchecked;
+import static java.util.Objects.requireNonNull;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+
+/**
+ * Pulls pages from a page source on an executor ahead of the driver, so that a connector without
+ * asynchronous I/O does not block the driver thread. Up to {@code maxBufferedPages} pages are
+ * buffered, and their size is included in the system memory usage. The driver waits on
+ * {@link #isBlocked()} instead of on the connector when the buffer is empty.
+ * <p>
+ * Only one task at a time reads from the delegate, so the delegate is never accessed concurrently
+ * by this class. The statistics of the delegate are read by the fetch task after each page, and the
+ * statistics methods of this class return the latest of these snapshots, so the delegate does not
+ * need thread safe statistics.
+ */
+public class PrefetchingPageSource
+        implements ConnectorPageSource
+{
+    private static final int MAX_EMPTY_READS_PER_TASK = 64;
+
+    private final ConnectorPageSource delegate;
+    private final Executor executor;
+    private final int maxBufferedPages;
+
+    @GuardedBy("this")
+    private final Deque<Page> pages = new ArrayDeque<>();
+    @GuardedBy("this")
+    private long bufferedBytes;
+    @GuardedBy("this")
+    private boolean fetching;
+    @GuardedBy("this")
+    private boolean delegateFinished;
+    @GuardedBy("this")
+    private Throwable failure;
+    @GuardedBy("this")
+    private boolean closed;
+    @GuardedBy("this")
+    private CompletableFuture<?> blocked = NOT_BLOCKED;
+    @GuardedBy("this")
+    private long blockedStartNanos;
+
+    // statistics of the delegate, as of the last page read by the fetch task
+    @GuardedBy("this")
+    private long delegateCompletedBytes;
+    @GuardedBy("this")
+    private OptionalLong delegateCompletedPositions = OptionalLong.empty();
+    @GuardedBy("this")
+    private long delegateReadTimeNanos;
+    @GuardedBy("this")
+    private long delegateSystemMemoryUsage;
+    @GuardedBy("this")
+    private Metrics delegateMetrics = Metrics.EMPTY;
+
+    @GuardedBy("this")
+    private long prefetchedPages;
+    @GuardedBy("this")
+    private long blockedNanos;
+    @GuardedBy("this")
+    private long fetchNanos;
+
+    public PrefetchingPageSource(ConnectorPageSource delegate, Executor executor, int maxBufferedPages)
+    {
+        this.delegate = requireNonNull(delegate, "delegate is null");
+        this.executor = requireNonNull(executor, "executor is null");
+        checkArgument(maxBufferedPages > 0, "maxBufferedPages must be positive");
+        this.maxBufferedPages = maxBufferedPages;
+    }
+
+    @Override
+    public synchronized long getCompletedBytes()
+    {
+        return delegateCompletedBytes;
+    }
+
+    @Override
+    public synchronized OptionalLong getCompletedPositions()
+    {
+        return delegateCompletedPositions;
+    }
+
+    @Override
+    public synchronized long getReadTimeNanos()
+    {
+        return delegateReadTimeNanos;
+    }
+
+    @Override
+    public synchronized boolean isFinished()
+    {
+        return closed || (delegateFinished && pages.isEmpty());
+    }
+
+    @Override
+    public synchronized Page getNextPage()
+    {
+        if (failure != null) {
+            throwIfUnchecked(failure);
+            throw new RuntimeException(failure);
+        }
+        Page page = pages.pollFirst();
+        if (page != null) {
+            bufferedBytes -= page.getSizeInBytes();
+        }
+        scheduleFetchIfNecessary();
+        return page;
+    }
+
+    @Override
+    public synchronized CompletableFuture<?> isBlocked()
+    {
+        scheduleFetchIfNecessary();
+        if (!pages.isEmpty() || delegateFinished || failure != null || closed) {
+            return NOT_BLOCKED;
+        }
+        if (blocked.isDone()) {
+            blocked = new CompletableFuture<>();
+            blockedStartNanos = System.nanoTime();
+        }
+        return blocked;
+    }
+
+    @Override
+    public synchronized long getSystemMemoryUsage()
+    {
+        return delegateSystemMemoryUsage + bufferedBytes;
+    }
+
+    @Override
+    public synchronized Metrics getMetrics()
+    {
+        Metrics prefetchMetrics = new Metrics(ImmutableMap.of(
+                "Prefetched pages", new LongCount(prefetchedPages),
+                "Prefetch fetch time", new DurationTiming(new Duration(fetchNanos, NANOSECONDS)),
+                "Prefetch blocked time", new DurationTiming(new Duration(blockedNanos, NANOSECONDS))));
+        return delegateMetrics.mergeWith(prefetchMetrics);
+    }
+
+    @Override
+    public void close()
+            throws IOException
+    {
+        synchronized (this) {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            pages.clear();
+            bufferedBytes = 0;
+            unblock();
+            if (fetching) {
+                // the running fetch task closes the delegate when it exits
+                return;
+            }
+        }
+        delegate.close();
+        snapshotDelegateStatistics();
+    }
+
+    @GuardedBy("this")
+    private void scheduleFetchIfNecessary()
+    {
+        if (fetching || closed || delegateFinished || failure != null || pages.size() >= maxBufferedPages) {
+            return;
+        }
+        fetching = true;
+        try {
+            executor.execute(this::fetch);
+        }
+        catch (RejectedExecutionException e) {
+            fetching = false;
+            failure = e;
+            unblock();
+        }
+    }
+
+    private void fetch()
+    {
+        int emptyReads = 0;
+        try {
+            while (true) {
+                synchronized (this) {
+                    if (closed || pages.size() >= maxBufferedPages) {
+                        break;
+                    }
+                }
+
+                CompletableFuture<?> delegateBlocked = delegate.isBlocked();
+                if (!delegateBlocked.isDone()) {
+                    // resume once the connector is ready, without holding an executor thread
+                    synchronized (this) {
+                        fetching = false;
+                        if (closed) {
+                            break;
+                        }
+                    }
+                    delegateBlocked.whenComplete((ignored, throwable) -> {
+                        synchronized (this) {
+                            scheduleFetchIfNecessary();
+                        }
+                    });
+                    return;
+                }
+
+                long start = System.nanoTime();
+                Page page = delegate.getNextPage();
+                if (page != null) {
+                    // load lazy blocks here, so that their I/O also happens off the driver thread
+                    page = page.getLoadedPage();
+                }
+                boolean finished = page == null && delegate.isFinished();
+                long elapsed = System.nanoTime() - start;
+
+                snapshotDelegateStatistics();
+
+                synchronized (this) {
+                    fetchNanos += elapsed;
+                    if (page != null && !closed) {
+                        pages.addLast(page);
+                        bufferedBytes += page.getSizeInBytes();
+                        prefetchedPages++;
+                        unblock();
+                    }
+                    if (finished) {
+                        delegateFinished = true;
+                        unblock();
+                        break;
+                    }
+                    if (closed) {
+                        // close() left the delegate to this task
+                        break;
+                    }
+                    if (page == null && ++emptyReads % MAX_EMPTY_READS_PER_TASK == 0) {
+                        // give the executor thread to other splits before trying again
+                        fetching = false;
+                        scheduleFetchIfNecessary();
+                        return;
+                    }
+                }
+            }
+        }
+        catch (Throwable t) {
+            synchronized (this) {
+                failure = t;
+                unblock();
+            }
+        }
+
+        boolean closeDelegate;
+        synchronized (this) {
+            fetching = false;
+            closeDelegate = closed;
+        }
+        if (closeDelegate) {
+            try {
+                delegate.close();
+                snapshotDelegateStatistics();
+            }
+            catch (IOException | RuntimeException ignored) {
+                // the page source has already been closed by the driver
+            }
+        }
+    }
+
+    /**
+     * Must only be called by the thread that currently owns the delegate.
+     */
+    private void snapshotDelegateStatistics()
+    {
+        long completedBytes = delegate.getCompletedBytes();
+        OptionalLong completedPositions = delegate.getCompletedPositions();
+        long readTimeNanos = delegate.getReadTimeNanos();
+        long systemMemoryUsage = delegate.getSystemMemoryUsage();
+        Metrics metrics = delegate.getMetrics();
+        synchronized (this) {
+            delegateCompletedBytes = completedBytes;
+            delegateCompletedPositions = completedPositions;
+            delegateReadTimeNanos = readTimeNanos;
+            delegateSystemMemoryUsage = systemMemoryUsage;
+            delegateMetrics = metrics;
+        }
+    }
+
+    @GuardedBy("this")
+    private void unblock()
+    {
+        if (!blocked.isDone()) {
+            blockedNanos += System.nanoTime() - blockedStartNanos;
+            blocked.complete(null);
+        }
+    }
+}
@@ -0,0 +1,131 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.trino.sql;
+
+import io.airlift.configuration.Config;
+import io.airlift.configuration.ConfigDescription;
+
+import javax.validation.constraints.AssertTrue;
+import javax.validation.constraints.Min;
+import javax.validation.constraints.NotNull;
+import java.util.Optional;
+
+public class SqlParserConfig
+{
+    private int statementCacheMaxEntries;
+    private long statementCacheMaxSqlLength = 64 * 1024 * 1024;
+    private boolean warmUpEnabled = true;
+    private int warmUpParallelism = Math.min(4, Runtime.getRuntime().availableProcessors());
+    private Optional<String> warmUpSnapshotFile = Optional.empty();
+    private int warmUpMaxCapturedStatements;
+
+    @Min(0)
+    public int getStatementCacheMaxEntries()
+    {
+        return statementCacheMaxEntries;
+    }
+
+    @Config("sql.parser.statement-cache.max-entries")
+    @ConfigDescription("Maximum number of parsed statements to cache by SQL text, or zero to disable the cache")
+    public SqlParserConfig setStatementCacheMaxEntries(int statementCacheMaxEntries)
+    {
+        this.statementCacheMaxEntries = statementCacheMaxEntries;
+        return this;
+    }
+
+    @Min(1)
+    public long getStatementCacheMaxSqlLength()
+    {
+        return statementCacheMaxSqlLength;
+    }
+
+    @Config("sql.parser.statement-cache.max-sql-length")
+    @ConfigDescription("Maximum total length, in characters, of the SQL text of the cached statements")
+    public SqlParserConfig setStatementCacheMaxSqlLength(long statementCacheMaxSqlLength)
+    {
+        this.statementCacheMaxSqlLength = statementCacheMaxSqlLength;
+        return this;
+    }
+
+    public boolean isWarmUpEnabled()
+    {
+        return warmUpEnabled;
+    }
+
+    @Config("sql.parser.warm-up.enabled")
+    @ConfigDescription("Fill the parser prediction caches at startup with the shipped statements and the snapshot file")
+    public SqlParserConfig setWarmUpEnabled(boolean warmUpEnabled)
+    {
+        this.warmUpEnabled = warmUpEnabled;
+        return this;
+    }
+
+    @Min(1)
+    public int getWarmUpParallelism()
+    {
+        return warmUpParallelism;
+    }
+
+    @Config("sql.parser.warm-up.parallelism")
+    public SqlParserConfig setWarmUpParallelism(int warmUpParallelism)
+    {
+        this.warmUpParallelism = warmUpParallelism;
+        return this;
+    }
+
+    @NotNull
+    public Optional<String> getWarmUpSnapshotFile()
+    {
+        return warmUpSnapshotFile;
+    }
+
+    @Config("sql.parser.warm-up.snapshot-file")
+    @ConfigDescription("File with statements to replay at startup, written at shutdown when capturing is enabled")
+    public SqlParserConfig setWarmUpSnapshotFile(String warmUpSnapshotFile)
+    {
+        this.warmUpSnapshotFile = Optional.ofNullable(warmUpSnapshotFile);
+        return this;
+    }
+
+    @Min(0)
+    public int getWarmUpMaxCapturedStatements()
+    {
+        return warmUpMaxCapturedStatements;
+    }
+
+    @Config("sql.parser.warm-up.max-captured-statements")
+    @ConfigDescription("Maximum number of distinct statements, with their literals redacted, to capture for the snapshot file, or zero to disable capturing")
+    public SqlParserConfig setWarmUpMaxCapturedStatements(int warmUpMaxCapturedStatements)
+    {
+        this.warmUpMaxCapturedStatements = warmUpMaxCapturedStatements;
+        return this;
+    }
+
+    public boolean isStatementCacheEnabled()
+    {
+        return statementCacheMaxEntries > 0;
+    }
+
+    @AssertTrue(message = "sql.parser.statement-cache.max-sql-length must not be less than sql.parser.statement-cache.max-entries")
+    public boolean isStatementCacheMaxSqlLengthValid()
+    {
+        return statementCacheMaxSqlLength >= statementCacheMaxEntries;
+    }
+
+    @AssertTrue(message = "sql.parser.warm-up.snapshot-file must be set when sql.parser.warm-up.max-captured-statements is positive")
+    public boolean isWarmUpSnapshotFileValid()
+    {
+        return warmUpMaxCapturedStatements == 0 || warmUpSnapshotFile.isPresent();
+    }
+}
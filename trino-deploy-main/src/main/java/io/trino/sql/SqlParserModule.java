@@ -0,0 +1,62 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.trino.sql;
+
+import com.google.inject.Binder;
+import com.google.inject.Module;
+import com.google.inject.Provides;
+import com.google.inject.Scopes;
+import com.google.inject.Singleton;
+import io.trino.execution.QueryPreparer;
+import io.trino.sql.parser.RefreshableSqlBaseParserInitializer;
+import io.trino.sql.parser.SqlParser;
+
+import static io.airlift.configuration.ConfigBinder.configBinder;
+import static org.weakref.jmx.guice.ExportBinder.newExporter;
+
+public class SqlParserModule
+        implements Module
+{
+    @Override
+    public void configure(Binder binder)
+    {
+        configBinder(binder).bindConfig(SqlParserConfig.class);
+
+        binder.bind(SqlParserStats.class).in(Scopes.SINGLETON);
+        newExporter(binder).export(SqlParserStats.class).withGeneratedName();
+
+        binder.bind(SqlParserWarmUp.class).in(Scopes.SINGLETON);
+        newExporter(binder).export(SqlParserWarmUp.class).withGeneratedName();
+
+        binder.bind(QueryPreparer.class).in(Scopes.SINGLETON);
+        newExporter(binder).export(QueryPreparer.class).withGeneratedName();
+    }
+
+    @Provides
+    @Singleton
+    public static RefreshableSqlBaseParserInitializer createParserInitializer(SqlParserConfig config)
+    {
+        return new RefreshableSqlBaseParserInitializer(config.getWarmUpMaxCapturedStatements());
+    }
+
+    @Provides
+    @Singleton
+    public static SqlParser createSqlParser(SqlParserConfig config, RefreshableSqlBaseParserInitializer initializer)
+    {
+        if (!config.isStatementCacheEnabled()) {
+            return new SqlParser(initializer);
+        }
+        return new SqlParser(initializer, config.getStatementCacheMaxEntries(), config.getStatementCacheMaxSqlLength());
+    }
+}
@@ -0,0 +1,92 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.trino.sql;
+
+import com.google.common.cache.CacheStats;
+import io.trino.sql.parser.SqlParser;
+import org.weakref.jmx.Managed;
+
+import javax.inject.Inject;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Exports the statement cache statistics of the server {@link SqlParser}. All counters are zero
+ * when the cache is disabled.
+ */
+public class SqlParserStats
+{
+    private static final CacheStats EMPTY_STATS = new CacheStats(0, 0, 0, 0, 0, 0);
+
+    private final SqlParser sqlParser;
+
+    @Inject
+    public SqlParserStats(SqlParser sqlParser)
+    {
+        this.sqlParser = requireNonNull(sqlParser, "sqlParser is null");
+    }
+
+    @Managed
+    public boolean isStatementCacheEnabled()
+    {
+        return sqlParser.getStatementCacheStats().isPresent();
+    }
+
+    @Managed
+    public long getStatementCacheSize()
+    {
+        return sqlParser.getStatementCacheSize();
+    }
+
+    @Managed
+    public long getStatementCacheRequestCount()
+    {
+        return stats().requestCount();
+    }
+
+    @Managed
+    public long getStatementCacheHitCount()
+    {
+        return stats().hitCount();
+    }
+
+    @Managed
+    public long getStatementCacheMissCount()
+    {
+        return stats().missCount();
+    }
+
+    @Managed
+    public double getStatementCacheHitRate()
+    {
+        return stats().hitRate();
+    }
+
+    @Managed
+    public long getStatementCacheEvictionCount()
+    {
+        return stats().evictionCount();
+    }
+
+    @Managed
+    public void invalidateStatementCache()
+    {
+        sqlParser.invalidateStatementCache();
+    }
+
+    private CacheStats stats()
+    {
+        return sqlParser.getStatementCacheStats().orElse(EMPTY_STATS);
+    }
+}
@@ -0,0 +1,122 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.trino.sql;
+
+import com.google.common.collect.ImmutableList;
+import io.airlift.log.Logger;
+import io.trino.sql.parser.RefreshableSqlBaseParserInitializer;
+import org.weakref.jmx.Managed;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.inject.Inject;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.Optional;
+
+import static io.airlift.units.Duration.nanosSince;
+import static io.trino.sql.parser.RefreshableSqlBaseParserInitializer.getDefaultWarmUpStatements;
+import static io.trino.sql.parser.RefreshableSqlBaseParserInitializer.readSnapshot;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Fills the prediction caches of the server parser before the first query, by replaying the
+ * statements shipped with the parser and those of the snapshot file, and writes the statements
+ * captured while running to the snapshot file at shutdown.
+ */
+public class SqlParserWarmUp
+{
+    private static final Logger log = Logger.get(SqlParserWarmUp.class);
+
+    private final RefreshableSqlBaseParserInitializer initializer;
+    private final boolean enabled;
+    private final int parallelism;
+    private final Optional<Path> snapshotFile;
+    private final boolean captureEnabled;
+
+    @Inject
+    public SqlParserWarmUp(RefreshableSqlBaseParserInitializer initializer, SqlParserConfig config)
+    {
+        this.initializer = requireNonNull(initializer, "initializer is null");
+        this.enabled = config.isWarmUpEnabled();
+        this.parallelism = config.getWarmUpParallelism();
+        this.snapshotFile = config.getWarmUpSnapshotFile().map(Paths::get);
+        this.captureEnabled = config.getWarmUpMaxCapturedStatements() > 0;
+    }
+
+    @PostConstruct
+    public void warmUp()
+    {
+        if (!enabled) {
+            return;
+        }
+        long start = System.nanoTime();
+        List<String> statements = getWarmUpStatements();
+        initializer.warmUp(statements, parallelism);
+        log.info("Warmed up SQL parser with %s statements in %s", statements.size(), nanosSince(start));
+    }
+
+    /**
+     * Replaces the prediction caches with new ones, warmed up before they are used.
+     */
+    @Managed
+    public void refresh()
+    {
+        if (enabled) {
+            initializer.refresh(getWarmUpStatements(), parallelism);
+        }
+        else {
+            initializer.refresh();
+        }
+    }
+
+    @Managed
+    public int getCapturedStatementCount()
+    {
+        return initializer.getCapturedStatements().size();
+    }
+
+    @PreDestroy
+    public void writeSnapshot()
+    {
+        if (!captureEnabled || snapshotFile.isEmpty()) {
+            return;
+        }
+        try {
+            initializer.writeSnapshot(snapshotFile.get());
+        }
+        catch (IOException e) {
+            log.warn(e, "Failed to write SQL parser warm-up snapshot to %s", snapshotFile.get());
+        }
+    }
+
+    private List<String> getWarmUpStatements()
+    {
+        ImmutableList.Builder<String> statements = ImmutableList.<String>builder()
+                .addAll(getDefaultWarmUpStatements());
+        if (snapshotFile.isPresent() && Files.exists(snapshotFile.get())) {
+            try {
+                statements.addAll(readSnapshot(snapshotFile.get()));
+            }
+            catch (IOException e) {
+                // the snapshot only speeds up the first queries, so a damaged one does not prevent startup
+                log.warn(e, "Failed to read SQL parser warm-up snapshot from %s", snapshotFile.get());
+            }
+        }
+        return statements.build();
+    }
+}
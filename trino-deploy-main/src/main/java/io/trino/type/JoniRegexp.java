@@ -17,17 +17,26 @@ import io.airlift.joni.Matcher;
 import io.airlift.joni.Regex;
 import io.airlift.slice.Slice;
 
+import java.util.Optional;
+
 import static java.util.Objects.requireNonNull;
 
 public final class JoniRegexp
 {
     private final Slice pattern;
     private final Regex regex;
+    private final Optional<LikeMatcher> likeMatcher;
 
     public JoniRegexp(Slice pattern, Regex regex)
+    {
+        this(pattern, regex, Optional.empty());
+    }
+
+    public JoniRegexp(Slice pattern, Regex regex, Optional<LikeMatcher> likeMatcher)
     {
         this.pattern = requireNonNull(pattern, "pattern is null");
         this.regex = requireNonNull(regex, "regex is null");
+        this.likeMatcher = requireNonNull(likeMatcher, "likeMatcher is null");
     }
 
     public Slice pattern()
@@ -40,6 +49,14 @@ public final class JoniRegexp
         return regex;
     }
 
+    /**
+     * Specialized matcher for LIKE patterns of a simple shape, which is equivalent to the regex.
+     */
+    public Optional<LikeMatcher> likeMatcher()
+    {
+        return likeMatcher;
+    }
+
     public Matcher matcher(byte[] bytes)
     {
         return regex.matcher(bytes);
@@ -43,7 +43,7 @@ public final class LikeFunctions
 {
     public static final String LIKE_PATTERN_FUNCTION_NAME = "$like_pattern";
     private static final Syntax SYNTAX = new Syntax(
-            OP_DOT_ANYCHAR | OP_ASTERISK_ZERO_INF | OP_LINE_ANCHOR,
+            OP_DOT_ANYCHAR | OP_ASTERISK_ZERO_INF | OP_LINE_ANCHOR | OP_ESC_AZ_BUF_ANCHOR,
             0,
             0,
             Option.NONE,
@@ -70,20 +70,29 @@ public final class LikeFunctions
     @LiteralParameters("x")
     @SqlType(StandardTypes.BOOLEAN)
     public static boolean likeVarchar(@SqlType("varchar(x)") Slice value, @SqlType(LikePatternType.NAME) JoniRegexp pattern)
+    {
+        Optional<LikeMatcher> likeMatcher = pattern.likeMatcher();
+        if (likeMatcher.isPresent()) {
+            return likeMatcher.get().match(value, 0, value.length());
+        }
+        return regexMatches(pattern, value, 0, value.length());
+    }
+
+    private static boolean regexMatches(JoniRegexp pattern, Slice value, int offset, int length)
     {
         // Joni can infinite loop with UTF8Encoding when invalid UTF-8 is encountered.
         // NonStrictUTF8Encoding must be used to avoid this issue.
         Matcher matcher;
-        int offset;
+        int start;
         if (value.hasByteArray()) {
-            offset = value.byteArrayOffset();
-            matcher = pattern.regex().matcher(value.byteArray(), offset, offset + value.length());
+            start = value.byteArrayOffset() + offset;
+            matcher = pattern.regex().matcher(value.byteArray(), start, start + length);
         }
         else {
-            offset = 0;
-            matcher = pattern.matcher(value.getBytes());
+            start = 0;
+            matcher = pattern.matcher(value.getBytes(offset, length));
         }
-        return matcher.match(offset, offset + value.length(), Option.NONE) != -1;
+        return matcher.match(start, start + length, Option.NONE) != -1;
     }
 
     @ScalarFunction(value = LIKE_PATTERN_FUNCTION_NAME, hidden = true)
@@ -189,7 +198,8 @@ public final class LikeFunctions
     {
         StringBuilder regex = new StringBuilder(patternString.length() * 2);
 
-        regex.append('^');
+        // anchor at the start and end of the value, '^' and '$' would also match around a line break in it
+        regex.append("\\A");
         boolean escaped = false;
         for (char currentChar : patternString.toCharArray()) {
             checkEscape(!escaped || currentChar == '%' || currentChar == '_' || currentChar == escapeChar);
@@ -223,11 +233,11 @@ public final class LikeFunctions
             }
         }
         checkEscape(!escaped);
-        regex.append('$');
+        regex.append("\\z");
 
         byte[] bytes = regex.toString().getBytes(UTF_8);
         Regex joniRegex = new Regex(bytes, 0, bytes.length, Option.MULTILINE, NonStrictUTF8Encoding.INSTANCE, SYNTAX);
-        return new JoniRegexp(Slices.wrappedBuffer(bytes), joniRegex);
+        return new JoniRegexp(Slices.wrappedBuffer(bytes), joniRegex, LikeMatcher.compile(patternString, escapeChar, shouldEscape, joniRegex));
     }
 
     @SuppressWarnings("NumericCastThatLosesPrecision")
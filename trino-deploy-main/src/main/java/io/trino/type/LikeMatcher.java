@@ -0,0 +1,345 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.trino.type;
+
+import com.google.common.collect.ImmutableList;
+import io.airlift.joni.Option;
+import io.airlift.joni.Regex;
+import io.airlift.slice.Slice;
+import io.airlift.slice.Slices;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import static io.airlift.slice.SliceUtf8.lengthOfCodePointFromStartByte;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Specialized matchers for the common shapes of LIKE patterns, which avoid running
+ * the Joni regex engine: exact match, {@code 'abc%'}, {@code '%abc'}, {@code '%abc%'},
+ * general {@code '%'} only patterns, and {@code '_'} patterns without an inner {@code '%'}.
+ * Patterns of any other shape are left to the regex.
+ */
+public abstract class LikeMatcher
+{
+    private static final Object ANY_CHARACTER = new Object();
+    private static final Object ANY_SEQUENCE = new Object();
+
+    /**
+     * Returns true if the bytes {@code [offset, offset + length)} of {@code value} match the pattern.
+     */
+    public abstract boolean match(Slice value, int offset, int length);
+
+    /**
+     * Must only be called for a pattern that has already been validated by the regex compilation.
+     * The regex is used by the {@code '_'} matcher for values that are not valid UTF-8.
+     */
+    public static Optional<LikeMatcher> compile(String pattern, char escapeChar, boolean shouldEscape, Regex regex)
+    {
+        List<Object> tokens = parse(pattern, escapeChar, shouldEscape);
+
+        int lastSingleCharacter = tokens.lastIndexOf(ANY_CHARACTER);
+        if (lastSingleCharacter >= 0) {
+            // '%' is only supported after the last '_', e.g. 'a_c%'
+            int firstSequence = tokens.indexOf(ANY_SEQUENCE);
+            if (firstSequence >= 0 && firstSequence < lastSingleCharacter) {
+                return Optional.empty();
+            }
+            if (firstSequence >= 0 && firstSequence != tokens.size() - 1) {
+                return Optional.empty();
+            }
+            boolean trailingSequence = firstSequence >= 0;
+            List<Object> fixed = trailingSequence ? tokens.subList(0, tokens.size() - 1) : tokens;
+            return Optional.of(new SingleCharacterWildcardMatcher(fixed, trailingSequence, regex));
+        }
+
+        // split literals on '%'
+        List<Slice> parts = new ArrayList<>();
+        parts.add(Slices.EMPTY_SLICE);
+        for (Object token : tokens) {
+            if (token == ANY_SEQUENCE) {
+                parts.add(Slices.EMPTY_SLICE);
+            }
+            else {
+                parts.set(parts.size() - 1, (Slice) token);
+            }
+        }
+
+        Slice first = parts.get(0);
+        Slice last = parts.get(parts.size() - 1);
+        List<Slice> middle = parts.subList(1, parts.size() - 1).stream()
+                .filter(part -> part.length() > 0)
+                .collect(ImmutableList.toImmutableList());
+
+        if (parts.size() == 1) {
+            return Optional.of(new ExactMatcher(first));
+        }
+        if (middle.isEmpty()) {
+            if (first.length() == 0 && last.length() == 0) {
+                return Optional.of(new AnyMatcher());
+            }
+            if (last.length() == 0) {
+                return Optional.of(new PrefixMatcher(first));
+            }
+            if (first.length() == 0) {
+                return Optional.of(new SuffixMatcher(last));
+            }
+        }
+        if (middle.size() == 1 && first.length() == 0 && last.length() == 0) {
+            return Optional.of(new ContainsMatcher(middle.get(0)));
+        }
+        return Optional.of(new SegmentsMatcher(first, middle, last));
+    }
+
+    /**
+     * Splits the pattern into literal slices, with consecutive '%' collapsed into a single token.
+     */
+    private static List<Object> parse(String pattern, char escapeChar, boolean shouldEscape)
+    {
+        List<Object> tokens = new ArrayList<>();
+        StringBuilder literal = new StringBuilder();
+        boolean escaped = false;
+        for (char currentChar : pattern.toCharArray()) {
+            if (shouldEscape && !escaped && (currentChar == escapeChar)) {
+                escaped = true;
+                continue;
+            }
+            if (!escaped && (currentChar == '%' || currentChar == '_')) {
+                if (literal.length() > 0) {
+                    tokens.add(Slices.utf8Slice(literal.toString()));
+                    literal.setLength(0);
+                }
+                if (currentChar == '_') {
+                    tokens.add(ANY_CHARACTER);
+                }
+                else if (tokens.isEmpty() || tokens.get(tokens.size() - 1) != ANY_SEQUENCE) {
+                    tokens.add(ANY_SEQUENCE);
+                }
+            }
+            else {
+                literal.append(currentChar);
+            }
+            escaped = false;
+        }
+        if (literal.length() > 0) {
+            tokens.add(Slices.utf8Slice(literal.toString()));
+        }
+        return tokens;
+    }
+
+    /**
+     * Bounded search for {@code pattern} in {@code value[from, to)}. Candidates are filtered
+     * on the first and last byte before the full comparison.
+     */
+    private static int indexOf(Slice value, int from, int to, Slice pattern)
+    {
+        int patternLength = pattern.length();
+        byte firstByte = pattern.getByte(0);
+        byte lastByte = pattern.getByte(patternLength - 1);
+        int lastStart = to - patternLength;
+        for (int position = from; position <= lastStart; position++) {
+            if (value.getByte(position) == firstByte &&
+                    value.getByte(position + patternLength - 1) == lastByte &&
+                    value.equals(position, patternLength, pattern, 0, patternLength)) {
+                return position;
+            }
+        }
+        return -1;
+    }
+
+    private static final class AnyMatcher
+            extends LikeMatcher
+    {
+        @Override
+        public boolean match(Slice value, int offset, int length)
+        {
+            return true;
+        }
+    }
+
+    private static final class ExactMatcher
+            extends LikeMatcher
+    {
+        private final Slice literal;
+
+        private ExactMatcher(Slice literal)
+        {
+            this.literal = requireNonNull(literal, "literal is null");
+        }
+
+        @Override
+        public boolean match(Slice value, int offset, int length)
+        {
+            return value.equals(offset, length, literal, 0, literal.length());
+        }
+    }
+
+    private static final class PrefixMatcher
+            extends LikeMatcher
+    {
+        private final Slice prefix;
+
+        private PrefixMatcher(Slice prefix)
+        {
+            this.prefix = requireNonNull(prefix, "prefix is null");
+        }
+
+        @Override
+        public boolean match(Slice value, int offset, int length)
+        {
+            int prefixLength = prefix.length();
+            return length >= prefixLength && value.equals(offset, prefixLength, prefix, 0, prefixLength);
+        }
+    }
+
+    private static final class SuffixMatcher
+            extends LikeMatcher
+    {
+        private final Slice suffix;
+
+        private SuffixMatcher(Slice suffix)
+        {
+            this.suffix = requireNonNull(suffix, "suffix is null");
+        }
+
+        @Override
+        public boolean match(Slice value, int offset, int length)
+        {
+            int suffixLength = suffix.length();
+            return length >= suffixLength && value.equals(offset + length - suffixLength, suffixLength, suffix, 0, suffixLength);
+        }
+    }
+
+    private static final class ContainsMatcher
+            extends LikeMatcher
+    {
+        private final Slice infix;
+
+        private ContainsMatcher(Slice infix)
+        {
+            this.infix = requireNonNull(infix, "infix is null");
+        }
+
+        @Override
+        public boolean match(Slice value, int offset, int length)
+        {
+            return indexOf(value, offset, offset + length, infix) >= 0;
+        }
+    }
+
+    /**
+     * {@code prefix%middle1%middle2%...%suffix}. Since '%' matches any sequence, matching each
+     * middle part at its leftmost position is sufficient.
+     */
+    private static final class SegmentsMatcher
+            extends LikeMatcher
+    {
+        private final Slice prefix;
+        private final List<Slice> middle;
+        private final Slice suffix;
+        private final int minimumLength;
+
+        private SegmentsMatcher(Slice prefix, List<Slice> middle, Slice suffix)
+        {
+            this.prefix = requireNonNull(prefix, "prefix is null");
+            this.middle = ImmutableList.copyOf(requireNonNull(middle, "middle is null"));
+            this.suffix = requireNonNull(suffix, "suffix is null");
+            this.minimumLength = prefix.length() + suffix.length() + middle.stream().mapToInt(Slice::length).sum();
+        }
+
+        @Override
+        public boolean match(Slice value, int offset, int length)
+        {
+            if (length < minimumLength) {
+                return false;
+            }
+            int prefixLength = prefix.length();
+            int suffixLength = suffix.length();
+            int end = offset + length - suffixLength;
+            if (!value.equals(offset, prefixLength, prefix, 0, prefixLength) ||
+                    !value.equals(end, suffixLength, suffix, 0, suffixLength)) {
+                return false;
+            }
+
+            int position = offset + prefixLength;
+            for (Slice part : middle) {
+                int found = indexOf(value, position, end, part);
+                if (found < 0) {
+                    return false;
+                }
+                position = found + part.length();
+            }
+            return true;
+        }
+    }
+
+    /**
+     * Literals and '_' with an optional trailing '%'. Each '_' consumes exactly one UTF-8 code point.
+     */
+    private static final class SingleCharacterWildcardMatcher
+            extends LikeMatcher
+    {
+        private final List<Object> tokens;
+        private final boolean trailingSequence;
+
+        private final Regex regex;
+
+        private SingleCharacterWildcardMatcher(List<Object> tokens, boolean trailingSequence, Regex regex)
+        {
+            this.tokens = ImmutableList.copyOf(requireNonNull(tokens, "tokens is null"));
+            this.trailingSequence = trailingSequence;
+            this.regex = requireNonNull(regex, "regex is null");
+        }
+
+        private boolean matchRegex(Slice value, int offset, int length)
+        {
+            if (value.hasByteArray()) {
+                int start = value.byteArrayOffset() + offset;
+                return regex.matcher(value.byteArray(), start, start + length).match(start, start + length, Option.NONE) != -1;
+            }
+            byte[] bytes = value.getBytes(offset, length);
+            return regex.matcher(bytes).match(0, length, Option.NONE) != -1;
+        }
+
+        @Override
+        public boolean match(Slice value, int offset, int length)
+        {
+            int position = offset;
+            int end = offset + length;
+            for (Object token : tokens) {
+                if (token == ANY_CHARACTER) {
+                    if (position >= end) {
+                        return false;
+                    }
+                    int codePointLength = lengthOfCodePointFromStartByte(value.getByte(position));
+                    if (codePointLength < 0 || position + codePointLength > end) {
+                        // invalid UTF-8, let the regex decide
+                        return matchRegex(value, offset, length);
+                    }
+                    position += codePointLength;
+                }
+                else {
+                    Slice literal = (Slice) token;
+                    int literalLength = literal.length();
+                    if (end - position < literalLength || !value.equals(position, literalLength, literal, 0, literalLength)) {
+                        return false;
+                    }
+                    position += literalLength;
+                }
+            }
+            return trailingSequence || position == end;
+        }
+    }
+}
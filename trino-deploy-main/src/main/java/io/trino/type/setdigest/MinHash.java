@@ -0,0 +1,194 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.trino.type.setdigest;
+
+import com.google.common.primitives.Shorts;
+import org.openjdk.jol.info.ClassLayout;
+
+import java.util.Arrays;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static io.airlift.slice.SizeOf.sizeOf;
+
+/**
+ * The {@code maxHashes} smallest hashes added so far, with their saturated occurrence counts.
+ * <p>
+ * Entries are kept in primitive arrays sorted by hash. New hashes are appended to an unsorted
+ * buffer, and the buffer is sorted and merged into the entries when it fills up or when the
+ * entries are read. Once the digest is full, hashes larger than the current maximum are
+ * rejected without being buffered, which is the common case for large inputs.
+ * <p>
+ * A hash that is evicted can never re-enter, since the maximum only decreases once the digest is
+ * full, so the counts are the same as if every hash were inserted and trimmed one at a time.
+ */
+final class MinHash
+        implements SortedHashes
+{
+    private static final int INSTANCE_SIZE = ClassLayout.parseClass(MinHash.class).instanceSize();
+    private static final int INITIAL_CAPACITY = 16;
+    private static final int MAX_BUFFER_SIZE = 1024;
+
+    private final int maxHashes;
+
+    private long[] hashes;
+    private short[] counts;
+    private int size;
+
+    private long[] buffer;
+    private short[] bufferCounts;
+    private int bufferSize;
+
+    private long[] mergeHashes = new long[0];
+    private short[] mergeCounts = new short[0];
+
+    public MinHash(int maxHashes)
+    {
+        this(maxHashes, new long[Math.min(INITIAL_CAPACITY, maxHashes)], new short[Math.min(INITIAL_CAPACITY, maxHashes)], 0);
+    }
+
+    /**
+     * The hashes must be sorted, distinct and at most {@code maxHashes}.
+     */
+    public MinHash(int maxHashes, long[] hashes, short[] counts, int size)
+    {
+        checkArgument(maxHashes > 0, "maxHashes must be positive");
+        checkArgument(size <= maxHashes, "size is greater than maxHashes");
+        checkArgument(hashes.length >= size && counts.length >= size, "arrays are smaller than size");
+        this.maxHashes = maxHashes;
+        this.hashes = hashes;
+        this.counts = counts;
+        this.size = size;
+        this.buffer = new long[INITIAL_CAPACITY];
+        this.bufferCounts = new short[INITIAL_CAPACITY];
+    }
+
+    public void add(long hash)
+    {
+        if (size == maxHashes && hash > hashes[size - 1]) {
+            return;
+        }
+        if (bufferSize == buffer.length) {
+            if (buffer.length < MAX_BUFFER_SIZE) {
+                buffer = Arrays.copyOf(buffer, Math.min(buffer.length * 2, MAX_BUFFER_SIZE));
+                bufferCounts = new short[buffer.length];
+            }
+            else {
+                flush();
+            }
+        }
+        buffer[bufferSize++] = hash;
+    }
+
+    public void mergeWith(MinHash other)
+    {
+        flush();
+        other.flush();
+        merge(other.hashes, other.counts, other.size);
+    }
+
+    @Override
+    public int size()
+    {
+        flush();
+        return size;
+    }
+
+    @Override
+    public long getHash(int index)
+    {
+        flush();
+        return hashes[index];
+    }
+
+    @Override
+    public short getCount(int index)
+    {
+        flush();
+        return counts[index];
+    }
+
+    public long getRetainedSizeInBytes()
+    {
+        return INSTANCE_SIZE + sizeOf(hashes) + sizeOf(counts) + sizeOf(buffer) + sizeOf(bufferCounts) + sizeOf(mergeHashes) + sizeOf(mergeCounts);
+    }
+
+    private void flush()
+    {
+        if (bufferSize == 0) {
+            return;
+        }
+
+        // collapse duplicates in place
+        Arrays.sort(buffer, 0, bufferSize);
+        int distinct = 0;
+        for (int i = 0; i < bufferSize; i++) {
+            if (distinct > 0 && buffer[distinct - 1] == buffer[i]) {
+                bufferCounts[distinct - 1] = Shorts.saturatedCast(bufferCounts[distinct - 1] + 1);
+            }
+            else {
+                buffer[distinct] = buffer[i];
+                bufferCounts[distinct] = 1;
+                distinct++;
+            }
+        }
+        bufferSize = 0;
+
+        merge(buffer, bufferCounts, distinct);
+    }
+
+    /**
+     * Merges sorted, distinct entries into this digest, adding counts of equal hashes and
+     * keeping only the {@code maxHashes} smallest hashes.
+     */
+    private void merge(long[] otherHashes, short[] otherCounts, int otherSize)
+    {
+        int capacity = Math.min(size + otherSize, maxHashes);
+        if (mergeHashes.length < capacity) {
+            mergeHashes = new long[capacity];
+            mergeCounts = new short[capacity];
+        }
+
+        int i = 0;
+        int j = 0;
+        int merged = 0;
+        while (merged < capacity && (i < size || j < otherSize)) {
+            if (j == otherSize || (i < size && hashes[i] < otherHashes[j])) {
+                mergeHashes[merged] = hashes[i];
+                mergeCounts[merged] = counts[i];
+                i++;
+            }
+            else if (i == size || otherHashes[j] < hashes[i]) {
+                mergeHashes[merged] = otherHashes[j];
+                mergeCounts[merged] = otherCounts[j];
+                j++;
+            }
+            else {
+                mergeHashes[merged] = hashes[i];
+                mergeCounts[merged] = Shorts.saturatedCast(counts[i] + otherCounts[j]);
+                i++;
+                j++;
+            }
+            merged++;
+        }
+
+        // swap the merged entries in, and keep the old arrays as scratch space
+        long[] oldHashes = hashes;
+        short[] oldCounts = counts;
+        hashes = mergeHashes;
+        counts = mergeCounts;
+        size = merged;
+        mergeHashes = oldHashes;
+        mergeCounts = oldCounts;
+    }
+}
@@ -15,11 +15,8 @@
 package io.trino.type.setdigest;
 
 import com.google.common.collect.ImmutableMap;
-import com.google.common.collect.Sets;
-import com.google.common.primitives.Shorts;
 import io.airlift.slice.*;
 import io.airlift.stats.cardinality.HyperLogLog;
-import it.unimi.dsi.fastutil.longs.*;
 import org.openjdk.jol.info.ClassLayout;
 
 import java.io.IOException;
@@ -29,6 +26,7 @@ import java.util.Map;
 import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkState;
 import static io.airlift.slice.SizeOf.*;
+import static java.lang.Math.toIntExact;
 import static java.util.Objects.requireNonNull;
 
 /**
@@ -37,28 +35,27 @@ import static java.util.Objects.requireNonNull;
  */
 public class SetDigest
 {
-    private static final byte UNCOMPRESSED_FORMAT = 1;
+    static final byte UNCOMPRESSED_FORMAT = 1;
     public static final int NUMBER_OF_BUCKETS = 2048;
     public static final int DEFAULT_MAX_HASHES = 8192;
     private static final int SIZE_OF_ENTRY = SIZE_OF_LONG + SIZE_OF_SHORT;
     private static final int SIZE_OF_SETDIGEST = ClassLayout.parseClass(SetDigest.class).instanceSize();
-    private static final int SIZE_OF_RBTREEMAP = ClassLayout.parseClass(Long2ShortRBTreeMap.class).instanceSize();
 
     private final HyperLogLog hll;
-    private final Long2ShortSortedMap minhash;
+    private final MinHash minhash;
     private final int maxHashes;
 
     public SetDigest()
     {
-        this(DEFAULT_MAX_HASHES, HyperLogLog.newInstance(NUMBER_OF_BUCKETS), new Long2ShortRBTreeMap());
+        this(DEFAULT_MAX_HASHES, NUMBER_OF_BUCKETS);
     }
 
     public SetDigest(int maxHashes, int numHllBuckets)
     {
-        this(maxHashes, HyperLogLog.newInstance(numHllBuckets), new Long2ShortRBTreeMap());
+        this(maxHashes, HyperLogLog.newInstance(numHllBuckets), new MinHash(maxHashes));
     }
 
-    public SetDigest(int maxHashes, HyperLogLog hll, Long2ShortSortedMap minhash)
+    private SetDigest(int maxHashes, HyperLogLog hll, MinHash minhash)
     {
         this.maxHashes = maxHashes;
         this.hll = requireNonNull(hll, "hll is null");
@@ -76,18 +73,19 @@ public class SetDigest
         input.readBytes(serializedHll, hllLength);
         HyperLogLog hll = HyperLogLog.newInstance(serializedHll);
 
-        Long2ShortRBTreeMap minhash = new Long2ShortRBTreeMap();
         int maxHashes = input.readInt();
         int minhashLength = input.readInt();
-        // The values are stored after the keys
-        SliceInput valuesInput = serialized.getInput();
-        valuesInput.setPosition(input.position() + minhashLength * SIZE_OF_LONG);
-
+        // The keys are stored in ascending order, and the values are stored after the keys
+        long[] hashes = new long[minhashLength];
+        short[] counts = new short[minhashLength];
+        for (int i = 0; i < minhashLength; i++) {
+            hashes[i] = input.readLong();
+        }
         for (int i = 0; i < minhashLength; i++) {
-            minhash.put(input.readLong(), valuesInput.readShort());
+            counts[i] = input.readShort();
         }
 
-        return new SetDigest(maxHashes, hll, minhash);
+        return new SetDigest(maxHashes, hll, new MinHash(maxHashes, hashes, counts, minhashLength));
     }
 
     public Slice serialize()
@@ -98,12 +96,13 @@ public class SetDigest
             output.appendInt(serializedHll.length());
             output.appendBytes(serializedHll);
             output.appendInt(maxHashes);
-            output.appendInt(minhash.size());
-            for (long key : minhash.keySet()) {
-                output.appendLong(key);
+            int size = minhash.size();
+            output.appendInt(size);
+            for (int i = 0; i < size; i++) {
+                output.appendLong(minhash.getHash(i));
             }
-            for (short value : minhash.values()) {
-                output.appendShort(value);
+            for (int i = 0; i < size; i++) {
+                output.appendShort(minhash.getCount(i));
             }
             return output.slice();
         }
@@ -119,7 +118,7 @@ public class SetDigest
 
     public int estimatedInMemorySize()
     {
-        return hll.estimatedInMemorySize() + minhash.size() * SIZE_OF_ENTRY + SIZE_OF_SETDIGEST + SIZE_OF_RBTREEMAP;
+        return hll.estimatedInMemorySize() + toIntExact(minhash.getRetainedSizeInBytes()) + SIZE_OF_SETDIGEST;
     }
 
     public int estimatedSerializedSize()
@@ -148,27 +147,12 @@ public class SetDigest
         checkState(a.isExact(), "exact intersection cannot operate on approximate sets");
         checkArgument(b.isExact(), "exact intersection cannot operate on approximate sets");
 
-        return Sets.intersection(a.minhash.keySet(), b.minhash.keySet()).size();
+        return SortedHashes.intersectionSize(a.minhash, b.minhash);
     }
 
     public static double jaccardIndex(SetDigest a, SetDigest b)
     {
-        int sizeOfSmallerSet = Math.min(a.minhash.size(), b.minhash.size());
-        LongSortedSet minUnion = new LongRBTreeSet(a.minhash.keySet());
-        minUnion.addAll(b.minhash.keySet());
-
-        int intersection = 0;
-        int i = 0;
-        for (long key : minUnion) {
-            if (a.minhash.containsKey(key) && b.minhash.containsKey(key)) {
-                intersection++;
-            }
-            i++;
-            if (i >= sizeOfSmallerSet) {
-                break;
-            }
-        }
-        return intersection / (double) sizeOfSmallerSet;
+        return SortedHashes.jaccardIndex(a.minhash, b.minhash);
     }
 
     public void add(long value)
@@ -185,31 +169,21 @@ public class SetDigest
 
     private void addHash(long hash)
     {
-        short value = minhash.get(hash);
-        if (value < Short.MAX_VALUE) {
-            minhash.put(hash, (short) (value + 1));
-        }
-        while (minhash.size() > maxHashes) {
-            minhash.remove(minhash.lastLongKey());
-        }
+        minhash.add(hash);
     }
 
     public void mergeWith(SetDigest other)
     {
         hll.mergeWith(other.hll);
-        LongBidirectionalIterator iterator = other.minhash.keySet().iterator();
-        while (iterator.hasNext()) {
-            long key = iterator.nextLong();
-            int count = minhash.get(key) + other.minhash.get(key);
-            minhash.put(key, Shorts.saturatedCast(count));
-        }
-        while (minhash.size() > maxHashes) {
-            minhash.remove(minhash.lastLongKey());
-        }
+        minhash.mergeWith(other.minhash);
     }
 
     public Map<Long, Short> getHashCounts()
     {
-        return ImmutableMap.copyOf(minhash);
+        ImmutableMap.Builder<Long, Short> hashCounts = ImmutableMap.builder();
+        for (int i = 0; i < minhash.size(); i++) {
+            hashCounts.put(minhash.getHash(i), minhash.getCount(i));
+        }
+        return hashCounts.build();
     }
 }
@@ -0,0 +1,86 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.trino.type.setdigest;
+
+import io.airlift.slice.Slice;
+import io.airlift.slice.XxHash64;
+
+import java.lang.ref.WeakReference;
+import java.util.function.ToLongFunction;
+
+/**
+ * Small per-thread cache of the approximate cardinality of serialized set digests, keyed by the
+ * identity of the memory that holds the digest. A digest that is repeated across the rows of a page
+ * (e.g. from a dictionary or run-length encoded block produced by a join) resolves to the same base,
+ * address and length, so its {@code HyperLogLog} is decoded once instead of for every row.
+ * <p>
+ * The key is only valid for memory that is never modified in place, which holds for the slices of
+ * built blocks that are passed to scalar functions. A scalar function does not see page boundaries,
+ * so the cache cannot be invalidated when a page is released: a page source that reuses a buffer for
+ * the values of a later page would get the cardinality of the earlier digest. With assertions enabled,
+ * as in the tests, a cache hit checks that the content of the digest has not changed.
+ * Slices without a heap base are not cached. Only the cardinality is stored, and the base is weakly
+ * referenced, so the cache does not retain block memory.
+ */
+final class SetDigestCardinalityCache
+{
+    private static final int CACHE_SIZE = 8;
+    private static final ThreadLocal<SetDigestCardinalityCache> CACHE = ThreadLocal.withInitial(SetDigestCardinalityCache::new);
+
+    @SuppressWarnings("unchecked")
+    private final WeakReference<Object>[] bases = new WeakReference[CACHE_SIZE];
+    private final long[] addresses = new long[CACHE_SIZE];
+    private final int[] lengths = new int[CACHE_SIZE];
+    private final long[] cardinalities = new long[CACHE_SIZE];
+    // content hashes of the cached digests, only computed when assertions are enabled
+    private final long[] checksums = new long[CACHE_SIZE];
+
+    private SetDigestCardinalityCache() {}
+
+    public static long getCardinality(Slice serialized, ToLongFunction<Slice> loader)
+    {
+        Object base = serialized.getBase();
+        if (base == null) {
+            return loader.applyAsLong(serialized);
+        }
+        return CACHE.get().get(base, serialized, loader);
+    }
+
+    private long get(Object base, Slice serialized, ToLongFunction<Slice> loader)
+    {
+        long address = serialized.getAddress();
+        int length = serialized.length();
+        int slot = (System.identityHashCode(base) ^ Long.hashCode(address)) & (CACHE_SIZE - 1);
+
+        WeakReference<Object> cachedBase = bases[slot];
+        if (cachedBase != null && cachedBase.get() == base && addresses[slot] == address && lengths[slot] == length) {
+            assert checksums[slot] == XxHash64.hash(serialized) : "set digest was modified in place after its cardinality was cached";
+            return cardinalities[slot];
+        }
+
+        long cardinality = loader.applyAsLong(serialized);
+        bases[slot] = new WeakReference<>(base);
+        addresses[slot] = address;
+        lengths[slot] = length;
+        cardinalities[slot] = cardinality;
+        assert storeChecksum(slot, serialized);
+        return cardinality;
+    }
+
+    private boolean storeChecksum(int slot, Slice serialized)
+    {
+        checksums[slot] = XxHash64.hash(serialized);
+        return true;
+    }
+}
@@ -23,11 +23,10 @@ import io.trino.spi.function.TypeParameter;
 import io.trino.spi.type.StandardTypes;
 import io.trino.spi.type.Type;
 
-import java.util.Map;
-
 import static io.trino.spi.type.BigintType.BIGINT;
 import static io.trino.spi.type.SmallintType.SMALLINT;
-import static io.trino.type.setdigest.SetDigest.exactIntersectionCardinality;
+import static io.trino.type.setdigest.SetDigestView.exactIntersectionCardinality;
+import static io.trino.type.setdigest.SetDigestView.mergedCardinality;
 
 public final class SetDigestFunctions
 {
@@ -39,15 +38,15 @@ public final class SetDigestFunctions
     @SqlType(StandardTypes.BIGINT)
     public static long cardinality(@SqlType(SetDigestType.NAME) Slice digest)
     {
-        return SetDigest.newInstance(digest).cardinality();
+        return new SetDigestView(digest).cardinality();
     }
 
     @ScalarFunction
     @SqlType(StandardTypes.BIGINT)
     public static long intersectionCardinality(@SqlType(SetDigestType.NAME) Slice slice1, @SqlType(SetDigestType.NAME) Slice slice2)
     {
-        SetDigest digest1 = SetDigest.newInstance(slice1);
-        SetDigest digest2 = SetDigest.newInstance(slice2);
+        SetDigestView digest1 = new SetDigestView(slice1);
+        SetDigestView digest2 = new SetDigestView(slice2);
 
         if (digest1.isExact() && digest2.isExact()) {
             return exactIntersectionCardinality(digest1, digest2);
@@ -55,9 +54,8 @@ public final class SetDigestFunctions
 
         long cardinality1 = digest1.cardinality();
         long cardinality2 = digest2.cardinality();
-        double jaccard = SetDigest.jaccardIndex(digest1, digest2);
-        digest1.mergeWith(digest2);
-        long result = Math.round(jaccard * digest1.cardinality());
+        double jaccard = SetDigestView.jaccardIndex(digest1, digest2);
+        long result = Math.round(jaccard * mergedCardinality(digest1, digest2));
 
         // When one of the sets is much smaller than the other and approaches being a true
         // subset of the other, the computed cardinality may exceed the cardinality estimate
@@ -70,24 +68,21 @@ public final class SetDigestFunctions
     @SqlType(StandardTypes.DOUBLE)
     public static double jaccardIndex(@SqlType(SetDigestType.NAME) Slice slice1, @SqlType(SetDigestType.NAME) Slice slice2)
     {
-        SetDigest digest1 = SetDigest.newInstance(slice1);
-        SetDigest digest2 = SetDigest.newInstance(slice2);
-
-        return SetDigest.jaccardIndex(digest1, digest2);
+        return SetDigestView.jaccardIndex(new SetDigestView(slice1), new SetDigestView(slice2));
     }
 
     @ScalarFunction
     @SqlType("map(bigint,smallint)")
     public static Block hashCounts(@TypeParameter("map(bigint,smallint)") Type mapType, @SqlType(SetDigestType.NAME) Slice slice)
     {
-        SetDigest digest = SetDigest.newInstance(slice);
+        SetDigestView digest = new SetDigestView(slice);
 
         // Maybe use static BlockBuilderStatus in order avoid `new`?
         BlockBuilder blockBuilder = mapType.createBlockBuilder(null, 1);
         BlockBuilder singleMapBlockBuilder = blockBuilder.beginBlockEntry();
-        for (Map.Entry<Long, Short> entry : digest.getHashCounts().entrySet()) {
-            BIGINT.writeLong(singleMapBlockBuilder, entry.getKey());
-            SMALLINT.writeLong(singleMapBlockBuilder, entry.getValue());
+        for (int i = 0; i < digest.size(); i++) {
+            BIGINT.writeLong(singleMapBlockBuilder, digest.getHash(i));
+            SMALLINT.writeLong(singleMapBlockBuilder, digest.getCount(i));
         }
         blockBuilder.closeEntry();
 
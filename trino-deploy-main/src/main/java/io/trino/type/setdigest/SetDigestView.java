@@ -0,0 +1,138 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.trino.type.setdigest;
+
+import io.airlift.slice.Slice;
+import io.airlift.stats.cardinality.HyperLogLog;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static io.airlift.slice.SizeOf.SIZE_OF_BYTE;
+import static io.airlift.slice.SizeOf.SIZE_OF_INT;
+import static io.airlift.slice.SizeOf.SIZE_OF_LONG;
+import static io.airlift.slice.SizeOf.SIZE_OF_SHORT;
+import static io.trino.type.setdigest.SetDigest.UNCOMPRESSED_FORMAT;
+import static io.trino.type.setdigest.SetDigestCardinalityCache.getCardinality;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Read-only view of a serialized {@link SetDigest}. The minhash is read in place from the sorted
+ * hash array and the counts array that follow it, and the {@link HyperLogLog} is only decoded
+ * when an approximate cardinality is needed.
+ */
+public final class SetDigestView
+        implements SortedHashes
+{
+    private final Slice serialized;
+    private final int hllOffset;
+    private final int hllLength;
+    private final int maxHashes;
+    private final int size;
+    private final int hashesOffset;
+    private final int countsOffset;
+
+    public SetDigestView(Slice serialized)
+    {
+        this.serialized = requireNonNull(serialized, "serialized is null");
+        checkArgument(serialized.getByte(0) == UNCOMPRESSED_FORMAT, "Unexpected version");
+
+        int offset = SIZE_OF_BYTE;
+        hllLength = serialized.getInt(offset);
+        offset += SIZE_OF_INT;
+        hllOffset = offset;
+        offset += hllLength;
+        maxHashes = serialized.getInt(offset);
+        offset += SIZE_OF_INT;
+        size = serialized.getInt(offset);
+        offset += SIZE_OF_INT;
+        hashesOffset = offset;
+        countsOffset = hashesOffset + size * SIZE_OF_LONG;
+        checkArgument(countsOffset + size * SIZE_OF_SHORT <= serialized.length(), "Serialized set digest is truncated");
+    }
+
+    @Override
+    public int size()
+    {
+        return size;
+    }
+
+    public int getMaxHashes()
+    {
+        return maxHashes;
+    }
+
+    @Override
+    public long getHash(int index)
+    {
+        return serialized.getLong(hashesOffset + index * SIZE_OF_LONG);
+    }
+
+    @Override
+    public short getCount(int index)
+    {
+        return serialized.getShort(countsOffset + index * SIZE_OF_SHORT);
+    }
+
+    /**
+     * @see SetDigest#isExact()
+     */
+    public boolean isExact()
+    {
+        return size < maxHashes;
+    }
+
+    public long cardinality()
+    {
+        if (isExact()) {
+            return size;
+        }
+        return getCardinality(serialized, ignored -> decodeHll().cardinality());
+    }
+
+    public HyperLogLog decodeHll()
+    {
+        return HyperLogLog.newInstance(serialized.slice(hllOffset, hllLength));
+    }
+
+    public static long exactIntersectionCardinality(SetDigestView a, SetDigestView b)
+    {
+        checkArgument(a.isExact(), "exact intersection cannot operate on approximate sets");
+        checkArgument(b.isExact(), "exact intersection cannot operate on approximate sets");
+
+        return SortedHashes.intersectionSize(a, b);
+    }
+
+    /**
+     * @see SetDigest#jaccardIndex(SetDigest, SetDigest)
+     */
+    public static double jaccardIndex(SetDigestView a, SetDigestView b)
+    {
+        return SortedHashes.jaccardIndex(a, b);
+    }
+
+    /**
+     * Cardinality of {@code a} after {@link SetDigest#mergeWith(SetDigest) merging} {@code b} into it,
+     * without materializing the merged digest.
+     */
+    public static long mergedCardinality(SetDigestView a, SetDigestView b)
+    {
+        int union = SortedHashes.unionSize(a, b, a.maxHashes);
+        if (union < a.maxHashes) {
+            return union;
+        }
+
+        HyperLogLog hll = a.decodeHll();
+        hll.mergeWith(b.decodeHll());
+        return hll.cardinality();
+    }
+}
@@ -0,0 +1,108 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.trino.type.setdigest;
+
+/**
+ * Minhash entries in ascending (signed) hash order, shared by the in-memory {@link SetDigest}
+ * and the serialized {@link SetDigestView}.
+ */
+interface SortedHashes
+{
+    int size();
+
+    long getHash(int index);
+
+    short getCount(int index);
+
+    static long intersectionSize(SortedHashes a, SortedHashes b)
+    {
+        long intersection = 0;
+        int i = 0;
+        int j = 0;
+        while (i < a.size() && j < b.size()) {
+            int comparison = Long.compare(a.getHash(i), b.getHash(j));
+            if (comparison == 0) {
+                intersection++;
+                i++;
+                j++;
+            }
+            else if (comparison < 0) {
+                i++;
+            }
+            else {
+                j++;
+            }
+        }
+        return intersection;
+    }
+
+    /**
+     * Counts the hashes present in both inputs among the smallest {@code min(a.size(), b.size())}
+     * hashes of their union, and divides by that number.
+     */
+    static double jaccardIndex(SortedHashes a, SortedHashes b)
+    {
+        int sizeOfSmallerSet = Math.min(a.size(), b.size());
+        int intersection = 0;
+        int union = 0;
+        int i = 0;
+        int j = 0;
+        while (union < sizeOfSmallerSet) {
+            int comparison = Long.compare(a.getHash(i), b.getHash(j));
+            if (comparison == 0) {
+                intersection++;
+                i++;
+                j++;
+            }
+            else if (comparison < 0) {
+                i++;
+            }
+            else {
+                j++;
+            }
+            union++;
+        }
+        return intersection / (double) sizeOfSmallerSet;
+    }
+
+    /**
+     * Number of distinct hashes in the union of both inputs, capped at {@code limit}.
+     */
+    static int unionSize(SortedHashes a, SortedHashes b, int limit)
+    {
+        int union = 0;
+        int i = 0;
+        int j = 0;
+        while ((i < a.size() || j < b.size()) && union < limit) {
+            if (i == a.size()) {
+                j++;
+            }
+            else if (j == b.size()) {
+                i++;
+            }
+            else {
+                long left = a.getHash(i);
+                long right = b.getHash(j);
+                if (left <= right) {
+                    i++;
+                }
+                if (right <= left) {
+                    j++;
+                }
+            }
+            union++;
+        }
+        return union;
+    }
+}
@@ -0,0 +1,141 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.trino.cost;
+
+import com.google.common.collect.ImmutableList;
+import io.trino.spi.statistics.EquiDepthHistogram;
+import io.trino.spi.statistics.MostCommonValues;
+import org.testng.annotations.Test;
+
+import java.util.Optional;
+
+import static java.lang.Double.NEGATIVE_INFINITY;
+import static java.lang.Double.POSITIVE_INFINITY;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+public class TestStatisticRange
+{
+    // three buckets, each holding a third of the rows
+    private static final EquiDepthHistogram HISTOGRAM = new EquiDepthHistogram(ImmutableList.of(0.0, 1.0, 2.0, 10.0));
+    private static final MostCommonValues MOST_COMMON_VALUES = new MostCommonValues(ImmutableList.of(5.0), ImmutableList.of(0.5));
+
+    @Test
+    public void testOverlapPercentWithoutDistribution()
+    {
+        StatisticRange range = range(0, 10, 10);
+
+        assertOverlap(range, range(0, 10, 10), 1);
+        assertOverlap(range, range(5, 10, 5), 0.5);
+        assertOverlap(range, range(-5, 5, 10), 0.5);
+        assertOverlap(range, range(3, 3, 1), 0.1);
+        assertOverlap(range, range(11, 20, 5), 0);
+        assertOverlap(range, StatisticRange.empty(), 0);
+        assertOverlap(range(0, POSITIVE_INFINITY, 10), range(0, 5, 5), 0.25);
+        assertOverlap(range(NEGATIVE_INFINITY, POSITIVE_INFINITY, 10), range(0, POSITIVE_INFINITY, 5), 0.5);
+    }
+
+    @Test
+    public void testOverlapPercentWithHistogram()
+    {
+        StatisticRange range = range(0, 10, 10, Optional.of(HISTOGRAM), Optional.empty());
+
+        // the uniform estimate would be 0.2, the histogram puts two thirds of the rows there
+        assertOverlap(range, range(0, 2, 2), 2.0 / 3);
+        assertOverlap(range, range(1.5, 6, 5), 1.0 / 3);
+        assertOverlap(range, range(2, 10, 8), 1.0 / 3);
+        assertOverlap(range, range(11, 20, 5), 0);
+
+        // the part of the histogram outside of the range is not counted
+        StatisticRange narrowed = range(0, 2, 2, Optional.of(HISTOGRAM), Optional.empty());
+        assertOverlap(narrowed, range(0, 1, 1), 0.5);
+    }
+
+    @Test
+    public void testOverlapPercentWithMostCommonValues()
+    {
+        StatisticRange range = range(0, 10, 11, Optional.empty(), Optional.of(MOST_COMMON_VALUES));
+
+        assertOverlap(range, range(5, 5, 1), 0.5);
+        // the other values share the remaining half of the rows evenly
+        assertOverlap(range, range(3, 3, 1), 0.05);
+        assertOverlap(range, range(0, 4, 4), 0.2);
+        assertOverlap(range, range(4, 6, 2), 0.6);
+    }
+
+    @Test
+    public void testOverlapPercentWithHistogramAndMostCommonValues()
+    {
+        // the histogram describes the rows that are not one of the most common values
+        EquiDepthHistogram histogram = new EquiDepthHistogram(ImmutableList.of(0.0, 1.0, 10.0));
+        StatisticRange range = range(0, 10, 11, Optional.of(histogram), Optional.of(MOST_COMMON_VALUES));
+
+        assertOverlap(range, range(0, 1, 1), 0.25);
+        assertOverlap(range, range(1, 10, 9), 0.75);
+        assertOverlap(range, range(5, 5, 1), 0.5);
+    }
+
+    @Test
+    public void testIntersectWithoutDistribution()
+    {
+        assertThat(range(0, 10, 10).intersect(range(0, 5, 5))).isEqualTo(range(0, 5, 5));
+        assertThat(range(0, 10, 10).intersect(range(5, 20, 30))).isEqualTo(range(5, 10, 10));
+        assertThat(range(0, 10, 10).intersect(range(11, 20, 5))).isEqualTo(StatisticRange.empty());
+        assertThat(range(0, 10, 10).intersect(range(10, 20, 5)).getDistinctValuesCount()).isEqualTo(1);
+    }
+
+    @Test
+    public void testIntersectWithDistribution()
+    {
+        StatisticRange column = range(0, 10, 10, Optional.of(HISTOGRAM), Optional.of(MOST_COMMON_VALUES));
+        StatisticRange filter = range(0, 5, 5);
+
+        // the distinct values keep the uniform estimate
+        StatisticRange intersect = column.intersect(filter);
+        assertThat(intersect).isEqualTo(range(0, 5, 5, Optional.of(HISTOGRAM), Optional.of(MOST_COMMON_VALUES)));
+
+        // the distribution of the other range does not describe the intersection
+        StatisticRange reversed = filter.intersect(column);
+        assertThat(reversed.getHistogram()).isEmpty();
+        assertThat(reversed.getMostCommonValues()).isEmpty();
+        assertThat(reversed.getDistinctValuesCount()).isEqualTo(intersect.getDistinctValuesCount());
+
+        assertThat(column.intersect(range(11, 20, 5))).isEqualTo(StatisticRange.empty());
+    }
+
+    @Test
+    public void testIntersectThenOverlap()
+    {
+        StatisticRange column = range(0, 10, 10, Optional.of(HISTOGRAM), Optional.empty());
+
+        // x <= 2 keeps the histogram of the column, so x < 1 within it covers half of its rows
+        StatisticRange filtered = column.intersect(range(NEGATIVE_INFINITY, 2, 10));
+        assertOverlap(filtered, range(NEGATIVE_INFINITY, 1, 10), 0.5);
+    }
+
+    private static void assertOverlap(StatisticRange range, StatisticRange other, double expected)
+    {
+        assertThat(range.overlapPercentWith(other)).isCloseTo(expected, within(1e-9));
+    }
+
+    private static StatisticRange range(double low, double high, double distinctValues)
+    {
+        return new StatisticRange(low, high, distinctValues);
+    }
+
+    private static StatisticRange range(double low, double high, double distinctValues, Optional<EquiDepthHistogram> histogram, Optional<MostCommonValues> mostCommonValues)
+    {
+        return new StatisticRange(low, high, distinctValues, histogram, mostCommonValues);
+    }
+}
@@ -0,0 +1,147 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.trino.cost;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import io.trino.spi.connector.ColumnHandle;
+import io.trino.spi.statistics.ColumnStatistics;
+import io.trino.spi.statistics.DoubleRange;
+import io.trino.spi.statistics.EquiDepthHistogram;
+import io.trino.spi.statistics.Estimate;
+import io.trino.spi.statistics.MostCommonValues;
+import io.trino.spi.statistics.TableStatistics;
+import io.trino.sql.planner.Symbol;
+import io.trino.sql.planner.TypeProvider;
+import org.testng.annotations.Test;
+
+import static io.trino.spi.type.BigintType.BIGINT;
+import static io.trino.spi.type.VarcharType.VARCHAR;
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class TestTableScanStatistics
+{
+    private static final ColumnHandle KEY_COLUMN = new TestingColumnHandle("key");
+    private static final ColumnHandle NAME_COLUMN = new TestingColumnHandle("name");
+    private static final ColumnHandle COMMENT_COLUMN = new TestingColumnHandle("comment");
+
+    private static final EquiDepthHistogram HISTOGRAM = new EquiDepthHistogram(ImmutableList.of(0.0, 10.0, 100.0));
+    private static final MostCommonValues MOST_COMMON_VALUES = new MostCommonValues(ImmutableList.of(7.0), ImmutableList.of(0.25));
+
+    @Test
+    public void testToPlanNodeStats()
+    {
+        TableStatistics tableStatistics = TableStatistics.builder()
+                .setRowCount(Estimate.of(1000))
+                .setColumnStatistics(KEY_COLUMN, ColumnStatistics.builder()
+                        .setNullsFraction(Estimate.of(0.1))
+                        .setDistinctValuesCount(Estimate.of(50))
+                        .setRange(new DoubleRange(0, 100))
+                        .setHistogram(HISTOGRAM)
+                        .setMostCommonValues(MOST_COMMON_VALUES)
+                        .build())
+                .setColumnStatistics(NAME_COLUMN, ColumnStatistics.builder()
+                        .setNullsFraction(Estimate.of(0.5))
+                        .setDistinctValuesCount(Estimate.of(20))
+                        .setDataSize(Estimate.of(5000))
+                        .build())
+                .build();
+        Symbol key = new Symbol("key");
+        Symbol name = new Symbol("name");
+        Symbol comment = new Symbol("comment");
+        TypeProvider types = TypeProvider.copyOf(ImmutableMap.of(key, BIGINT, name, VARCHAR, comment, VARCHAR));
+
+        PlanNodeStatsEstimate stats = TableScanStatistics.toPlanNodeStats(
+                tableStatistics,
+                ImmutableMap.of(key, KEY_COLUMN, name, NAME_COLUMN, comment, COMMENT_COLUMN),
+                types);
+
+        assertThat(stats.getOutputRowCount()).isEqualTo(1000);
+
+        SymbolStatsEstimate keyStats = stats.getSymbolStatistics(key);
+        assertThat(keyStats.getNullsFraction()).isEqualTo(0.1);
+        assertThat(keyStats.getDistinctValuesCount()).isEqualTo(50);
+        assertThat(keyStats.getLowValue()).isEqualTo(0);
+        assertThat(keyStats.getHighValue()).isEqualTo(100);
+        // the engine knows the size of fixed width values
+        assertThat(keyStats.getAverageRowSize()).isNaN();
+        assertThat(keyStats.getHistogram()).contains(HISTOGRAM);
+        assertThat(keyStats.getMostCommonValues()).contains(MOST_COMMON_VALUES);
+
+        // the distribution reaches the estimates of the filters on the column
+        StatisticRange keyRange = keyStats.statisticRange();
+        assertThat(keyRange.getHistogram()).contains(HISTOGRAM);
+        assertThat(keyRange.getMostCommonValues()).contains(MOST_COMMON_VALUES);
+        assertThat(keyRange.overlapPercentWith(new StatisticRange(7, 7, 1))).isEqualTo(0.25);
+
+        SymbolStatsEstimate nameStats = stats.getSymbolStatistics(name);
+        assertThat(nameStats.getAverageRowSize()).isEqualTo(10);
+        assertThat(nameStats.getHistogram()).isEmpty();
+        assertThat(nameStats.getMostCommonValues()).isEmpty();
+
+        // a column without statistics is unknown
+        assertThat(stats.getSymbolStatistics(comment).isUnknown()).isTrue();
+    }
+
+    @Test
+    public void testEmptyTable()
+    {
+        TableStatistics tableStatistics = TableStatistics.builder()
+                .setRowCount(Estimate.zero())
+                .setColumnStatistics(NAME_COLUMN, ColumnStatistics.builder()
+                        .setNullsFraction(Estimate.zero())
+                        .setDataSize(Estimate.zero())
+                        .build())
+                .build();
+
+        SymbolStatsEstimate nameStats = TableScanStatistics.toSymbolStatistics(tableStatistics, tableStatistics.getColumnStatistics().get(NAME_COLUMN), VARCHAR);
+
+        assertThat(nameStats.getAverageRowSize()).isEqualTo(0);
+    }
+
+    private static class TestingColumnHandle
+            implements ColumnHandle
+    {
+        private final String name;
+
+        public TestingColumnHandle(String name)
+        {
+            this.name = name;
+        }
+
+        @Override
+        public boolean equals(Object o)
+        {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+            return name.equals(((TestingColumnHandle) o).name);
+        }
+
+        @Override
+        public int hashCode()
+        {
+            return name.hashCode();
+        }
+
+        @Override
+        public String toString()
+        {
+            return name;
+        }
+    }
+}
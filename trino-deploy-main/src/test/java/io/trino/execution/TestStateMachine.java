@@ -0,0 +1,165 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.trino.execution;
+
+import com.google.common.collect.ImmutableSet;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.SettableFuture;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.Test;
+
+import java.util.ArrayDeque;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static io.airlift.concurrent.Threads.daemonThreadsNamed;
+import static io.trino.execution.TestStateMachine.State.CANCELED;
+import static io.trino.execution.TestStateMachine.State.FAILED;
+import static io.trino.execution.TestStateMachine.State.FLUSHING;
+import static io.trino.execution.TestStateMachine.State.RUNNING;
+import static java.util.concurrent.Executors.newCachedThreadPool;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class TestStateMachine
+{
+    enum State
+    {
+        RUNNING, FLUSHING, FAILED, CANCELED
+    }
+
+    private static final ImmutableSet<State> TERMINAL_STATES = ImmutableSet.of(FAILED, CANCELED);
+
+    private final ExecutorService executor = newCachedThreadPool(daemonThreadsNamed("test-state-machine-%s"));
+
+    @AfterClass(alwaysRun = true)
+    public void tearDown()
+    {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void testCoalescedNotificationsDeliverLatestState()
+    {
+        ManualExecutor manualExecutor = new ManualExecutor();
+        StateMachine<State> stateMachine = new StateMachine<>("test", manualExecutor, RUNNING, TERMINAL_STATES, true);
+        List<State> observed = new CopyOnWriteArrayList<>();
+        stateMachine.addStateChangeListener(observed::add);
+        manualExecutor.runAll();
+        ListenableFuture<State> stateChange = stateMachine.getStateChange(RUNNING);
+
+        assertThat(stateMachine.compareAndSet(RUNNING, FLUSHING)).isTrue();
+        assertThat(stateMachine.trySet(FAILED)).isEqualTo(FLUSHING);
+        assertThat(stateChange).isNotDone();
+
+        manualExecutor.runAll();
+        assertThat(observed).containsExactly(RUNNING, FAILED);
+        assertThat(stateChange).isDone();
+        assertThat(stateMachine.getStateChange(FLUSHING)).isDone();
+    }
+
+    @Test
+    public void testCoalescedNotificationsDeliverTerminalStateConcurrently()
+            throws Exception
+    {
+        for (int i = 0; i < 1_000; i++) {
+            StateMachine<State> stateMachine = new StateMachine<>("test", executor, RUNNING, TERMINAL_STATES, true);
+            SettableFuture<State> terminalState = SettableFuture.create();
+            stateMachine.addStateChangeListener(state -> {
+                if (TERMINAL_STATES.contains(state)) {
+                    terminalState.set(state);
+                }
+            });
+            ListenableFuture<State> stateChange = stateMachine.getStateChange(RUNNING);
+
+            CountDownLatch start = new CountDownLatch(1);
+            Future<?> flushing = executor.submit(() -> {
+                start.await();
+                return stateMachine.compareAndSet(RUNNING, FLUSHING);
+            });
+            Future<?> failed = executor.submit(() -> {
+                start.await();
+                // fail right after the other thread changed the state, while it may still be notifying
+                while (stateMachine.get() != FLUSHING) {
+                    Thread.onSpinWait();
+                }
+                return stateMachine.trySet(FAILED);
+            });
+            start.countDown();
+            flushing.get(10, SECONDS);
+            failed.get(10, SECONDS);
+
+            assertThat(terminalState.get(10, SECONDS)).isEqualTo(FAILED);
+            assertThat(stateChange.get(10, SECONDS)).isIn(FLUSHING, FAILED);
+            assertThat(stateMachine.getStateChange(FLUSHING).get(10, SECONDS)).isEqualTo(FAILED);
+        }
+    }
+
+    @Test
+    public void testCoalescedNotificationsAfterRejectedExecution()
+    {
+        ManualExecutor manualExecutor = new ManualExecutor();
+        StateMachine<State> stateMachine = new StateMachine<>("test", manualExecutor, RUNNING, TERMINAL_STATES, true);
+
+        manualExecutor.reject.set(true);
+        assertThatThrownBy(() -> stateMachine.set(FLUSHING))
+                .isInstanceOf(RejectedExecutionException.class);
+
+        // a rejected notification task must not prevent later state changes from being delivered
+        manualExecutor.reject.set(false);
+        ListenableFuture<State> stateChange = stateMachine.getStateChange(FLUSHING);
+        stateMachine.set(CANCELED);
+        assertThat(stateChange).isNotDone();
+        manualExecutor.runAll();
+        assertThat(stateChange).isDone();
+    }
+
+    private static class ManualExecutor
+            implements Executor
+    {
+        private final Queue<Runnable> tasks = new ArrayDeque<>();
+        private final AtomicBoolean reject = new AtomicBoolean();
+
+        @Override
+        public synchronized void execute(Runnable command)
+        {
+            if (reject.get()) {
+                throw new RejectedExecutionException();
+            }
+            tasks.add(command);
+        }
+
+        public void runAll()
+        {
+            while (true) {
+                Runnable task;
+                synchronized (this) {
+                    task = tasks.poll();
+                }
+                if (task == null) {
+                    return;
+                }
+                task.run();
+            }
+        }
+    }
+}
@@ -0,0 +1,371 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.trino.split;
+
+import io.trino.spi.Page;
+import io.trino.spi.block.LongArrayBlock;
+import io.trino.spi.connector.ConnectorPageSource;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.IntConsumer;
+
+import static io.trino.spi.connector.ConnectorPageSource.NOT_BLOCKED;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class TestPrefetchingPageSource
+{
+    @Test
+    public void testPrefetch()
+            throws IOException
+    {
+        TestingPageSource delegate = new TestingPageSource(3);
+        ManualExecutor executor = new ManualExecutor();
+        PrefetchingPageSource pageSource = new PrefetchingPageSource(delegate, executor, 2);
+
+        CompletableFuture<?> blocked = pageSource.isBlocked();
+        assertThat(blocked).isNotDone();
+        executor.runAll();
+        assertThat(blocked).isDone();
+        // the buffer is full after two pages
+        assertThat(delegate.getReads()).isEqualTo(2);
+        assertThat(pageSource.getSystemMemoryUsage()).isGreaterThan(0);
+
+        int pages = 0;
+        while (!pageSource.isFinished()) {
+            Page page = pageSource.getNextPage();
+            if (page != null) {
+                pages++;
+            }
+            executor.runAll();
+        }
+        assertThat(pages).isEqualTo(3);
+        assertThat(pageSource.getSystemMemoryUsage()).isEqualTo(0);
+
+        pageSource.close();
+        assertThat(delegate.getCloseCount()).isEqualTo(1);
+    }
+
+    @Test
+    public void testCloseDuringFetch()
+            throws IOException
+    {
+        ManualExecutor executor = new ManualExecutor();
+        TestingPageSource delegate = new TestingPageSource(10);
+        PrefetchingPageSource pageSource = new PrefetchingPageSource(delegate, executor, 5);
+        delegate.onRead(read -> {
+            if (read == 2) {
+                closeUnchecked(pageSource);
+            }
+        });
+
+        pageSource.isBlocked();
+        executor.runAll();
+
+        // the fetch task stops after the read that was running during close and closes the delegate
+        assertThat(delegate.getReads()).isEqualTo(2);
+        assertThat(delegate.getCloseCount()).isEqualTo(1);
+        assertThat(pageSource.isFinished()).isTrue();
+        assertThat(pageSource.getSystemMemoryUsage()).isEqualTo(0);
+    }
+
+    @Test
+    public void testCloseDuringEmptyReads()
+            throws IOException
+    {
+        ManualExecutor executor = new ManualExecutor();
+        // the delegate never produces a page, so the fetch task yields the executor thread every few reads
+        TestingPageSource delegate = new TestingPageSource(Integer.MAX_VALUE).withEmptyReads();
+        PrefetchingPageSource pageSource = new PrefetchingPageSource(delegate, executor, 5);
+
+        pageSource.isBlocked();
+        executor.runOne();
+        int reads = delegate.getReads();
+        assertThat(reads).isGreaterThan(0);
+
+        // close while the fetch task is about to yield
+        delegate.onRead(read -> {
+            if (read == 2 * reads) {
+                closeUnchecked(pageSource);
+            }
+        });
+        executor.runAll();
+
+        assertThat(delegate.getReads()).isEqualTo(2 * reads);
+        assertThat(delegate.getCloseCount()).isEqualTo(1);
+    }
+
+    @Test
+    public void testBlockedDelegate()
+            throws IOException
+    {
+        ManualExecutor executor = new ManualExecutor();
+        TestingPageSource delegate = new TestingPageSource(1);
+        CompletableFuture<?> delegateBlocked = new CompletableFuture<>();
+        delegate.setBlocked(delegateBlocked);
+        PrefetchingPageSource pageSource = new PrefetchingPageSource(delegate, executor, 2);
+
+        CompletableFuture<?> blocked = pageSource.isBlocked();
+        executor.runAll();
+        // the fetch task does not hold the executor thread while the delegate is blocked
+        assertThat(executor.isEmpty()).isTrue();
+        assertThat(delegate.getReads()).isEqualTo(0);
+        assertThat(blocked).isNotDone();
+
+        delegate.setBlocked(NOT_BLOCKED);
+        delegateBlocked.complete(null);
+        executor.runAll();
+        assertThat(blocked).isDone();
+        assertThat(pageSource.getNextPage()).isNotNull();
+
+        pageSource.close();
+        assertThat(delegate.getCloseCount()).isEqualTo(1);
+    }
+
+    @Test
+    public void testCloseWhileDelegateBlocked()
+            throws IOException
+    {
+        ManualExecutor executor = new ManualExecutor();
+        TestingPageSource delegate = new TestingPageSource(1);
+        CompletableFuture<?> delegateBlocked = new CompletableFuture<>();
+        delegate.setBlocked(delegateBlocked);
+        PrefetchingPageSource pageSource = new PrefetchingPageSource(delegate, executor, 2);
+
+        CompletableFuture<?> blocked = pageSource.isBlocked();
+        executor.runAll();
+
+        pageSource.close();
+        assertThat(blocked).isDone();
+        assertThat(delegate.getCloseCount()).isEqualTo(1);
+
+        // the delegate is not read after it was closed
+        delegate.setBlocked(NOT_BLOCKED);
+        delegateBlocked.complete(null);
+        executor.runAll();
+        assertThat(delegate.getReads()).isEqualTo(0);
+        assertThat(delegate.getCloseCount()).isEqualTo(1);
+    }
+
+    @Test
+    public void testDelegateFailure()
+            throws IOException
+    {
+        ManualExecutor executor = new ManualExecutor();
+        TestingPageSource delegate = new TestingPageSource(10);
+        delegate.onRead(read -> {
+            if (read == 2) {
+                throw new IllegalStateException("read failed");
+            }
+        });
+        PrefetchingPageSource pageSource = new PrefetchingPageSource(delegate, executor, 5);
+
+        CompletableFuture<?> blocked = pageSource.isBlocked();
+        executor.runAll();
+        assertThat(blocked).isDone();
+        assertThat(pageSource.isBlocked()).isDone();
+
+        assertThatThrownBy(pageSource::getNextPage)
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessage("read failed");
+
+        pageSource.close();
+        assertThat(delegate.getCloseCount()).isEqualTo(1);
+    }
+
+    @Test
+    public void testRejectedExecution()
+            throws IOException
+    {
+        ManualExecutor executor = new ManualExecutor();
+        executor.reject();
+        TestingPageSource delegate = new TestingPageSource(1);
+        PrefetchingPageSource pageSource = new PrefetchingPageSource(delegate, executor, 2);
+
+        assertThat(pageSource.isBlocked()).isDone();
+        assertThatThrownBy(pageSource::getNextPage)
+                .isInstanceOf(RejectedExecutionException.class);
+
+        pageSource.close();
+        assertThat(delegate.getCloseCount()).isEqualTo(1);
+    }
+
+    private static void closeUnchecked(PrefetchingPageSource pageSource)
+    {
+        try {
+            pageSource.close();
+        }
+        catch (IOException e) {
+            throw new AssertionError(e);
+        }
+    }
+
+    private static class TestingPageSource
+            implements ConnectorPageSource
+    {
+        private final int pageCount;
+        private boolean emptyReads;
+        private IntConsumer readListener = read -> {};
+        private CompletableFuture<?> blocked = NOT_BLOCKED;
+        private int reads;
+        private int pages;
+        private int closeCount;
+
+        public TestingPageSource(int pageCount)
+        {
+            this.pageCount = pageCount;
+        }
+
+        public TestingPageSource withEmptyReads()
+        {
+            emptyReads = true;
+            return this;
+        }
+
+        public synchronized void onRead(IntConsumer readListener)
+        {
+            this.readListener = readListener;
+        }
+
+        public synchronized void setBlocked(CompletableFuture<?> blocked)
+        {
+            this.blocked = blocked;
+        }
+
+        public synchronized int getReads()
+        {
+            return reads;
+        }
+
+        public synchronized int getCloseCount()
+        {
+            return closeCount;
+        }
+
+        @Override
+        public long getCompletedBytes()
+        {
+            return 0;
+        }
+
+        @Override
+        public long getReadTimeNanos()
+        {
+            return 0;
+        }
+
+        @Override
+        public synchronized boolean isFinished()
+        {
+            return pages >= pageCount;
+        }
+
+        @Override
+        public synchronized CompletableFuture<?> isBlocked()
+        {
+            return blocked;
+        }
+
+        @Override
+        public Page getNextPage()
+        {
+            IntConsumer listener;
+            int read;
+            synchronized (this) {
+                assertThat(closeCount).as("read after close").isEqualTo(0);
+                reads++;
+                read = reads;
+                listener = readListener;
+            }
+            listener.accept(read);
+            synchronized (this) {
+                if (emptyReads || pages >= pageCount) {
+                    return null;
+                }
+                pages++;
+                return new Page(new LongArrayBlock(1, Optional.empty(), new long[] {pages}));
+            }
+        }
+
+        @Override
+        public long getSystemMemoryUsage()
+        {
+            return 0;
+        }
+
+        @Override
+        public synchronized void close()
+        {
+            closeCount++;
+        }
+    }
+
+    private static class ManualExecutor
+            implements Executor
+    {
+        private final Queue<Runnable> tasks = new ArrayDeque<>();
+        private boolean reject;
+
+        @Override
+        public synchronized void execute(Runnable command)
+        {
+            if (reject) {
+                throw new RejectedExecutionException();
+            }
+            tasks.add(command);
+        }
+
+        public synchronized void reject()
+        {
+            reject = true;
+        }
+
+        public synchronized boolean isEmpty()
+        {
+            return tasks.isEmpty();
+        }
+
+        public void runOne()
+        {
+            Runnable task;
+            synchronized (this) {
+                task = tasks.poll();
+            }
+            if (task != null) {
+                task.run();
+            }
+        }
+
+        public void runAll()
+        {
+            while (true) {
+                Runnable task;
+                synchronized (this) {
+                    task = tasks.poll();
+                }
+                if (task == null) {
+                    return;
+                }
+                task.run();
+            }
+        }
+    }
+}
@@ -0,0 +1,92 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.trino.sql;
+
+import com.google.common.collect.ImmutableMap;
+import io.trino.sql.parser.ParsingOptions;
+import io.trino.sql.parser.RefreshableSqlBaseParserInitializer;
+import io.trino.sql.parser.SqlParser;
+import io.trino.sql.tree.Statement;
+import org.testng.annotations.Test;
+
+import java.util.Map;
+
+import static io.airlift.configuration.testing.ConfigAssertions.assertFullMapping;
+import static io.airlift.configuration.testing.ConfigAssertions.assertRecordedDefaults;
+import static io.airlift.configuration.testing.ConfigAssertions.recordDefaults;
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class TestSqlParserConfig
+{
+    @Test
+    public void testDefaults()
+    {
+        assertRecordedDefaults(recordDefaults(SqlParserConfig.class)
+                .setStatementCacheMaxEntries(0)
+                .setStatementCacheMaxSqlLength(64 * 1024 * 1024)
+                .setWarmUpEnabled(true)
+                .setWarmUpParallelism(Math.min(4, Runtime.getRuntime().availableProcessors()))
+                .setWarmUpSnapshotFile(null)
+                .setWarmUpMaxCapturedStatements(0));
+    }
+
+    @Test
+    public void testExplicitPropertyMappings()
+    {
+        Map<String, String> properties = ImmutableMap.<String, String>builder()
+                .put("sql.parser.statement-cache.max-entries", "1000")
+                .put("sql.parser.statement-cache.max-sql-length", "1000000")
+                .put("sql.parser.warm-up.enabled", "false")
+                .put("sql.parser.warm-up.parallelism", "7")
+                .put("sql.parser.warm-up.snapshot-file", "/tmp/warm-up.snapshot")
+                .put("sql.parser.warm-up.max-captured-statements", "500")
+                .build();
+
+        SqlParserConfig expected = new SqlParserConfig()
+                .setStatementCacheMaxEntries(1000)
+                .setStatementCacheMaxSqlLength(1_000_000)
+                .setWarmUpEnabled(false)
+                .setWarmUpParallelism(7)
+                .setWarmUpSnapshotFile("/tmp/warm-up.snapshot")
+                .setWarmUpMaxCapturedStatements(500);
+
+        assertFullMapping(properties, expected);
+    }
+
+    @Test
+    public void testStatementCache()
+    {
+        SqlParser disabled = SqlParserModule.createSqlParser(new SqlParserConfig(), new RefreshableSqlBaseParserInitializer());
+        assertThat(disabled.getStatementCacheStats()).isEmpty();
+        assertThat(new SqlParserStats(disabled).getStatementCacheRequestCount()).isEqualTo(0);
+
+        SqlParser parser = SqlParserModule.createSqlParser(
+                new SqlParserConfig()
+                        .setStatementCacheMaxEntries(10)
+                        .setStatementCacheMaxSqlLength(1000),
+                new RefreshableSqlBaseParserInitializer());
+        SqlParserStats stats = new SqlParserStats(parser);
+        assertThat(stats.isStatementCacheEnabled()).isTrue();
+
+        Statement first = parser.createStatement("SELECT 1", new ParsingOptions());
+        Statement second = parser.createStatement("SELECT 1", new ParsingOptions());
+        assertThat(second).isSameAs(first);
+        assertThat(stats.getStatementCacheSize()).isEqualTo(1);
+        assertThat(stats.getStatementCacheHitCount()).isEqualTo(1);
+        assertThat(stats.getStatementCacheMissCount()).isEqualTo(1);
+
+        stats.invalidateStatementCache();
+        assertThat(stats.getStatementCacheSize()).isEqualTo(0);
+    }
+}
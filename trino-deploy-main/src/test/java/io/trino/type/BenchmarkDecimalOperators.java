@@ -0,0 +1,141 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.trino.type;
+
+import io.trino.spi.block.Block;
+import io.trino.spi.block.BlockBuilder;
+import io.trino.spi.type.DecimalType;
+import io.trino.spi.type.Int128;
+import io.trino.spi.type.Int128Math;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.math.BigInteger;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import static io.trino.spi.type.DecimalType.createDecimalType;
+
+/**
+ * Measures sum, average and multiply of decimal(38, 2) values read from blocks. The tree has no
+ * decimal sum and average aggregation functions, so the aggregations add into a (high, low, overflow)
+ * state and divide by the count with {@link Int128Math}, as their accumulators do. The multiply goes
+ * through the {@link DecimalOperators} method that the generated projection calls, and writes a block.
+ */
+@State(Scope.Thread)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@BenchmarkMode(Mode.AverageTime)
+@Fork(2)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@OperationsPerInvocation(BenchmarkDecimalOperators.POSITIONS)
+public class BenchmarkDecimalOperators
+{
+    static final int POSITIONS = 10_000;
+
+    private static final DecimalType DECIMAL = createDecimalType(38, 2);
+    private static final DecimalType PRODUCT = createDecimalType(38, 4);
+
+    // whether the unscaled values fit in a long, the right operands of multiply always do so that the products do not overflow
+    @Param({"SHORT", "LONG"})
+    private String operandSize = "SHORT";
+
+    private Block left;
+    private Block right;
+    private final long[] sum = new long[2];
+
+    @Setup
+    public void setup()
+    {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        BlockBuilder leftBuilder = DECIMAL.createBlockBuilder(null, POSITIONS);
+        BlockBuilder rightBuilder = DECIMAL.createBlockBuilder(null, POSITIONS);
+        for (int i = 0; i < POSITIONS; i++) {
+            BigInteger value = operandSize.equals("SHORT") ? BigInteger.valueOf(random.nextLong(-1_000_000_000_000_000L, 1_000_000_000_000_000L)) : new BigInteger(70, random);
+            DECIMAL.writeObject(leftBuilder, Int128.valueOf(random.nextBoolean() ? value : value.negate()));
+            DECIMAL.writeObject(rightBuilder, Int128.valueOf(random.nextLong(-1_000_000_000_000_000L, 1_000_000_000_000_000L)));
+        }
+        left = leftBuilder.build();
+        right = rightBuilder.build();
+    }
+
+    @Benchmark
+    public long sum()
+    {
+        sum[0] = 0;
+        sum[1] = 0;
+        long overflow = 0;
+        for (int position = 0; position < POSITIONS; position++) {
+            overflow += Int128Math.addWithOverflow(sum[0], sum[1], left.getLong(position, 0), left.getLong(position, Long.BYTES), sum, 0);
+        }
+        if (overflow != 0) {
+            throw new ArithmeticException("Decimal overflow");
+        }
+        return sum[0] ^ sum[1];
+    }
+
+    @Benchmark
+    public Int128 average()
+    {
+        sum[0] = 0;
+        sum[1] = 0;
+        long overflow = 0;
+        long count = 0;
+        for (int position = 0; position < POSITIONS; position++) {
+            if (left.isNull(position)) {
+                continue;
+            }
+            overflow += Int128Math.addWithOverflow(sum[0], sum[1], left.getLong(position, 0), left.getLong(position, Long.BYTES), sum, 0);
+            count++;
+        }
+        if (overflow != 0) {
+            throw new ArithmeticException("Decimal overflow");
+        }
+        return Int128Math.divideRoundUp(sum[0], sum[1], 0, 0, count, 0);
+    }
+
+    @Benchmark
+    public Block multiply()
+    {
+        BlockBuilder blockBuilder = PRODUCT.createBlockBuilder(null, POSITIONS);
+        for (int position = 0; position < POSITIONS; position++) {
+            Int128 product = DecimalOperators.multiplyLongLongLong((Int128) DECIMAL.getObject(left, position), (Int128) DECIMAL.getObject(right, position));
+            PRODUCT.writeObject(blockBuilder, product);
+        }
+        return blockBuilder.build();
+    }
+
+    public static void main(String[] args)
+            throws RunnerException
+    {
+        Options options = new OptionsBuilder()
+                .include(".*" + BenchmarkDecimalOperators.class.getSimpleName() + ".*")
+                .build();
+        new Runner(options).run();
+    }
+}
@@ -0,0 +1,140 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.trino.type;
+
+import io.airlift.slice.Slice;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import static io.airlift.slice.Slices.utf8Slice;
+import static io.trino.type.LikeFunctions.likePattern;
+import static io.trino.type.LikeFunctions.likeVarchar;
+
+/**
+ * Compares the LIKE matchers specialized for the shape of the pattern with the Joni regex
+ * evaluation, over values of which roughly half match.
+ */
+@State(Scope.Thread)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@BenchmarkMode(Mode.AverageTime)
+@Fork(2)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@OperationsPerInvocation(BenchmarkLikeMatcher.POSITIONS)
+public class BenchmarkLikeMatcher
+{
+    static final int POSITIONS = 10_000;
+    private static final int VALUE_LENGTH = 32;
+
+    @Param({
+            "abc%", // prefix
+            "%abc", // suffix
+            "%abc%", // contains
+            "abc%de%f", // segments
+            "abc_e%", // single character wildcards
+            "%abc_e%"}) // regex
+    private String pattern = "abc%";
+
+    private final Slice[] values = new Slice[POSITIONS];
+    private JoniRegexp likeMatcherPattern;
+    private JoniRegexp regexPattern;
+    private final boolean[] result = new boolean[POSITIONS];
+
+    @Setup
+    public void setup()
+    {
+        likeMatcherPattern = likePattern(utf8Slice(pattern));
+        regexPattern = new JoniRegexp(likeMatcherPattern.pattern(), likeMatcherPattern.regex());
+
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        for (int position = 0; position < POSITIONS; position++) {
+            String value = random.nextBoolean() ? matchingValue(random) : randomString(random, VALUE_LENGTH);
+            values[position] = utf8Slice(value);
+        }
+    }
+
+    private String matchingValue(ThreadLocalRandom random)
+    {
+        long sequences = pattern.chars().filter(c -> c == '%').count();
+        int sequenceLength = sequences == 0 ? 0 : (int) ((VALUE_LENGTH - pattern.length()) / sequences);
+        StringBuilder value = new StringBuilder();
+        for (char c : pattern.toCharArray()) {
+            if (c == '%') {
+                value.append(randomString(random, sequenceLength));
+            }
+            else if (c == '_') {
+                value.append(randomString(random, 1));
+            }
+            else {
+                value.append(c);
+            }
+        }
+        return value.toString();
+    }
+
+    private static String randomString(ThreadLocalRandom random, int length)
+    {
+        char[] value = new char[length];
+        for (int i = 0; i < length; i++) {
+            value[i] = (char) ('a' + random.nextInt(26));
+        }
+        return new String(value);
+    }
+
+    @Benchmark
+    public boolean[] likeMatcher()
+    {
+        return like(likeMatcherPattern);
+    }
+
+    @Benchmark
+    public boolean[] regex()
+    {
+        return like(regexPattern);
+    }
+
+    private boolean[] like(JoniRegexp pattern)
+    {
+        for (int position = 0; position < POSITIONS; position++) {
+            result[position] = likeVarchar(values[position], pattern);
+        }
+        return result;
+    }
+
+    public static void main(String[] args)
+            throws RunnerException
+    {
+        Options options = new OptionsBuilder()
+                .include(".*" + BenchmarkLikeMatcher.class.getSimpleName() + ".*")
+                .build();
+        new Runner(options).run();
+    }
+}
@@ -0,0 +1,121 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.trino.type;
+
+import io.airlift.slice.Slice;
+import org.testng.annotations.Test;
+
+import static io.airlift.slice.Slices.utf8Slice;
+import static io.airlift.slice.Slices.wrappedBuffer;
+import static io.trino.type.LikeFunctions.likePattern;
+import static io.trino.type.LikeFunctions.likeVarchar;
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class TestLikeFunctions
+{
+    @Test
+    public void testLike()
+    {
+        assertLike("abc", "abc", true);
+        assertLike("abcd", "abc", false);
+        assertLike("abcd", "abc%", true);
+        assertLike("xabc", "%abc", true);
+        assertLike("xabcy", "%abc%", true);
+        assertLike("xaybzc", "%a%b%c", true);
+        assertLike("xaybzcd", "%a%b%c", false);
+        assertLike("abcde", "abc_e", true);
+        assertLike("abcdef", "abc_e%", true);
+        assertLike("xabcde", "%abc_e", true);
+        assertLike("xabcdef", "%abc_e", false);
+        assertLike("a.c", "a.c", true);
+        assertLike("abc", "a.c", false);
+        assertLike("a\\c", "a\\c", true);
+        assertLike("a^$*c", "a^$*c", true);
+    }
+
+    @Test
+    public void testLikeWithNewlines()
+    {
+        // the pattern must match the whole value, not only one of its lines
+        assertLike("abc\nxyz", "abc", false);
+        assertLike("xyz\nabc", "abc", false);
+        assertLike("abc\n", "abc", false);
+        assertLike("xabc\nyy", "%abc", false);
+        assertLike("abc\nxyz", "%xyz", true);
+        assertLike("xy\nabc", "abc%", false);
+        assertLike("abc\nxyz", "abc%", true);
+        assertLike("xabc\nyy", "%abc%", true);
+        assertLike("a\nb\nc", "a%c", true);
+        assertLike("a\nb\nc\n", "a%c", false);
+        assertLike("a\nb", "a_b", true);
+        assertLike("a\nbc", "a_b", false);
+        assertLike("\n", "_", true);
+        assertLike("\n", "%", true);
+        assertLike("x\nabcde", "%abc_e", true);
+        assertLike("xabcde\ny", "%abc_e", false);
+        assertLike("xabcde\ny", "%abc_e%", true);
+    }
+
+    @Test
+    public void testLikeWithEscape()
+    {
+        assertLike("a%c", "a#%c", "#", true);
+        assertLike("abc", "a#%c", "#", false);
+        assertLike("a_c\nx", "a#_c", "#", false);
+        assertLike("x\na_c", "%a#_c", "#", true);
+    }
+
+    @Test
+    public void testLikeInvalidUtf8()
+    {
+        Slice value = wrappedBuffer(new byte[] {'a', (byte) 0xFF, 'b'});
+        assertThat(likeVarchar(value, likePattern(utf8Slice("a_b")))).isTrue();
+        assertThat(likeVarchar(value, likePattern(utf8Slice("a_")))).isFalse();
+
+        Slice withNewline = wrappedBuffer(new byte[] {'a', (byte) 0xFF, 'b', '\n'});
+        assertThat(likeVarchar(withNewline, likePattern(utf8Slice("a_b")))).isFalse();
+        assertThat(likeVarchar(withNewline, likePattern(utf8Slice("a_b%")))).isTrue();
+    }
+
+    private static void assertLike(String value, String pattern, boolean expected)
+    {
+        assertLike(value, likePattern(utf8Slice(pattern)), expected);
+    }
+
+    private static void assertLike(String value, String pattern, String escape, boolean expected)
+    {
+        assertLike(value, likePattern(utf8Slice(pattern), utf8Slice(escape)), expected);
+    }
+
+    private static void assertLike(String value, JoniRegexp pattern, boolean expected)
+    {
+        // the specialized matchers and the regex agree on every value
+        JoniRegexp regexOnly = new JoniRegexp(pattern.pattern(), pattern.regex());
+        assertThat(likeVarchar(utf8Slice(value), pattern))
+                .as("'%s' LIKE %s", value, pattern.pattern().toStringUtf8())
+                .isEqualTo(expected);
+        assertThat(likeVarchar(utf8Slice(value), regexOnly))
+                .as("'%s' LIKE %s (regex)", value, pattern.pattern().toStringUtf8())
+                .isEqualTo(expected);
+
+        // values that are not at the start of their backing array
+        Slice padded = utf8Slice("##" + value + "##").slice(2, utf8Slice(value).length());
+        assertThat(likeVarchar(padded, pattern))
+                .as("'%s' LIKE %s", value, pattern.pattern().toStringUtf8())
+                .isEqualTo(expected);
+        assertThat(likeVarchar(padded, regexOnly))
+                .as("'%s' LIKE %s (regex)", value, pattern.pattern().toStringUtf8())
+                .isEqualTo(expected);
+    }
+}
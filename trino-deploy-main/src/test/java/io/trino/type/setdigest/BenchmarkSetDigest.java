@@ -0,0 +1,118 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.trino.type.setdigest;
+
+import io.airlift.slice.Slice;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures building, merging and comparing set digests, for sets that fit in the exact
+ * minhash (1000 values) and sets that exceed it (100000 values).
+ */
+@State(Scope.Thread)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@BenchmarkMode(Mode.AverageTime)
+@Fork(2)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+public class BenchmarkSetDigest
+{
+    @Param({"1000", "100000"})
+    private int valueCount = 1000;
+
+    private long[] values;
+    private SetDigest left;
+    private SetDigest right;
+    private Slice serializedLeft;
+    private Slice serializedRight;
+
+    @Setup
+    public void setup()
+    {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        values = new long[valueCount];
+        left = new SetDigest();
+        right = new SetDigest();
+        for (int i = 0; i < valueCount; i++) {
+            values[i] = random.nextLong();
+            left.add(values[i]);
+            // the sets overlap by roughly half of their values
+            right.add(random.nextBoolean() ? values[i] : random.nextLong());
+        }
+        serializedLeft = left.serialize();
+        serializedRight = right.serialize();
+    }
+
+    @Benchmark
+    public SetDigest add()
+    {
+        SetDigest digest = new SetDigest();
+        for (long value : values) {
+            digest.add(value);
+        }
+        return digest;
+    }
+
+    @Benchmark
+    public SetDigest mergeWith()
+    {
+        SetDigest digest = SetDigest.newInstance(serializedLeft);
+        digest.mergeWith(right);
+        return digest;
+    }
+
+    @Benchmark
+    public Slice serialize()
+    {
+        return left.serialize();
+    }
+
+    @Benchmark
+    public long intersectionCardinality()
+    {
+        return SetDigestFunctions.intersectionCardinality(serializedLeft, serializedRight);
+    }
+
+    @Benchmark
+    public double jaccardIndex()
+    {
+        return SetDigestFunctions.jaccardIndex(serializedLeft, serializedRight);
+    }
+
+    public static void main(String[] args)
+            throws RunnerException
+    {
+        Options options = new OptionsBuilder()
+                .include(".*" + BenchmarkSetDigest.class.getSimpleName() + ".*")
+                .build();
+        new Runner(options).run();
+    }
+}
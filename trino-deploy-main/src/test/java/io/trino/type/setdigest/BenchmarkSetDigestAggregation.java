@@ -0,0 +1,152 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.trino.type.setdigest;
+
+import io.airlift.slice.Slice;
+import io.trino.spi.block.Block;
+import io.trino.spi.block.BlockBuilder;
+import io.trino.spi.function.GroupedAccumulatorState;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import static io.trino.type.setdigest.SetDigestType.SET_DIGEST;
+
+/**
+ * Measures the make_set_digest and merge_set_digest aggregations over 10 million rows, through
+ * the grouped state, input, combine and output functions that the generated accumulators call.
+ * The merge benchmark merges the partial digests of the same rows, split into {@value #PARTIALS}
+ * partial aggregations per group, as the final step of a distributed aggregation does.
+ */
+@State(Scope.Thread)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@BenchmarkMode(Mode.AverageTime)
+@Fork(2)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+public class BenchmarkSetDigestAggregation
+{
+    static final int ROWS = 10_000_000;
+    static final int PARTIALS = 16;
+
+    private static final SetDigestStateFactory STATE_FACTORY = new SetDigestStateFactory();
+    private static final SetDigestStateSerializer SERIALIZER = new SetDigestStateSerializer();
+
+    @Param({"1", "1000"})
+    private int groupCount = 1;
+
+    @Param({"1000", "10000000"})
+    private int distinctValues = 1000;
+
+    private int[] groupIds;
+    private long[] values;
+    private Block partialDigests;
+
+    @Setup
+    public void setup()
+    {
+        SplittableRandom random = new SplittableRandom(42);
+        groupIds = new int[ROWS];
+        values = new long[ROWS];
+        for (int row = 0; row < ROWS; row++) {
+            groupIds[row] = random.nextInt(groupCount);
+            values[row] = random.nextInt(distinctValues);
+        }
+
+        // partial digests, one per group for each slice of the rows, in the order the final aggregation reads them
+        BlockBuilder partials = SET_DIGEST.createBlockBuilder(null, groupCount * PARTIALS);
+        int rowsPerPartial = ROWS / PARTIALS;
+        for (int partial = 0; partial < PARTIALS; partial++) {
+            SetDigestState state = build(partial * rowsPerPartial, (partial + 1) * rowsPerPartial);
+            for (int groupId = 0; groupId < groupCount; groupId++) {
+                ((GroupedAccumulatorState) state).setGroupId(groupId);
+                SERIALIZER.serialize(state, partials);
+            }
+        }
+        partialDigests = partials.build();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public Block makeSetDigest()
+    {
+        SetDigestState state = build(0, ROWS);
+        BlockBuilder out = SET_DIGEST.createBlockBuilder(null, groupCount);
+        for (int groupId = 0; groupId < groupCount; groupId++) {
+            ((GroupedAccumulatorState) state).setGroupId(groupId);
+            BuildSetDigestAggregation.output(state, out);
+        }
+        return out.build();
+    }
+
+    @Benchmark
+    public Block mergeSetDigest()
+    {
+        SetDigestState state = STATE_FACTORY.createGroupedState();
+        GroupedAccumulatorState groupedState = (GroupedAccumulatorState) state;
+        groupedState.ensureCapacity(groupCount);
+        for (int position = 0; position < partialDigests.getPositionCount(); position++) {
+            if (partialDigests.isNull(position)) {
+                continue;
+            }
+            groupedState.setGroupId(position % groupCount);
+            Slice digest = SET_DIGEST.getSlice(partialDigests, position);
+            MergeSetDigestAggregation.input(state, digest);
+        }
+
+        BlockBuilder out = SET_DIGEST.createBlockBuilder(null, groupCount);
+        for (int groupId = 0; groupId < groupCount; groupId++) {
+            groupedState.setGroupId(groupId);
+            MergeSetDigestAggregation.output(state, out);
+        }
+        return out.build();
+    }
+
+    private SetDigestState build(int fromRow, int toRow)
+    {
+        SetDigestState state = STATE_FACTORY.createGroupedState();
+        GroupedAccumulatorState groupedState = (GroupedAccumulatorState) state;
+        groupedState.ensureCapacity(groupCount);
+        for (int row = fromRow; row < toRow; row++) {
+            groupedState.setGroupId(groupIds[row]);
+            BuildSetDigestAggregation.input(state, values[row]);
+        }
+        return state;
+    }
+
+    public static void main(String[] args)
+            throws RunnerException
+    {
+        Options options = new OptionsBuilder()
+                .include(".*" + BenchmarkSetDigestAggregation.class.getSimpleName() + ".*")
+                .build();
+        new Runner(options).run();
+    }
+}
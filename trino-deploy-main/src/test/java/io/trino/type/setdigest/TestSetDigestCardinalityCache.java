@@ -0,0 +1,67 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.trino.type.setdigest;
+
+import io.airlift.slice.Slice;
+import io.airlift.slice.Slices;
+import org.testng.annotations.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static io.trino.type.setdigest.SetDigestCardinalityCache.getCardinality;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class TestSetDigestCardinalityCache
+{
+    @Test
+    public void testCacheHit()
+    {
+        Slice serialized = Slices.wrappedBuffer(new byte[] {1, 2, 3, 4});
+        AtomicInteger loads = new AtomicInteger();
+
+        assertThat(getCardinality(serialized, slice -> loads.incrementAndGet())).isEqualTo(1);
+        // the same memory is resolved from the cache
+        assertThat(getCardinality(serialized.slice(0, 4), slice -> loads.incrementAndGet())).isEqualTo(1);
+        assertThat(loads.get()).isEqualTo(1);
+
+        // a different region of the same memory is a different key
+        assertThat(getCardinality(serialized.slice(0, 2), slice -> loads.incrementAndGet())).isEqualTo(2);
+        assertThat(loads.get()).isEqualTo(2);
+    }
+
+    @Test
+    public void testNoHeapBase()
+    {
+        Slice serialized = Slices.allocateDirect(4);
+        AtomicInteger loads = new AtomicInteger();
+
+        getCardinality(serialized, slice -> loads.incrementAndGet());
+        getCardinality(serialized, slice -> loads.incrementAndGet());
+        assertThat(loads.get()).isEqualTo(2);
+    }
+
+    @Test
+    public void testModifiedInPlace()
+    {
+        // the cache relies on block memory never being modified in place, which the tests check with assertions
+        Slice serialized = Slices.wrappedBuffer(new byte[] {5, 6, 7, 8});
+        getCardinality(serialized, slice -> 42);
+
+        serialized.setByte(0, 9);
+        assertThatThrownBy(() -> getCardinality(serialized, slice -> 43))
+                .isInstanceOf(AssertionError.class)
+                .hasMessageContaining("modified in place");
+    }
+}
@@ -0,0 +1,163 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.trino.util;
+
+import io.airlift.slice.XxHash64;
+import io.trino.spi.block.Block;
+import io.trino.spi.block.Int128ArrayBlock;
+import io.trino.spi.block.Int128PositionHashTable;
+import io.trino.spi.block.LongArrayBlock;
+import io.trino.spi.block.LongPositionHashTable;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import static io.trino.spi.type.BigintType.BIGINT;
+
+/**
+ * Measures assigning dense ids to the values of a block with the position hash tables, against
+ * a boxed {@link HashMap} for bigint values and against {@link LongLong2LongOpenCustomBigHashMap}
+ * for 128-bit values.
+ */
+@State(Scope.Thread)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@BenchmarkMode(Mode.AverageTime)
+@Fork(2)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@OperationsPerInvocation(BenchmarkPositionHashTable.POSITIONS)
+public class BenchmarkPositionHashTable
+{
+    static final int POSITIONS = 100_000;
+
+    private static final LongLong2LongOpenCustomBigHashMap.HashStrategy INT128_HASH_STRATEGY = new LongLong2LongOpenCustomBigHashMap.HashStrategy()
+    {
+        @Override
+        public long hashCode(long e1, long e2)
+        {
+            return XxHash64.hash(e1) * 31 + XxHash64.hash(e2);
+        }
+
+        @Override
+        public boolean equals(long a1, long a2, long b1, long b2)
+        {
+            return a1 == b1 && a2 == b2;
+        }
+    };
+
+    @Param({"100", "10000", "100000"})
+    private int distinctCount = 10000;
+
+    private Block longBlock;
+    private Block int128Block;
+    private final int[] ids = new int[POSITIONS];
+
+    @Setup
+    public void setup()
+    {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        long[] distinctValues = new long[distinctCount * 2];
+        for (int i = 0; i < distinctValues.length; i++) {
+            distinctValues[i] = random.nextLong();
+        }
+
+        long[] longValues = new long[POSITIONS];
+        long[] int128Values = new long[POSITIONS * 2];
+        for (int position = 0; position < POSITIONS; position++) {
+            int value = random.nextInt(distinctCount);
+            longValues[position] = distinctValues[value * 2];
+            int128Values[position * 2] = distinctValues[value * 2];
+            int128Values[position * 2 + 1] = distinctValues[value * 2 + 1];
+        }
+        longBlock = new LongArrayBlock(POSITIONS, Optional.empty(), longValues);
+        int128Block = new Int128ArrayBlock(POSITIONS, Optional.empty(), int128Values);
+    }
+
+    @Benchmark
+    public int[] longPositionHashTable()
+    {
+        LongPositionHashTable table = new LongPositionHashTable(BIGINT, 16);
+        table.putIfAbsent(longBlock, ids);
+        return ids;
+    }
+
+    @Benchmark
+    public int[] boxedHashMap()
+    {
+        Map<Long, Integer> table = new HashMap<>();
+        for (int position = 0; position < POSITIONS; position++) {
+            if (longBlock.isNull(position)) {
+                ids[position] = -1;
+                continue;
+            }
+            Integer id = table.putIfAbsent(BIGINT.getLong(longBlock, position), table.size());
+            ids[position] = id == null ? table.size() - 1 : id;
+        }
+        return ids;
+    }
+
+    @Benchmark
+    public int[] int128PositionHashTable()
+    {
+        Int128PositionHashTable table = new Int128PositionHashTable(16);
+        table.putIfAbsent(int128Block, ids);
+        return ids;
+    }
+
+    @Benchmark
+    public int[] longLong2LongOpenCustomBigHashMap()
+    {
+        LongLong2LongOpenCustomBigHashMap table = new LongLong2LongOpenCustomBigHashMap(16, INT128_HASH_STRATEGY);
+        table.defaultReturnValue(-1);
+        for (int position = 0; position < POSITIONS; position++) {
+            if (int128Block.isNull(position)) {
+                ids[position] = -1;
+                continue;
+            }
+            long high = int128Block.getLong(position, 0);
+            long low = int128Block.getLong(position, Long.BYTES);
+            long id = table.putIfAbsent(high, low, table.size());
+            ids[position] = (int) (id == -1 ? table.size() - 1 : id);
+        }
+        return ids;
+    }
+
+    public static void main(String[] args)
+            throws RunnerException
+    {
+        Options options = new OptionsBuilder()
+                .include(".*" + BenchmarkPositionHashTable.class.getSimpleName() + ".*")
+                .build();
+        new Runner(options).run();
+    }
+}
@@ -13,6 +13,8 @@
  */
 package io.trino.sql.parser;
 
+import java.util.Objects;
+
 import static java.util.Objects.requireNonNull;
 
 public class ParsingOptions
@@ -40,4 +42,23 @@ public class ParsingOptions
     {
         return decimalLiteralTreatment;
     }
+
+    @Override
+    public boolean equals(Object o)
+    {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        ParsingOptions that = (ParsingOptions) o;
+        return decimalLiteralTreatment == that.decimalLiteralTreatment;
+    }
+
+    @Override
+    public int hashCode()
+    {
+        return Objects.hash(decimalLiteralTreatment);
+    }
 }
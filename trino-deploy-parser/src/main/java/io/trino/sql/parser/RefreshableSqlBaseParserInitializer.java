@@ -14,18 +14,105 @@
 
 package io.trino.sql.parser;
 
+import com.google.common.collect.ImmutableList;
+import com.google.common.io.Resources;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import org.antlr.v4.runtime.CharStream;
+import org.antlr.v4.runtime.CharStreams;
+import org.antlr.v4.runtime.Token;
+import org.antlr.v4.runtime.misc.Interval;
+
 import javax.annotation.concurrent.ThreadSafe;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.BiConsumer;
 
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.collect.ImmutableList.toImmutableList;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.Objects.requireNonNull;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+
+/**
+ * Shares the lexer and parser prediction caches between all parsers it initializes.
+ * <p>
+ * The caches start empty, so the first statements after startup or {@link #refresh()} pay for
+ * filling them. {@link #warmUp} replays a corpus of statements to fill them ahead of time, such as the
+ * one returned by {@link #getDefaultWarmUpStatements()}, and {@link #refresh(Collection, int)} warms
+ * the new caches before they replace the current ones.
+ * ANTLR has no way to serialize a DFA, so a snapshot of the warmed state is kept as the statements
+ * that produced it: when capturing is enabled, distinct statements seen by the parser are recorded
+ * and can be written with {@link #writeSnapshot} and replayed on the next start with {@link #readSnapshot}.
+ * <p>
+ * Capturing is disabled unless a limit is passed to {@link #RefreshableSqlBaseParserInitializer(int)}.
+ * Captured statements keep their keywords, identifiers and operators, which is what the prediction
+ * caches depend on, but string, binary and numeric literals are replaced with a fixed placeholder
+ * so that values embedded in queries, such as credentials, are not persisted. Redacting re-lexes the
+ * statement, so it runs on a background thread rather than on the parsing thread, and statements are
+ * dropped instead of captured when that thread falls behind.
+ */
 @ThreadSafe
 public final class RefreshableSqlBaseParserInitializer
         implements BiConsumer<SqlBaseLexer, SqlBaseParser>
 {
+    private static final ParsingOptions WARM_UP_PARSING_OPTIONS = new ParsingOptions(ParsingOptions.DecimalLiteralTreatment.AS_DOUBLE);
+    private static final String DEFAULT_WARM_UP_STATEMENTS = "warm-up-statements.sql";
+    private static final int MAX_PENDING_CAPTURES = 1024;
+
     private final AtomicReference<SqlBaseParserAndLexerATNCaches> caches = new AtomicReference<>();
+    private final int maxCapturedStatements;
+    private final Set<String> capturedStatements = ConcurrentHashMap.newKeySet();
+    private final Optional<ExecutorService> captureExecutor;
 
     public RefreshableSqlBaseParserInitializer()
     {
+        this(0);
+    }
+
+    /**
+     * @param maxCapturedStatements number of distinct statements, with their literals redacted, to record for {@link #writeSnapshot},
+     * or zero to disable capturing
+     */
+    public RefreshableSqlBaseParserInitializer(int maxCapturedStatements)
+    {
+        checkArgument(maxCapturedStatements >= 0, "maxCapturedStatements is negative");
+        this.maxCapturedStatements = maxCapturedStatements;
+        if (maxCapturedStatements == 0) {
+            captureExecutor = Optional.empty();
+        }
+        else {
+            captureExecutor = Optional.of(new ThreadPoolExecutor(
+                    1,
+                    1,
+                    0,
+                    MILLISECONDS,
+                    new ArrayBlockingQueue<>(MAX_PENDING_CAPTURES),
+                    new ThreadFactoryBuilder()
+                            .setNameFormat("sql-parser-capture-%s")
+                            .setDaemon(true)
+                            .build(),
+                    new ThreadPoolExecutor.DiscardPolicy()));
+        }
         refresh();
     }
 
@@ -34,12 +121,176 @@ public final class RefreshableSqlBaseParserInitializer
         caches.set(new SqlBaseParserAndLexerATNCaches());
     }
 
+    /**
+     * Replaces the caches with new ones that have been warmed up with the given statements.
+     * Parsing continues to use the current caches until the warm-up finishes.
+     */
+    public void refresh(Collection<String> warmUpStatements, int parallelism)
+    {
+        SqlBaseParserAndLexerATNCaches newCaches = new SqlBaseParserAndLexerATNCaches();
+        warmUp(newCaches, warmUpStatements, parallelism);
+        caches.set(newCaches);
+    }
+
+    /**
+     * Fills the current caches by parsing the given statements on {@code parallelism} threads.
+     * Statements that fail to parse are ignored.
+     */
+    public void warmUp(Collection<String> statements, int parallelism)
+    {
+        warmUp(caches.get(), statements, parallelism);
+    }
+
+    /**
+     * Returns the statements shipped with the parser for warming up the prediction caches.
+     */
+    public static List<String> getDefaultWarmUpStatements()
+    {
+        try {
+            return Resources.readLines(Resources.getResource(RefreshableSqlBaseParserInitializer.class, DEFAULT_WARM_UP_STATEMENTS), UTF_8).stream()
+                    .map(String::trim)
+                    .filter(line -> !line.isEmpty() && !line.startsWith("--"))
+                    .collect(toImmutableList());
+        }
+        catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public List<String> getCapturedStatements()
+    {
+        return ImmutableList.copyOf(capturedStatements);
+    }
+
+    /**
+     * Writes the captured statements, which can be passed to {@link #warmUp} after a restart.
+     */
+    public void writeSnapshot(Path path)
+            throws IOException
+    {
+        try (OutputStream outputStream = Files.newOutputStream(path);
+                DataOutputStream output = new DataOutputStream(outputStream)) {
+            for (String statement : capturedStatements) {
+                byte[] bytes = statement.getBytes(UTF_8);
+                output.writeInt(bytes.length);
+                output.write(bytes);
+            }
+        }
+    }
+
+    public static List<String> readSnapshot(Path path)
+            throws IOException
+    {
+        ImmutableList.Builder<String> statements = ImmutableList.builder();
+        try (InputStream inputStream = Files.newInputStream(path);
+                DataInputStream input = new DataInputStream(inputStream)) {
+            while (true) {
+                int length;
+                try {
+                    length = input.readInt();
+                }
+                catch (EOFException e) {
+                    break;
+                }
+                byte[] bytes = new byte[length];
+                input.readFully(bytes);
+                statements.add(new String(bytes, UTF_8));
+            }
+        }
+        return statements.build();
+    }
+
     @Override
     public void accept(SqlBaseLexer lexer, SqlBaseParser parser)
     {
         SqlBaseParserAndLexerATNCaches caches = this.caches.get();
         caches.lexer.configureLexer(lexer);
         caches.parser.configureParser(parser);
+
+        if (captureExecutor.isPresent() && capturedStatements.size() < maxCapturedStatements) {
+            CharStream input = lexer.getInputStream();
+            String sql = input.getText(Interval.of(0, input.size() - 1));
+            captureExecutor.get().execute(() -> {
+                if (capturedStatements.size() < maxCapturedStatements) {
+                    capturedStatements.add(redactLiterals(sql));
+                }
+            });
+        }
+    }
+
+    static String redactLiterals(String sql)
+    {
+        SqlBaseLexer lexer = new SqlBaseLexer(new CaseInsensitiveStream(CharStreams.fromString(sql)));
+        lexer.removeErrorListeners();
+
+        StringBuilder redacted = new StringBuilder(sql.length());
+        for (Token token = lexer.nextToken(); token.getType() != Token.EOF; token = lexer.nextToken()) {
+            if (token.getChannel() != Token.DEFAULT_CHANNEL) {
+                continue;
+            }
+            if (redacted.length() > 0) {
+                redacted.append(' ');
+            }
+            redacted.append(redactLiteral(token));
+        }
+        return redacted.toString();
+    }
+
+    private static String redactLiteral(Token token)
+    {
+        switch (token.getType()) {
+            case SqlBaseLexer.STRING:
+                return "''";
+            case SqlBaseLexer.UNICODE_STRING:
+                return "U&''";
+            case SqlBaseLexer.BINARY_LITERAL:
+                return "X''";
+            case SqlBaseLexer.INTEGER_VALUE:
+                return "0";
+            case SqlBaseLexer.DECIMAL_VALUE:
+                return "0.0";
+            case SqlBaseLexer.DOUBLE_VALUE:
+                return "0E0";
+            default:
+                return token.getText();
+        }
+    }
+
+    private static void warmUp(SqlBaseParserAndLexerATNCaches caches, Collection<String> statements, int parallelism)
+    {
+        requireNonNull(statements, "statements is null");
+        checkArgument(parallelism > 0, "parallelism must be positive");
+
+        SqlParser parser = new SqlParser((lexer, sqlBaseParser) -> {
+            caches.lexer.configureLexer(lexer);
+            caches.parser.configureParser(sqlBaseParser);
+        });
+        List<Callable<Void>> tasks = new ArrayList<>(statements.size());
+        for (String statement : statements) {
+            tasks.add(() -> {
+                try {
+                    parser.createStatement(statement, WARM_UP_PARSING_OPTIONS);
+                }
+                catch (ParsingException ignored) {
+                    // the prediction cache has still been filled for the part that was parsed
+                }
+                return null;
+            });
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(parallelism, new ThreadFactoryBuilder()
+                .setNameFormat("sql-parser-warm-up-%s")
+                .setDaemon(true)
+                .build());
+        try {
+            executor.invokeAll(tasks);
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        finally {
+            executor.shutdownNow();
+        }
     }
 
     private static final class SqlBaseParserAndLexerATNCaches
@@ -13,6 +13,11 @@
  */
 package io.trino.sql.parser;
 
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+import com.google.common.util.concurrent.ExecutionError;
+import com.google.common.util.concurrent.UncheckedExecutionException;
 import io.trino.sql.tree.DataType;
 import io.trino.sql.tree.Expression;
 import io.trino.sql.tree.Node;
@@ -37,9 +42,14 @@ import org.antlr.v4.runtime.tree.TerminalNode;
 
 import java.util.Arrays;
 import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ExecutionException;
 import java.util.function.BiConsumer;
 import java.util.function.Function;
 
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Throwables.throwIfUnchecked;
 import static java.util.Objects.requireNonNull;
 
 public class SqlParser
@@ -69,6 +79,7 @@ public class SqlParser
             .build();
 
     private final BiConsumer<SqlBaseLexer, SqlBaseParser> initializer;
+    private final Optional<Cache<StatementCacheKey, Statement>> statementCache;
 
     public SqlParser()
     {
@@ -78,9 +89,64 @@ public class SqlParser
     public SqlParser(BiConsumer<SqlBaseLexer, SqlBaseParser> initializer)
     {
         this.initializer = requireNonNull(initializer, "initializer is null");
+        this.statementCache = Optional.empty();
+    }
+
+    /**
+     * Creates a parser that caches the statements it parses, keyed by SQL text and parsing options.
+     * The cache holds at most {@code maxCachedStatements} entries whose SQL text totals at most
+     * {@code maxCachedSqlLength} characters. Statements that fail to parse are not cached.
+     */
+    public SqlParser(BiConsumer<SqlBaseLexer, SqlBaseParser> initializer, int maxCachedStatements, long maxCachedSqlLength)
+    {
+        checkArgument(maxCachedStatements > 0, "maxCachedStatements must be positive");
+        checkArgument(maxCachedSqlLength >= maxCachedStatements, "maxCachedSqlLength must not be less than maxCachedStatements");
+        this.initializer = requireNonNull(initializer, "initializer is null");
+
+        // Guava does not allow both a size and a weight limit, so the entry count is bounded by
+        // giving every entry a minimum weight of maxCachedSqlLength / maxCachedStatements
+        int minimumWeight = (int) Math.min(maxCachedSqlLength / maxCachedStatements, Integer.MAX_VALUE);
+        this.statementCache = Optional.of(CacheBuilder.newBuilder()
+                .maximumWeight(maxCachedSqlLength)
+                .<StatementCacheKey, Statement>weigher((key, statement) -> Math.max(key.getSql().length(), minimumWeight))
+                .recordStats()
+                .build());
     }
 
     public Statement createStatement(String sql, ParsingOptions parsingOptions)
+    {
+        if (statementCache.isEmpty()) {
+            return parseStatement(sql, parsingOptions);
+        }
+        try {
+            // tree nodes are immutable, so the same statement can be handed out to concurrent queries
+            return statementCache.get().get(new StatementCacheKey(sql, parsingOptions), () -> parseStatement(sql, parsingOptions));
+        }
+        catch (ExecutionException | UncheckedExecutionException | ExecutionError e) {
+            throwIfUnchecked(e.getCause());
+            throw new RuntimeException(e.getCause());
+        }
+    }
+
+    /**
+     * Returns the statement cache statistics, or empty if this parser does not cache statements.
+     */
+    public Optional<CacheStats> getStatementCacheStats()
+    {
+        return statementCache.map(Cache::stats);
+    }
+
+    public long getStatementCacheSize()
+    {
+        return statementCache.map(Cache::size).orElse(0L);
+    }
+
+    public void invalidateStatementCache()
+    {
+        statementCache.ifPresent(Cache::invalidateAll);
+    }
+
+    private Statement parseStatement(String sql, ParsingOptions parsingOptions)
     {
         return (Statement) invokeParser("statement", sql, SqlBaseParser::singleStatement, parsingOptions);
     }
@@ -160,6 +226,42 @@ public class SqlParser
         }
     }
 
+    private static final class StatementCacheKey
+    {
+        private final String sql;
+        private final ParsingOptions parsingOptions;
+
+        private StatementCacheKey(String sql, ParsingOptions parsingOptions)
+        {
+            this.sql = requireNonNull(sql, "sql is null");
+            this.parsingOptions = requireNonNull(parsingOptions, "parsingOptions is null");
+        }
+
+        public String getSql()
+        {
+            return sql;
+        }
+
+        @Override
+        public boolean equals(Object o)
+        {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+            StatementCacheKey that = (StatementCacheKey) o;
+            return sql.equals(that.sql) && parsingOptions.equals(that.parsingOptions);
+        }
+
+        @Override
+        public int hashCode()
+        {
+            return Objects.hash(sql, parsingOptions);
+        }
+    }
+
     private static class PostProcessor
             extends SqlBaseBaseListener
     {
@@ -0,0 +1,86 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.trino.sql.parser;
+
+import com.google.common.collect.AbstractIterator;
+import com.google.common.collect.ImmutableSet;
+import io.trino.sql.parser.StatementSplitter.Statement;
+import org.antlr.v4.runtime.CommonTokenFactory;
+import org.antlr.v4.runtime.Token;
+import org.antlr.v4.runtime.UnbufferedCharStream;
+
+import java.io.Reader;
+import java.util.Set;
+
+import static com.google.common.base.Preconditions.checkState;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Splits a script into statements while reading it, for scripts that are too large to hold in memory.
+ * Statements are returned as soon as their delimiter has been read, and only the text of the current
+ * statement is buffered. The trailing text without a delimiter is available from
+ * {@link #getPartialStatement()} once the iterator is exhausted.
+ * <p>
+ * Splitting is the same as {@link StatementSplitter}.
+ */
+public class StreamingStatementSplitter
+        extends AbstractIterator<Statement>
+{
+    private final DelimiterLexer lexer;
+    private StringBuilder currentStatement = new StringBuilder();
+    private String partialStatement;
+
+    public StreamingStatementSplitter(Reader reader)
+    {
+        this(reader, ImmutableSet.of(";"));
+    }
+
+    public StreamingStatementSplitter(Reader reader, Set<String> delimiters)
+    {
+        requireNonNull(reader, "reader is null");
+        requireNonNull(delimiters, "delimiters is null");
+        lexer = new DelimiterLexer(new CaseInsensitiveStream(new UnbufferedCharStream(reader)), delimiters);
+        // the unbuffered stream discards the text of a token once it is consumed, so it must be copied into the token
+        lexer.setTokenFactory(new CommonTokenFactory(true));
+    }
+
+    @Override
+    protected Statement computeNext()
+    {
+        while (true) {
+            Token token = lexer.nextToken();
+            if (token.getType() == Token.EOF) {
+                partialStatement = currentStatement.toString().trim();
+                currentStatement = null;
+                return endOfData();
+            }
+            if (token.getType() == SqlBaseParser.DELIMITER) {
+                String statement = currentStatement.toString().trim();
+                currentStatement = new StringBuilder();
+                if (!statement.isEmpty()) {
+                    return new Statement(statement, token.getText());
+                }
+            }
+            else {
+                currentStatement.append(token.getText());
+            }
+        }
+    }
+
+    public String getPartialStatement()
+    {
+        checkState(partialStatement != null, "statements have not been fully read");
+        return partialStatement;
+    }
+}
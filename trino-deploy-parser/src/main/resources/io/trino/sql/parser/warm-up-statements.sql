@@ -0,0 +1,70 @@
+-- Statements replayed at startup to fill the lexer and parser prediction caches, one per line.
+-- They cover common query shapes; only the token sequences matter, not the names and values.
+SELECT 1
+SELECT * FROM orders
+SELECT orderkey, custkey, totalprice FROM tpch.tiny.orders WHERE orderstatus = 'F' AND totalprice > 1000.5
+SELECT count(*), sum(totalprice), avg(totalprice), min(orderdate), max(orderdate) FROM orders GROUP BY orderpriority HAVING count(*) > 10 ORDER BY 2 DESC LIMIT 10
+SELECT DISTINCT custkey FROM orders WHERE orderdate BETWEEN DATE '2020-01-01' AND DATE '2020-12-31' ORDER BY custkey OFFSET 10 ROWS FETCH NEXT 20 ROWS ONLY
+SELECT o.orderkey, c.name FROM orders o JOIN customer c ON o.custkey = c.custkey LEFT JOIN nation n ON c.nationkey = n.nationkey WHERE n.name IN ('FRANCE', 'GERMANY')
+SELECT a.x, b.y FROM a FULL OUTER JOIN b USING (id) CROSS JOIN c
+SELECT * FROM orders WHERE custkey IN (SELECT custkey FROM customer WHERE acctbal > 0) AND NOT EXISTS (SELECT 1 FROM lineitem l WHERE l.orderkey = orders.orderkey)
+WITH recent AS (SELECT * FROM orders WHERE orderdate > current_date - INTERVAL '7' DAY), totals AS (SELECT custkey, sum(totalprice) AS total FROM recent GROUP BY custkey) SELECT * FROM totals WHERE total > 100
+WITH RECURSIVE t(n) AS (VALUES (1) UNION ALL SELECT n + 1 FROM t WHERE n < 10) SELECT sum(n) FROM t
+SELECT custkey, orderdate, totalprice, rank() OVER (PARTITION BY custkey ORDER BY totalprice DESC), sum(totalprice) OVER (ORDER BY orderdate ROWS BETWEEN UNBOUNDED PRECEDING AND CURRENT ROW) FROM orders
+SELECT custkey, avg(totalprice) OVER w FROM orders WINDOW w AS (PARTITION BY custkey ORDER BY orderdate RANGE BETWEEN INTERVAL '1' MONTH PRECEDING AND CURRENT ROW)
+SELECT CASE WHEN totalprice > 1000 THEN 'high' WHEN totalprice > 100 THEN 'medium' ELSE 'low' END, CASE orderstatus WHEN 'F' THEN 1 ELSE 0 END FROM orders
+SELECT CAST(orderkey AS varchar), TRY_CAST(comment AS integer), CAST(totalprice AS decimal(12, 2)), CAST(orderdate AS timestamp(3) with time zone) FROM orders
+SELECT extract(year FROM orderdate), date_trunc('month', orderdate), date_add('day', 1, orderdate), format_datetime(current_timestamp, 'yyyy-MM-dd') FROM orders
+SELECT coalesce(comment, ''), nullif(orderstatus, 'O'), if(totalprice > 0, 1, 0), substr(comment, 1, 10), lower(comment) LIKE '%special%' ESCAPE '\' FROM orders
+SELECT x IS NULL, x IS NOT NULL, x IS DISTINCT FROM y, NOT (x > y OR x < -y), x % 2 = 0, x || y FROM t
+SELECT ARRAY[1, 2, 3], MAP(ARRAY['a'], ARRAY[1]), ROW(1, 'a'), transform(ARRAY[1, 2], x -> x * 2), reduce(ARRAY[1, 2], 0, (s, x) -> s + x, s -> s), element_at(m, 'k'), a[1] FROM t
+SELECT * FROM UNNEST(ARRAY[1, 2, 3]) WITH ORDINALITY AS t(value, position)
+SELECT o.orderkey, i.item FROM orders o CROSS JOIN UNNEST(o.items) AS i(item)
+SELECT * FROM orders o, LATERAL (SELECT max(quantity) FROM lineitem l WHERE l.orderkey = o.orderkey)
+SELECT orderpriority, orderstatus, count(*) FROM orders GROUP BY GROUPING SETS ((orderpriority), (orderstatus), ())
+SELECT orderpriority, orderstatus, count(*) FROM orders GROUP BY ROLLUP (orderpriority, orderstatus)
+SELECT orderpriority, orderstatus, grouping(orderpriority, orderstatus), count(*) FROM orders GROUP BY CUBE (orderpriority, orderstatus)
+SELECT count(DISTINCT custkey), approx_distinct(custkey), count_if(totalprice > 100), array_agg(orderkey ORDER BY orderdate), sum(totalprice) FILTER (WHERE orderstatus = 'F') FROM orders
+SELECT listagg(name, ',') WITHIN GROUP (ORDER BY name) FROM nation
+SELECT * FROM orders TABLESAMPLE BERNOULLI (10)
+SELECT * FROM (VALUES (1, 'a'), (2, 'b')) AS t(id, name)
+SELECT orderkey FROM orders UNION SELECT orderkey FROM lineitem INTERSECT SELECT orderkey FROM orders EXCEPT SELECT 1
+SELECT * FROM orders MATCH_RECOGNIZE (PARTITION BY custkey ORDER BY orderdate MEASURES A.totalprice AS start_price, LAST(B.totalprice) AS bottom_price ONE ROW PER MATCH AFTER MATCH SKIP PAST LAST ROW PATTERN (A B+) DEFINE B AS B.totalprice < PREV(B.totalprice))
+SELECT json_extract_scalar(payload, '$.id'), json_format(CAST(m AS json)), from_iso8601_timestamp(ts) AT TIME ZONE 'UTC' FROM events
+SELECT current_user, current_catalog, current_schema, localtimestamp, now(), TIMESTAMP '2020-01-01 00:00:00.000', TIME '12:00:00', X'0102', U&'\0041', 1E3, 0.5, -2
+INSERT INTO orders_copy SELECT * FROM orders WHERE orderdate >= DATE '2020-01-01'
+INSERT INTO t (id, name) VALUES (1, 'a'), (2, 'b')
+CREATE TABLE IF NOT EXISTS orders_summary WITH (format = 'ORC', partitioned_by = ARRAY['orderdate']) AS SELECT custkey, orderdate, sum(totalprice) AS total FROM orders GROUP BY custkey, orderdate
+CREATE TABLE t (id bigint NOT NULL, name varchar(100) COMMENT 'name', price decimal(10, 2), created timestamp(6), tags array(varchar), attributes map(varchar, varchar), location row(lat double, lon double)) COMMENT 'table' WITH (format = 'PARQUET')
+CREATE OR REPLACE VIEW v SECURITY INVOKER AS SELECT * FROM orders
+CREATE SCHEMA IF NOT EXISTS hive.analytics WITH (location = 's3://bucket/path')
+ALTER TABLE t ADD COLUMN IF NOT EXISTS description varchar
+ALTER TABLE t RENAME TO t2
+DROP TABLE IF EXISTS t
+DELETE FROM orders WHERE orderdate < DATE '2000-01-01'
+UPDATE orders SET orderstatus = 'F', comment = NULL WHERE orderkey = 1
+MERGE INTO target t USING source s ON t.id = s.id WHEN MATCHED AND s.deleted THEN DELETE WHEN MATCHED THEN UPDATE SET value = s.value WHEN NOT MATCHED THEN INSERT (id, value) VALUES (s.id, s.value)
+EXPLAIN SELECT * FROM orders
+EXPLAIN ANALYZE SELECT count(*) FROM orders
+EXPLAIN (TYPE DISTRIBUTED, FORMAT JSON) SELECT * FROM orders
+DESCRIBE orders
+SHOW TABLES FROM tpch.tiny LIKE 'order%'
+SHOW SCHEMAS FROM hive
+SHOW CATALOGS
+SHOW COLUMNS FROM orders
+SHOW CREATE TABLE orders
+SHOW FUNCTIONS
+SHOW SESSION
+SHOW STATS FOR orders
+SET SESSION query_max_run_time = '1h'
+RESET SESSION query_max_run_time
+USE hive.default
+PREPARE stmt FROM SELECT * FROM orders WHERE orderkey = ? AND custkey = ?
+EXECUTE stmt USING 1, 2
+DEALLOCATE PREPARE stmt
+START TRANSACTION ISOLATION LEVEL READ COMMITTED, READ ONLY
+COMMIT
+ROLLBACK
+GRANT SELECT ON orders TO ROLE analyst
+CALL system.sync_partition_metadata('default', 'orders', 'FULL')
+ANALYZE orders WITH (partitions = ARRAY[ARRAY['2020-01-01']])
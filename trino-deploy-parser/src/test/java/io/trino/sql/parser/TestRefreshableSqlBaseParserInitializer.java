@@ -0,0 +1,94 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.trino.sql.parser;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static io.trino.sql.parser.ParsingOptions.DecimalLiteralTreatment.AS_DOUBLE;
+import static io.trino.sql.parser.RefreshableSqlBaseParserInitializer.getDefaultWarmUpStatements;
+import static io.trino.sql.parser.RefreshableSqlBaseParserInitializer.readSnapshot;
+import static io.trino.sql.parser.RefreshableSqlBaseParserInitializer.redactLiterals;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatCode;
+
+public class TestRefreshableSqlBaseParserInitializer
+{
+    @Test
+    public void testDefaultWarmUpStatementsParse()
+    {
+        List<String> statements = getDefaultWarmUpStatements();
+        assertThat(statements).isNotEmpty();
+
+        SqlParser parser = new SqlParser();
+        for (String statement : statements) {
+            assertThatCode(() -> parser.createStatement(statement, new ParsingOptions(AS_DOUBLE)))
+                    .as(statement)
+                    .doesNotThrowAnyException();
+        }
+    }
+
+    @Test
+    public void testWarmUp()
+    {
+        RefreshableSqlBaseParserInitializer initializer = new RefreshableSqlBaseParserInitializer();
+        initializer.warmUp(getDefaultWarmUpStatements(), 4);
+        initializer.refresh(getDefaultWarmUpStatements(), 2);
+
+        SqlParser parser = new SqlParser(initializer);
+        assertThat(parser.createStatement("SELECT 1", new ParsingOptions()))
+                .isEqualTo(new SqlParser().createStatement("SELECT 1", new ParsingOptions()));
+        // capturing is disabled by default
+        assertThat(initializer.getCapturedStatements()).isEmpty();
+    }
+
+    @Test
+    public void testRedactLiterals()
+    {
+        assertThat(redactLiterals("SELECT * FROM t WHERE password = 'secret' AND id = 42 AND x = 1.5 AND y = 1E3 AND b = X'ff' AND u = U&'\\0041'"))
+                .isEqualTo("SELECT * FROM t WHERE password = '' AND id = 0 AND x = 0.0 AND y = 0E0 AND b = X'' AND u = U&''");
+    }
+
+    @Test
+    public void testCaptureAndSnapshot()
+            throws Exception
+    {
+        RefreshableSqlBaseParserInitializer initializer = new RefreshableSqlBaseParserInitializer(2);
+        SqlParser parser = new SqlParser(initializer);
+        parser.createStatement("SELECT a FROM t WHERE secret = 'value'", new ParsingOptions());
+        parser.createStatement("SELECT a FROM t WHERE secret = 'other value'", new ParsingOptions());
+        parser.createStatement("SELECT b FROM t", new ParsingOptions());
+        parser.createStatement("SELECT c FROM t", new ParsingOptions());
+
+        // literals are redacted on a background thread
+        long deadline = System.nanoTime() + 10_000_000_000L;
+        while (initializer.getCapturedStatements().size() < 2 && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertThat(initializer.getCapturedStatements())
+                .containsExactlyInAnyOrder("SELECT a FROM t WHERE secret = ''", "SELECT b FROM t");
+
+        Path snapshot = Files.createTempFile("warm-up", ".snapshot");
+        try {
+            initializer.writeSnapshot(snapshot);
+            assertThat(readSnapshot(snapshot)).containsExactlyInAnyOrderElementsOf(initializer.getCapturedStatements());
+        }
+        finally {
+            Files.delete(snapshot);
+        }
+    }
+}
@@ -0,0 +1,158 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.trino.plugin.base.classloader;
+
+import io.airlift.slice.Slice;
+import io.trino.spi.classloader.ThreadContextClassLoader;
+import io.trino.spi.connector.BatchRecordCursor;
+import io.trino.spi.type.Type;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Switches the thread context class loader once per batch. The values of a batch have already been
+ * read by {@link #advanceNextBatch(int)}, so the getters call the delegate directly.
+ */
+public class ClassLoaderSafeBatchRecordCursor
+        implements BatchRecordCursor
+{
+    private final BatchRecordCursor delegate;
+    private final ClassLoader classLoader;
+
+    public ClassLoaderSafeBatchRecordCursor(BatchRecordCursor delegate, ClassLoader classLoader)
+    {
+        this.delegate = requireNonNull(delegate, "delegate is null");
+        this.classLoader = requireNonNull(classLoader, "classLoader is null");
+    }
+
+    @Override
+    public int advanceNextBatch(int maxRows)
+    {
+        try (ThreadContextClassLoader ignored = new ThreadContextClassLoader(classLoader)) {
+            return delegate.advanceNextBatch(maxRows);
+        }
+    }
+
+    @Override
+    public boolean advanceNextPosition()
+    {
+        try (ThreadContextClassLoader ignored = new ThreadContextClassLoader(classLoader)) {
+            return delegate.advanceNextPosition();
+        }
+    }
+
+    @Override
+    public long getCompletedBytes()
+    {
+        return delegate.getCompletedBytes();
+    }
+
+    @Override
+    public long getReadTimeNanos()
+    {
+        return delegate.getReadTimeNanos();
+    }
+
+    @Override
+    public Type getType(int field)
+    {
+        return delegate.getType(field);
+    }
+
+    @Override
+    public boolean isNull(int field, int row)
+    {
+        return delegate.isNull(field, row);
+    }
+
+    @Override
+    public boolean getBoolean(int field, int row)
+    {
+        return delegate.getBoolean(field, row);
+    }
+
+    @Override
+    public long getLong(int field, int row)
+    {
+        return delegate.getLong(field, row);
+    }
+
+    @Override
+    public double getDouble(int field, int row)
+    {
+        return delegate.getDouble(field, row);
+    }
+
+    @Override
+    public Slice getSlice(int field, int row)
+    {
+        return delegate.getSlice(field, row);
+    }
+
+    @Override
+    public Object getObject(int field, int row)
+    {
+        return delegate.getObject(field, row);
+    }
+
+    @Override
+    public boolean isNull(int field)
+    {
+        return delegate.isNull(field);
+    }
+
+    @Override
+    public boolean getBoolean(int field)
+    {
+        return delegate.getBoolean(field);
+    }
+
+    @Override
+    public long getLong(int field)
+    {
+        return delegate.getLong(field);
+    }
+
+    @Override
+    public double getDouble(int field)
+    {
+        return delegate.getDouble(field);
+    }
+
+    @Override
+    public Slice getSlice(int field)
+    {
+        return delegate.getSlice(field);
+    }
+
+    @Override
+    public Object getObject(int field)
+    {
+        return delegate.getObject(field);
+    }
+
+    @Override
+    public long getSystemMemoryUsage()
+    {
+        return delegate.getSystemMemoryUsage();
+    }
+
+    @Override
+    public void close()
+    {
+        try (ThreadContextClassLoader ignored = new ThreadContextClassLoader(classLoader)) {
+            delegate.close();
+        }
+    }
+}
@@ -24,6 +24,11 @@ import java.util.concurrent.CompletableFuture;
 
 import static java.util.Objects.requireNonNull;
 
+/**
+ * Switches the thread context class loader once per page, so the writes of a page run in the
+ * plugin class loader. The statistics getters, which the engine calls after every page, only
+ * read counters and call the delegate directly.
+ */
 public class ClassLoaderSafeConnectorPageSink
         implements ConnectorPageSink
 {
@@ -40,25 +45,19 @@ public class ClassLoaderSafeConnectorPageSink
     @Override
     public long getCompletedBytes()
     {
-        try (ThreadContextClassLoader ignored = new ThreadContextClassLoader(classLoader)) {
-            return delegate.getCompletedBytes();
-        }
+        return delegate.getCompletedBytes();
     }
 
     @Override
     public long getSystemMemoryUsage()
     {
-        try (ThreadContextClassLoader ignored = new ThreadContextClassLoader(classLoader)) {
-            return delegate.getSystemMemoryUsage();
-        }
+        return delegate.getSystemMemoryUsage();
     }
 
     @Override
     public long getValidationCpuNanos()
     {
-        try (ThreadContextClassLoader ignored = new ThreadContextClassLoader(classLoader)) {
-            return delegate.getValidationCpuNanos();
-        }
+        return delegate.getValidationCpuNanos();
     }
 
     @Override
@@ -38,7 +38,12 @@ public class ClassLoaderSafeConnectorPageSourceProvider
     public ConnectorPageSource createPageSource(ConnectorTransactionHandle transaction, ConnectorSession session, ConnectorSplit split, ConnectorTableHandle table, List<ColumnHandle> columns, DynamicFilter dynamicFilter)
     {
         try (ThreadContextClassLoader ignored = new ThreadContextClassLoader(classLoader)) {
-            return delegate.createPageSource(transaction, session, split, table, columns, dynamicFilter);
+            ConnectorPageSource pageSource = delegate.createPageSource(transaction, session, split, table, columns, dynamicFilter);
+            // the engine checks for these types, so they are not wrapped
+            if (pageSource instanceof UpdatablePageSource || pageSource instanceof EmptyPageSource) {
+                return pageSource;
+            }
+            return new ClassLoaderSafeConnectorPageSource(pageSource, classLoader);
         }
     }
 }
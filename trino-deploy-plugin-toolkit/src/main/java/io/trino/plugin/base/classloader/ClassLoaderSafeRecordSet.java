@@ -15,6 +15,7 @@
 package io.trino.plugin.base.classloader;
 
 import io.trino.spi.classloader.ThreadContextClassLoader;
+import io.trino.spi.connector.BatchRecordCursor;
 import io.trino.spi.connector.RecordCursor;
 import io.trino.spi.connector.RecordSet;
 import io.trino.spi.type.Type;
@@ -45,11 +46,19 @@ public class ClassLoaderSafeRecordSet
         }
     }
 
+    /**
+     * Batch cursors are wrapped so each batch is read in the plugin class loader. Other cursors are
+     * returned as is, since switching the class loader for every row would cost more than it protects.
+     */
     @Override
     public RecordCursor cursor()
     {
         try (ThreadContextClassLoader ignored = new ThreadContextClassLoader(classLoader)) {
-            return delegate.cursor();
+            RecordCursor cursor = delegate.cursor();
+            if (cursor instanceof BatchRecordCursor) {
+                return new ClassLoaderSafeBatchRecordCursor((BatchRecordCursor) cursor, classLoader);
+            }
+            return cursor;
         }
     }
 }
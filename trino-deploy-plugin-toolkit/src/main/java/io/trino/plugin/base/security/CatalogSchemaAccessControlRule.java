@@ -57,6 +57,16 @@ public class CatalogSchemaAccessControlRule
         return schemaAccessControlRule.match(user, roles, groups, schema.getSchemaName());
     }
 
+    boolean isOwner()
+    {
+        return schemaAccessControlRule.isOwner();
+    }
+
+    RulePatterns getRulePatterns()
+    {
+        return schemaAccessControlRule.getRulePatterns().withCatalogRegex(catalogRegex);
+    }
+
     Optional<AnyCatalogPermissionsRule> toAnyCatalogPermissionsRule()
     {
         if (!schemaAccessControlRule.isOwner()) {
@@ -56,6 +56,16 @@ public class CatalogSessionPropertyAccessControlRule
         return sessionPropertyAccessControlRule.match(user, roles, groups, property);
     }
 
+    boolean isAllow()
+    {
+        return sessionPropertyAccessControlRule.isAllow();
+    }
+
+    RulePatterns getRulePatterns()
+    {
+        return sessionPropertyAccessControlRule.getRulePatterns().withCatalogRegex(catalogRegex);
+    }
+
     Optional<AnyCatalogPermissionsRule> toAnyCatalogPermissionsRule()
     {
         if (!sessionPropertyAccessControlRule.isAllow()) {
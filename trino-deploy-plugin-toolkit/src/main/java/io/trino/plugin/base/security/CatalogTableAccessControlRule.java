@@ -89,6 +89,11 @@ public class CatalogTableAccessControlRule
         return tableAccessControlRule.getFilter(user, catalog, schema);
     }
 
+    RulePatterns getRulePatterns()
+    {
+        return tableAccessControlRule.getRulePatterns().withCatalogRegex(catalogRegex);
+    }
+
     Optional<AnyCatalogPermissionsRule> toAnyCatalogPermissionsRule()
     {
         if (tableAccessControlRule.getPrivileges().isEmpty()) {
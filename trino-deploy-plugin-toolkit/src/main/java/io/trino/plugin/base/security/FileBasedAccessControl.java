@@ -31,7 +31,6 @@ import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
-import java.util.function.Function;
 import java.util.function.Predicate;
 
 import static com.google.common.base.Preconditions.checkArgument;
@@ -47,9 +46,9 @@ public class FileBasedAccessControl
     private static final String INFORMATION_SCHEMA_NAME = "information_schema";
 
     private final String catalogName;
-    private final List<SchemaAccessControlRule> schemaRules;
-    private final List<TableAccessControlRule> tableRules;
-    private final List<SessionPropertyAccessControlRule> sessionPropertyRules;
+    private final IndexedRules<SchemaAccessControlRule> schemaRules;
+    private final IndexedRules<TableAccessControlRule> tableRules;
+    private final IndexedRules<SessionPropertyAccessControlRule> sessionPropertyRules;
     private final Set<AnySchemaPermissionsRule> anySchemaPermissionsRules;
 
     public FileBasedAccessControl(CatalogName catalogName, FileBasedAccessControlConfig config)
@@ -59,9 +58,11 @@ public class FileBasedAccessControl
         AccessControlRules rules = parseJson(Paths.get(config.getConfigFile()), AccessControlRules.class);
         checkArgument(!rules.hasRoleRules(), "File connector access control does not support role rules: %s", config.getConfigFile());
 
-        this.schemaRules = rules.getSchemaRules();
-        this.tableRules = rules.getTableRules();
-        this.sessionPropertyRules = rules.getSessionPropertyRules();
+        List<SchemaAccessControlRule> schemaRules = rules.getSchemaRules();
+        List<TableAccessControlRule> tableRules = rules.getTableRules();
+        this.schemaRules = new IndexedRules<>(schemaRules, SchemaAccessControlRule::getRulePatterns);
+        this.tableRules = new IndexedRules<>(tableRules, TableAccessControlRule::getRulePatterns);
+        this.sessionPropertyRules = new IndexedRules<>(rules.getSessionPropertyRules(), SessionPropertyAccessControlRule::getRulePatterns);
         ImmutableSet.Builder<AnySchemaPermissionsRule> anySchemaPermissionsRules = ImmutableSet.builder();
         schemaRules.stream()
                 .map(SchemaAccessControlRule::toAnySchemaPermissionsRule)
@@ -194,11 +195,7 @@ public class FileBasedAccessControl
             return columns;
         }
 
-        ConnectorIdentity identity = context.getIdentity();
-        TableAccessControlRule rule = tableRules.stream()
-                .filter(tableRule -> tableRule.matches(identity.getUser(), identity.getEnabledSystemRoles(), identity.getGroups(), tableName))
-                .findFirst()
-                .orElse(null);
+        TableAccessControlRule rule = findTableRule(context, tableName).orElse(null);
         if (rule == null || rule.getPrivileges().isEmpty()) {
             return ImmutableSet.of();
         }
@@ -286,11 +283,8 @@ public class FileBasedAccessControl
             return;
         }
 
-        ConnectorIdentity identity = context.getIdentity();
-        boolean allowed = tableRules.stream()
-                .filter(rule -> rule.matches(identity.getUser(), identity.getEnabledSystemRoles(), identity.getGroups(), tableName))
+        boolean allowed = findTableRule(context, tableName)
                 .map(rule -> rule.canSelectColumns(columnNames))
-                .findFirst()
                 .orElse(false);
         if (!allowed) {
             denySelectTable(tableName.toString());
@@ -370,11 +364,7 @@ public class FileBasedAccessControl
             return;
         }
 
-        ConnectorIdentity identity = context.getIdentity();
-        TableAccessControlRule rule = tableRules.stream()
-                .filter(tableRule -> tableRule.matches(identity.getUser(), identity.getEnabledSystemRoles(), identity.getGroups(), tableName))
-                .findFirst()
-                .orElse(null);
+        TableAccessControlRule rule = findTableRule(context, tableName).orElse(null);
         if (rule == null || !rule.canSelectColumns(columnNames)) {
             denySelectTable(tableName.toString());
         }
@@ -550,11 +540,8 @@ public class FileBasedAccessControl
         }
 
         ConnectorIdentity identity = context.getIdentity();
-        return tableRules.stream()
-                .filter(rule -> rule.matches(identity.getUser(), identity.getEnabledSystemRoles(), identity.getGroups(), tableName))
-                .map(rule -> rule.getFilter(identity.getUser(), catalogName, tableName.getSchemaName()))
-                .findFirst()
-                .flatMap(Function.identity());
+        return findTableRule(context, tableName)
+                .flatMap(rule -> rule.getFilter(identity.getUser(), catalogName, tableName.getSchemaName()));
     }
 
     @Override
@@ -565,23 +552,16 @@ public class FileBasedAccessControl
         }
 
         ConnectorIdentity identity = context.getIdentity();
-        return tableRules.stream()
-                .filter(rule -> rule.matches(identity.getUser(), identity.getEnabledSystemRoles(), identity.getGroups(), tableName))
-                .map(rule -> rule.getColumnMask(identity.getUser(), catalogName, tableName.getSchemaName(), columnName))
-                .findFirst()
-                .flatMap(Function.identity());
+        return findTableRule(context, tableName)
+                .flatMap(rule -> rule.getColumnMask(identity.getUser(), catalogName, tableName.getSchemaName(), columnName));
     }
 
     private boolean canSetSessionProperty(ConnectorSecurityContext context, String property)
     {
         ConnectorIdentity identity = context.getIdentity();
-        for (SessionPropertyAccessControlRule rule : sessionPropertyRules) {
-            Optional<Boolean> allowed = rule.match(identity.getUser(), identity.getEnabledSystemRoles(), identity.getGroups(), property);
-            if (allowed.isPresent()) {
-                return allowed.get();
-            }
-        }
-        return false;
+        return sessionPropertyRules.findFirst(identity.getUser(), identity.getEnabledSystemRoles(), identity.getGroups(), null, null, property)
+                .map(SessionPropertyAccessControlRule::isAllow)
+                .orElse(false);
     }
 
     private boolean checkAnyTablePermission(ConnectorSecurityContext context, SchemaTableName tableName)
@@ -600,13 +580,15 @@ public class FileBasedAccessControl
             return true;
         }
 
+        return findTableRule(context, tableName)
+                .map(rule -> checkPrivileges.test(rule.getPrivileges()))
+                .orElse(false);
+    }
+
+    private Optional<TableAccessControlRule> findTableRule(ConnectorSecurityContext context, SchemaTableName tableName)
+    {
         ConnectorIdentity identity = context.getIdentity();
-        for (TableAccessControlRule rule : tableRules) {
-            if (rule.matches(identity.getUser(), identity.getEnabledSystemRoles(), identity.getGroups(), tableName)) {
-                return checkPrivileges.test(rule.getPrivileges());
-            }
-        }
-        return false;
+        return tableRules.findFirst(identity.getUser(), identity.getEnabledSystemRoles(), identity.getGroups(), null, tableName.getSchemaName(), tableName.getTableName());
     }
 
     private boolean checkAnySchemaAccess(ConnectorSecurityContext context, String schemaName)
@@ -618,12 +600,8 @@ public class FileBasedAccessControl
     private boolean isSchemaOwner(ConnectorSecurityContext context, String schemaName)
     {
         ConnectorIdentity identity = context.getIdentity();
-        for (SchemaAccessControlRule rule : schemaRules) {
-            Optional<Boolean> owner = rule.match(identity.getUser(), identity.getEnabledSystemRoles(), identity.getGroups(), schemaName);
-            if (owner.isPresent()) {
-                return owner.get();
-            }
-        }
-        return false;
+        return schemaRules.findFirst(identity.getUser(), identity.getEnabledSystemRoles(), identity.getGroups(), null, schemaName, null)
+                .map(SchemaAccessControlRule::isOwner)
+                .orElse(false);
     }
 }
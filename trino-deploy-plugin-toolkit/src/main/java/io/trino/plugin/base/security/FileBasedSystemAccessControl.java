@@ -36,7 +36,6 @@ import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
-import java.util.function.Function;
 import java.util.function.Predicate;
 import java.util.regex.Pattern;
 
@@ -67,10 +66,10 @@ public class FileBasedSystemAccessControl
     private final Optional<List<ImpersonationRule>> impersonationRules;
     private final Optional<List<PrincipalUserMatchRule>> principalUserMatchRules;
     private final Optional<List<SystemInformationRule>> systemInformationRules;
-    private final List<CatalogSchemaAccessControlRule> schemaRules;
-    private final List<CatalogTableAccessControlRule> tableRules;
+    private final IndexedRules<CatalogSchemaAccessControlRule> schemaRules;
+    private final IndexedRules<CatalogTableAccessControlRule> tableRules;
     private final List<SessionPropertyAccessControlRule> sessionPropertyRules;
-    private final List<CatalogSessionPropertyAccessControlRule> catalogSessionPropertyRules;
+    private final IndexedRules<CatalogSessionPropertyAccessControlRule> catalogSessionPropertyRules;
     private final Set<AnyCatalogPermissionsRule> anyCatalogPermissionsRules;
     private final Set<AnyCatalogSchemaPermissionsRule> anyCatalogSchemaPermissionsRules;
 
@@ -90,10 +89,10 @@ public class FileBasedSystemAccessControl
         this.impersonationRules = impersonationRules;
         this.principalUserMatchRules = principalUserMatchRules;
         this.systemInformationRules = systemInformationRules;
-        this.schemaRules = schemaRules;
-        this.tableRules = tableRules;
+        this.schemaRules = new IndexedRules<>(schemaRules, CatalogSchemaAccessControlRule::getRulePatterns);
+        this.tableRules = new IndexedRules<>(tableRules, CatalogTableAccessControlRule::getRulePatterns);
         this.sessionPropertyRules = sessionPropertyRules;
-        this.catalogSessionPropertyRules = catalogSessionPropertyRules;
+        this.catalogSessionPropertyRules = new IndexedRules<>(catalogSessionPropertyRules, CatalogSessionPropertyAccessControlRule::getRulePatterns);
 
         ImmutableSet.Builder<AnyCatalogPermissionsRule> anyCatalogPermissionsRules = ImmutableSet.builder();
         schemaRules.stream()
@@ -543,11 +542,7 @@ public class FileBasedSystemAccessControl
             return columns;
         }
 
-        Identity identity = context.getIdentity();
-        CatalogTableAccessControlRule rule = tableRules.stream()
-                .filter(tableRule -> tableRule.matches(identity.getUser(), identity.getEnabledRoles(), identity.getGroups(), tableName))
-                .findFirst()
-                .orElse(null);
+        CatalogTableAccessControlRule rule = findTableRule(context, tableName).orElse(null);
         if (rule == null || rule.getPrivileges().isEmpty()) {
             return ImmutableSet.of();
         }
@@ -606,11 +601,8 @@ public class FileBasedSystemAccessControl
             return;
         }
 
-        Identity identity = context.getIdentity();
-        boolean allowed = tableRules.stream()
-                .filter(rule -> rule.matches(identity.getUser(), identity.getEnabledRoles(), identity.getGroups(), table))
+        boolean allowed = findTableRule(context, table)
                 .map(rule -> rule.canSelectColumns(columns))
-                .findFirst()
                 .orElse(false);
         if (!allowed) {
             denySelectTable(table.toString());
@@ -686,11 +678,7 @@ public class FileBasedSystemAccessControl
             return;
         }
 
-        Identity identity = context.getIdentity();
-        CatalogTableAccessControlRule rule = tableRules.stream()
-                .filter(tableRule -> tableRule.matches(identity.getUser(), identity.getEnabledRoles(), identity.getGroups(), table))
-                .findFirst()
-                .orElse(null);
+        CatalogTableAccessControlRule rule = findTableRule(context, table).orElse(null);
         if (rule == null || !rule.canSelectColumns(columns)) {
             denySelectTable(table.toString());
         }
@@ -742,10 +730,9 @@ public class FileBasedSystemAccessControl
     public void checkCanSetCatalogSessionProperty(SystemSecurityContext context, String catalogName, String propertyName)
     {
         Identity identity = context.getIdentity();
-        boolean allowed = canAccessCatalog(context, catalogName, READ_ONLY) && catalogSessionPropertyRules.stream()
-                .map(rule -> rule.match(identity.getUser(), identity.getEnabledRoles(), identity.getGroups(), catalogName, propertyName))
-                .flatMap(Optional::stream)
-                .findFirst()
+        boolean allowed = canAccessCatalog(context, catalogName, READ_ONLY) && catalogSessionPropertyRules
+                .findFirst(identity.getUser(), identity.getEnabledRoles(), identity.getGroups(), catalogName, null, propertyName)
+                .map(CatalogSessionPropertyAccessControlRule::isAllow)
                 .orElse(false);
         if (!allowed) {
             denySetCatalogSessionProperty(propertyName);
@@ -896,11 +883,8 @@ public class FileBasedSystemAccessControl
         }
 
         Identity identity = context.getIdentity();
-        return tableRules.stream()
-                .filter(rule -> rule.matches(identity.getUser(), identity.getEnabledRoles(), identity.getGroups(), table))
-                .map(rule -> rule.getFilter(identity.getUser(), table.getCatalogName(), tableName.getSchemaName()))
-                .findFirst()
-                .flatMap(Function.identity());
+        return findTableRule(context, table)
+                .flatMap(rule -> rule.getFilter(identity.getUser(), table.getCatalogName(), tableName.getSchemaName()));
     }
 
     @Override
@@ -912,11 +896,8 @@ public class FileBasedSystemAccessControl
         }
 
         Identity identity = context.getIdentity();
-        return tableRules.stream()
-                .filter(rule -> rule.matches(identity.getUser(), identity.getEnabledRoles(), identity.getGroups(), table))
-                .map(rule -> rule.getColumnMask(identity.getUser(), table.getCatalogName(), table.getSchemaTableName().getSchemaName(), columnName))
-                .findFirst()
-                .flatMap(Function.identity());
+        return findTableRule(context, table)
+                .flatMap(rule -> rule.getColumnMask(identity.getUser(), table.getCatalogName(), table.getSchemaTableName().getSchemaName(), columnName));
     }
 
     private boolean checkAnyCatalogAccess(SystemSecurityContext context, String catalogName)
@@ -952,13 +933,9 @@ public class FileBasedSystemAccessControl
         }
 
         Identity identity = context.getIdentity();
-        for (CatalogSchemaAccessControlRule rule : schemaRules) {
-            Optional<Boolean> owner = rule.match(identity.getUser(), identity.getEnabledRoles(), identity.getGroups(), schema);
-            if (owner.isPresent()) {
-                return owner.get();
-            }
-        }
-        return false;
+        return schemaRules.findFirst(identity.getUser(), identity.getEnabledRoles(), identity.getGroups(), schema.getCatalogName(), schema.getSchemaName(), null)
+                .map(CatalogSchemaAccessControlRule::isOwner)
+                .orElse(false);
     }
 
     private boolean checkAnyTablePermission(SystemSecurityContext context, CatalogSchemaTableName table)
@@ -986,13 +963,16 @@ public class FileBasedSystemAccessControl
             return true;
         }
 
+        return findTableRule(context, table)
+                .map(rule -> checkPrivileges.test(rule.getPrivileges()))
+                .orElse(false);
+    }
+
+    private Optional<CatalogTableAccessControlRule> findTableRule(SystemSecurityContext context, CatalogSchemaTableName table)
+    {
         Identity identity = context.getIdentity();
-        for (CatalogTableAccessControlRule rule : tableRules) {
-            if (rule.matches(identity.getUser(), identity.getEnabledRoles(), identity.getGroups(), table)) {
-                return checkPrivileges.test(rule.getPrivileges());
-            }
-        }
-        return false;
+        SchemaTableName tableName = table.getSchemaTableName();
+        return tableRules.findFirst(identity.getUser(), identity.getEnabledRoles(), identity.getGroups(), table.getCatalogName(), tableName.getSchemaName(), tableName.getTableName());
     }
 
     public static Builder builder()
@@ -0,0 +1,428 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.trino.plugin.base.security;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.collect.ImmutableList;
+import com.google.common.primitives.Ints;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.function.Function;
+import java.util.regex.Pattern;
+
+import static com.google.common.collect.ImmutableMap.toImmutableMap;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Finds the first rule, in file order, that matches an identity and an object name.
+ * <p>
+ * Each rule is indexed on its table (or property), schema or catalog pattern, whichever is the
+ * first to be a literal or a literal prefix followed by {@code .*}. A lookup only evaluates the rules
+ * indexed under the requested names plus the rules that could not be indexed, in their original order.
+ * The rules matching an identity, and the rule chosen for an identity and object, are memoized.
+ * The rules are immutable, so the memos live as long as this instance, which is replaced when the
+ * rules file is refreshed.
+ */
+final class IndexedRules<R>
+{
+    private static final int NO_MATCH = -1;
+    private static final int[] NO_RULES = new int[0];
+
+    private static final int MAX_IDENTITIES = 1_000;
+    private static final int MAX_DECISIONS = 10_000;
+
+    private final List<R> rules;
+    private final CompiledPattern[] userPatterns;
+    private final CompiledPattern[] rolePatterns;
+    private final CompiledPattern[] groupPatterns;
+    private final CompiledPattern[] catalogPatterns;
+    private final CompiledPattern[] schemaPatterns;
+    private final CompiledPattern[] namePatterns;
+
+    private final FieldIndex catalogIndex;
+    private final FieldIndex schemaIndex;
+    private final FieldIndex nameIndex;
+    private final int[] unindexedRules;
+
+    private final Cache<IdentityKey, BitSet> identityRules = CacheBuilder.newBuilder()
+            .maximumSize(MAX_IDENTITIES)
+            .build();
+    private final Cache<DecisionKey, Integer> decisions = CacheBuilder.newBuilder()
+            .maximumSize(MAX_DECISIONS)
+            .build();
+
+    IndexedRules(List<R> rules, Function<R, RulePatterns> patterns)
+    {
+        this.rules = ImmutableList.copyOf(requireNonNull(rules, "rules is null"));
+        requireNonNull(patterns, "patterns is null");
+
+        int ruleCount = this.rules.size();
+        userPatterns = new CompiledPattern[ruleCount];
+        rolePatterns = new CompiledPattern[ruleCount];
+        groupPatterns = new CompiledPattern[ruleCount];
+        catalogPatterns = new CompiledPattern[ruleCount];
+        schemaPatterns = new CompiledPattern[ruleCount];
+        namePatterns = new CompiledPattern[ruleCount];
+
+        FieldIndex.Builder catalogIndex = new FieldIndex.Builder();
+        FieldIndex.Builder schemaIndex = new FieldIndex.Builder();
+        FieldIndex.Builder nameIndex = new FieldIndex.Builder();
+        List<Integer> unindexedRules = new ArrayList<>();
+        for (int rule = 0; rule < ruleCount; rule++) {
+            RulePatterns rulePatterns = patterns.apply(this.rules.get(rule));
+            userPatterns[rule] = CompiledPattern.compile(rulePatterns.getUserRegex());
+            rolePatterns[rule] = CompiledPattern.compile(rulePatterns.getRoleRegex());
+            groupPatterns[rule] = CompiledPattern.compile(rulePatterns.getGroupRegex());
+            catalogPatterns[rule] = CompiledPattern.compile(rulePatterns.getCatalogRegex());
+            schemaPatterns[rule] = CompiledPattern.compile(rulePatterns.getSchemaRegex());
+            namePatterns[rule] = CompiledPattern.compile(rulePatterns.getNameRegex());
+
+            if (!nameIndex.add(namePatterns[rule], rule) &&
+                    !schemaIndex.add(schemaPatterns[rule], rule) &&
+                    !catalogIndex.add(catalogPatterns[rule], rule)) {
+                unindexedRules.add(rule);
+            }
+        }
+        this.catalogIndex = catalogIndex.build();
+        this.schemaIndex = schemaIndex.build();
+        this.nameIndex = nameIndex.build();
+        this.unindexedRules = Ints.toArray(unindexedRules);
+    }
+
+    /**
+     * Names not present in the rules being looked up, such as the table for schema rules, may be {@code null}.
+     */
+    Optional<R> findFirst(String user, Set<String> roles, Set<String> groups, String catalog, String schema, String name)
+    {
+        IdentityKey identity = new IdentityKey(user, roles, groups);
+        DecisionKey key = new DecisionKey(identity, catalog, schema, name);
+        Integer decision = decisions.getIfPresent(key);
+        if (decision == null) {
+            decision = findFirstIndex(getIdentityRules(identity), catalog, schema, name);
+            decisions.put(key, decision);
+        }
+        if (decision == NO_MATCH) {
+            return Optional.empty();
+        }
+        return Optional.of(rules.get(decision));
+    }
+
+    private BitSet getIdentityRules(IdentityKey identity)
+    {
+        BitSet matching = identityRules.getIfPresent(identity);
+        if (matching == null) {
+            matching = new BitSet(rules.size());
+            for (int rule = 0; rule < rules.size(); rule++) {
+                if (userPatterns[rule].matches(identity.user) &&
+                        rolePatterns[rule].matchesAny(identity.roles) &&
+                        groupPatterns[rule].matchesAny(identity.groups)) {
+                    matching.set(rule);
+                }
+            }
+            identityRules.put(identity, matching);
+        }
+        return matching;
+    }
+
+    private int findFirstIndex(BitSet identityRules, String catalog, String schema, String name)
+    {
+        List<int[]> candidates = new ArrayList<>();
+        nameIndex.addCandidates(name, candidates);
+        schemaIndex.addCandidates(schema, candidates);
+        catalogIndex.addCandidates(catalog, candidates);
+        candidates.add(unindexedRules);
+
+        // every rule is in exactly one candidate list, and each list is in rule order
+        int[] positions = new int[candidates.size()];
+        while (true) {
+            int next = Integer.MAX_VALUE;
+            int nextList = -1;
+            for (int list = 0; list < candidates.size(); list++) {
+                int[] rules = candidates.get(list);
+                if (positions[list] < rules.length && rules[positions[list]] < next) {
+                    next = rules[positions[list]];
+                    nextList = list;
+                }
+            }
+            if (nextList < 0) {
+                return NO_MATCH;
+            }
+            positions[nextList]++;
+
+            if (identityRules.get(next) &&
+                    catalogPatterns[next].matches(catalog) &&
+                    schemaPatterns[next].matches(schema) &&
+                    namePatterns[next].matches(name)) {
+                return next;
+            }
+        }
+    }
+
+    private static final class FieldIndex
+    {
+        private final Map<String, int[]> literals;
+        private final Map<String, int[]> prefixes;
+        private final int[] prefixLengths;
+
+        private FieldIndex(Map<String, int[]> literals, Map<String, int[]> prefixes)
+        {
+            this.literals = literals;
+            this.prefixes = prefixes;
+            this.prefixLengths = prefixes.keySet().stream()
+                    .mapToInt(String::length)
+                    .distinct()
+                    .sorted()
+                    .toArray();
+        }
+
+        void addCandidates(String value, List<int[]> candidates)
+        {
+            if (value == null) {
+                return;
+            }
+            int[] literalRules = literals.getOrDefault(value, NO_RULES);
+            if (literalRules.length > 0) {
+                candidates.add(literalRules);
+            }
+            for (int length : prefixLengths) {
+                if (length > value.length()) {
+                    break;
+                }
+                int[] prefixRules = prefixes.getOrDefault(value.substring(0, length), NO_RULES);
+                if (prefixRules.length > 0) {
+                    candidates.add(prefixRules);
+                }
+            }
+        }
+
+        private static final class Builder
+        {
+            private final Map<String, List<Integer>> literals = new HashMap<>();
+            private final Map<String, List<Integer>> prefixes = new HashMap<>();
+
+            boolean add(CompiledPattern pattern, int rule)
+            {
+                switch (pattern.kind) {
+                    case LITERAL:
+                        literals.computeIfAbsent(pattern.literal, key -> new ArrayList<>()).add(rule);
+                        return true;
+                    case PREFIX:
+                        prefixes.computeIfAbsent(pattern.literal, key -> new ArrayList<>()).add(rule);
+                        return true;
+                    default:
+                        return false;
+                }
+            }
+
+            FieldIndex build()
+            {
+                return new FieldIndex(toArrays(literals), toArrays(prefixes));
+            }
+
+            private static Map<String, int[]> toArrays(Map<String, List<Integer>> rules)
+            {
+                return rules.entrySet().stream()
+                        .collect(toImmutableMap(Map.Entry::getKey, entry -> Ints.toArray(entry.getValue())));
+            }
+        }
+    }
+
+    private enum Kind
+    {
+        ANY, LITERAL, PREFIX, REGEX
+    }
+
+    /**
+     * A rule pattern, with literals and literal prefixes matched without the regex engine.
+     * Without {@link Pattern#DOTALL}, {@code .} does not match line terminators, so the
+     * {@code .*} of a pattern is only skipped when the part of the value it has to match has no
+     * line terminator; otherwise the value is matched with the regex.
+     */
+    private static final class CompiledPattern
+    {
+        private static final CompiledPattern ANY = new CompiledPattern(Kind.ANY, null, null);
+        private static final String REGEX_METACHARACTERS = "\\^$.|?*+()[]{}";
+        private static final String ANY_SUFFIX = ".*";
+
+        private final Kind kind;
+        private final String literal;
+        private final Pattern pattern;
+
+        private CompiledPattern(Kind kind, String literal, Pattern pattern)
+        {
+            this.kind = kind;
+            this.literal = literal;
+            this.pattern = pattern;
+        }
+
+        static CompiledPattern compile(Optional<Pattern> pattern)
+        {
+            if (pattern.isEmpty()) {
+                return ANY;
+            }
+            Pattern regex = pattern.get();
+            String source = regex.pattern();
+            if (regex.flags() == 0) {
+                if (source.equals(ANY_SUFFIX)) {
+                    return new CompiledPattern(Kind.ANY, null, regex);
+                }
+                if (isLiteral(source)) {
+                    return new CompiledPattern(Kind.LITERAL, source, null);
+                }
+                if (source.endsWith(ANY_SUFFIX) && isLiteral(source.substring(0, source.length() - ANY_SUFFIX.length()))) {
+                    return new CompiledPattern(Kind.PREFIX, source.substring(0, source.length() - ANY_SUFFIX.length()), regex);
+                }
+            }
+            return new CompiledPattern(Kind.REGEX, null, regex);
+        }
+
+        private static boolean isLiteral(String source)
+        {
+            for (int i = 0; i < source.length(); i++) {
+                if (REGEX_METACHARACTERS.indexOf(source.charAt(i)) >= 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private static boolean hasLineTerminator(String value, int start)
+        {
+            for (int i = start; i < value.length(); i++) {
+                char c = value.charAt(i);
+                if (c == '\n' || c == '\r' || c == '\u0085' || c == '\u2028' || c == '\u2029') {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        boolean matches(String value)
+        {
+            switch (kind) {
+                case ANY:
+                    if (pattern == null || value == null || !hasLineTerminator(value, 0)) {
+                        return true;
+                    }
+                    return pattern.matcher(value).matches();
+                case LITERAL:
+                    return literal.equals(value);
+                case PREFIX:
+                    if (value == null || !value.startsWith(literal)) {
+                        return false;
+                    }
+                    return !hasLineTerminator(value, literal.length()) || pattern.matcher(value).matches();
+                default:
+                    return value != null && pattern.matcher(value).matches();
+            }
+        }
+
+        boolean matchesAny(Set<String> values)
+        {
+            if (kind == Kind.ANY && pattern == null) {
+                return true;
+            }
+            for (String value : values) {
+                if (matches(value)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    private static final class IdentityKey
+    {
+        private final String user;
+        private final Set<String> roles;
+        private final Set<String> groups;
+        private final int hashCode;
+
+        private IdentityKey(String user, Set<String> roles, Set<String> groups)
+        {
+            this.user = requireNonNull(user, "user is null");
+            this.roles = requireNonNull(roles, "roles is null");
+            this.groups = requireNonNull(groups, "groups is null");
+            this.hashCode = Objects.hash(user, roles, groups);
+        }
+
+        @Override
+        public int hashCode()
+        {
+            return hashCode;
+        }
+
+        @Override
+        public boolean equals(Object obj)
+        {
+            if (this == obj) {
+                return true;
+            }
+            if (!(obj instanceof IdentityKey)) {
+                return false;
+            }
+            IdentityKey other = (IdentityKey) obj;
+            return user.equals(other.user) &&
+                    roles.equals(other.roles) &&
+                    groups.equals(other.groups);
+        }
+    }
+
+    private static final class DecisionKey
+    {
+        private final IdentityKey identity;
+        private final String catalog;
+        private final String schema;
+        private final String name;
+
+        private DecisionKey(IdentityKey identity, String catalog, String schema, String name)
+        {
+            this.identity = identity;
+            this.catalog = catalog;
+            this.schema = schema;
+            this.name = name;
+        }
+
+        @Override
+        public int hashCode()
+        {
+            return Objects.hash(identity, catalog, schema, name);
+        }
+
+        @Override
+        public boolean equals(Object obj)
+        {
+            if (this == obj) {
+                return true;
+            }
+            if (!(obj instanceof DecisionKey)) {
+                return false;
+            }
+            DecisionKey other = (DecisionKey) obj;
+            return identity.equals(other.identity) &&
+                    Objects.equals(catalog, other.catalog) &&
+                    Objects.equals(schema, other.schema) &&
+                    Objects.equals(name, other.name);
+        }
+    }
+}
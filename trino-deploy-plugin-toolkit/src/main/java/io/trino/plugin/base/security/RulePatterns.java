@@ -0,0 +1,87 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.trino.plugin.base.security;
+
+import java.util.Optional;
+import java.util.regex.Pattern;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Patterns of an access control rule, split into the identity part and the part matching the
+ * accessed object, as consumed by {@link IndexedRules}.
+ */
+final class RulePatterns
+{
+    private final Optional<Pattern> userRegex;
+    private final Optional<Pattern> roleRegex;
+    private final Optional<Pattern> groupRegex;
+    private final Optional<Pattern> catalogRegex;
+    private final Optional<Pattern> schemaRegex;
+    private final Optional<Pattern> nameRegex;
+
+    RulePatterns(
+            Optional<Pattern> userRegex,
+            Optional<Pattern> roleRegex,
+            Optional<Pattern> groupRegex,
+            Optional<Pattern> catalogRegex,
+            Optional<Pattern> schemaRegex,
+            Optional<Pattern> nameRegex)
+    {
+        this.userRegex = requireNonNull(userRegex, "userRegex is null");
+        this.roleRegex = requireNonNull(roleRegex, "roleRegex is null");
+        this.groupRegex = requireNonNull(groupRegex, "groupRegex is null");
+        this.catalogRegex = requireNonNull(catalogRegex, "catalogRegex is null");
+        this.schemaRegex = requireNonNull(schemaRegex, "schemaRegex is null");
+        this.nameRegex = requireNonNull(nameRegex, "nameRegex is null");
+    }
+
+    RulePatterns withCatalogRegex(Optional<Pattern> catalogRegex)
+    {
+        return new RulePatterns(userRegex, roleRegex, groupRegex, catalogRegex, schemaRegex, nameRegex);
+    }
+
+    Optional<Pattern> getUserRegex()
+    {
+        return userRegex;
+    }
+
+    Optional<Pattern> getRoleRegex()
+    {
+        return roleRegex;
+    }
+
+    Optional<Pattern> getGroupRegex()
+    {
+        return groupRegex;
+    }
+
+    Optional<Pattern> getCatalogRegex()
+    {
+        return catalogRegex;
+    }
+
+    Optional<Pattern> getSchemaRegex()
+    {
+        return schemaRegex;
+    }
+
+    /**
+     * Table or property name pattern.
+     */
+    Optional<Pattern> getNameRegex()
+    {
+        return nameRegex;
+    }
+}
@@ -95,4 +95,9 @@ public class SchemaAccessControlRule
     {
         return schemaRegex;
     }
+
+    RulePatterns getRulePatterns()
+    {
+        return new RulePatterns(userRegex, roleRegex, groupRegex, Optional.empty(), schemaRegex, Optional.empty());
+    }
 }
@@ -72,6 +72,11 @@ public class SessionPropertyAccessControlRule
         return groupRegex;
     }
 
+    RulePatterns getRulePatterns()
+    {
+        return new RulePatterns(userRegex, roleRegex, groupRegex, Optional.empty(), Optional.empty(), propertyRegex);
+    }
+
     public Optional<Boolean> match(String user, Set<String> roles, Set<String> groups, String property)
     {
         if (userRegex.map(regex -> regex.matcher(user).matches()).orElse(true) &&
@@ -154,6 +154,11 @@ public class TableAccessControlRule
         return schemaRegex;
     }
 
+    RulePatterns getRulePatterns()
+    {
+        return new RulePatterns(userRegex, roleRegex, groupRegex, Optional.empty(), schemaRegex, tableRegex);
+    }
+
     public enum TablePrivilege
     {
         SELECT, INSERT, DELETE, UPDATE, OWNERSHIP, GRANT_SELECT
@@ -0,0 +1,307 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.trino.plugin.base.classloader;
+
+import com.google.common.collect.ImmutableList;
+import io.airlift.slice.Slice;
+import io.trino.spi.Page;
+import io.trino.spi.block.LongArrayBlock;
+import io.trino.spi.connector.BatchRecordCursor;
+import io.trino.spi.connector.ConnectorPageSink;
+import io.trino.spi.connector.ConnectorPageSource;
+import io.trino.spi.connector.RecordPageSource;
+import io.trino.spi.type.Type;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import static io.trino.spi.type.BigintType.BIGINT;
+import static io.trino.spi.type.DoubleType.DOUBLE;
+
+/**
+ * Measures reading pages from a batch cursor and writing pages to a page sink, with and without
+ * the class loader safe wrappers, in a class loader other than the one of the calling thread.
+ */
+@State(Scope.Thread)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@BenchmarkMode(Mode.AverageTime)
+@Fork(2)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@OperationsPerInvocation(BenchmarkClassLoaderSafeWrappers.ROWS)
+public class BenchmarkClassLoaderSafeWrappers
+{
+    static final int ROWS = 100_000;
+    private static final int ROWS_PER_PAGE = 1024;
+    private static final List<Type> TYPES = ImmutableList.of(BIGINT, DOUBLE);
+
+    private final ClassLoader classLoader = new URLClassLoader(new URL[0], getClass().getClassLoader());
+    private final ConnectorPageSink pageSink = new NoOpPageSink();
+    private final ConnectorPageSink classLoaderSafePageSink = new ClassLoaderSafeConnectorPageSink(pageSink, classLoader);
+
+    private long[] longValues;
+    private double[] doubleValues;
+    private List<Page> pages;
+
+    @Setup
+    public void setup()
+    {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        longValues = new long[ROWS];
+        doubleValues = new double[ROWS];
+        for (int row = 0; row < ROWS; row++) {
+            longValues[row] = random.nextLong();
+            doubleValues[row] = random.nextDouble();
+        }
+
+        ImmutableList.Builder<Page> pages = ImmutableList.builder();
+        for (int row = 0; row < ROWS; row += ROWS_PER_PAGE) {
+            int positionCount = Math.min(ROWS_PER_PAGE, ROWS - row);
+            long[] values = new long[positionCount];
+            System.arraycopy(longValues, row, values, 0, positionCount);
+            pages.add(new Page(new LongArrayBlock(positionCount, Optional.empty(), values)));
+        }
+        this.pages = pages.build();
+    }
+
+    @Benchmark
+    public long getNextPage()
+    {
+        return readAll(new RecordPageSource(TYPES, new InMemoryBatchRecordCursor(longValues, doubleValues)));
+    }
+
+    @Benchmark
+    public long getNextPageWithClassLoader()
+    {
+        BatchRecordCursor cursor = new ClassLoaderSafeBatchRecordCursor(new InMemoryBatchRecordCursor(longValues, doubleValues), classLoader);
+        return readAll(new ClassLoaderSafeConnectorPageSource(new RecordPageSource(TYPES, cursor), classLoader));
+    }
+
+    @Benchmark
+    public long appendPage()
+    {
+        return writeAll(pageSink);
+    }
+
+    @Benchmark
+    public long appendPageWithClassLoader()
+    {
+        return writeAll(classLoaderSafePageSink);
+    }
+
+    private static long readAll(ConnectorPageSource pageSource)
+    {
+        long positions = 0;
+        while (!pageSource.isFinished()) {
+            Page page = pageSource.getNextPage();
+            if (page != null) {
+                positions += page.getPositionCount();
+            }
+            // the operator reads the statistics after every page
+            positions += pageSource.getSystemMemoryUsage() & 1;
+        }
+        return positions;
+    }
+
+    private long writeAll(ConnectorPageSink sink)
+    {
+        long result = 0;
+        for (Page page : pages) {
+            sink.appendPage(page);
+            // the operator reads the statistics after every page
+            result += sink.getSystemMemoryUsage() + sink.getCompletedBytes();
+        }
+        return result;
+    }
+
+    private static class InMemoryBatchRecordCursor
+            implements BatchRecordCursor
+    {
+        private final long[] longValues;
+        private final double[] doubleValues;
+        private int batchStart;
+        private int batchSize;
+
+        public InMemoryBatchRecordCursor(long[] longValues, double[] doubleValues)
+        {
+            this.longValues = longValues;
+            this.doubleValues = doubleValues;
+        }
+
+        @Override
+        public int advanceNextBatch(int maxRows)
+        {
+            batchStart += batchSize;
+            batchSize = Math.min(maxRows, longValues.length - batchStart);
+            return batchSize;
+        }
+
+        @Override
+        public boolean isNull(int field, int row)
+        {
+            return false;
+        }
+
+        @Override
+        public boolean getBoolean(int field, int row)
+        {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public long getLong(int field, int row)
+        {
+            return longValues[batchStart + row];
+        }
+
+        @Override
+        public double getDouble(int field, int row)
+        {
+            return doubleValues[batchStart + row];
+        }
+
+        @Override
+        public Slice getSlice(int field, int row)
+        {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Object getObject(int field, int row)
+        {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public long getCompletedBytes()
+        {
+            return (long) batchStart * (Long.BYTES + Double.BYTES);
+        }
+
+        @Override
+        public long getReadTimeNanos()
+        {
+            return 0;
+        }
+
+        @Override
+        public Type getType(int field)
+        {
+            return TYPES.get(field);
+        }
+
+        @Override
+        public boolean advanceNextPosition()
+        {
+            return advanceNextBatch(1) > 0;
+        }
+
+        @Override
+        public boolean getBoolean(int field)
+        {
+            return getBoolean(field, 0);
+        }
+
+        @Override
+        public long getLong(int field)
+        {
+            return getLong(field, 0);
+        }
+
+        @Override
+        public double getDouble(int field)
+        {
+            return getDouble(field, 0);
+        }
+
+        @Override
+        public Slice getSlice(int field)
+        {
+            return getSlice(field, 0);
+        }
+
+        @Override
+        public Object getObject(int field)
+        {
+            return getObject(field, 0);
+        }
+
+        @Override
+        public boolean isNull(int field)
+        {
+            return isNull(field, 0);
+        }
+
+        @Override
+        public void close() {}
+    }
+
+    private static class NoOpPageSink
+            implements ConnectorPageSink
+    {
+        private long completedBytes;
+
+        @Override
+        public long getCompletedBytes()
+        {
+            return completedBytes;
+        }
+
+        @Override
+        public CompletableFuture<?> appendPage(Page page)
+        {
+            completedBytes += page.getSizeInBytes();
+            return NOT_BLOCKED;
+        }
+
+        @Override
+        public CompletableFuture<Collection<Slice>> finish()
+        {
+            return CompletableFuture.completedFuture(ImmutableList.of());
+        }
+
+        @Override
+        public void abort() {}
+    }
+
+    public static void main(String[] args)
+            throws RunnerException
+    {
+        Options options = new OptionsBuilder()
+                .include(".*" + BenchmarkClassLoaderSafeWrappers.class.getSimpleName() + ".*")
+                .build();
+        new Runner(options).run();
+    }
+}
@@ -0,0 +1,95 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.trino.plugin.base.security;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import org.testng.annotations.Test;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.regex.Pattern;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class TestIndexedRules
+{
+    private static final List<String> NAMES = ImmutableList.of(
+            "orders",
+            "orders_2021",
+            "order",
+            "secret",
+            "secret_data",
+            "secret\ndata",
+            "secret\r\n",
+            "line separator",
+            "a\nb",
+            "");
+
+    @Test
+    public void testLineTerminators()
+    {
+        List<RulePatterns> rules = ImmutableList.of(
+                nameRule("secret.*"),
+                nameRule(".*"),
+                nameRule("(?s)secret.*"),
+                new RulePatterns(Optional.empty(), Optional.empty(), Optional.empty(), Optional.empty(), Optional.empty(), Optional.empty()));
+        IndexedRules<RulePatterns> indexedRules = new IndexedRules<>(rules, Function.identity());
+
+        assertThat(findFirst(indexedRules, "secret_data")).containsSame(rules.get(0));
+        assertThat(findFirst(indexedRules, "orders")).containsSame(rules.get(1));
+        // . does not match line terminators, so neither secret.* nor .* matches
+        assertThat(findFirst(indexedRules, "secret\ndata")).containsSame(rules.get(2));
+        assertThat(findFirst(indexedRules, "a\nb")).containsSame(rules.get(3));
+    }
+
+    @Test
+    public void testMatchesRegexEvaluation()
+    {
+        List<String> regexes = ImmutableList.of("orders", "orders.*", "order.*", ".*", "secret.*", "secret", "(?s).*", "line.*", "o.*s", "a.b");
+        ImmutableList.Builder<RulePatterns> builder = ImmutableList.builder();
+        for (String regex : regexes) {
+            builder.add(nameRule(regex));
+            builder.add(new RulePatterns(Optional.empty(), Optional.empty(), Optional.empty(), Optional.empty(), Optional.of(Pattern.compile(regex)), Optional.empty()));
+        }
+        List<RulePatterns> rules = builder.build();
+        IndexedRules<RulePatterns> indexedRules = new IndexedRules<>(rules, Function.identity());
+
+        for (String schema : NAMES) {
+            for (String name : NAMES) {
+                Optional<RulePatterns> expected = rules.stream()
+                        .filter(rule -> matches(rule.getSchemaRegex(), schema) && matches(rule.getNameRegex(), name))
+                        .findFirst();
+                Optional<RulePatterns> actual = indexedRules.findFirst("user", ImmutableSet.of(), ImmutableSet.of(), "catalog", schema, name);
+                assertThat(actual).as("schema %s, name %s", schema, name).isEqualTo(expected);
+            }
+        }
+    }
+
+    private static Optional<RulePatterns> findFirst(IndexedRules<RulePatterns> rules, String name)
+    {
+        return rules.findFirst("user", ImmutableSet.of(), ImmutableSet.of(), "catalog", "schema", name);
+    }
+
+    private static boolean matches(Optional<Pattern> pattern, String value)
+    {
+        return pattern.map(regex -> regex.matcher(value).matches()).orElse(true);
+    }
+
+    private static RulePatterns nameRule(String regex)
+    {
+        return new RulePatterns(Optional.empty(), Optional.empty(), Optional.empty(), Optional.empty(), Optional.empty(), Optional.of(Pattern.compile(regex)));
+    }
+}
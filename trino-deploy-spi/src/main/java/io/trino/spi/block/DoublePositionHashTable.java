@@ -0,0 +1,207 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.trino.spi.block;
+
+import io.trino.spi.type.Type;
+import org.openjdk.jol.info.ClassLayout;
+
+import java.util.Arrays;
+
+import static io.airlift.slice.SizeOf.sizeOf;
+import static io.trino.spi.block.PositionHashTables.EMPTY;
+import static io.trino.spi.block.PositionHashTables.maxFill;
+import static io.trino.spi.block.PositionHashTables.mix;
+import static io.trino.spi.block.PositionHashTables.newCapacity;
+import static io.trino.spi.block.PositionHashTables.newSlots;
+import static io.trino.spi.block.PositionHashTables.tableSize;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Open-addressing hash table for the values of a type with a {@code double} stack representation.
+ * Each distinct value, including null, is assigned a dense id in insertion order. Values are
+ * compared as in {@code IS DISTINCT FROM}: all NaNs are the same value, and so are 0.0 and -0.0.
+ */
+public final class DoublePositionHashTable
+{
+    private static final int INSTANCE_SIZE = ClassLayout.parseClass(DoublePositionHashTable.class).instanceSize();
+
+    private final Type type;
+
+    private int[] slots;
+    private int mask;
+    private int maxFill;
+
+    // canonical bits of the values by id
+    private long[] values;
+    private int size;
+    private int nullId = EMPTY;
+
+    public DoublePositionHashTable(Type type, int expectedSize)
+    {
+        this.type = requireNonNull(type, "type is null");
+        if (type.getJavaType() != double.class) {
+            throw new IllegalArgumentException("type must have a double stack representation: " + type);
+        }
+        int tableSize = tableSize(expectedSize);
+        slots = newSlots(tableSize);
+        mask = tableSize - 1;
+        maxFill = maxFill(tableSize);
+        values = new long[maxFill];
+    }
+
+    /**
+     * Returns the number of distinct values, including null.
+     */
+    public int size()
+    {
+        return size;
+    }
+
+    /**
+     * Returns the id of null, or -1 if null has not been added.
+     */
+    public int getNullId()
+    {
+        return nullId;
+    }
+
+    public double getValue(int id)
+    {
+        if (id < 0 || id >= size || id == nullId) {
+            throw new IllegalArgumentException("Invalid id: " + id);
+        }
+        return Double.longBitsToDouble(values[id]);
+    }
+
+    /**
+     * Adds the value at {@code position} if it is not present, and returns its id.
+     */
+    public int putIfAbsent(Block block, int position)
+    {
+        if (block.isNull(position)) {
+            if (nullId == EMPTY) {
+                nullId = addId();
+            }
+            return nullId;
+        }
+        return putIfAbsent(type.getDouble(block, position));
+    }
+
+    /**
+     * Adds every position of the block, and stores the id of each position in {@code ids}.
+     */
+    public void putIfAbsent(Block block, int[] ids)
+    {
+        int positionCount = block.getPositionCount();
+        if (ids.length < positionCount) {
+            throw new IllegalArgumentException("ids is smaller than the block");
+        }
+        if (!block.mayHaveNull()) {
+            for (int position = 0; position < positionCount; position++) {
+                ids[position] = putIfAbsent(type.getDouble(block, position));
+            }
+            return;
+        }
+        for (int position = 0; position < positionCount; position++) {
+            ids[position] = putIfAbsent(block, position);
+        }
+    }
+
+    public int putIfAbsent(double doubleValue)
+    {
+        long value = canonicalBits(doubleValue);
+        int slot = (int) mix(value) & mask;
+        while (true) {
+            int id = slots[slot];
+            if (id == EMPTY) {
+                break;
+            }
+            if (values[id] == value) {
+                return id;
+            }
+            slot = (slot + 1) & mask;
+        }
+
+        int id = addId();
+        values[id] = value;
+        slots[slot] = id;
+        if (size >= maxFill) {
+            rehash();
+        }
+        return id;
+    }
+
+    /**
+     * Returns the id of the value at {@code position}, or -1 if it is not present.
+     */
+    public int get(Block block, int position)
+    {
+        if (block.isNull(position)) {
+            return nullId;
+        }
+        return get(type.getDouble(block, position));
+    }
+
+    public int get(double doubleValue)
+    {
+        long value = canonicalBits(doubleValue);
+        int slot = (int) mix(value) & mask;
+        while (true) {
+            int id = slots[slot];
+            if (id == EMPTY || values[id] == value) {
+                return id;
+            }
+            slot = (slot + 1) & mask;
+        }
+    }
+
+    public long getRetainedSizeInBytes()
+    {
+        return INSTANCE_SIZE + sizeOf(slots) + sizeOf(values);
+    }
+
+    private static long canonicalBits(double value)
+    {
+        // doubleToLongBits collapses all NaNs, and adding 0.0 turns -0.0 into 0.0
+        return Double.doubleToLongBits(value + 0.0);
+    }
+
+    private int addId()
+    {
+        if (size == values.length) {
+            values = Arrays.copyOf(values, newCapacity(values.length));
+        }
+        return size++;
+    }
+
+    private void rehash()
+    {
+        int tableSize = slots.length * 2;
+        int[] newSlots = newSlots(tableSize);
+        int newMask = tableSize - 1;
+        for (int id = 0; id < size; id++) {
+            if (id == nullId) {
+                continue;
+            }
+            int slot = (int) mix(values[id]) & newMask;
+            while (newSlots[slot] != EMPTY) {
+                slot = (slot + 1) & newMask;
+            }
+            newSlots[slot] = id;
+        }
+        slots = newSlots;
+        mask = newMask;
+        maxFill = maxFill(tableSize);
+    }
+}
@@ -0,0 +1,259 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.trino.spi.block;
+
+import io.trino.spi.type.Type;
+import io.trino.spi.type.TypeOperators;
+import org.openjdk.jol.info.ClassLayout;
+
+import java.lang.invoke.MethodHandle;
+import java.util.Arrays;
+
+import static io.airlift.slice.SizeOf.sizeOf;
+import static io.trino.spi.block.PositionHashTables.mix;
+import static io.trino.spi.block.PositionHashTables.EMPTY;
+import static io.trino.spi.block.PositionHashTables.maxFill;
+import static io.trino.spi.block.PositionHashTables.newCapacity;
+import static io.trino.spi.block.PositionHashTables.newSlots;
+import static io.trino.spi.block.PositionHashTables.tableSize;
+import static io.trino.spi.function.InvocationConvention.InvocationArgumentConvention.BLOCK_POSITION;
+import static io.trino.spi.function.InvocationConvention.InvocationReturnConvention.FAIL_ON_NULL;
+import static io.trino.spi.function.InvocationConvention.simpleConvention;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Open-addressing hash table for values of any type, which hashes and compares values with the
+ * type operators. Prefer the {@link LongPositionHashTable}, {@link DoublePositionHashTable},
+ * {@link Int128PositionHashTable} and {@link SlicePositionHashTable} where the type allows.
+ * Values are compared as in {@code IS DISTINCT FROM}. Values are not copied: each id refers
+ * to the block and position the value was first added from, and the blocks are retained by the
+ * table. Each distinct value, including null, is assigned a dense id in insertion order.
+ * <p>
+ * The retained size counts a block each time the block of consecutive new values changes, which
+ * is exact when the blocks are added one after the other.
+ */
+public final class GenericPositionHashTable
+{
+    private static final int INSTANCE_SIZE = ClassLayout.parseClass(GenericPositionHashTable.class).instanceSize();
+
+    private final MethodHandle hashCodeOperator;
+    private final MethodHandle distinctFromOperator;
+
+    private int[] slots;
+    private int mask;
+    private int maxFill;
+
+    // value references and hashes by id
+    private Block[] blocks;
+    private int[] positions;
+    private long[] hashes;
+    private int size;
+    private int nullId = EMPTY;
+
+    private Block lastReferencedBlock;
+    private long referencedBlocksSize;
+
+    public GenericPositionHashTable(Type type, TypeOperators typeOperators, int expectedSize)
+    {
+        requireNonNull(type, "type is null");
+        requireNonNull(typeOperators, "typeOperators is null");
+        hashCodeOperator = typeOperators.getHashCodeOperator(type, simpleConvention(FAIL_ON_NULL, BLOCK_POSITION));
+        distinctFromOperator = typeOperators.getDistinctFromOperator(type, simpleConvention(FAIL_ON_NULL, BLOCK_POSITION, BLOCK_POSITION));
+
+        int tableSize = tableSize(expectedSize);
+        slots = newSlots(tableSize);
+        mask = tableSize - 1;
+        maxFill = maxFill(tableSize);
+        blocks = new Block[maxFill];
+        positions = new int[maxFill];
+        hashes = new long[maxFill];
+    }
+
+    /**
+     * Returns the number of distinct values, including null.
+     */
+    public int size()
+    {
+        return size;
+    }
+
+    /**
+     * Returns the id of null, or -1 if null has not been added.
+     */
+    public int getNullId()
+    {
+        return nullId;
+    }
+
+    /**
+     * Returns the block holding the value with the given id, at {@link #getPosition(int)}.
+     */
+    public Block getBlock(int id)
+    {
+        checkValueId(id);
+        return blocks[id];
+    }
+
+    public int getPosition(int id)
+    {
+        checkValueId(id);
+        return positions[id];
+    }
+
+    /**
+     * Adds the value at {@code position} if it is not present, and returns its id.
+     */
+    public int putIfAbsent(Block block, int position)
+    {
+        if (block.isNull(position)) {
+            if (nullId == EMPTY) {
+                nullId = addId();
+            }
+            return nullId;
+        }
+
+        long hash = hash(block, position);
+        int slot = (int) hash & mask;
+        while (true) {
+            int id = slots[slot];
+            if (id == EMPTY) {
+                break;
+            }
+            if (valueEquals(id, hash, block, position)) {
+                return id;
+            }
+            slot = (slot + 1) & mask;
+        }
+
+        int id = addId();
+        blocks[id] = block;
+        positions[id] = position;
+        hashes[id] = hash;
+        slots[slot] = id;
+        if (block != lastReferencedBlock) {
+            lastReferencedBlock = block;
+            referencedBlocksSize += block.getRetainedSizeInBytes();
+        }
+        if (size >= maxFill) {
+            rehash();
+        }
+        return id;
+    }
+
+    /**
+     * Adds every position of the block, and stores the id of each position in {@code ids}.
+     */
+    public void putIfAbsent(Block block, int[] ids)
+    {
+        int positionCount = block.getPositionCount();
+        if (ids.length < positionCount) {
+            throw new IllegalArgumentException("ids is smaller than the block");
+        }
+        for (int position = 0; position < positionCount; position++) {
+            ids[position] = putIfAbsent(block, position);
+        }
+    }
+
+    /**
+     * Returns the id of the value at {@code position}, or -1 if it is not present.
+     */
+    public int get(Block block, int position)
+    {
+        if (block.isNull(position)) {
+            return nullId;
+        }
+
+        long hash = hash(block, position);
+        int slot = (int) hash & mask;
+        while (true) {
+            int id = slots[slot];
+            if (id == EMPTY || valueEquals(id, hash, block, position)) {
+                return id;
+            }
+            slot = (slot + 1) & mask;
+        }
+    }
+
+    public long getRetainedSizeInBytes()
+    {
+        return INSTANCE_SIZE + sizeOf(slots) + sizeOf(blocks) + sizeOf(positions) + sizeOf(hashes) + referencedBlocksSize;
+    }
+
+    private long hash(Block block, int position)
+    {
+        try {
+            return mix((long) hashCodeOperator.invokeExact(block, position));
+        }
+        catch (RuntimeException e) {
+            throw e;
+        }
+        catch (Throwable throwable) {
+            throw new RuntimeException(throwable);
+        }
+    }
+
+    private boolean valueEquals(int id, long hash, Block block, int position)
+    {
+        if (hashes[id] != hash) {
+            return false;
+        }
+        try {
+            return !(boolean) distinctFromOperator.invokeExact(blocks[id], positions[id], block, position);
+        }
+        catch (RuntimeException e) {
+            throw e;
+        }
+        catch (Throwable throwable) {
+            throw new RuntimeException(throwable);
+        }
+    }
+
+    private void checkValueId(int id)
+    {
+        if (id < 0 || id >= size || id == nullId) {
+            throw new IllegalArgumentException("Invalid id: " + id);
+        }
+    }
+
+    private int addId()
+    {
+        if (size == positions.length) {
+            int capacity = newCapacity(size);
+            blocks = Arrays.copyOf(blocks, capacity);
+            positions = Arrays.copyOf(positions, capacity);
+            hashes = Arrays.copyOf(hashes, capacity);
+        }
+        return size++;
+    }
+
+    private void rehash()
+    {
+        int tableSize = slots.length * 2;
+        int[] newSlots = newSlots(tableSize);
+        int newMask = tableSize - 1;
+        for (int id = 0; id < size; id++) {
+            if (id == nullId) {
+                continue;
+            }
+            int slot = (int) hashes[id] & newMask;
+            while (newSlots[slot] != EMPTY) {
+                slot = (slot + 1) & newMask;
+            }
+            newSlots[slot] = id;
+        }
+        slots = newSlots;
+        mask = newMask;
+        maxFill = maxFill(tableSize);
+    }
+}
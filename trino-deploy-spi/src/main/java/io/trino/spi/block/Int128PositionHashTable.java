@@ -0,0 +1,209 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.trino.spi.block;
+
+import org.openjdk.jol.info.ClassLayout;
+
+import java.util.Arrays;
+
+import static io.airlift.slice.SizeOf.SIZE_OF_LONG;
+import static io.airlift.slice.SizeOf.sizeOf;
+import static io.trino.spi.block.PositionHashTables.EMPTY;
+import static io.trino.spi.block.PositionHashTables.maxFill;
+import static io.trino.spi.block.PositionHashTables.mix;
+import static io.trino.spi.block.PositionHashTables.newCapacity;
+import static io.trino.spi.block.PositionHashTables.newSlots;
+import static io.trino.spi.block.PositionHashTables.tableSize;
+
+/**
+ * Open-addressing hash table for 128-bit values, such as long decimals, read from blocks that
+ * store two longs per position. Each distinct value, including null, is assigned a dense id in
+ * insertion order.
+ */
+public final class Int128PositionHashTable
+{
+    private static final int INSTANCE_SIZE = ClassLayout.parseClass(Int128PositionHashTable.class).instanceSize();
+
+    private int[] slots;
+    private int mask;
+    private int maxFill;
+
+    // high and low halves of the values, interleaved by id
+    private long[] values;
+    private int size;
+    private int nullId = EMPTY;
+
+    public Int128PositionHashTable(int expectedSize)
+    {
+        int tableSize = tableSize(expectedSize);
+        slots = newSlots(tableSize);
+        mask = tableSize - 1;
+        maxFill = maxFill(tableSize);
+        values = new long[maxFill * 2];
+    }
+
+    /**
+     * Returns the number of distinct values, including null.
+     */
+    public int size()
+    {
+        return size;
+    }
+
+    /**
+     * Returns the id of null, or -1 if null has not been added.
+     */
+    public int getNullId()
+    {
+        return nullId;
+    }
+
+    public long getHigh(int id)
+    {
+        checkValueId(id);
+        return values[id * 2];
+    }
+
+    public long getLow(int id)
+    {
+        checkValueId(id);
+        return values[id * 2 + 1];
+    }
+
+    private void checkValueId(int id)
+    {
+        if (id < 0 || id >= size || id == nullId) {
+            throw new IllegalArgumentException("Invalid id: " + id);
+        }
+    }
+
+    /**
+     * Adds the value at {@code position} if it is not present, and returns its id.
+     */
+    public int putIfAbsent(Block block, int position)
+    {
+        if (block.isNull(position)) {
+            if (nullId == EMPTY) {
+                nullId = addId();
+            }
+            return nullId;
+        }
+        return putIfAbsent(block.getLong(position, 0), block.getLong(position, SIZE_OF_LONG));
+    }
+
+    /**
+     * Adds every position of the block, and stores the id of each position in {@code ids}.
+     */
+    public void putIfAbsent(Block block, int[] ids)
+    {
+        int positionCount = block.getPositionCount();
+        if (ids.length < positionCount) {
+            throw new IllegalArgumentException("ids is smaller than the block");
+        }
+        if (!block.mayHaveNull()) {
+            for (int position = 0; position < positionCount; position++) {
+                ids[position] = putIfAbsent(block.getLong(position, 0), block.getLong(position, SIZE_OF_LONG));
+            }
+            return;
+        }
+        for (int position = 0; position < positionCount; position++) {
+            ids[position] = putIfAbsent(block, position);
+        }
+    }
+
+    public int putIfAbsent(long high, long low)
+    {
+        int slot = (int) hash(high, low) & mask;
+        while (true) {
+            int id = slots[slot];
+            if (id == EMPTY) {
+                break;
+            }
+            if (values[id * 2] == high && values[id * 2 + 1] == low) {
+                return id;
+            }
+            slot = (slot + 1) & mask;
+        }
+
+        int id = addId();
+        values[id * 2] = high;
+        values[id * 2 + 1] = low;
+        slots[slot] = id;
+        if (size >= maxFill) {
+            rehash();
+        }
+        return id;
+    }
+
+    /**
+     * Returns the id of the value at {@code position}, or -1 if it is not present.
+     */
+    public int get(Block block, int position)
+    {
+        if (block.isNull(position)) {
+            return nullId;
+        }
+        return get(block.getLong(position, 0), block.getLong(position, SIZE_OF_LONG));
+    }
+
+    public int get(long high, long low)
+    {
+        int slot = (int) hash(high, low) & mask;
+        while (true) {
+            int id = slots[slot];
+            if (id == EMPTY || (values[id * 2] == high && values[id * 2 + 1] == low)) {
+                return id;
+            }
+            slot = (slot + 1) & mask;
+        }
+    }
+
+    public long getRetainedSizeInBytes()
+    {
+        return INSTANCE_SIZE + sizeOf(slots) + sizeOf(values);
+    }
+
+    private static long hash(long high, long low)
+    {
+        return mix(high * 31 + mix(low));
+    }
+
+    private int addId()
+    {
+        if (size * 2 == values.length) {
+            values = Arrays.copyOf(values, newCapacity(size) * 2);
+        }
+        return size++;
+    }
+
+    private void rehash()
+    {
+        int tableSize = slots.length * 2;
+        int[] newSlots = newSlots(tableSize);
+        int newMask = tableSize - 1;
+        for (int id = 0; id < size; id++) {
+            if (id == nullId) {
+                continue;
+            }
+            int slot = (int) hash(values[id * 2], values[id * 2 + 1]) & newMask;
+            while (newSlots[slot] != EMPTY) {
+                slot = (slot + 1) & newMask;
+            }
+            newSlots[slot] = id;
+        }
+        slots = newSlots;
+        mask = newMask;
+        maxFill = maxFill(tableSize);
+    }
+}
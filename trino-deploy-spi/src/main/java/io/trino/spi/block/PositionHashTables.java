@@ -0,0 +1,75 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.trino.spi.block;
+
+import java.util.Arrays;
+
+/**
+ * Helpers shared by the open-addressing position hash tables. The tables map each distinct
+ * value to a dense id, assigned in insertion order, and keep the slots as an {@code int[]} of ids.
+ */
+final class PositionHashTables
+{
+    static final int EMPTY = -1;
+
+    private static final float FILL_RATIO = 0.75f;
+    private static final int MINIMUM_TABLE_SIZE = 16;
+
+    private PositionHashTables() {}
+
+    static int tableSize(int expectedSize)
+    {
+        if (expectedSize < 0) {
+            throw new IllegalArgumentException("expectedSize is negative");
+        }
+        long size = Math.max(MINIMUM_TABLE_SIZE, (long) Math.ceil(expectedSize / FILL_RATIO));
+        if (size > (1 << 30)) {
+            throw new IllegalArgumentException("expectedSize is too large: " + expectedSize);
+        }
+        return Integer.highestOneBit((int) size - 1) << 1;
+    }
+
+    static int maxFill(int tableSize)
+    {
+        return (int) (tableSize * FILL_RATIO);
+    }
+
+    static int[] newSlots(int tableSize)
+    {
+        int[] slots = new int[tableSize];
+        Arrays.fill(slots, EMPTY);
+        return slots;
+    }
+
+    static int newCapacity(int capacity)
+    {
+        if (capacity >= (1 << 30)) {
+            throw new IllegalStateException("Position hash table is full");
+        }
+        return capacity * 2;
+    }
+
+    /**
+     * Murmur3 finalizer, to spread the bits of a key before masking it to a slot.
+     */
+    static long mix(long value)
+    {
+        value ^= value >>> 33;
+        value *= 0xff51afd7ed558ccdL;
+        value ^= value >>> 33;
+        value *= 0xc4ceb9fe1a85ec53L;
+        value ^= value >>> 33;
+        return value;
+    }
+}
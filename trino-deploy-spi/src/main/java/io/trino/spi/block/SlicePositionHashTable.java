@@ -0,0 +1,222 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.trino.spi.block;
+
+import org.openjdk.jol.info.ClassLayout;
+
+import java.util.Arrays;
+
+import static io.airlift.slice.SizeOf.sizeOf;
+import static io.trino.spi.block.PositionHashTables.EMPTY;
+import static io.trino.spi.block.PositionHashTables.maxFill;
+import static io.trino.spi.block.PositionHashTables.newCapacity;
+import static io.trino.spi.block.PositionHashTables.newSlots;
+import static io.trino.spi.block.PositionHashTables.tableSize;
+
+/**
+ * Open-addressing hash table for variable width values. Values are not copied: each id refers
+ * to the block and position the value was first added from, and the blocks are retained by the
+ * table. Each distinct value, including null, is assigned a dense id in insertion order.
+ * <p>
+ * The retained size counts a block each time the block of consecutive new values changes, which
+ * is exact when the blocks are added one after the other.
+ */
+public final class SlicePositionHashTable
+{
+    private static final int INSTANCE_SIZE = ClassLayout.parseClass(SlicePositionHashTable.class).instanceSize();
+
+    private int[] slots;
+    private int mask;
+    private int maxFill;
+
+    // value references and hashes by id
+    private Block[] blocks;
+    private int[] positions;
+    private long[] hashes;
+    private int size;
+    private int nullId = EMPTY;
+
+    private Block lastReferencedBlock;
+    private long referencedBlocksSize;
+
+    public SlicePositionHashTable(int expectedSize)
+    {
+        int tableSize = tableSize(expectedSize);
+        slots = newSlots(tableSize);
+        mask = tableSize - 1;
+        maxFill = maxFill(tableSize);
+        blocks = new Block[maxFill];
+        positions = new int[maxFill];
+        hashes = new long[maxFill];
+    }
+
+    /**
+     * Returns the number of distinct values, including null.
+     */
+    public int size()
+    {
+        return size;
+    }
+
+    /**
+     * Returns the id of null, or -1 if null has not been added.
+     */
+    public int getNullId()
+    {
+        return nullId;
+    }
+
+    /**
+     * Returns the block holding the value with the given id, at {@link #getPosition(int)}.
+     */
+    public Block getBlock(int id)
+    {
+        checkValueId(id);
+        return blocks[id];
+    }
+
+    public int getPosition(int id)
+    {
+        checkValueId(id);
+        return positions[id];
+    }
+
+    /**
+     * Adds the value at {@code position} if it is not present, and returns its id.
+     */
+    public int putIfAbsent(Block block, int position)
+    {
+        if (block.isNull(position)) {
+            if (nullId == EMPTY) {
+                nullId = addId();
+            }
+            return nullId;
+        }
+
+        int length = block.getSliceLength(position);
+        long hash = block.hash(position, 0, length);
+        int slot = (int) hash & mask;
+        while (true) {
+            int id = slots[slot];
+            if (id == EMPTY) {
+                break;
+            }
+            if (valueEquals(id, hash, block, position, length)) {
+                return id;
+            }
+            slot = (slot + 1) & mask;
+        }
+
+        int id = addId();
+        blocks[id] = block;
+        positions[id] = position;
+        hashes[id] = hash;
+        slots[slot] = id;
+        if (block != lastReferencedBlock) {
+            lastReferencedBlock = block;
+            referencedBlocksSize += block.getRetainedSizeInBytes();
+        }
+        if (size >= maxFill) {
+            rehash();
+        }
+        return id;
+    }
+
+    /**
+     * Adds every position of the block, and stores the id of each position in {@code ids}.
+     */
+    public void putIfAbsent(Block block, int[] ids)
+    {
+        int positionCount = block.getPositionCount();
+        if (ids.length < positionCount) {
+            throw new IllegalArgumentException("ids is smaller than the block");
+        }
+        for (int position = 0; position < positionCount; position++) {
+            ids[position] = putIfAbsent(block, position);
+        }
+    }
+
+    /**
+     * Returns the id of the value at {@code position}, or -1 if it is not present.
+     */
+    public int get(Block block, int position)
+    {
+        if (block.isNull(position)) {
+            return nullId;
+        }
+
+        int length = block.getSliceLength(position);
+        long hash = block.hash(position, 0, length);
+        int slot = (int) hash & mask;
+        while (true) {
+            int id = slots[slot];
+            if (id == EMPTY || valueEquals(id, hash, block, position, length)) {
+                return id;
+            }
+            slot = (slot + 1) & mask;
+        }
+    }
+
+    public long getRetainedSizeInBytes()
+    {
+        return INSTANCE_SIZE + sizeOf(slots) + sizeOf(blocks) + sizeOf(positions) + sizeOf(hashes) + referencedBlocksSize;
+    }
+
+    private boolean valueEquals(int id, long hash, Block block, int position, int length)
+    {
+        Block valueBlock = blocks[id];
+        int valuePosition = positions[id];
+        return hashes[id] == hash &&
+                valueBlock.getSliceLength(valuePosition) == length &&
+                valueBlock.equals(valuePosition, 0, block, position, 0, length);
+    }
+
+    private void checkValueId(int id)
+    {
+        if (id < 0 || id >= size || id == nullId) {
+            throw new IllegalArgumentException("Invalid id: " + id);
+        }
+    }
+
+    private int addId()
+    {
+        if (size == positions.length) {
+            int capacity = newCapacity(size);
+            blocks = Arrays.copyOf(blocks, capacity);
+            positions = Arrays.copyOf(positions, capacity);
+            hashes = Arrays.copyOf(hashes, capacity);
+        }
+        return size++;
+    }
+
+    private void rehash()
+    {
+        int tableSize = slots.length * 2;
+        int[] newSlots = newSlots(tableSize);
+        int newMask = tableSize - 1;
+        for (int id = 0; id < size; id++) {
+            if (id == nullId) {
+                continue;
+            }
+            int slot = (int) hashes[id] & newMask;
+            while (newSlots[slot] != EMPTY) {
+                slot = (slot + 1) & newMask;
+            }
+            newSlots[slot] = id;
+        }
+        slots = newSlots;
+        mask = newMask;
+        maxFill = maxFill(tableSize);
+    }
+}
@@ -15,20 +15,32 @@ package io.trino.spi.classloader;
 
 import java.io.Closeable;
 
+/**
+ * Sets the thread context class loader until closed. When the thread already uses the requested
+ * class loader, as for nested calls into the same plugin, the context class loader is not set again.
+ * Closing restores the original class loader whenever the thread no longer uses it, including
+ * when the code inside the block changed it.
+ */
 public class ThreadContextClassLoader
         implements Closeable
 {
+    private final Thread thread;
     private final ClassLoader originalThreadContextClassLoader;
 
     public ThreadContextClassLoader(ClassLoader newThreadContextClassLoader)
     {
-        this.originalThreadContextClassLoader = Thread.currentThread().getContextClassLoader();
-        Thread.currentThread().setContextClassLoader(newThreadContextClassLoader);
+        this.thread = Thread.currentThread();
+        this.originalThreadContextClassLoader = thread.getContextClassLoader();
+        if (originalThreadContextClassLoader != newThreadContextClassLoader) {
+            thread.setContextClassLoader(newThreadContextClassLoader);
+        }
     }
 
     @Override
     public void close()
     {
-        Thread.currentThread().setContextClassLoader(originalThreadContextClassLoader);
+        if (thread.getContextClassLoader() != originalThreadContextClassLoader) {
+            thread.setContextClassLoader(originalThreadContextClassLoader);
+        }
     }
 }
@@ -0,0 +1,47 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.trino.spi.connector;
+
+import io.airlift.slice.Slice;
+
+/**
+ * A {@link RecordCursor} that can return many rows per call. When the cursor implements this
+ * interface, {@link RecordPageSource} only uses {@link #advanceNextBatch(int)} and the getters
+ * that take a row, instead of {@link #advanceNextPosition()} and the single row getters.
+ */
+public interface BatchRecordCursor
+        extends RecordCursor
+{
+    /**
+     * Advances to the next batch of at most {@code maxRows} rows.
+     *
+     * @return the number of rows in the batch, or zero if there are no more rows
+     */
+    int advanceNextBatch(int maxRows);
+
+    /**
+     * @param row the row in the current batch, less than the count returned by {@link #advanceNextBatch(int)}
+     */
+    boolean isNull(int field, int row);
+
+    boolean getBoolean(int field, int row);
+
+    long getLong(int field, int row);
+
+    double getDouble(int field, int row);
+
+    Slice getSlice(int field, int row);
+
+    Object getObject(int field, int row);
+}
@@ -15,21 +15,41 @@ package io.trino.spi.connector;
 
 import io.airlift.slice.Slice;
 import io.trino.spi.Page;
-import io.trino.spi.PageBuilder;
+import io.trino.spi.TrinoException;
+import io.trino.spi.block.Block;
 import io.trino.spi.block.BlockBuilder;
+import io.trino.spi.block.IntArrayBlock;
+import io.trino.spi.block.LongArrayBlock;
+import io.trino.spi.type.AbstractLongType;
+import io.trino.spi.type.DateType;
+import io.trino.spi.type.IntegerType;
 import io.trino.spi.type.Type;
 
+import java.util.Arrays;
 import java.util.List;
+import java.util.Optional;
 
+import static io.trino.spi.StandardErrorCode.GENERIC_INTERNAL_ERROR;
+import static io.trino.spi.block.PageBuilderStatus.DEFAULT_MAX_PAGE_SIZE_IN_BYTES;
+import static java.lang.String.format;
 import static java.util.Objects.requireNonNull;
 
+/**
+ * Converts the rows of a {@link RecordCursor} into pages. The way each column is written is
+ * resolved once: columns of {@code long} and {@code int} backed types are collected into primitive
+ * arrays and wrapped as blocks, and the other columns are written to a block builder by a writer
+ * specialized for the Java type. Cursors that implement {@link BatchRecordCursor} are read a batch
+ * at a time, one column after the other.
+ */
 public class RecordPageSource
         implements ConnectorPageSource
 {
     private static final int ROWS_PER_REQUEST = 4096;
+    private static final int SIZE_CHECK_INTERVAL = 64;
     private final RecordCursor cursor;
     private final List<Type> types;
-    private final PageBuilder pageBuilder;
+    private final ColumnWriter[] writers;
+    private int positionCount;
     private boolean closed;
 
     public RecordPageSource(RecordSet recordSet)
@@ -41,7 +61,9 @@ public class RecordPageSource
     {
         this.cursor = requireNonNull(cursor, "cursor is null");
         this.types = List.copyOf(requireNonNull(types, "types is null"));
-        this.pageBuilder = new PageBuilder(this.types);
+        this.writers = this.types.stream()
+                .map(RecordPageSource::createColumnWriter)
+                .toArray(ColumnWriter[]::new);
     }
 
     public RecordCursor getCursor()
@@ -64,7 +86,7 @@ public class RecordPageSource
     @Override
     public long getSystemMemoryUsage()
     {
-        return cursor.getSystemMemoryUsage() + pageBuilder.getSizeInBytes();
+        return cursor.getSystemMemoryUsage() + getBufferedSizeInBytes();
     }
 
     @Override
@@ -77,56 +99,422 @@ public class RecordPageSource
     @Override
     public boolean isFinished()
     {
-        return closed && pageBuilder.isEmpty();
+        return closed && positionCount == 0;
     }
 
     @Override
     public Page getNextPage()
     {
         if (!closed) {
-            for (int i = 0; i < ROWS_PER_REQUEST && !pageBuilder.isFull(); i++) {
-                if (!cursor.advanceNextPosition()) {
-                    closed = true;
-                    break;
-                }
-
-                pageBuilder.declarePosition();
-                for (int column = 0; column < types.size(); column++) {
-                    BlockBuilder output = pageBuilder.getBlockBuilder(column);
-                    if (cursor.isNull(column)) {
-                        output.appendNull();
-                    }
-                    else {
-                        Type type = types.get(column);
-                        Class<?> javaType = type.getJavaType();
-                        if (javaType == boolean.class) {
-                            type.writeBoolean(output, cursor.getBoolean(column));
-                        }
-                        else if (javaType == long.class) {
-                            type.writeLong(output, cursor.getLong(column));
-                        }
-                        else if (javaType == double.class) {
-                            type.writeDouble(output, cursor.getDouble(column));
-                        }
-                        else if (javaType == Slice.class) {
-                            Slice slice = cursor.getSlice(column);
-                            type.writeSlice(output, slice, 0, slice.length());
-                        }
-                        else {
-                            type.writeObject(output, cursor.getObject(column));
-                        }
-                    }
-                }
+            if (cursor instanceof BatchRecordCursor) {
+                readBatch((BatchRecordCursor) cursor);
+            }
+            else {
+                readRows();
             }
         }
 
         // only return a page if the buffer is full or we are finishing
-        if ((closed && !pageBuilder.isEmpty()) || pageBuilder.isFull()) {
-            Page page = pageBuilder.build();
-            pageBuilder.reset();
+        if ((closed && positionCount > 0) || isFull()) {
+            Block[] blocks = new Block[writers.length];
+            for (int column = 0; column < writers.length; column++) {
+                blocks[column] = writers[column].build(positionCount);
+            }
+            Page page = new Page(positionCount, blocks);
+            positionCount = 0;
             return page;
         }
 
         return null;
     }
+
+    private void readRows()
+    {
+        for (int i = 0; i < ROWS_PER_REQUEST; i++) {
+            if (i % SIZE_CHECK_INTERVAL == 0 && isFull()) {
+                return;
+            }
+            if (!cursor.advanceNextPosition()) {
+                closed = true;
+                return;
+            }
+
+            for (int column = 0; column < writers.length; column++) {
+                writers[column].write(cursor, column, positionCount);
+            }
+            positionCount++;
+        }
+    }
+
+    private void readBatch(BatchRecordCursor cursor)
+    {
+        if (isFull()) {
+            return;
+        }
+        int rows = cursor.advanceNextBatch(ROWS_PER_REQUEST);
+        if (rows == 0) {
+            closed = true;
+            return;
+        }
+        for (int column = 0; column < writers.length; column++) {
+            writers[column].write(cursor, column, rows, positionCount);
+        }
+        positionCount += rows;
+    }
+
+    private boolean isFull()
+    {
+        return getBufferedSizeInBytes() >= DEFAULT_MAX_PAGE_SIZE_IN_BYTES;
+    }
+
+    private long getBufferedSizeInBytes()
+    {
+        long size = 0;
+        for (ColumnWriter writer : writers) {
+            size += writer.getSizeInBytes(positionCount);
+        }
+        return size;
+    }
+
+    private static ColumnWriter createColumnWriter(Type type)
+    {
+        if (type instanceof AbstractLongType) {
+            return new LongArrayColumnWriter();
+        }
+        if (type instanceof IntegerType || type instanceof DateType) {
+            return new IntArrayColumnWriter();
+        }
+        Class<?> javaType = type.getJavaType();
+        if (javaType == boolean.class) {
+            return new BooleanColumnWriter(type);
+        }
+        if (javaType == long.class) {
+            return new LongColumnWriter(type);
+        }
+        if (javaType == double.class) {
+            return new DoubleColumnWriter(type);
+        }
+        if (javaType == Slice.class) {
+            return new SliceColumnWriter(type);
+        }
+        return new ObjectColumnWriter(type);
+    }
+
+    private abstract static class ColumnWriter
+    {
+        /**
+         * Writes the value of {@code field} in the current row of the cursor at {@code position}.
+         */
+        abstract void write(RecordCursor cursor, int field, int position);
+
+        /**
+         * Writes the values of {@code field} in the first {@code rows} rows of the current batch, starting at {@code position}.
+         */
+        abstract void write(BatchRecordCursor cursor, int field, int rows, int position);
+
+        abstract long getSizeInBytes(int positionCount);
+
+        /**
+         * Returns a block with the values written so far and starts a new one.
+         */
+        abstract Block build(int positionCount);
+    }
+
+    private static final class LongArrayColumnWriter
+            extends ColumnWriter
+    {
+        private long[] values = new long[ROWS_PER_REQUEST];
+        private boolean[] isNull = new boolean[ROWS_PER_REQUEST];
+        private boolean hasNull;
+
+        @Override
+        void write(RecordCursor cursor, int field, int position)
+        {
+            ensureCapacity(position + 1);
+            if (cursor.isNull(field)) {
+                isNull[position] = true;
+                hasNull = true;
+            }
+            else {
+                values[position] = cursor.getLong(field);
+            }
+        }
+
+        @Override
+        void write(BatchRecordCursor cursor, int field, int rows, int position)
+        {
+            ensureCapacity(position + rows);
+            for (int row = 0; row < rows; row++) {
+                if (cursor.isNull(field, row)) {
+                    isNull[position + row] = true;
+                    hasNull = true;
+                }
+                else {
+                    values[position + row] = cursor.getLong(field, row);
+                }
+            }
+        }
+
+        @Override
+        long getSizeInBytes(int positionCount)
+        {
+            return (long) positionCount * (Long.BYTES + Byte.BYTES);
+        }
+
+        @Override
+        Block build(int positionCount)
+        {
+            // the block takes ownership of the arrays
+            Block block = new LongArrayBlock(positionCount, hasNull ? Optional.of(isNull) : Optional.empty(), values);
+            values = new long[values.length];
+            isNull = new boolean[isNull.length];
+            hasNull = false;
+            return block;
+        }
+
+        private void ensureCapacity(int capacity)
+        {
+            if (values.length < capacity) {
+                int newCapacity = Math.max(capacity, values.length * 2);
+                values = Arrays.copyOf(values, newCapacity);
+                isNull = Arrays.copyOf(isNull, newCapacity);
+            }
+        }
+    }
+
+    private static final class IntArrayColumnWriter
+            extends ColumnWriter
+    {
+        private int[] values = new int[ROWS_PER_REQUEST];
+        private boolean[] isNull = new boolean[ROWS_PER_REQUEST];
+        private boolean hasNull;
+
+        @Override
+        void write(RecordCursor cursor, int field, int position)
+        {
+            ensureCapacity(position + 1);
+            if (cursor.isNull(field)) {
+                isNull[position] = true;
+                hasNull = true;
+            }
+            else {
+                values[position] = toInt(cursor.getLong(field));
+            }
+        }
+
+        @Override
+        void write(BatchRecordCursor cursor, int field, int rows, int position)
+        {
+            ensureCapacity(position + rows);
+            for (int row = 0; row < rows; row++) {
+                if (cursor.isNull(field, row)) {
+                    isNull[position + row] = true;
+                    hasNull = true;
+                }
+                else {
+                    values[position + row] = toInt(cursor.getLong(field, row));
+                }
+            }
+        }
+
+        @Override
+        long getSizeInBytes(int positionCount)
+        {
+            return (long) positionCount * (Integer.BYTES + Byte.BYTES);
+        }
+
+        @Override
+        Block build(int positionCount)
+        {
+            // the block takes ownership of the arrays
+            Block block = new IntArrayBlock(positionCount, hasNull ? Optional.of(isNull) : Optional.empty(), values);
+            values = new int[values.length];
+            isNull = new boolean[isNull.length];
+            hasNull = false;
+            return block;
+        }
+
+        private void ensureCapacity(int capacity)
+        {
+            if (values.length < capacity) {
+                int newCapacity = Math.max(capacity, values.length * 2);
+                values = Arrays.copyOf(values, newCapacity);
+                isNull = Arrays.copyOf(isNull, newCapacity);
+            }
+        }
+
+        // same checks as AbstractIntType.writeLong
+        private static int toInt(long value)
+        {
+            if (value > Integer.MAX_VALUE) {
+                throw new TrinoException(GENERIC_INTERNAL_ERROR, format("Value %d exceeds MAX_INT", value));
+            }
+            if (value < Integer.MIN_VALUE) {
+                throw new TrinoException(GENERIC_INTERNAL_ERROR, format("Value %d is less than MIN_INT", value));
+            }
+            return (int) value;
+        }
+    }
+
+    private abstract static class BlockBuilderColumnWriter
+            extends ColumnWriter
+    {
+        protected final Type type;
+        protected BlockBuilder blockBuilder;
+
+        protected BlockBuilderColumnWriter(Type type)
+        {
+            this.type = requireNonNull(type, "type is null");
+            this.blockBuilder = type.createBlockBuilder(null, ROWS_PER_REQUEST);
+        }
+
+        @Override
+        final void write(RecordCursor cursor, int field, int position)
+        {
+            if (cursor.isNull(field)) {
+                blockBuilder.appendNull();
+            }
+            else {
+                writeValue(cursor, field);
+            }
+        }
+
+        @Override
+        final void write(BatchRecordCursor cursor, int field, int rows, int position)
+        {
+            for (int row = 0; row < rows; row++) {
+                if (cursor.isNull(field, row)) {
+                    blockBuilder.appendNull();
+                }
+                else {
+                    writeValue(cursor, field, row);
+                }
+            }
+        }
+
+        abstract void writeValue(RecordCursor cursor, int field);
+
+        abstract void writeValue(BatchRecordCursor cursor, int field, int row);
+
+        @Override
+        final long getSizeInBytes(int positionCount)
+        {
+            return blockBuilder.getSizeInBytes();
+        }
+
+        @Override
+        final Block build(int positionCount)
+        {
+            Block block = blockBuilder.build();
+            blockBuilder = blockBuilder.newBlockBuilderLike(null);
+            return block;
+        }
+    }
+
+    private static final class BooleanColumnWriter
+            extends BlockBuilderColumnWriter
+    {
+        private BooleanColumnWriter(Type type)
+        {
+            super(type);
+        }
+
+        @Override
+        void writeValue(RecordCursor cursor, int field)
+        {
+            type.writeBoolean(blockBuilder, cursor.getBoolean(field));
+        }
+
+        @Override
+        void writeValue(BatchRecordCursor cursor, int field, int row)
+        {
+            type.writeBoolean(blockBuilder, cursor.getBoolean(field, row));
+        }
+    }
+
+    private static final class LongColumnWriter
+            extends BlockBuilderColumnWriter
+    {
+        private LongColumnWriter(Type type)
+        {
+            super(type);
+        }
+
+        @Override
+        void writeValue(RecordCursor cursor, int field)
+        {
+            type.writeLong(blockBuilder, cursor.getLong(field));
+        }
+
+        @Override
+        void writeValue(BatchRecordCursor cursor, int field, int row)
+        {
+            type.writeLong(blockBuilder, cursor.getLong(field, row));
+        }
+    }
+
+    private static final class DoubleColumnWriter
+            extends BlockBuilderColumnWriter
+    {
+        private DoubleColumnWriter(Type type)
+        {
+            super(type);
+        }
+
+        @Override
+        void writeValue(RecordCursor cursor, int field)
+        {
+            type.writeDouble(blockBuilder, cursor.getDouble(field));
+        }
+
+        @Override
+        void writeValue(BatchRecordCursor cursor, int field, int row)
+        {
+            type.writeDouble(blockBuilder, cursor.getDouble(field, row));
+        }
+    }
+
+    private static final class SliceColumnWriter
+            extends BlockBuilderColumnWriter
+    {
+        private SliceColumnWriter(Type type)
+        {
+            super(type);
+        }
+
+        @Override
+        void writeValue(RecordCursor cursor, int field)
+        {
+            Slice slice = cursor.getSlice(field);
+            type.writeSlice(blockBuilder, slice, 0, slice.length());
+        }
+
+        @Override
+        void writeValue(BatchRecordCursor cursor, int field, int row)
+        {
+            Slice slice = cursor.getSlice(field, row);
+            type.writeSlice(blockBuilder, slice, 0, slice.length());
+        }
+    }
+
+    private static final class ObjectColumnWriter
+            extends BlockBuilderColumnWriter
+    {
+        private ObjectColumnWriter(Type type)
+        {
+            super(type);
+        }
+
+        @Override
+        void writeValue(RecordCursor cursor, int field)
+        {
+            type.writeObject(blockBuilder, cursor.getObject(field));
+        }
+
+        @Override
+        void writeValue(BatchRecordCursor cursor, int field, int row)
+        {
+            type.writeObject(blockBuilder, cursor.getObject(field, row));
+        }
+    }
 }
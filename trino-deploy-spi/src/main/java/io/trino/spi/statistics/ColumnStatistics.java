@@ -21,12 +21,14 @@ import static java.util.Objects.requireNonNull;
 
 public final class ColumnStatistics
 {
-    private static final ColumnStatistics EMPTY = new ColumnStatistics(Estimate.unknown(), Estimate.unknown(), Estimate.unknown(), Optional.empty());
+    private static final ColumnStatistics EMPTY = new ColumnStatistics(Estimate.unknown(), Estimate.unknown(), Estimate.unknown(), Optional.empty(), Optional.empty(), Optional.empty());
 
     private final Estimate nullsFraction;
     private final Estimate distinctValuesCount;
     private final Estimate dataSize;
     private final Optional<DoubleRange> range;
+    private final Optional<EquiDepthHistogram> histogram;
+    private final Optional<MostCommonValues> mostCommonValues;
 
     public static ColumnStatistics empty()
     {
@@ -38,6 +40,17 @@ public final class ColumnStatistics
             Estimate distinctValuesCount,
             Estimate dataSize,
             Optional<DoubleRange> range)
+    {
+        this(nullsFraction, distinctValuesCount, dataSize, range, Optional.empty(), Optional.empty());
+    }
+
+    public ColumnStatistics(
+            Estimate nullsFraction,
+            Estimate distinctValuesCount,
+            Estimate dataSize,
+            Optional<DoubleRange> range,
+            Optional<EquiDepthHistogram> histogram,
+            Optional<MostCommonValues> mostCommonValues)
     {
         this.nullsFraction = requireNonNull(nullsFraction, "nullsFraction is null");
         if (!nullsFraction.isUnknown()) {
@@ -54,6 +67,8 @@ public final class ColumnStatistics
             throw new IllegalArgumentException(format("dataSize must be greater than or equal to 0: %s", dataSize.getValue()));
         }
         this.range = requireNonNull(range, "range is null");
+        this.histogram = requireNonNull(histogram, "histogram is null");
+        this.mostCommonValues = requireNonNull(mostCommonValues, "mostCommonValues is null");
     }
 
     public Estimate getNullsFraction()
@@ -76,6 +91,16 @@ public final class ColumnStatistics
         return range;
     }
 
+    public Optional<EquiDepthHistogram> getHistogram()
+    {
+        return histogram;
+    }
+
+    public Optional<MostCommonValues> getMostCommonValues()
+    {
+        return mostCommonValues;
+    }
+
     @Override
     public boolean equals(Object o)
     {
@@ -89,13 +114,15 @@ public final class ColumnStatistics
         return Objects.equals(nullsFraction, that.nullsFraction) &&
                 Objects.equals(distinctValuesCount, that.distinctValuesCount) &&
                 Objects.equals(dataSize, that.dataSize) &&
-                Objects.equals(range, that.range);
+                Objects.equals(range, that.range) &&
+                Objects.equals(histogram, that.histogram) &&
+                Objects.equals(mostCommonValues, that.mostCommonValues);
     }
 
     @Override
     public int hashCode()
     {
-        return Objects.hash(nullsFraction, distinctValuesCount, dataSize, range);
+        return Objects.hash(nullsFraction, distinctValuesCount, dataSize, range, histogram, mostCommonValues);
     }
 
     @Override
@@ -106,6 +133,8 @@ public final class ColumnStatistics
                 ", distinctValuesCount=" + distinctValuesCount +
                 ", dataSize=" + dataSize +
                 ", range=" + range +
+                ", histogram=" + histogram +
+                ", mostCommonValues=" + mostCommonValues +
                 '}';
     }
 
@@ -125,6 +154,8 @@ public final class ColumnStatistics
         private Estimate distinctValuesCount = Estimate.unknown();
         private Estimate dataSize = Estimate.unknown();
         private Optional<DoubleRange> range = Optional.empty();
+        private Optional<EquiDepthHistogram> histogram = Optional.empty();
+        private Optional<MostCommonValues> mostCommonValues = Optional.empty();
 
         public Builder setNullsFraction(Estimate nullsFraction)
         {
@@ -156,9 +187,36 @@ public final class ColumnStatistics
             return this;
         }
 
+        /**
+         * When most common values are also set, the histogram must describe only the remaining non-null rows.
+         */
+        public Builder setHistogram(EquiDepthHistogram histogram)
+        {
+            this.histogram = Optional.of(requireNonNull(histogram, "histogram is null"));
+            return this;
+        }
+
+        public Builder setHistogram(Optional<EquiDepthHistogram> histogram)
+        {
+            this.histogram = requireNonNull(histogram, "histogram is null");
+            return this;
+        }
+
+        public Builder setMostCommonValues(MostCommonValues mostCommonValues)
+        {
+            this.mostCommonValues = Optional.of(requireNonNull(mostCommonValues, "mostCommonValues is null"));
+            return this;
+        }
+
+        public Builder setMostCommonValues(Optional<MostCommonValues> mostCommonValues)
+        {
+            this.mostCommonValues = requireNonNull(mostCommonValues, "mostCommonValues is null");
+            return this;
+        }
+
         public ColumnStatistics build()
         {
-            return new ColumnStatistics(nullsFraction, distinctValuesCount, dataSize, range);
+            return new ColumnStatistics(nullsFraction, distinctValuesCount, dataSize, range, histogram, mostCommonValues);
         }
     }
 }
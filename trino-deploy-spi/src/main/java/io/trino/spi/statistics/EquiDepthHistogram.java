@@ -0,0 +1,138 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.trino.spi.statistics;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static java.lang.Double.isNaN;
+import static java.lang.Math.max;
+import static java.lang.Math.min;
+import static java.lang.String.format;
+import static java.util.Objects.requireNonNull;
+import static java.util.stream.Collectors.toUnmodifiableList;
+
+/**
+ * Equi-depth histogram over the stats representation of a column (see {@link StatsUtil#toStatsRepresentation}).
+ * The {@code n + 1} boundaries delimit {@code n} buckets, each holding the same share of the rows the
+ * histogram describes. When {@link MostCommonValues} are present for the same column, the histogram
+ * describes only the non-null rows that are not one of the most common values.
+ */
+public final class EquiDepthHistogram
+{
+    private final double[] boundaries;
+
+    @JsonCreator
+    public EquiDepthHistogram(@JsonProperty("boundaries") List<Double> boundaries)
+    {
+        requireNonNull(boundaries, "boundaries is null");
+        if (boundaries.size() < 2) {
+            throw new IllegalArgumentException(format("histogram must have at least two boundaries: %s", boundaries));
+        }
+        this.boundaries = new double[boundaries.size()];
+        for (int i = 0; i < this.boundaries.length; i++) {
+            double boundary = requireNonNull(boundaries.get(i), "boundary is null");
+            if (isNaN(boundary)) {
+                throw new IllegalArgumentException("boundary must not be NaN");
+            }
+            if (i > 0 && boundary < this.boundaries[i - 1]) {
+                throw new IllegalArgumentException(format("boundaries must be ascending: %s", boundaries));
+            }
+            this.boundaries[i] = boundary;
+        }
+    }
+
+    @JsonProperty
+    public List<Double> getBoundaries()
+    {
+        return Arrays.stream(boundaries).boxed().collect(toUnmodifiableList());
+    }
+
+    public int getBucketCount()
+    {
+        return boundaries.length - 1;
+    }
+
+    public double getMin()
+    {
+        return boundaries[0];
+    }
+
+    public double getMax()
+    {
+        return boundaries[boundaries.length - 1];
+    }
+
+    /**
+     * Fraction of the rows described by the histogram with a value in {@code [low, high]}, assuming values are
+     * uniformly distributed within each bucket. A bucket whose boundaries are equal holds a single value and
+     * counts in full when that value is in the range.
+     */
+    public double getFraction(double low, double high)
+    {
+        if (isNaN(low) || isNaN(high) || high < low) {
+            return 0;
+        }
+        int buckets = getBucketCount();
+        double covered = 0;
+        for (int bucket = 0; bucket < buckets; bucket++) {
+            double bucketLow = boundaries[bucket];
+            double bucketHigh = boundaries[bucket + 1];
+            if (bucketHigh < low) {
+                continue;
+            }
+            if (bucketLow > high) {
+                break;
+            }
+            double width = bucketHigh - bucketLow;
+            if (width == 0) {
+                covered += 1;
+            }
+            else {
+                covered += (min(high, bucketHigh) - max(low, bucketLow)) / width;
+            }
+        }
+        return min(covered / buckets, 1);
+    }
+
+    @Override
+    public boolean equals(Object o)
+    {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        EquiDepthHistogram that = (EquiDepthHistogram) o;
+        return Arrays.equals(boundaries, that.boundaries);
+    }
+
+    @Override
+    public int hashCode()
+    {
+        return Arrays.hashCode(boundaries);
+    }
+
+    @Override
+    public String toString()
+    {
+        return "EquiDepthHistogram{" +
+                "boundaries=" + Arrays.toString(boundaries) +
+                '}';
+    }
+}
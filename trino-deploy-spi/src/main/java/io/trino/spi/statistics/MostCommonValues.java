@@ -0,0 +1,167 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.trino.spi.statistics;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.OptionalDouble;
+
+import static java.lang.Double.isNaN;
+import static java.lang.String.format;
+import static java.util.Objects.requireNonNull;
+import static java.util.stream.Collectors.toUnmodifiableList;
+
+/**
+ * Most common values of a column in stats representation (see {@link StatsUtil#toStatsRepresentation}),
+ * each with the fraction of non-null rows holding that value.
+ */
+public final class MostCommonValues
+{
+    // tolerate rounding in frequencies computed by connectors
+    private static final double FREQUENCY_EPSILON = 1e-6;
+
+    private final double[] values;
+    private final double[] frequencies;
+    private final double totalFrequency;
+
+    @JsonCreator
+    public MostCommonValues(
+            @JsonProperty("values") List<Double> values,
+            @JsonProperty("frequencies") List<Double> frequencies)
+    {
+        requireNonNull(values, "values is null");
+        requireNonNull(frequencies, "frequencies is null");
+        if (values.size() != frequencies.size()) {
+            throw new IllegalArgumentException(format("values and frequencies must have the same size: %s, %s", values.size(), frequencies.size()));
+        }
+        this.values = new double[values.size()];
+        this.frequencies = new double[frequencies.size()];
+        double total = 0;
+        for (int i = 0; i < this.values.length; i++) {
+            double value = requireNonNull(values.get(i), "value is null");
+            double frequency = requireNonNull(frequencies.get(i), "frequency is null");
+            if (isNaN(value)) {
+                throw new IllegalArgumentException("value must not be NaN");
+            }
+            if (!(frequency >= 0 && frequency <= 1)) {
+                throw new IllegalArgumentException(format("frequency must be between 0 and 1: %s", frequency));
+            }
+            this.values[i] = value;
+            this.frequencies[i] = frequency;
+            total += frequency;
+        }
+        if (total > 1 + FREQUENCY_EPSILON) {
+            throw new IllegalArgumentException(format("frequencies must not sum to more than 1: %s", total));
+        }
+        this.totalFrequency = Math.min(total, 1);
+    }
+
+    @JsonProperty
+    public List<Double> getValues()
+    {
+        return Arrays.stream(values).boxed().collect(toUnmodifiableList());
+    }
+
+    @JsonProperty
+    public List<Double> getFrequencies()
+    {
+        return Arrays.stream(frequencies).boxed().collect(toUnmodifiableList());
+    }
+
+    public int size()
+    {
+        return values.length;
+    }
+
+    /**
+     * Fraction of non-null rows holding one of the most common values.
+     */
+    public double getTotalFrequency()
+    {
+        return totalFrequency;
+    }
+
+    /**
+     * Fraction of non-null rows holding {@code value}, or empty if it is not one of the most common values.
+     */
+    public OptionalDouble getFrequency(double value)
+    {
+        for (int i = 0; i < values.length; i++) {
+            if (values[i] == value) {
+                return OptionalDouble.of(frequencies[i]);
+            }
+        }
+        return OptionalDouble.empty();
+    }
+
+    /**
+     * Fraction of non-null rows holding one of the most common values in {@code [low, high]}.
+     */
+    public double getFrequency(double low, double high)
+    {
+        double frequency = 0;
+        for (int i = 0; i < values.length; i++) {
+            if (values[i] >= low && values[i] <= high) {
+                frequency += frequencies[i];
+            }
+        }
+        return frequency;
+    }
+
+    /**
+     * Number of most common values in {@code [low, high]}.
+     */
+    public int getCount(double low, double high)
+    {
+        int count = 0;
+        for (double value : values) {
+            if (value >= low && value <= high) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    @Override
+    public boolean equals(Object o)
+    {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        MostCommonValues that = (MostCommonValues) o;
+        return Arrays.equals(values, that.values) &&
+                Arrays.equals(frequencies, that.frequencies);
+    }
+
+    @Override
+    public int hashCode()
+    {
+        return 31 * Arrays.hashCode(values) + Arrays.hashCode(frequencies);
+    }
+
+    @Override
+    public String toString()
+    {
+        return "MostCommonValues{" +
+                "values=" + Arrays.toString(values) +
+                ", frequencies=" + Arrays.toString(frequencies) +
+                '}';
+    }
+}
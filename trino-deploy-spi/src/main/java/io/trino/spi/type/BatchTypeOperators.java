@@ -0,0 +1,567 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.trino.spi.type;
+
+import io.trino.spi.block.Block;
+
+import java.lang.invoke.MethodHandle;
+
+import static io.trino.spi.function.InvocationConvention.InvocationArgumentConvention.BLOCK_POSITION;
+import static io.trino.spi.function.InvocationConvention.InvocationArgumentConvention.NEVER_NULL;
+import static io.trino.spi.function.InvocationConvention.InvocationReturnConvention.FAIL_ON_NULL;
+import static io.trino.spi.function.InvocationConvention.InvocationReturnConvention.NULLABLE_RETURN;
+import static io.trino.spi.function.InvocationConvention.simpleConvention;
+import static io.trino.spi.type.BigintType.BIGINT;
+import static io.trino.spi.type.DoubleType.DOUBLE;
+import static io.trino.spi.type.TypeUtils.NULL_HASH_CODE;
+import static java.lang.Double.doubleToLongBits;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Operators that process a list of block positions in one call, instead of one method handle
+ * invocation per position. {@code BIGINT} and {@code DOUBLE} are compared and hashed inline.
+ * Other types with a {@code long}, {@code double} or {@code boolean} stack representation read
+ * the values directly from the block and invoke the stack value operator; other types use the
+ * block position operator.
+ * <p>
+ * Null positions hash to {@link TypeUtils#NULL_HASH_CODE}, and are never equal to anything.
+ */
+public final class BatchTypeOperators
+{
+    private BatchTypeOperators() {}
+
+    public interface HashCode
+    {
+        /**
+         * Stores the hash code of {@code block} at {@code positions[i]} in {@code result[i]}.
+         */
+        void hash(Block block, int[] positions, int positionCount, long[] result);
+    }
+
+    public interface Equal
+    {
+        /**
+         * Stores whether {@code left} and {@code right} are equal at {@code positions[i]} in {@code result[i]}.
+         */
+        void equal(Block left, Block right, int[] positions, int positionCount, boolean[] result);
+    }
+
+    public interface EqualToValue
+    {
+        /**
+         * Stores whether {@code block} at {@code positions[i]} equals the value in {@code valueBlock}
+         * at {@code valuePosition} in {@code result[i]}.
+         */
+        void equal(Block block, int[] positions, int positionCount, Block valueBlock, int valuePosition, boolean[] result);
+    }
+
+    static HashCode createHashCode(Type type, TypeOperators typeOperators)
+    {
+        return createOperators(type, typeOperators);
+    }
+
+    static Equal createEqual(Type type, TypeOperators typeOperators)
+    {
+        return createOperators(type, typeOperators);
+    }
+
+    static EqualToValue createEqualToValue(Type type, TypeOperators typeOperators)
+    {
+        return createOperators(type, typeOperators);
+    }
+
+    private static Operators createOperators(Type type, TypeOperators typeOperators)
+    {
+        if (type.equals(BIGINT)) {
+            return new BigintOperators();
+        }
+        if (type.equals(DOUBLE)) {
+            return new DoubleTypeOperators();
+        }
+        Class<?> javaType = type.getJavaType();
+        if (javaType == long.class) {
+            return new LongOperators(type, typeOperators);
+        }
+        if (javaType == double.class) {
+            return new DoubleOperators(type, typeOperators);
+        }
+        if (javaType == boolean.class) {
+            return new BooleanOperators(type, typeOperators);
+        }
+        return new BlockPositionOperators(type, typeOperators);
+    }
+
+    private interface Operators
+            extends HashCode, Equal, EqualToValue
+    {
+    }
+
+    private static void fill(boolean[] result, int positionCount, boolean value)
+    {
+        for (int i = 0; i < positionCount; i++) {
+            result[i] = value;
+        }
+    }
+
+    private static RuntimeException propagate(Throwable throwable)
+    {
+        if (throwable instanceof RuntimeException) {
+            throw (RuntimeException) throwable;
+        }
+        if (throwable instanceof Error) {
+            throw (Error) throwable;
+        }
+        throw new RuntimeException(throwable);
+    }
+
+    /**
+     * Same results as the {@code BIGINT} operators in {@link AbstractLongType}, without a method handle invocation per position.
+     */
+    private static final class BigintOperators
+            implements Operators
+    {
+        @Override
+        public void hash(Block block, int[] positions, int positionCount, long[] result)
+        {
+            if (!block.mayHaveNull()) {
+                for (int i = 0; i < positionCount; i++) {
+                    result[i] = AbstractLongType.hash(block.getLong(positions[i], 0));
+                }
+                return;
+            }
+            for (int i = 0; i < positionCount; i++) {
+                int position = positions[i];
+                result[i] = block.isNull(position) ? NULL_HASH_CODE : AbstractLongType.hash(block.getLong(position, 0));
+            }
+        }
+
+        @Override
+        public void equal(Block left, Block right, int[] positions, int positionCount, boolean[] result)
+        {
+            if (!left.mayHaveNull() && !right.mayHaveNull()) {
+                for (int i = 0; i < positionCount; i++) {
+                    int position = positions[i];
+                    result[i] = left.getLong(position, 0) == right.getLong(position, 0);
+                }
+                return;
+            }
+            for (int i = 0; i < positionCount; i++) {
+                int position = positions[i];
+                result[i] = !left.isNull(position) && !right.isNull(position) && left.getLong(position, 0) == right.getLong(position, 0);
+            }
+        }
+
+        @Override
+        public void equal(Block block, int[] positions, int positionCount, Block valueBlock, int valuePosition, boolean[] result)
+        {
+            if (valueBlock.isNull(valuePosition)) {
+                fill(result, positionCount, false);
+                return;
+            }
+            long value = valueBlock.getLong(valuePosition, 0);
+            if (!block.mayHaveNull()) {
+                for (int i = 0; i < positionCount; i++) {
+                    result[i] = block.getLong(positions[i], 0) == value;
+                }
+                return;
+            }
+            for (int i = 0; i < positionCount; i++) {
+                int position = positions[i];
+                result[i] = !block.isNull(position) && block.getLong(position, 0) == value;
+            }
+        }
+    }
+
+    /**
+     * Same results as the {@link DoubleType} operators, without a method handle invocation per position.
+     */
+    private static final class DoubleTypeOperators
+            implements Operators
+    {
+        @Override
+        public void hash(Block block, int[] positions, int positionCount, long[] result)
+        {
+            if (!block.mayHaveNull()) {
+                for (int i = 0; i < positionCount; i++) {
+                    result[i] = hash(DOUBLE.getDouble(block, positions[i]));
+                }
+                return;
+            }
+            for (int i = 0; i < positionCount; i++) {
+                int position = positions[i];
+                result[i] = block.isNull(position) ? NULL_HASH_CODE : hash(DOUBLE.getDouble(block, position));
+            }
+        }
+
+        @Override
+        public void equal(Block left, Block right, int[] positions, int positionCount, boolean[] result)
+        {
+            if (!left.mayHaveNull() && !right.mayHaveNull()) {
+                for (int i = 0; i < positionCount; i++) {
+                    int position = positions[i];
+                    result[i] = DOUBLE.getDouble(left, position) == DOUBLE.getDouble(right, position);
+                }
+                return;
+            }
+            for (int i = 0; i < positionCount; i++) {
+                int position = positions[i];
+                result[i] = !left.isNull(position) && !right.isNull(position) && DOUBLE.getDouble(left, position) == DOUBLE.getDouble(right, position);
+            }
+        }
+
+        @Override
+        public void equal(Block block, int[] positions, int positionCount, Block valueBlock, int valuePosition, boolean[] result)
+        {
+            if (valueBlock.isNull(valuePosition)) {
+                fill(result, positionCount, false);
+                return;
+            }
+            double value = DOUBLE.getDouble(valueBlock, valuePosition);
+            if (!block.mayHaveNull()) {
+                for (int i = 0; i < positionCount; i++) {
+                    result[i] = DOUBLE.getDouble(block, positions[i]) == value;
+                }
+                return;
+            }
+            for (int i = 0; i < positionCount; i++) {
+                int position = positions[i];
+                result[i] = !block.isNull(position) && DOUBLE.getDouble(block, position) == value;
+            }
+        }
+
+        private static long hash(double value)
+        {
+            // 0.0 and -0.0 are equal, so they must have the same hash
+            if (value == 0) {
+                value = 0;
+            }
+            return AbstractLongType.hash(doubleToLongBits(value));
+        }
+    }
+
+    private static final class LongOperators
+            implements Operators
+    {
+        private final Type type;
+        private final MethodHandle hashCodeOperator;
+        private final MethodHandle equalOperator;
+
+        private LongOperators(Type type, TypeOperators typeOperators)
+        {
+            this.type = requireNonNull(type, "type is null");
+            this.hashCodeOperator = typeOperators.getHashCodeOperator(type, simpleConvention(FAIL_ON_NULL, NEVER_NULL));
+            this.equalOperator = typeOperators.getEqualOperator(type, simpleConvention(FAIL_ON_NULL, NEVER_NULL, NEVER_NULL));
+        }
+
+        @Override
+        public void hash(Block block, int[] positions, int positionCount, long[] result)
+        {
+            boolean mayHaveNull = block.mayHaveNull();
+            try {
+                for (int i = 0; i < positionCount; i++) {
+                    int position = positions[i];
+                    if (mayHaveNull && block.isNull(position)) {
+                        result[i] = NULL_HASH_CODE;
+                    }
+                    else {
+                        result[i] = (long) hashCodeOperator.invokeExact(type.getLong(block, position));
+                    }
+                }
+            }
+            catch (Throwable throwable) {
+                throw propagate(throwable);
+            }
+        }
+
+        @Override
+        public void equal(Block left, Block right, int[] positions, int positionCount, boolean[] result)
+        {
+            boolean mayHaveNull = left.mayHaveNull() || right.mayHaveNull();
+            try {
+                for (int i = 0; i < positionCount; i++) {
+                    int position = positions[i];
+                    if (mayHaveNull && (left.isNull(position) || right.isNull(position))) {
+                        result[i] = false;
+                    }
+                    else {
+                        result[i] = (boolean) equalOperator.invokeExact(type.getLong(left, position), type.getLong(right, position));
+                    }
+                }
+            }
+            catch (Throwable throwable) {
+                throw propagate(throwable);
+            }
+        }
+
+        @Override
+        public void equal(Block block, int[] positions, int positionCount, Block valueBlock, int valuePosition, boolean[] result)
+        {
+            if (valueBlock.isNull(valuePosition)) {
+                fill(result, positionCount, false);
+                return;
+            }
+            long value = type.getLong(valueBlock, valuePosition);
+            boolean mayHaveNull = block.mayHaveNull();
+            try {
+                for (int i = 0; i < positionCount; i++) {
+                    int position = positions[i];
+                    if (mayHaveNull && block.isNull(position)) {
+                        result[i] = false;
+                    }
+                    else {
+                        result[i] = (boolean) equalOperator.invokeExact(type.getLong(block, position), value);
+                    }
+                }
+            }
+            catch (Throwable throwable) {
+                throw propagate(throwable);
+            }
+        }
+    }
+
+    private static final class DoubleOperators
+            implements Operators
+    {
+        private final Type type;
+        private final MethodHandle hashCodeOperator;
+        private final MethodHandle equalOperator;
+
+        private DoubleOperators(Type type, TypeOperators typeOperators)
+        {
+            this.type = requireNonNull(type, "type is null");
+            this.hashCodeOperator = typeOperators.getHashCodeOperator(type, simpleConvention(FAIL_ON_NULL, NEVER_NULL));
+            this.equalOperator = typeOperators.getEqualOperator(type, simpleConvention(FAIL_ON_NULL, NEVER_NULL, NEVER_NULL));
+        }
+
+        @Override
+        public void hash(Block block, int[] positions, int positionCount, long[] result)
+        {
+            boolean mayHaveNull = block.mayHaveNull();
+            try {
+                for (int i = 0; i < positionCount; i++) {
+                    int position = positions[i];
+                    if (mayHaveNull && block.isNull(position)) {
+                        result[i] = NULL_HASH_CODE;
+                    }
+                    else {
+                        result[i] = (long) hashCodeOperator.invokeExact(type.getDouble(block, position));
+                    }
+                }
+            }
+            catch (Throwable throwable) {
+                throw propagate(throwable);
+            }
+        }
+
+        @Override
+        public void equal(Block left, Block right, int[] positions, int positionCount, boolean[] result)
+        {
+            boolean mayHaveNull = left.mayHaveNull() || right.mayHaveNull();
+            try {
+                for (int i = 0; i < positionCount; i++) {
+                    int position = positions[i];
+                    if (mayHaveNull && (left.isNull(position) || right.isNull(position))) {
+                        result[i] = false;
+                    }
+                    else {
+                        result[i] = (boolean) equalOperator.invokeExact(type.getDouble(left, position), type.getDouble(right, position));
+                    }
+                }
+            }
+            catch (Throwable throwable) {
+                throw propagate(throwable);
+            }
+        }
+
+        @Override
+        public void equal(Block block, int[] positions, int positionCount, Block valueBlock, int valuePosition, boolean[] result)
+        {
+            if (valueBlock.isNull(valuePosition)) {
+                fill(result, positionCount, false);
+                return;
+            }
+            double value = type.getDouble(valueBlock, valuePosition);
+            boolean mayHaveNull = block.mayHaveNull();
+            try {
+                for (int i = 0; i < positionCount; i++) {
+                    int position = positions[i];
+                    if (mayHaveNull && block.isNull(position)) {
+                        result[i] = false;
+                    }
+                    else {
+                        result[i] = (boolean) equalOperator.invokeExact(type.getDouble(block, position), value);
+                    }
+                }
+            }
+            catch (Throwable throwable) {
+                throw propagate(throwable);
+            }
+        }
+    }
+
+    private static final class BooleanOperators
+            implements Operators
+    {
+        private final Type type;
+        private final MethodHandle hashCodeOperator;
+        private final MethodHandle equalOperator;
+
+        private BooleanOperators(Type type, TypeOperators typeOperators)
+        {
+            this.type = requireNonNull(type, "type is null");
+            this.hashCodeOperator = typeOperators.getHashCodeOperator(type, simpleConvention(FAIL_ON_NULL, NEVER_NULL));
+            this.equalOperator = typeOperators.getEqualOperator(type, simpleConvention(FAIL_ON_NULL, NEVER_NULL, NEVER_NULL));
+        }
+
+        @Override
+        public void hash(Block block, int[] positions, int positionCount, long[] result)
+        {
+            boolean mayHaveNull = block.mayHaveNull();
+            try {
+                for (int i = 0; i < positionCount; i++) {
+                    int position = positions[i];
+                    if (mayHaveNull && block.isNull(position)) {
+                        result[i] = NULL_HASH_CODE;
+                    }
+                    else {
+                        result[i] = (long) hashCodeOperator.invokeExact(type.getBoolean(block, position));
+                    }
+                }
+            }
+            catch (Throwable throwable) {
+                throw propagate(throwable);
+            }
+        }
+
+        @Override
+        public void equal(Block left, Block right, int[] positions, int positionCount, boolean[] result)
+        {
+            boolean mayHaveNull = left.mayHaveNull() || right.mayHaveNull();
+            try {
+                for (int i = 0; i < positionCount; i++) {
+                    int position = positions[i];
+                    if (mayHaveNull && (left.isNull(position) || right.isNull(position))) {
+                        result[i] = false;
+                    }
+                    else {
+                        result[i] = (boolean) equalOperator.invokeExact(type.getBoolean(left, position), type.getBoolean(right, position));
+                    }
+                }
+            }
+            catch (Throwable throwable) {
+                throw propagate(throwable);
+            }
+        }
+
+        @Override
+        public void equal(Block block, int[] positions, int positionCount, Block valueBlock, int valuePosition, boolean[] result)
+        {
+            if (valueBlock.isNull(valuePosition)) {
+                fill(result, positionCount, false);
+                return;
+            }
+            boolean value = type.getBoolean(valueBlock, valuePosition);
+            boolean mayHaveNull = block.mayHaveNull();
+            try {
+                for (int i = 0; i < positionCount; i++) {
+                    int position = positions[i];
+                    if (mayHaveNull && block.isNull(position)) {
+                        result[i] = false;
+                    }
+                    else {
+                        result[i] = (boolean) equalOperator.invokeExact(type.getBoolean(block, position), value);
+                    }
+                }
+            }
+            catch (Throwable throwable) {
+                throw propagate(throwable);
+            }
+        }
+    }
+
+    private static final class BlockPositionOperators
+            implements Operators
+    {
+        private final MethodHandle hashCodeOperator;
+        private final MethodHandle equalOperator;
+
+        private BlockPositionOperators(Type type, TypeOperators typeOperators)
+        {
+            this.hashCodeOperator = typeOperators.getHashCodeOperator(type, simpleConvention(FAIL_ON_NULL, BLOCK_POSITION));
+            // equality of containers is indeterminate when they contain nulls, so the result may be null
+            this.equalOperator = typeOperators.getEqualOperator(type, simpleConvention(NULLABLE_RETURN, BLOCK_POSITION, BLOCK_POSITION));
+        }
+
+        @Override
+        public void hash(Block block, int[] positions, int positionCount, long[] result)
+        {
+            try {
+                for (int i = 0; i < positionCount; i++) {
+                    int position = positions[i];
+                    if (block.isNull(position)) {
+                        result[i] = NULL_HASH_CODE;
+                    }
+                    else {
+                        result[i] = (long) hashCodeOperator.invokeExact(block, position);
+                    }
+                }
+            }
+            catch (Throwable throwable) {
+                throw propagate(throwable);
+            }
+        }
+
+        @Override
+        public void equal(Block left, Block right, int[] positions, int positionCount, boolean[] result)
+        {
+            try {
+                for (int i = 0; i < positionCount; i++) {
+                    int position = positions[i];
+                    if (left.isNull(position) || right.isNull(position)) {
+                        result[i] = false;
+                    }
+                    else {
+                        result[i] = Boolean.TRUE.equals((Boolean) equalOperator.invokeExact(left, position, right, position));
+                    }
+                }
+            }
+            catch (Throwable throwable) {
+                throw propagate(throwable);
+            }
+        }
+
+        @Override
+        public void equal(Block block, int[] positions, int positionCount, Block valueBlock, int valuePosition, boolean[] result)
+        {
+            if (valueBlock.isNull(valuePosition)) {
+                fill(result, positionCount, false);
+                return;
+            }
+            try {
+                for (int i = 0; i < positionCount; i++) {
+                    int position = positions[i];
+                    if (block.isNull(position)) {
+                        result[i] = false;
+                    }
+                    else {
+                        result[i] = Boolean.TRUE.equals((Boolean) equalOperator.invokeExact(block, position, valueBlock, valuePosition));
+                    }
+                }
+            }
+            catch (Throwable throwable) {
+                throw propagate(throwable);
+            }
+        }
+    }
+}
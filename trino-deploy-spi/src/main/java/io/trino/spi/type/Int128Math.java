@@ -32,6 +32,9 @@ public final class Int128Math
     private static final int NUMBER_OF_INTS = 2 * NUMBER_OF_LONGS;
 
     public static final Int128[] POWERS_OF_TEN = new Int128[38]; // 10^38 is the largest value < Int128.MAX_VALUE
+    // high and low words of POWERS_OF_TEN, to avoid dereferencing an Int128 when rescaling
+    private static final long[] POWERS_OF_TEN_HIGH = new long[POWERS_OF_TEN.length];
+    private static final long[] POWERS_OF_TEN_LOW = new long[POWERS_OF_TEN.length];
     private static final Int128[] POWERS_OF_FIVE = new Int128[54]; // 5^54 is the largest value < Int128.MAX_VALUE
 
     private static final long ALL_BITS_SET_64 = 0xFFFFFFFFFFFFFFFFL;
@@ -69,6 +72,10 @@ public final class Int128Math
      * 10^x. All unsigned values.
      */
     private static final int[] POWERS_OF_TEN_INT = new int[MAX_POWER_OF_TEN_INT + 1];
+    /**
+     * 10^x. All positive values.
+     */
+    private static final long[] POWERS_OF_TEN_LONG = new long[MAX_POWER_OF_TEN_LONG + 1];
 
     static {
         for (int i = 0; i < POWERS_OF_FIVE.length; ++i) {
@@ -76,6 +83,8 @@ public final class Int128Math
         }
         for (int i = 0; i < POWERS_OF_TEN.length; ++i) {
             POWERS_OF_TEN[i] = Int128.valueOf(BigInteger.TEN.pow(i));
+            POWERS_OF_TEN_HIGH[i] = POWERS_OF_TEN[i].getHigh();
+            POWERS_OF_TEN_LOW[i] = POWERS_OF_TEN[i].getLow();
         }
 
         POWERS_OF_FIVES_INT[0] = 1;
@@ -93,6 +102,11 @@ public final class Int128Math
             POWERS_OF_TEN_INT[i] = POWERS_OF_TEN_INT[i - 1] * 10;
         }
 
+        POWERS_OF_TEN_LONG[0] = 1;
+        for (int i = 1; i < POWERS_OF_TEN_LONG.length; ++i) {
+            POWERS_OF_TEN_LONG[i] = POWERS_OF_TEN_LONG[i - 1] * 10;
+        }
+
         if (!ByteOrder.nativeOrder().equals(ByteOrder.LITTLE_ENDIAN)) {
             throw new IllegalStateException("UnsignedDecimal128Arithmetic is supported on little-endian machines only");
         }
@@ -147,6 +161,14 @@ public final class Int128Math
             throw overflowException();
         }
 
+        // fast path for values that fit in 64 bits: the signed 64x64 bit product cannot overflow 128 bits
+        if (rescaleFactor <= MAX_POWER_OF_TEN_LONG && high == signExtension(low)) {
+            long multiplier = POWERS_OF_TEN_LONG[rescaleFactor];
+            result[offset] = Math.multiplyHigh(low, multiplier);
+            result[offset + 1] = low * multiplier;
+            return;
+        }
+
         boolean negative = high < 0;
 
         if (negative) {
@@ -157,7 +179,7 @@ public final class Int128Math
             low = tmpLow;
         }
 
-        multiplyPositives(high, low, POWERS_OF_TEN[rescaleFactor].getHigh(), POWERS_OF_TEN[rescaleFactor].getLow(), result, offset);
+        multiplyPositives(high, low, POWERS_OF_TEN_HIGH[rescaleFactor], POWERS_OF_TEN_LOW[rescaleFactor], result, offset);
 
         if (negative) {
             long tmpHigh = negateHighExact(result[offset], result[offset + 1]);
@@ -235,8 +257,14 @@ public final class Int128Math
         return multiply(left.getHigh(), left.getLow(), right.getHigh(), right.getLow());
     }
 
-    private static void multiply(long leftHigh, long leftLow, long rightHigh, long rightLow, long[] result, int offset)
+    public static void multiply(long leftHigh, long leftLow, long rightHigh, long rightLow, long[] result, int offset)
     {
+        // fast path for operands that fit in 64 bits: the signed 64x64 bit product cannot overflow 128 bits
+        if (leftHigh == signExtension(leftLow) && rightHigh == signExtension(rightLow)) {
+            multiply(leftLow, rightLow, result, offset);
+            return;
+        }
+
         boolean leftNegative = leftHigh < 0;
         boolean rightNegative = rightHigh < 0;
 
@@ -316,6 +344,10 @@ public final class Int128Math
 
     public static Int128 multiply(long leftHigh, long leftLow, long rightHigh, long rightLow)
     {
+        if (leftHigh == signExtension(leftLow) && rightHigh == signExtension(rightLow)) {
+            return multiply(leftLow, rightLow);
+        }
+
         long[] result = new long[2];
         multiply(leftHigh, leftLow, rightHigh, rightLow, result, 0);
         return Int128.valueOf(result);
@@ -326,23 +358,15 @@ public final class Int128Math
         return multiply(left.getHigh(), left.getLow(), signExtension(right), right);
     }
 
-    public static Int128 multiply(long left, long right)
+    public static void multiply(long left, long right, long[] result, int offset)
     {
-        boolean rightNegative = right < 0;
-        boolean leftNegative = left < 0;
-        left = abs(left);
-        right = abs(right);
-
-        long resultLow = left * right;
-        long resultHigh = Math.multiplyHigh(left, right);
-
-        if (leftNegative != rightNegative) {
-            return Int128.valueOf(
-                    negateHighExact(resultHigh, resultLow),
-                    negateLowExact(resultHigh, resultLow));
-        }
+        result[offset] = Math.multiplyHigh(left, right);
+        result[offset + 1] = left * right;
+    }
 
-        return Int128.valueOf(resultHigh, resultLow);
+    public static Int128 multiply(long left, long right)
+    {
+        return Int128.valueOf(Math.multiplyHigh(left, right), left * right);
     }
 
     /**
@@ -804,6 +828,13 @@ public final class Int128Math
     }
 
     public static Int128 divideRoundUp(long dividendHigh, long dividendLow, int dividendScaleFactor, long divisorHigh, long divisorLow, int divisorScaleFactor)
+    {
+        long[] result = new long[2];
+        divideRoundUp(dividendHigh, dividendLow, dividendScaleFactor, divisorHigh, divisorLow, divisorScaleFactor, result, 0);
+        return Int128.valueOf(result);
+    }
+
+    public static void divideRoundUp(long dividendHigh, long dividendLow, int dividendScaleFactor, long divisorHigh, long divisorLow, int divisorScaleFactor, long[] result, int offset)
     {
         if (dividendScaleFactor >= MAX_PRECISION) {
             throw overflowException();
@@ -813,6 +844,10 @@ public final class Int128Math
             throw overflowException();
         }
 
+        if (divideRoundUpSmall(dividendHigh, dividendLow, dividendScaleFactor, divisorHigh, divisorLow, divisorScaleFactor, result, offset)) {
+            return;
+        }
+
         long[] quotient = new long[2];
         long[] remainder = new long[2];
 
@@ -852,7 +887,43 @@ public final class Int128Math
             negate(quotient, 0);
         }
 
-        return Int128.valueOf(quotient);
+        result[offset] = quotient[0];
+        result[offset + 1] = quotient[1];
+    }
+
+    /**
+     * Divides with 64 bit arithmetic when both operands, including the rescaled dividend, fit in a long.
+     * Returns false if the operands are out of range and the multi precision division is needed.
+     */
+    private static boolean divideRoundUpSmall(long dividendHigh, long dividendLow, int dividendScaleFactor, long divisorHigh, long divisorLow, int divisorScaleFactor, long[] result, int offset)
+    {
+        if (divisorScaleFactor != 0 || dividendScaleFactor > MAX_POWER_OF_TEN_LONG ||
+                dividendHigh != signExtension(dividendLow) || divisorHigh != signExtension(divisorLow) ||
+                dividendLow == Long.MIN_VALUE || divisorLow == Long.MIN_VALUE || divisorLow == 0) {
+            return false;
+        }
+
+        long unsignedDividend = abs(dividendLow);
+        long unsignedDivisor = abs(divisorLow);
+        long multiplier = POWERS_OF_TEN_LONG[dividendScaleFactor];
+        long rescaledDividend = unsignedDividend * multiplier;
+        if (Math.multiplyHigh(unsignedDividend, multiplier) != 0 || rescaledDividend < 0) {
+            return false;
+        }
+
+        long quotient = rescaledDividend / unsignedDivisor;
+        long remainder = rescaledDividend - quotient * unsignedDivisor;
+        // if (2 * remainder >= divisor) - increment quotient by one
+        if (Long.compareUnsigned(remainder << 1, unsignedDivisor) >= 0) {
+            quotient++;
+        }
+        if ((dividendLow < 0) != (divisorLow < 0)) {
+            quotient = -quotient;
+        }
+
+        result[offset] = signExtension(quotient);
+        result[offset + 1] = quotient;
+        return true;
     }
 
     // visible for testing
@@ -149,6 +149,39 @@ public class TypeOperators
         return getOperatorAdaptor(type, callingConvention, LESS_THAN_OR_EQUAL).get();
     }
 
+    /**
+     * Returns an operator that hashes a list of positions of a block in one call.
+     */
+    public BatchTypeOperators.HashCode getBatchHashCodeOperator(Type type)
+    {
+        if (!type.isComparable()) {
+            throw new UnsupportedOperationException(type + " is not comparable");
+        }
+        return BatchTypeOperators.createHashCode(type, this);
+    }
+
+    /**
+     * Returns an operator that compares two blocks for equality at a list of positions in one call.
+     */
+    public BatchTypeOperators.Equal getBatchEqualOperator(Type type)
+    {
+        if (!type.isComparable()) {
+            throw new UnsupportedOperationException(type + " is not comparable");
+        }
+        return BatchTypeOperators.createEqual(type, this);
+    }
+
+    /**
+     * Returns an operator that compares a list of positions of a block with a single value in one call.
+     */
+    public BatchTypeOperators.EqualToValue getBatchEqualToValueOperator(Type type)
+    {
+        if (!type.isComparable()) {
+            throw new UnsupportedOperationException(type + " is not comparable");
+        }
+        return BatchTypeOperators.createEqualToValue(type, this);
+    }
+
     private OperatorAdaptor getOperatorAdaptor(Type type, InvocationConvention callingConvention, OperatorType operatorType)
     {
         return getOperatorAdaptor(type, Optional.empty(), callingConvention, operatorType);
@@ -164,7 +197,7 @@ public class TypeOperators
     {
         private final ScalarFunctionAdapter functionAdapter;
         private final OperatorConvention operatorConvention;
-        private MethodHandle adapted;
+        private volatile MethodHandle adapted;
 
         public OperatorAdaptor(ScalarFunctionAdapter functionAdapter, OperatorConvention operatorConvention)
         {
@@ -172,10 +205,18 @@ public class TypeOperators
             this.operatorConvention = operatorConvention;
         }
 
-        public synchronized MethodHandle get()
+        public MethodHandle get()
         {
+            // only the first resolution takes the lock
+            MethodHandle adapted = this.adapted;
             if (adapted == null) {
-                adapted = adaptOperator(operatorConvention);
+                synchronized (this) {
+                    adapted = this.adapted;
+                    if (adapted == null) {
+                        adapted = adaptOperator(operatorConvention);
+                        this.adapted = adapted;
+                    }
+                }
             }
             return adapted;
         }
@@ -0,0 +1,89 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.trino.spi.block;
+
+import org.testng.annotations.Test;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import static io.trino.spi.type.BigintType.BIGINT;
+import static io.trino.spi.type.DoubleType.DOUBLE;
+import static java.lang.Double.longBitsToDouble;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class TestDoublePositionHashTable
+{
+    @Test
+    public void testPutIfAbsent()
+    {
+        DoublePositionHashTable table = new DoublePositionHashTable(DOUBLE, 4);
+        BlockBuilder blockBuilder = DOUBLE.createBlockBuilder(null, 1000);
+        Set<Double> distinctValues = new HashSet<>();
+        for (int i = 0; i < 1000; i++) {
+            if (i % 7 == 0) {
+                blockBuilder.appendNull();
+            }
+            else {
+                DOUBLE.writeDouble(blockBuilder, (i % 300) / 3.0);
+                distinctValues.add((i % 300) / 3.0);
+            }
+        }
+        Block block = blockBuilder.build();
+
+        int[] ids = new int[block.getPositionCount()];
+        table.putIfAbsent(block, ids);
+
+        assertThat(table.size()).isEqualTo(distinctValues.size() + 1);
+        for (int position = 0; position < block.getPositionCount(); position++) {
+            assertThat(table.get(block, position)).isEqualTo(ids[position]);
+            if (block.isNull(position)) {
+                assertThat(ids[position]).isEqualTo(table.getNullId());
+            }
+            else {
+                assertThat(table.getValue(ids[position])).isEqualTo(DOUBLE.getDouble(block, position));
+            }
+        }
+        assertThat(table.get(100.0)).isEqualTo(-1);
+        assertThatThrownBy(() -> table.getValue(table.getNullId()))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    public void testIsDistinctFrom()
+    {
+        DoublePositionHashTable table = new DoublePositionHashTable(DOUBLE, 4);
+
+        int zero = table.putIfAbsent(0.0);
+        assertThat(table.putIfAbsent(-0.0)).isEqualTo(zero);
+        assertThat(table.get(-0.0)).isEqualTo(zero);
+
+        int nan = table.putIfAbsent(Double.NaN);
+        assertThat(table.putIfAbsent(longBitsToDouble(0x7ff8000000000001L))).isEqualTo(nan);
+        assertThat(table.putIfAbsent(longBitsToDouble(0xfff8000000000000L))).isEqualTo(nan);
+        assertThat(table.get(longBitsToDouble(0x7ff0000000000001L))).isEqualTo(nan);
+
+        assertThat(table.size()).isEqualTo(2);
+        assertThat(table.getValue(nan)).isNaN();
+    }
+
+    @Test
+    public void testNonDoubleTypeRejected()
+    {
+        assertThatThrownBy(() -> new DoublePositionHashTable(BIGINT, 4))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("double");
+    }
+}
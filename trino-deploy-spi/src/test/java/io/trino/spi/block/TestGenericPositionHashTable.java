@@ -0,0 +1,93 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.trino.spi.block;
+
+import io.trino.spi.type.ArrayType;
+import io.trino.spi.type.TypeOperators;
+import org.testng.annotations.Test;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static io.trino.spi.type.BigintType.BIGINT;
+import static io.trino.spi.type.DoubleType.DOUBLE;
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class TestGenericPositionHashTable
+{
+    private static final ArrayType BIGINT_ARRAY = new ArrayType(BIGINT);
+
+    private final TypeOperators typeOperators = new TypeOperators();
+
+    @Test
+    public void testPutIfAbsent()
+    {
+        GenericPositionHashTable table = new GenericPositionHashTable(BIGINT_ARRAY, typeOperators, 4);
+        BlockBuilder blockBuilder = BIGINT_ARRAY.createBlockBuilder(null, 1000);
+        Set<List<Long>> distinctValues = new HashSet<>();
+        for (int i = 0; i < 1000; i++) {
+            if (i % 7 == 0) {
+                blockBuilder.appendNull();
+                continue;
+            }
+            // arrays of different lengths, some of them prefixes of others
+            List<Long> value = i % 3 == 0 ? List.of((long) (i % 100)) : List.of((long) (i % 100), (long) (i % 4));
+            BlockBuilder entryBuilder = blockBuilder.beginBlockEntry();
+            for (long element : value) {
+                BIGINT.writeLong(entryBuilder, element);
+            }
+            blockBuilder.closeEntry();
+            distinctValues.add(value);
+        }
+        Block block = blockBuilder.build();
+
+        int[] ids = new int[block.getPositionCount()];
+        table.putIfAbsent(block, ids);
+
+        assertThat(table.size()).isEqualTo(distinctValues.size() + 1);
+        for (int position = 0; position < block.getPositionCount(); position++) {
+            assertThat(table.get(block, position)).isEqualTo(ids[position]);
+            if (block.isNull(position)) {
+                assertThat(ids[position]).isEqualTo(table.getNullId());
+            }
+            else {
+                Block valueBlock = table.getBlock(ids[position]);
+                int valuePosition = table.getPosition(ids[position]);
+                assertThat(BIGINT_ARRAY.getObjectValue(null, valueBlock, valuePosition))
+                        .isEqualTo(BIGINT_ARRAY.getObjectValue(null, block, position));
+            }
+        }
+    }
+
+    @Test
+    public void testIsDistinctFrom()
+    {
+        GenericPositionHashTable table = new GenericPositionHashTable(DOUBLE, typeOperators, 4);
+        BlockBuilder blockBuilder = DOUBLE.createBlockBuilder(null, 5);
+        DOUBLE.writeDouble(blockBuilder, 0.0);
+        DOUBLE.writeDouble(blockBuilder, -0.0);
+        DOUBLE.writeDouble(blockBuilder, Double.NaN);
+        DOUBLE.writeDouble(blockBuilder, Double.longBitsToDouble(0x7ff8000000000001L));
+        blockBuilder.appendNull();
+        Block block = blockBuilder.build();
+
+        int[] ids = new int[5];
+        table.putIfAbsent(block, ids);
+
+        assertThat(ids).containsExactly(0, 0, 1, 1, 2);
+        assertThat(table.getNullId()).isEqualTo(2);
+        assertThat(table.size()).isEqualTo(3);
+    }
+}
@@ -0,0 +1,80 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.trino.spi.block;
+
+import org.testng.annotations.Test;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class TestInt128PositionHashTable
+{
+    @Test
+    public void testPutIfAbsent()
+    {
+        Int128PositionHashTable table = new Int128PositionHashTable(4);
+        boolean[] valueIsNull = new boolean[1000];
+        long[] values = new long[2000];
+        Set<List<Long>> distinctValues = new HashSet<>();
+        for (int i = 0; i < 1000; i++) {
+            if (i % 7 == 0) {
+                valueIsNull[i] = true;
+            }
+            else {
+                // values that only differ in one half must be distinct
+                values[i * 2] = i % 300;
+                values[i * 2 + 1] = -(i % 150);
+                distinctValues.add(List.of(values[i * 2], values[i * 2 + 1]));
+            }
+        }
+        Block block = new Int128ArrayBlock(1000, Optional.of(valueIsNull), values);
+
+        int[] ids = new int[block.getPositionCount()];
+        table.putIfAbsent(block, ids);
+
+        assertThat(table.size()).isEqualTo(distinctValues.size() + 1);
+        for (int position = 0; position < block.getPositionCount(); position++) {
+            assertThat(table.get(block, position)).isEqualTo(ids[position]);
+            if (block.isNull(position)) {
+                assertThat(ids[position]).isEqualTo(table.getNullId());
+            }
+            else {
+                assertThat(table.getHigh(ids[position])).isEqualTo(values[position * 2]);
+                assertThat(table.getLow(ids[position])).isEqualTo(values[position * 2 + 1]);
+            }
+        }
+        assertThat(table.get(300, 0)).isEqualTo(-1);
+    }
+
+    @Test
+    public void testRegionOfBlock()
+    {
+        Int128PositionHashTable table = new Int128PositionHashTable(4);
+        Block block = new Int128ArrayBlock(3, Optional.empty(), new long[] {1, 2, 3, 4, 1, 2});
+        Block region = block.getRegion(1, 2);
+
+        int[] ids = new int[2];
+        table.putIfAbsent(region, ids);
+
+        assertThat(table.size()).isEqualTo(2);
+        assertThat(table.getHigh(ids[0])).isEqualTo(3);
+        assertThat(table.getLow(ids[0])).isEqualTo(4);
+        assertThat(table.get(1, 2)).isEqualTo(ids[1]);
+        assertThat(table.getNullId()).isEqualTo(-1);
+    }
+}
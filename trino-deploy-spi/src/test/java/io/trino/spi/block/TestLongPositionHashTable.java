@@ -0,0 +1,92 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.trino.spi.block;
+
+import org.testng.annotations.Test;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import static io.trino.spi.type.BigintType.BIGINT;
+import static io.trino.spi.type.RealType.REAL;
+import static io.trino.spi.type.TimeWithTimeZoneType.TIME_WITH_TIME_ZONE;
+import static io.trino.spi.type.TimestampWithTimeZoneType.TIMESTAMP_TZ_MILLIS;
+import static java.lang.Float.floatToIntBits;
+import static java.lang.Float.floatToRawIntBits;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class TestLongPositionHashTable
+{
+    @Test
+    public void testPutIfAbsent()
+    {
+        LongPositionHashTable table = new LongPositionHashTable(BIGINT, 4);
+        BlockBuilder blockBuilder = BIGINT.createBlockBuilder(null, 1000);
+        Set<Long> distinctValues = new HashSet<>();
+        for (int i = 0; i < 1000; i++) {
+            if (i % 7 == 0) {
+                blockBuilder.appendNull();
+            }
+            else {
+                BIGINT.writeLong(blockBuilder, i % 300);
+                distinctValues.add((long) (i % 300));
+            }
+        }
+        Block block = blockBuilder.build();
+
+        int[] ids = new int[block.getPositionCount()];
+        table.putIfAbsent(block, ids);
+
+        assertThat(table.size()).isEqualTo(distinctValues.size() + 1);
+        for (int position = 0; position < block.getPositionCount(); position++) {
+            assertThat(table.get(block, position)).isEqualTo(ids[position]);
+            if (block.isNull(position)) {
+                assertThat(ids[position]).isEqualTo(table.getNullId());
+            }
+            else {
+                assertThat(table.getValue(ids[position])).isEqualTo(BIGINT.getLong(block, position));
+            }
+        }
+        assertThat(table.get(300)).isEqualTo(-1);
+    }
+
+    @Test
+    public void testRealIsDistinctFrom()
+    {
+        LongPositionHashTable table = new LongPositionHashTable(REAL, 4);
+
+        int zero = table.putIfAbsent(floatToRawIntBits(0.0f));
+        assertThat(table.putIfAbsent(floatToRawIntBits(-0.0f))).isEqualTo(zero);
+
+        int nan = table.putIfAbsent(floatToRawIntBits(Float.NaN));
+        assertThat(table.putIfAbsent(0x7fc00001)).isEqualTo(nan);
+        assertThat(table.putIfAbsent(0xffc00000)).isEqualTo(nan);
+        assertThat(table.get(floatToRawIntBits(Float.NaN))).isEqualTo(nan);
+
+        assertThat(table.size()).isEqualTo(2);
+        assertThat(table.getValue(nan)).isEqualTo(floatToIntBits(Float.NaN));
+    }
+
+    @Test
+    public void testTimeZoneTypesRejected()
+    {
+        assertThatThrownBy(() -> new LongPositionHashTable(TIMESTAMP_TZ_MILLIS, 4))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("time zone");
+        assertThatThrownBy(() -> new LongPositionHashTable(TIME_WITH_TIME_ZONE, 4))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("time zone");
+    }
+}
@@ -0,0 +1,116 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.trino.spi.block;
+
+import io.airlift.slice.Slice;
+import org.testng.annotations.Test;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import static io.airlift.slice.Slices.utf8Slice;
+import static io.trino.spi.type.VarcharType.VARCHAR;
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class TestSlicePositionHashTable
+{
+    @Test
+    public void testPutIfAbsent()
+    {
+        SlicePositionHashTable table = new SlicePositionHashTable(4);
+        Block block = createBlock(1000, 300);
+        Set<Slice> distinctValues = new HashSet<>();
+        for (int position = 0; position < block.getPositionCount(); position++) {
+            if (!block.isNull(position)) {
+                distinctValues.add(VARCHAR.getSlice(block, position));
+            }
+        }
+
+        int[] ids = new int[block.getPositionCount()];
+        table.putIfAbsent(block, ids);
+
+        assertThat(table.size()).isEqualTo(distinctValues.size() + 1);
+        for (int position = 0; position < block.getPositionCount(); position++) {
+            assertThat(table.get(block, position)).isEqualTo(ids[position]);
+            if (block.isNull(position)) {
+                assertThat(ids[position]).isEqualTo(table.getNullId());
+            }
+            else {
+                Slice value = VARCHAR.getSlice(table.getBlock(ids[position]), table.getPosition(ids[position]));
+                assertThat(value).isEqualTo(VARCHAR.getSlice(block, position));
+            }
+        }
+    }
+
+    @Test
+    public void testValuesFromManyBlocks()
+    {
+        SlicePositionHashTable table = new SlicePositionHashTable(4);
+        Block first = createBlock(100, 50);
+        Block second = createBlock(100, 80);
+        table.putIfAbsent(first, new int[first.getPositionCount()]);
+        long retainedSize = table.getRetainedSizeInBytes();
+
+        int[] ids = new int[second.getPositionCount()];
+        table.putIfAbsent(second, ids);
+
+        // the values shared with the first block keep referring to it
+        for (int position = 0; position < second.getPositionCount(); position++) {
+            if (second.isNull(position)) {
+                continue;
+            }
+            Block valueBlock = table.getBlock(ids[position]);
+            if (position % 80 < 50) {
+                assertThat(valueBlock).isSameAs(first);
+            }
+            else {
+                assertThat(valueBlock).isSameAs(second);
+            }
+        }
+        assertThat(table.getRetainedSizeInBytes()).isGreaterThanOrEqualTo(retainedSize + second.getRetainedSizeInBytes());
+    }
+
+    @Test
+    public void testEmptyAndPrefixValues()
+    {
+        SlicePositionHashTable table = new SlicePositionHashTable(4);
+        BlockBuilder blockBuilder = VARCHAR.createBlockBuilder(null, 4);
+        VARCHAR.writeSlice(blockBuilder, utf8Slice(""));
+        VARCHAR.writeSlice(blockBuilder, utf8Slice("a"));
+        VARCHAR.writeSlice(blockBuilder, utf8Slice("ab"));
+        VARCHAR.writeSlice(blockBuilder, utf8Slice(""));
+        Block block = blockBuilder.build();
+
+        int[] ids = new int[4];
+        table.putIfAbsent(block, ids);
+
+        assertThat(table.size()).isEqualTo(3);
+        assertThat(ids).containsExactly(0, 1, 2, 0);
+        assertThat(table.getNullId()).isEqualTo(-1);
+    }
+
+    private static Block createBlock(int positionCount, int distinctCount)
+    {
+        BlockBuilder blockBuilder = VARCHAR.createBlockBuilder(null, positionCount);
+        for (int i = 0; i < positionCount; i++) {
+            if (i % 7 == 0) {
+                blockBuilder.appendNull();
+            }
+            else {
+                VARCHAR.writeSlice(blockBuilder, utf8Slice("value-" + (i % distinctCount)));
+            }
+        }
+        return blockBuilder.build();
+    }
+}
@@ -0,0 +1,89 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.trino.spi.classloader;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares entering a plugin class loader from another class loader with a nested call that
+ * enters the class loader that is already set.
+ */
+@State(Scope.Thread)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@BenchmarkMode(Mode.AverageTime)
+@Fork(2)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+public class BenchmarkThreadContextClassLoader
+{
+    private final ClassLoader pluginClassLoader = new URLClassLoader(new URL[0]);
+    private ClassLoader originalClassLoader;
+
+    @Setup
+    public void setup()
+    {
+        originalClassLoader = Thread.currentThread().getContextClassLoader();
+    }
+
+    @TearDown
+    public void tearDown()
+    {
+        Thread.currentThread().setContextClassLoader(originalClassLoader);
+    }
+
+    @Benchmark
+    public ClassLoader switchClassLoader()
+    {
+        try (ThreadContextClassLoader ignored = new ThreadContextClassLoader(pluginClassLoader)) {
+            return Thread.currentThread().getContextClassLoader();
+        }
+    }
+
+    @Benchmark
+    public ClassLoader nestedSameClassLoader()
+    {
+        try (ThreadContextClassLoader ignored = new ThreadContextClassLoader(pluginClassLoader)) {
+            try (ThreadContextClassLoader nested = new ThreadContextClassLoader(pluginClassLoader)) {
+                return Thread.currentThread().getContextClassLoader();
+            }
+        }
+    }
+
+    public static void main(String[] args)
+            throws RunnerException
+    {
+        Options options = new OptionsBuilder()
+                .include(".*" + BenchmarkThreadContextClassLoader.class.getSimpleName() + ".*")
+                .build();
+        new Runner(options).run();
+    }
+}
@@ -0,0 +1,62 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.trino.spi.classloader;
+
+import org.testng.annotations.Test;
+
+import java.net.URL;
+import java.net.URLClassLoader;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class TestThreadContextClassLoader
+{
+    private final ClassLoader pluginClassLoader = new URLClassLoader(new URL[0]);
+    private final ClassLoader otherClassLoader = new URLClassLoader(new URL[0]);
+
+    @Test
+    public void testRestore()
+    {
+        ClassLoader original = Thread.currentThread().getContextClassLoader();
+        try (ThreadContextClassLoader ignored = new ThreadContextClassLoader(pluginClassLoader)) {
+            assertThat(Thread.currentThread().getContextClassLoader()).isSameAs(pluginClassLoader);
+        }
+        assertThat(Thread.currentThread().getContextClassLoader()).isSameAs(original);
+    }
+
+    @Test
+    public void testNestedSameClassLoader()
+    {
+        ClassLoader original = Thread.currentThread().getContextClassLoader();
+        try (ThreadContextClassLoader ignored = new ThreadContextClassLoader(pluginClassLoader)) {
+            try (ThreadContextClassLoader nested = new ThreadContextClassLoader(pluginClassLoader)) {
+                assertThat(Thread.currentThread().getContextClassLoader()).isSameAs(pluginClassLoader);
+            }
+            assertThat(Thread.currentThread().getContextClassLoader()).isSameAs(pluginClassLoader);
+        }
+        assertThat(Thread.currentThread().getContextClassLoader()).isSameAs(original);
+    }
+
+    @Test
+    public void testRestoreWhenChangedInsideBlock()
+    {
+        try (ThreadContextClassLoader ignored = new ThreadContextClassLoader(pluginClassLoader)) {
+            // the requested class loader is already set, so the constructor does not change it
+            try (ThreadContextClassLoader nested = new ThreadContextClassLoader(pluginClassLoader)) {
+                Thread.currentThread().setContextClassLoader(otherClassLoader);
+            }
+            assertThat(Thread.currentThread().getContextClassLoader()).isSameAs(pluginClassLoader);
+        }
+    }
+}
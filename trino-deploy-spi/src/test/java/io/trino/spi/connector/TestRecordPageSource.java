@@ -0,0 +1,427 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.trino.spi.connector;
+
+import io.airlift.slice.Slice;
+import io.trino.spi.Page;
+import io.trino.spi.block.Block;
+import io.trino.spi.block.BlockBuilder;
+import io.trino.spi.type.AbstractIntType;
+import io.trino.spi.type.ArrayType;
+import io.trino.spi.type.Int128;
+import io.trino.spi.type.LongTimestamp;
+import io.trino.spi.type.Type;
+import io.trino.spi.type.TypeSignature;
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static io.airlift.slice.Slices.utf8Slice;
+import static io.airlift.slice.Slices.wrappedBuffer;
+import static io.trino.spi.type.BigintType.BIGINT;
+import static io.trino.spi.type.BooleanType.BOOLEAN;
+import static io.trino.spi.type.DateType.DATE;
+import static io.trino.spi.type.DecimalType.createDecimalType;
+import static io.trino.spi.type.DoubleType.DOUBLE;
+import static io.trino.spi.type.IntegerType.INTEGER;
+import static io.trino.spi.type.RealType.REAL;
+import static io.trino.spi.type.SmallintType.SMALLINT;
+import static io.trino.spi.type.TimeType.TIME_MILLIS;
+import static io.trino.spi.type.TimestampType.TIMESTAMP_MILLIS;
+import static io.trino.spi.type.TimestampType.TIMESTAMP_PICOS;
+import static io.trino.spi.type.TinyintType.TINYINT;
+import static io.trino.spi.type.VarbinaryType.VARBINARY;
+import static io.trino.spi.type.VarcharType.VARCHAR;
+import static java.lang.Float.floatToRawIntBits;
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class TestRecordPageSource
+{
+    // more rows than one request of the page source, so that the rows span several reads and pages
+    private static final int ROWS = 10_000;
+
+    // one type for each column writer, and the int and long types that fall back to the block builder
+    private static final List<Type> TYPES = List.of(
+            BIGINT,
+            TIME_MILLIS,
+            INTEGER,
+            DATE,
+            REAL,
+            SMALLINT,
+            TINYINT,
+            TestingIntervalYearMonthType.INTERVAL_YEAR_MONTH,
+            TIMESTAMP_MILLIS,
+            BOOLEAN,
+            DOUBLE,
+            VARCHAR,
+            VARBINARY,
+            createDecimalType(38, 2),
+            TIMESTAMP_PICOS,
+            new ArrayType(BIGINT));
+
+    @Test
+    public void testRowCursor()
+    {
+        Object[][] rows = createRows(ROWS);
+        assertPages(new RecordPageSource(TYPES, new TestingRecordCursor(TYPES, rows)), rows);
+    }
+
+    @Test
+    public void testBatchCursor()
+    {
+        Object[][] rows = createRows(ROWS);
+        // batches smaller than requested, and of a size that does not divide the row count
+        assertPages(new RecordPageSource(TYPES, new TestingBatchRecordCursor(TYPES, rows, 999)), rows);
+    }
+
+    @Test
+    public void testBatchCursorMatchesRowCursor()
+    {
+        Object[][] rows = createRows(ROWS);
+        List<Page> rowPages = readAll(new RecordPageSource(TYPES, new TestingRecordCursor(TYPES, rows)));
+        List<Page> batchPages = readAll(new RecordPageSource(TYPES, new TestingBatchRecordCursor(TYPES, rows, Integer.MAX_VALUE)));
+
+        // both paths use the same writer for a column, so they produce the same kind of block
+        for (int column = 0; column < TYPES.size(); column++) {
+            for (Page page : batchPages) {
+                assertThat(page.getBlock(column).getClass())
+                        .as("block of %s", TYPES.get(column))
+                        .isEqualTo(rowPages.get(0).getBlock(column).getClass());
+            }
+        }
+        assertThat(batchPages.stream().mapToInt(Page::getPositionCount).sum()).isEqualTo(ROWS);
+        assertThat(rowPages.stream().mapToInt(Page::getPositionCount).sum()).isEqualTo(ROWS);
+    }
+
+    @Test
+    public void testAllNulls()
+    {
+        Object[][] rows = new Object[100][TYPES.size()];
+        assertPages(new RecordPageSource(TYPES, new TestingRecordCursor(TYPES, rows)), rows);
+        assertPages(new RecordPageSource(TYPES, new TestingBatchRecordCursor(TYPES, rows, 7)), rows);
+    }
+
+    @Test
+    public void testEmptyCursor()
+    {
+        Object[][] rows = new Object[0][TYPES.size()];
+        assertThat(readAll(new RecordPageSource(TYPES, new TestingRecordCursor(TYPES, rows)))).isEmpty();
+        assertThat(readAll(new RecordPageSource(TYPES, new TestingBatchRecordCursor(TYPES, rows, 10)))).isEmpty();
+    }
+
+    private static void assertPages(RecordPageSource pageSource, Object[][] rows)
+    {
+        // the expected blocks are written one cell at a time with the type, as the engine does
+        List<Block> expected = new ArrayList<>();
+        for (int column = 0; column < TYPES.size(); column++) {
+            Type type = TYPES.get(column);
+            BlockBuilder blockBuilder = type.createBlockBuilder(null, rows.length);
+            for (Object[] row : rows) {
+                writeValue(type, blockBuilder, row[column]);
+            }
+            expected.add(blockBuilder.build());
+        }
+
+        int position = 0;
+        for (Page page : readAll(pageSource)) {
+            assertThat(page.getChannelCount()).isEqualTo(TYPES.size());
+            for (int column = 0; column < TYPES.size(); column++) {
+                assertBlockEquals(TYPES.get(column), page.getBlock(column), 0, expected.get(column), position, page.getPositionCount());
+            }
+            position += page.getPositionCount();
+        }
+        assertThat(position).isEqualTo(rows.length);
+        assertThat(pageSource.getSystemMemoryUsage()).isEqualTo(0);
+    }
+
+    private static List<Page> readAll(RecordPageSource pageSource)
+    {
+        List<Page> pages = new ArrayList<>();
+        while (!pageSource.isFinished()) {
+            Page page = pageSource.getNextPage();
+            if (page != null) {
+                assertThat(page.getPositionCount()).isGreaterThan(0);
+                pages.add(page);
+            }
+        }
+        pageSource.close();
+        return pages;
+    }
+
+    private static void assertBlockEquals(Type type, Block actual, int actualOffset, Block expected, int expectedOffset, int positionCount)
+    {
+        assertThat(actual.getPositionCount()).isEqualTo(positionCount);
+        for (int i = 0; i < positionCount; i++) {
+            int actualPosition = actualOffset + i;
+            int expectedPosition = expectedOffset + i;
+            assertThat(actual.isNull(actualPosition))
+                    .as("null at %s of %s", expectedPosition, type)
+                    .isEqualTo(expected.isNull(expectedPosition));
+            if (expected.isNull(expectedPosition)) {
+                continue;
+            }
+            Object actualValue = getValue(type, actual, actualPosition);
+            Object expectedValue = getValue(type, expected, expectedPosition);
+            assertThat(actualValue)
+                    .as("value at %s of %s", expectedPosition, type)
+                    .isEqualTo(expectedValue);
+        }
+    }
+
+    private static Object getValue(Type type, Block block, int position)
+    {
+        Class<?> javaType = type.getJavaType();
+        if (javaType == boolean.class) {
+            return type.getBoolean(block, position);
+        }
+        if (javaType == long.class) {
+            return type.getLong(block, position);
+        }
+        if (javaType == double.class) {
+            return type.getDouble(block, position);
+        }
+        if (javaType == Slice.class) {
+            return type.getSlice(block, position);
+        }
+        return type.getObjectValue(null, block, position);
+    }
+
+    private static void writeValue(Type type, BlockBuilder blockBuilder, Object value)
+    {
+        if (value == null) {
+            blockBuilder.appendNull();
+            return;
+        }
+        Class<?> javaType = type.getJavaType();
+        if (javaType == boolean.class) {
+            type.writeBoolean(blockBuilder, (Boolean) value);
+        }
+        else if (javaType == long.class) {
+            type.writeLong(blockBuilder, (Long) value);
+        }
+        else if (javaType == double.class) {
+            type.writeDouble(blockBuilder, (Double) value);
+        }
+        else if (javaType == Slice.class) {
+            type.writeSlice(blockBuilder, (Slice) value);
+        }
+        else {
+            type.writeObject(blockBuilder, value);
+        }
+    }
+
+    private static Object[][] createRows(int rowCount)
+    {
+        Object[][] rows = new Object[rowCount][];
+        for (int row = 0; row < rowCount; row++) {
+            long value = row - rowCount / 2;
+            BlockBuilder arrayBuilder = BIGINT.createBlockBuilder(null, row % 4);
+            for (int i = 0; i < row % 4; i++) {
+                BIGINT.writeLong(arrayBuilder, value + i);
+            }
+            rows[row] = new Object[] {
+                    value * 1_000_000_007L,
+                    Math.floorMod(value, 86_400L) * 1_000_000_000_000L,
+                    value * 100_003L,
+                    value,
+                    (long) floatToRawIntBits(value / 3.0f),
+                    (long) (short) (value * 7),
+                    (long) (byte) value,
+                    value * 13,
+                    value * 1_000_000L,
+                    value % 3 == 0,
+                    value / 7.0,
+                    utf8Slice("value " + value),
+                    wrappedBuffer(new byte[] {(byte) value, (byte) (value >> 8)}),
+                    Int128.valueOf(value, value * 31),
+                    new LongTimestamp(value * 1_000_000L, (int) Math.floorMod(value, 1_000_000L)),
+                    arrayBuilder.build()};
+            // nulls at different rows in each column
+            for (int column = 0; column < TYPES.size(); column++) {
+                if ((row + column) % 5 == 0) {
+                    rows[row][column] = null;
+                }
+            }
+        }
+        return rows;
+    }
+
+    private static class TestingRecordCursor
+            implements RecordCursor
+    {
+        private final List<Type> types;
+        protected final Object[][] rows;
+        protected int row = -1;
+
+        public TestingRecordCursor(List<Type> types, Object[][] rows)
+        {
+            this.types = types;
+            this.rows = rows;
+        }
+
+        @Override
+        public long getCompletedBytes()
+        {
+            return 0;
+        }
+
+        @Override
+        public long getReadTimeNanos()
+        {
+            return 0;
+        }
+
+        @Override
+        public Type getType(int field)
+        {
+            return types.get(field);
+        }
+
+        @Override
+        public boolean advanceNextPosition()
+        {
+            if (row + 1 >= rows.length) {
+                return false;
+            }
+            row++;
+            return true;
+        }
+
+        @Override
+        public boolean getBoolean(int field)
+        {
+            return (Boolean) rows[row][field];
+        }
+
+        @Override
+        public long getLong(int field)
+        {
+            return (Long) rows[row][field];
+        }
+
+        @Override
+        public double getDouble(int field)
+        {
+            return (Double) rows[row][field];
+        }
+
+        @Override
+        public Slice getSlice(int field)
+        {
+            return (Slice) rows[row][field];
+        }
+
+        @Override
+        public Object getObject(int field)
+        {
+            return rows[row][field];
+        }
+
+        @Override
+        public boolean isNull(int field)
+        {
+            return rows[row][field] == null;
+        }
+
+        @Override
+        public void close() {}
+    }
+
+    private static class TestingBatchRecordCursor
+            extends TestingRecordCursor
+            implements BatchRecordCursor
+    {
+        private final int maxBatchSize;
+        private int batchStart;
+        private int batchSize;
+
+        public TestingBatchRecordCursor(List<Type> types, Object[][] rows, int maxBatchSize)
+        {
+            super(types, rows);
+            this.maxBatchSize = maxBatchSize;
+        }
+
+        @Override
+        public int advanceNextBatch(int maxRows)
+        {
+            batchStart += batchSize;
+            batchSize = Math.min(Math.min(maxRows, maxBatchSize), rows.length - batchStart);
+            return batchSize;
+        }
+
+        @Override
+        public boolean advanceNextPosition()
+        {
+            throw new AssertionError("the page source must read a batch cursor a batch at a time");
+        }
+
+        @Override
+        public boolean isNull(int field, int row)
+        {
+            return rows[batchStart + row][field] == null;
+        }
+
+        @Override
+        public boolean getBoolean(int field, int row)
+        {
+            return (Boolean) rows[batchStart + row][field];
+        }
+
+        @Override
+        public long getLong(int field, int row)
+        {
+            return (Long) rows[batchStart + row][field];
+        }
+
+        @Override
+        public double getDouble(int field, int row)
+        {
+            return (Double) rows[batchStart + row][field];
+        }
+
+        @Override
+        public Slice getSlice(int field, int row)
+        {
+            return (Slice) rows[batchStart + row][field];
+        }
+
+        @Override
+        public Object getObject(int field, int row)
+        {
+            return rows[batchStart + row][field];
+        }
+    }
+
+    // an int type that is not INTEGER or DATE, like INTERVAL YEAR TO MONTH of the engine
+    private static final class TestingIntervalYearMonthType
+            extends AbstractIntType
+    {
+        public static final TestingIntervalYearMonthType INTERVAL_YEAR_MONTH = new TestingIntervalYearMonthType();
+
+        private TestingIntervalYearMonthType()
+        {
+            super(new TypeSignature("testing_interval_year_month"));
+        }
+
+        @Override
+        public Object getObjectValue(ConnectorSession session, Block block, int position)
+        {
+            if (block.isNull(position)) {
+                return null;
+            }
+            return block.getInt(position, 0);
+        }
+    }
+}
@@ -0,0 +1,135 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.trino.spi.type;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.math.BigInteger;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@BenchmarkMode(Mode.AverageTime)
+@Fork(2)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@OperationsPerInvocation(BenchmarkInt128Math.POSITIONS)
+public class BenchmarkInt128Math
+{
+    static final int POSITIONS = 1024;
+
+    // size of the left operands, the right operands always fit in a long so that the products do not overflow
+    @Param({"SHORT", "LONG"})
+    private OperandSize operandSize = OperandSize.SHORT;
+
+    private final long[] leftHigh = new long[POSITIONS];
+    private final long[] leftLow = new long[POSITIONS];
+    private final long[] rightHigh = new long[POSITIONS];
+    private final long[] rightLow = new long[POSITIONS];
+    private final long[] result = new long[POSITIONS * 2];
+
+    @Setup
+    public void setup()
+    {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        for (int i = 0; i < POSITIONS; i++) {
+            Int128 left = operandSize.next(random);
+            Int128 right = OperandSize.SHORT.next(random);
+            leftHigh[i] = left.getHigh();
+            leftLow[i] = left.getLow();
+            rightHigh[i] = right.getHigh();
+            rightLow[i] = right.getLow();
+        }
+    }
+
+    @Benchmark
+    public long[] multiply()
+    {
+        for (int i = 0; i < POSITIONS; i++) {
+            Int128Math.multiply(leftHigh[i], leftLow[i], rightHigh[i], rightLow[i], result, i * 2);
+        }
+        return result;
+    }
+
+    @Benchmark
+    public long[] rescale()
+    {
+        for (int i = 0; i < POSITIONS; i++) {
+            Int128Math.rescale(leftHigh[i], leftLow[i], 4, result, i * 2);
+        }
+        return result;
+    }
+
+    @Benchmark
+    public long[] divideRoundUp()
+    {
+        for (int i = 0; i < POSITIONS; i++) {
+            Int128Math.divideRoundUp(leftHigh[i], leftLow[i], 2, rightHigh[i], rightLow[i], 0, result, i * 2);
+        }
+        return result;
+    }
+
+    public enum OperandSize
+    {
+        // fits in a long, takes the 64 bit fast paths
+        SHORT {
+            @Override
+            Int128 next(ThreadLocalRandom random)
+            {
+                return Int128.valueOf(nonZero(random, 1L << 31));
+            }
+        },
+        // does not fit in a long, takes the multi precision paths
+        LONG {
+            @Override
+            Int128 next(ThreadLocalRandom random)
+            {
+                return Int128.valueOf(BigInteger.valueOf(nonZero(random, 1L << 20)).shiftLeft(64).add(BigInteger.valueOf(random.nextLong() >>> 1)));
+            }
+        };
+
+        abstract Int128 next(ThreadLocalRandom random);
+
+        private static long nonZero(ThreadLocalRandom random, long bound)
+        {
+            long value = random.nextLong(1, bound);
+            return random.nextBoolean() ? value : -value;
+        }
+    }
+
+    public static void main(String[] args)
+            throws RunnerException
+    {
+        Options options = new OptionsBuilder()
+                .include(".*" + BenchmarkInt128Math.class.getSimpleName() + ".*")
+                .build();
+        new Runner(options).run();
+    }
+}
@@ -0,0 +1,154 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.trino.spi.type;
+
+import io.trino.spi.block.Block;
+import io.trino.spi.block.BlockBuilder;
+import org.testng.annotations.Test;
+
+import java.lang.invoke.MethodHandle;
+import java.util.List;
+import java.util.Objects;
+
+import static io.trino.spi.function.InvocationConvention.InvocationArgumentConvention.BLOCK_POSITION;
+import static io.trino.spi.function.InvocationConvention.InvocationReturnConvention.FAIL_ON_NULL;
+import static io.trino.spi.function.InvocationConvention.InvocationReturnConvention.NULLABLE_RETURN;
+import static io.trino.spi.function.InvocationConvention.simpleConvention;
+import static io.trino.spi.type.BigintType.BIGINT;
+import static io.trino.spi.type.BooleanType.BOOLEAN;
+import static io.trino.spi.type.DoubleType.DOUBLE;
+import static io.trino.spi.type.IntegerType.INTEGER;
+import static io.trino.spi.type.TypeUtils.NULL_HASH_CODE;
+import static io.trino.spi.type.TypeUtils.writeNativeValue;
+import static java.util.Arrays.asList;
+import static java.util.stream.Collectors.toList;
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class TestBatchTypeOperators
+{
+    private final TypeOperators typeOperators = new TypeOperators();
+
+    @Test
+    public void testBigint()
+    {
+        assertBatchOperators(BIGINT, asList(0L, 1L, -1L, Long.MIN_VALUE, Long.MAX_VALUE, null, 42L));
+    }
+
+    @Test
+    public void testDouble()
+    {
+        assertBatchOperators(DOUBLE, asList(0.0, -0.0, 1.5, Double.NaN, Double.NEGATIVE_INFINITY, null, Double.MAX_VALUE));
+    }
+
+    @Test
+    public void testInteger()
+    {
+        assertBatchOperators(INTEGER, asList(0L, 1L, -1L, (long) Integer.MIN_VALUE, null, 7L, 7L));
+    }
+
+    @Test
+    public void testBoolean()
+    {
+        assertBatchOperators(BOOLEAN, asList(true, false, null, true, false, false, true));
+    }
+
+    private void assertBatchOperators(Type type, List<?> values)
+    {
+        assertAllPairs(type, values);
+        // blocks without nulls take a different path
+        assertAllPairs(type, values.stream().filter(Objects::nonNull).collect(toList()));
+    }
+
+    private void assertAllPairs(Type type, List<?> values)
+    {
+        Block left = createBlock(type, values);
+        // pair every value with every other value, by rotating the values
+        for (int shift = 0; shift < values.size(); shift++) {
+            assertBatchOperators(type, left, createBlock(type, rotate(values, shift)));
+        }
+    }
+
+    private void assertBatchOperators(Type type, Block left, Block right)
+    {
+        MethodHandle hashCodeOperator = typeOperators.getHashCodeOperator(type, simpleConvention(FAIL_ON_NULL, BLOCK_POSITION));
+        MethodHandle equalOperator = typeOperators.getEqualOperator(type, simpleConvention(NULLABLE_RETURN, BLOCK_POSITION, BLOCK_POSITION));
+
+        int positionCount = left.getPositionCount();
+        int[] positions = new int[positionCount];
+        for (int i = 0; i < positionCount; i++) {
+            // visit the positions out of order
+            positions[i] = positionCount - 1 - i;
+        }
+
+        long[] hashes = new long[positionCount];
+        typeOperators.getBatchHashCodeOperator(type).hash(left, positions, positionCount, hashes);
+        boolean[] equal = new boolean[positionCount];
+        typeOperators.getBatchEqualOperator(type).equal(left, right, positions, positionCount, equal);
+
+        for (int i = 0; i < positionCount; i++) {
+            int position = positions[i];
+            assertThat(hashes[i]).isEqualTo(left.isNull(position) ? NULL_HASH_CODE : invokeHashCode(hashCodeOperator, left, position));
+            boolean expectedEqual = !left.isNull(position) && !right.isNull(position) && invokeEqual(equalOperator, left, position, right, position);
+            assertThat(equal[i]).isEqualTo(expectedEqual);
+        }
+
+        for (int valuePosition = 0; valuePosition < right.getPositionCount(); valuePosition++) {
+            boolean[] equalToValue = new boolean[positionCount];
+            typeOperators.getBatchEqualToValueOperator(type).equal(left, positions, positionCount, right, valuePosition, equalToValue);
+            for (int i = 0; i < positionCount; i++) {
+                int position = positions[i];
+                boolean expectedEqual = !left.isNull(position) && !right.isNull(valuePosition) && invokeEqual(equalOperator, left, position, right, valuePosition);
+                assertThat(equalToValue[i]).isEqualTo(expectedEqual);
+            }
+        }
+    }
+
+    private static long invokeHashCode(MethodHandle hashCodeOperator, Block block, int position)
+    {
+        try {
+            return (long) hashCodeOperator.invokeExact(block, position);
+        }
+        catch (Throwable throwable) {
+            throw new AssertionError(throwable);
+        }
+    }
+
+    private static boolean invokeEqual(MethodHandle equalOperator, Block left, int leftPosition, Block right, int rightPosition)
+    {
+        try {
+            return Boolean.TRUE.equals((Boolean) equalOperator.invokeExact(left, leftPosition, right, rightPosition));
+        }
+        catch (Throwable throwable) {
+            throw new AssertionError(throwable);
+        }
+    }
+
+    private static List<?> rotate(List<?> values, int shift)
+    {
+        Object[] rotated = new Object[values.size()];
+        for (int i = 0; i < values.size(); i++) {
+            rotated[(i + shift) % values.size()] = values.get(i);
+        }
+        return asList(rotated);
+    }
+
+    private static Block createBlock(Type type, List<?> values)
+    {
+        BlockBuilder blockBuilder = type.createBlockBuilder(null, values.size());
+        for (Object value : values) {
+            writeNativeValue(type, blockBuilder, value);
+        }
+        return blockBuilder.build();
+    }
+}
@@ -0,0 +1,211 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.trino.spi.type;
+
+import org.testng.annotations.Test;
+
+import java.math.BigInteger;
+import java.util.List;
+
+import static io.trino.spi.type.Int128Math.divideRoundUp;
+import static io.trino.spi.type.Int128Math.multiply;
+import static io.trino.spi.type.Int128Math.rescale;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class TestInt128Math
+{
+    private static final BigInteger MIN_INT128 = Int128.MIN_VALUE.toBigInteger();
+    private static final BigInteger MAX_INT128 = Int128.MAX_VALUE.toBigInteger();
+
+    // values that fit in a long take the 64 bit fast paths, the others the multi precision ones
+    private static final List<Int128> VALUES = List.of(
+            Int128.valueOf(0),
+            Int128.valueOf(1),
+            Int128.valueOf(-1),
+            Int128.valueOf(7),
+            Int128.valueOf(-7),
+            Int128.valueOf(10),
+            Int128.valueOf(123_456_789),
+            Int128.valueOf(-987_654_321),
+            Int128.valueOf(Integer.MAX_VALUE),
+            Int128.valueOf(Integer.MIN_VALUE),
+            Int128.valueOf(Long.MAX_VALUE / 10),
+            Int128.valueOf(1L << 62),
+            Int128.valueOf(-(1L << 62)),
+            Int128.valueOf(Long.MAX_VALUE),
+            Int128.valueOf(Long.MIN_VALUE),
+            Int128.valueOf("18446744073709551616"),
+            Int128.valueOf("-100000000000000000000000"),
+            Int128.valueOf("3000000000000000000000000000000"),
+            Int128.MAX_VALUE,
+            Int128.valueOf(MIN_INT128.add(BigInteger.ONE)));
+
+    @Test
+    public void testMultiply()
+    {
+        for (Int128 left : VALUES) {
+            for (Int128 right : VALUES) {
+                BigInteger expected = left.toBigInteger().multiply(right.toBigInteger());
+                if (fits(expected)) {
+                    assertThat(multiply(left, right).toBigInteger())
+                            .as("%s * %s", left, right)
+                            .isEqualTo(expected);
+
+                    long[] result = new long[3];
+                    multiply(left.getHigh(), left.getLow(), right.getHigh(), right.getLow(), result, 1);
+                    assertThat(Int128.valueOf(result[1], result[2]).toBigInteger())
+                            .as("%s * %s", left, right)
+                            .isEqualTo(expected);
+                }
+                else {
+                    assertThatThrownBy(() -> multiply(left, right))
+                            .as("%s * %s", left, right)
+                            .isInstanceOf(ArithmeticException.class);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testMultiplyLongs()
+    {
+        for (Int128 left : VALUES) {
+            for (Int128 right : VALUES) {
+                if (!isLong(left) || !isLong(right)) {
+                    continue;
+                }
+                BigInteger expected = left.toBigInteger().multiply(right.toBigInteger());
+                assertThat(multiply(left.getLow(), right.getLow()).toBigInteger())
+                        .as("%s * %s", left, right)
+                        .isEqualTo(expected);
+
+                long[] result = new long[2];
+                multiply(left.getLow(), right.getLow(), result, 0);
+                assertThat(Int128.valueOf(result).toBigInteger())
+                        .as("%s * %s", left, right)
+                        .isEqualTo(expected);
+
+                if (!fits(left.toBigInteger().shiftLeft(64)) || !fits(expected.shiftLeft(64))) {
+                    continue;
+                }
+                assertThat(multiplyMultiPrecision(left.getLow(), right.getLow()))
+                        .as("%s * %s", left, right)
+                        .isEqualTo(expected);
+            }
+        }
+    }
+
+    @Test
+    public void testRescale()
+    {
+        for (Int128 value : VALUES) {
+            for (int factor : new int[] {0, 1, 2, 9, 17, 18, 19, 30, 37}) {
+                BigInteger expected = value.toBigInteger().multiply(BigInteger.TEN.pow(factor));
+                if (fits(expected)) {
+                    assertThat(rescale(value, factor).toBigInteger())
+                            .as("%s * 10^%s", value, factor)
+                            .isEqualTo(expected);
+                }
+                else {
+                    assertThatThrownBy(() -> rescale(value, factor))
+                            .as("%s * 10^%s", value, factor)
+                            .isInstanceOf(ArithmeticException.class);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testDivideRoundUp()
+    {
+        for (Int128 dividend : VALUES) {
+            for (Int128 divisor : VALUES) {
+                if (divisor.isZero()) {
+                    continue;
+                }
+                for (int dividendScaleFactor : new int[] {0, 1, 5, 18, 19, 30}) {
+                    BigInteger expected = divideRoundUpExpected(dividend.toBigInteger(), dividendScaleFactor, divisor.toBigInteger());
+                    if (!fits(dividend.toBigInteger().multiply(BigInteger.TEN.pow(dividendScaleFactor))) || !fits(expected)) {
+                        continue;
+                    }
+                    assertThat(divideRoundUp(dividend.getHigh(), dividend.getLow(), dividendScaleFactor, divisor.getHigh(), divisor.getLow(), 0).toBigInteger())
+                            .as("%s * 10^%s / %s", dividend, dividendScaleFactor, divisor)
+                            .isEqualTo(expected);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testDivideRoundUpSmallMatchesMultiPrecision()
+    {
+        for (Int128 dividend : VALUES) {
+            for (Int128 divisor : VALUES) {
+                if (!isLong(dividend) || !isLong(divisor) || divisor.isZero()) {
+                    continue;
+                }
+                for (int dividendScaleFactor = 0; dividendScaleFactor <= 18; dividendScaleFactor++) {
+                    if (!fits(divisor.toBigInteger().shiftLeft(64)) || !fits(dividend.toBigInteger().multiply(BigInteger.TEN.pow(dividendScaleFactor)).shiftLeft(64))) {
+                        continue;
+                    }
+                    long[] small = new long[2];
+                    divideRoundUp(dividend.getHigh(), dividend.getLow(), dividendScaleFactor, divisor.getHigh(), divisor.getLow(), 0, small, 0);
+
+                    // operands shifted by 64 bits do not fit in a long and take the multi precision path, with the same quotient and rounding
+                    Int128 shiftedDividend = Int128.valueOf(dividend.toBigInteger().shiftLeft(64));
+                    Int128 shiftedDivisor = Int128.valueOf(divisor.toBigInteger().shiftLeft(64));
+                    long[] multiPrecision = new long[2];
+                    divideRoundUp(shiftedDividend.getHigh(), shiftedDividend.getLow(), dividendScaleFactor, shiftedDivisor.getHigh(), shiftedDivisor.getLow(), 0, multiPrecision, 0);
+
+                    assertThat(small)
+                            .as("%s * 10^%s / %s", dividend, dividendScaleFactor, divisor)
+                            .isEqualTo(multiPrecision);
+                }
+            }
+        }
+    }
+
+    private static BigInteger multiplyMultiPrecision(long left, long right)
+    {
+        // a left operand shifted by 64 bits does not fit in a long and takes the multi precision path
+        Int128 shiftedLeft = Int128.valueOf(BigInteger.valueOf(left).shiftLeft(64));
+        long[] result = new long[2];
+        multiply(shiftedLeft.getHigh(), shiftedLeft.getLow(), right >> 63, right, result, 0);
+        return Int128.valueOf(result).toBigInteger().shiftRight(64);
+    }
+
+    private static BigInteger divideRoundUpExpected(BigInteger dividend, int dividendScaleFactor, BigInteger divisor)
+    {
+        BigInteger rescaledDividend = dividend.abs().multiply(BigInteger.TEN.pow(dividendScaleFactor));
+        BigInteger[] quotientAndRemainder = rescaledDividend.divideAndRemainder(divisor.abs());
+        BigInteger quotient = quotientAndRemainder[0];
+        // round half away from zero
+        if (quotientAndRemainder[1].shiftLeft(1).compareTo(divisor.abs()) >= 0) {
+            quotient = quotient.add(BigInteger.ONE);
+        }
+        return dividend.signum() * divisor.signum() < 0 ? quotient.negate() : quotient;
+    }
+
+    private static boolean isLong(Int128 value)
+    {
+        return value.getHigh() == (value.getLow() >> 63);
+    }
+
+    private static boolean fits(BigInteger value)
+    {
+        // negating Int128.MIN_VALUE overflows, so the multi precision paths reject it
+        return value.compareTo(MIN_INT128) > 0 && value.compareTo(MAX_INT128) <= 0;
+    }
+}